@@ -0,0 +1,19 @@
+package se.bjurr.prnfb.http;
+
+/**
+ * State of the circuit breaker of a host, in the {@link DeliveryEngine}.
+ */
+public enum CircuitState {
+ /**
+  * Invocations are made.
+  */
+ CLOSED,
+ /**
+  * One invocation is made, to see if the host is back. Others wait for it.
+  */
+ HALF_OPEN,
+ /**
+  * Invocations fail without being made.
+  */
+ OPEN
+}
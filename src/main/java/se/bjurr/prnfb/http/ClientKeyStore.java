@@ -1,30 +1,108 @@
 package se.bjurr.prnfb.http;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.hash.Hashing.sha256;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import se.bjurr.prnfb.settings.PrnfbSettingsData;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * A keystore based on the definition from the application properties.<br>
  * <br>
  * Inspired by:<br>
- * Philip Dodds (pdodds) https://github.com/pdodds
+ * Philip Dodds (pdodds) https://github.com/pdodds<br>
+ * <br>
+ * Use {@link #clientKeyStore(PrnfbSettingsData)}, it only reads the keystore file when the file, or the settings
+ * pointing to it, have changed.
  */
 public class ClientKeyStore {
+ private static class ClientKeyStoreKey {
+  private final long keyStoreLastModified;
+  private final String keyStorePath;
+  private final String keyStoreType;
+  private final String passwordHash;
+
+  public ClientKeyStoreKey(PrnfbSettingsData settings) {
+   this.keyStorePath = settings.getKeyStore().orNull();
+   this.keyStoreType = settings.getKeyStoreType();
+   this.keyStoreLastModified = this.keyStorePath == null ? 0 : new File(this.keyStorePath).lastModified();
+   this.passwordHash = settings.getKeyStorePassword().isPresent() ? sha256().hashString(
+     settings.getKeyStorePassword().get(), UTF_8).toString() : null;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   ClientKeyStoreKey other = (ClientKeyStoreKey) obj;
+   return this.keyStoreLastModified == other.keyStoreLastModified //
+     && Objects.equal(this.keyStorePath, other.keyStorePath) //
+     && Objects.equal(this.keyStoreType, other.keyStoreType) //
+     && Objects.equal(this.passwordHash, other.passwordHash);
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.keyStoreLastModified, this.keyStorePath, this.keyStoreType, this.passwordHash);
+  }
+ }
+
+ private static final Cache<ClientKeyStoreKey, ClientKeyStore> clientKeyStores = CacheBuilder.newBuilder()//
+   .maximumSize(10)//
+   .build();
+
+ /**
+  * The keystore defined by the settings, loaded from file only if it has not been loaded before or the file has
+  * been modified since.
+  */
+ public static ClientKeyStore clientKeyStore(final PrnfbSettingsData settings) {
+  try {
+   return clientKeyStores.get(new ClientKeyStoreKey(settings), new Callable<ClientKeyStore>() {
+    @Override
+    public ClientKeyStore call() {
+     return new ClientKeyStore(settings);
+    }
+   });
+  } catch (ExecutionException | UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  }
+ }
 
  private KeyStore keyStore = null;
+ private long keyStoreLastModified = 0;
+ private String keyStorePath = null;
+ private String keyStoreType = null;
  private char[] password = null;
 
  public ClientKeyStore(PrnfbSettingsData settings) {
   if (settings.getKeyStore().isPresent()) {
+   this.keyStorePath = settings.getKeyStore().get();
+   this.keyStoreType = settings.getKeyStoreType();
    File keyStoreFile = new File(settings.getKeyStore().get());
+   this.keyStoreLastModified = keyStoreFile.lastModified();
    try {
     this.keyStore = getKeyStore(settings.getKeyStoreType());
 
@@ -32,13 +110,53 @@ public class ClientKeyStore {
      this.password = settings.getKeyStorePassword().get().toCharArray();
     }
 
-    this.keyStore.load(new FileInputStream(keyStoreFile), this.password);
+    try (InputStream in = new FileInputStream(keyStoreFile)) {
+     this.keyStore.load(in, this.password);
+    }
    } catch (Exception e) {
     throw new RuntimeException("Unable to build keystore from " + keyStoreFile.getAbsolutePath(), e);
    }
   }
  }
 
+ /**
+  * Equal if loaded from the same, unchanged, file, of the same type, with the same password.
+  */
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  ClientKeyStore other = (ClientKeyStore) obj;
+  if (this.keyStoreLastModified != other.keyStoreLastModified) {
+   return false;
+  }
+  if (this.keyStorePath == null) {
+   if (other.keyStorePath != null) {
+    return false;
+   }
+  } else if (!this.keyStorePath.equals(other.keyStorePath)) {
+   return false;
+  }
+  if (this.keyStoreType == null) {
+   if (other.keyStoreType != null) {
+    return false;
+   }
+  } else if (!this.keyStoreType.equals(other.keyStoreType)) {
+   return false;
+  }
+  if (!Arrays.equals(this.password, other.password)) {
+   return false;
+  }
+  return true;
+ }
+
  public Optional<KeyStore> getKeyStore() {
   return fromNullable(this.keyStore);
  }
@@ -47,6 +165,17 @@ public class ClientKeyStore {
   return this.password;
  }
 
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + (int) (this.keyStoreLastModified ^ this.keyStoreLastModified >>> 32);
+  result = prime * result + (this.keyStorePath == null ? 0 : this.keyStorePath.hashCode());
+  result = prime * result + (this.keyStoreType == null ? 0 : this.keyStoreType.hashCode());
+  result = prime * result + Arrays.hashCode(this.password);
+  return result;
+ }
+
  private KeyStore getKeyStore(String keyStoreType) throws KeyStoreException {
   if (keyStoreType != null) {
    return KeyStore.getInstance(keyStoreType);
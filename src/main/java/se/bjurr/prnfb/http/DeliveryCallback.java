@@ -0,0 +1,16 @@
+package se.bjurr.prnfb.http;
+
+/**
+ * Told when an invocation handed to {@link DeliveryEngine} is done. Called from a delivery thread.
+ */
+public interface DeliveryCallback {
+ /**
+  * A response was received, with any status.
+  */
+ void completed(UrlInvoker urlInvoker);
+
+ /**
+  * No response was received, or the invocation was never made.
+  */
+ void failed(UrlInvoker urlInvoker, Exception e);
+}
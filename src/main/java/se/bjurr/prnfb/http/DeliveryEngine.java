@@ -0,0 +1,518 @@
+package se.bjurr.prnfb.http;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+import static se.bjurr.prnfb.http.CircuitState.CLOSED;
+import static se.bjurr.prnfb.http.CircuitState.HALF_OPEN;
+import static se.bjurr.prnfb.http.CircuitState.OPEN;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Delivers notifications on threads owned by the plugin, instead of on the executor shared with Bitbucket. A fixed
+ * number of threads is used, however slow the receivers are.<br>
+ * <br>
+ * Invocations are grouped by host. At most {@link DeliveryLimits#getMaxConcurrent()} invocations to the same host are
+ * in flight at the same time, and if the host is rate limited they are started no faster than
+ * {@link DeliveryLimits#getPermitsPerSecond()}. The rest wait in a queue for that host. So that a slow, or
+ * unresponsive, host can only occupy some of the threads and other hosts are still delivered to. When notifications
+ * with different limits invoke the same host, the host uses the strictest of the limits of the invocations waiting
+ * for it, or in flight to it.<br>
+ * <br>
+ * Each host also has a circuit breaker. When {@link DeliveryLimits#getFailureThreshold()} invocations in a row got no
+ * response, it opens and invocations to the host fail without being made, instead of waiting for timeouts. After
+ * {@link DeliveryLimits#getOpenSeconds()} one invocation is let through, and if it gets a response the breaker is
+ * closed again.<br>
+ * <br>
+ * A host is forgotten when it is idle, or when it has not been used for {@link #UNUSED_HOST_NANOS} and its circuit
+ * breaker is not open, or has been open long enough. So that hosts that are invoked once do not accumulate.
+ */
+public class DeliveryEngine implements DisposableBean {
+ private static class Delivery {
+  private final DeliveryCallback callback;
+  private final Invoker invoker;
+  /**
+   * Made to find out if a host with an open circuit breaker is back.
+   */
+  private boolean trial;
+  private final UrlInvoker urlInvoker;
+
+  public Delivery(UrlInvoker urlInvoker, Invoker invoker, DeliveryCallback callback) {
+   this.urlInvoker = urlInvoker;
+   this.invoker = invoker;
+   this.callback = callback;
+  }
+ }
+
+ /**
+  * The rate limit is a token bucket. It holds at most {@link DeliveryLimits#getBurst()} tokens, is refilled with
+  * {@link DeliveryLimits#getPermitsPerSecond()} tokens per second and every invocation takes one token.
+  */
+ private static class HostQueue {
+  private CircuitState circuitState = CLOSED;
+  private int consecutiveFailures;
+  /**
+   * The strictest of {@link #queuedLimits}, or the latest if none are queued.
+   */
+  private DeliveryLimits deliveryLimits = DeliveryLimits.DEFAULT;
+  private int inFlight;
+  private long openedAt;
+  /**
+   * Limits of the invocations waiting, or in flight.
+   */
+  private final Multiset<DeliveryLimits> queuedLimits = HashMultiset.create();
+  private long refilledAt;
+  private double tokens;
+  private boolean trialInFlight;
+  private long usedAt;
+  private final Queue<Delivery> waiting = new ArrayDeque<>();
+  private boolean wakeUpScheduled;
+
+  public HostQueue(long now) {
+   this.refilledAt = now;
+   this.usedAt = now;
+   this.tokens = this.deliveryLimits.getBurst();
+  }
+
+  public void dequeued(Delivery delivery) {
+   this.queuedLimits.remove(delivery.urlInvoker.getDeliveryLimits());
+   if (!this.queuedLimits.isEmpty()) {
+    this.deliveryLimits = DeliveryLimits.strictest(this.queuedLimits.elementSet());
+   }
+  }
+
+  public void done(Delivery delivery) {
+   this.inFlight--;
+   dequeued(delivery);
+   if (delivery.trial) {
+    this.trialInFlight = false;
+   }
+  }
+
+  /**
+   * Nothing to do, and nothing to remember, for the host.
+   */
+  public boolean isIdle() {
+   return this.inFlight == 0 && this.waiting.isEmpty() && !this.wakeUpScheduled
+     && this.circuitState == CLOSED && this.consecutiveFailures == 0
+     && (!this.deliveryLimits.isRateLimited() || this.tokens >= this.deliveryLimits.getBurst());
+  }
+
+  /**
+   * Nothing in flight or waiting, and not used for a while. If the circuit breaker is open, it has been open long
+   * enough to let the next invocation through anyway.
+   */
+  public boolean isUnused(long now) {
+   return this.inFlight == 0 && this.waiting.isEmpty() && !this.wakeUpScheduled
+     && now - this.usedAt >= UNUSED_HOST_NANOS
+     && (this.circuitState != OPEN || now - this.openedAt >= SECONDS.toNanos(this.deliveryLimits.getOpenSeconds()));
+  }
+
+  public void queued(Delivery delivery) {
+   this.queuedLimits.add(delivery.urlInvoker.getDeliveryLimits());
+   this.deliveryLimits = DeliveryLimits.strictest(this.queuedLimits.elementSet());
+  }
+
+  public void refill(long now) {
+   if (this.deliveryLimits.isRateLimited()) {
+    double refilled = this.tokens + (now - this.refilledAt) * this.deliveryLimits.getPermitsPerSecond()
+      / SECONDS.toNanos(1);
+    this.tokens = Math.min(this.deliveryLimits.getBurst(), refilled);
+   } else {
+    this.tokens = this.deliveryLimits.getBurst();
+   }
+   this.refilledAt = now;
+  }
+ }
+
+ private static final Logger LOG = getLogger(DeliveryEngine.class);
+ @VisibleForTesting
+ static final int MAX_WAITING_PER_HOST = 1000;
+ static final int THREADS = 10;
+ @VisibleForTesting
+ static final long UNUSED_HOST_NANOS = MINUTES.toNanos(10);
+
+ /**
+  * Not a constructor, so that it is not mistaken for one to inject an {@link ExecutorService} in.
+  */
+ @VisibleForTesting
+ public static DeliveryEngine deliveryEngine(ExecutorService executorService) {
+  return new DeliveryEngine(executorService, newScheduler(), Ticker.systemTicker());
+ }
+
+ private static ScheduledExecutorService newScheduler() {
+  return newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()//
+    .setNameFormat("prnfb-throttle-%d")//
+    .setDaemon(true)//
+    .build());
+ }
+
+ @VisibleForTesting
+ static DeliveryEngine deliveryEngine(ExecutorService executorService, ScheduledExecutorService scheduler,
+   Ticker ticker) {
+  return new DeliveryEngine(executorService, scheduler, ticker);
+ }
+
+ /**
+  * Host and port of the invocation. Invocations are throttled, and measured, per host.
+  */
+ static String getHost(UrlInvoker urlInvoker) {
+  try {
+   URI uri = new URI(urlInvoker.getUrlParam());
+   return uri.getHost() + ":" + uri.getPort();
+  } catch (Exception e) {
+   return "";
+  }
+ }
+
+ private final ExecutorService executorService;
+ /**
+  * Key is host and port.
+  */
+ private final Map<String, HostQueue> hosts = newHashMap();
+ /**
+  * Starts waiting invocations when a rate limited host has tokens again, and forgets unused hosts.
+  */
+ private final ScheduledExecutorService scheduler;
+ private final Ticker ticker;
+
+ public DeliveryEngine() {
+  this(newFixedThreadPool(THREADS, new ThreadFactoryBuilder()//
+    .setNameFormat("prnfb-delivery-%d")//
+    .setDaemon(true)//
+    .build()), newScheduler(), Ticker.systemTicker());
+ }
+
+ private DeliveryEngine(ExecutorService executorService, ScheduledExecutorService scheduler, Ticker ticker) {
+  this.executorService = executorService;
+  this.scheduler = scheduler;
+  this.ticker = ticker;
+  this.scheduler.scheduleWithFixedDelay(new Runnable() {
+   @Override
+   public void run() {
+    removeUnusedHosts();
+   }
+  }, 1, 1, MINUTES);
+ }
+
+ /**
+  * Queues the invocation and returns immediately. The given invoker is used to do the invocation, and the callback
+  * is told when it is done.
+  */
+ public void deliver(UrlInvoker urlInvoker, Invoker invoker, DeliveryCallback callback) {
+  Delivery delivery = new Delivery(urlInvoker, invoker, callback);
+  String host = getHost(urlInvoker);
+  List<Delivery> startable = null;
+  String rejectedBecause = null;
+  synchronized (this.hosts) {
+   long now = this.ticker.read();
+   HostQueue hostQueue = this.hosts.get(host);
+   if (hostQueue == null) {
+    hostQueue = new HostQueue(now);
+    this.hosts.put(host, hostQueue);
+   }
+   hostQueue.usedAt = now;
+   hostQueue.refill(now);
+   if (!isInvocationAllowed(host, hostQueue, urlInvoker.getDeliveryLimits(), now)) {
+    rejectedBecause = "Circuit breaker open for " + host;
+   } else if (hostQueue.waiting.size() >= MAX_WAITING_PER_HOST) {
+    rejectedBecause = "Too many waiting invocations to " + host;
+   } else {
+    hostQueue.waiting.add(delivery);
+    hostQueue.queued(delivery);
+    startable = takeStartable(host, hostQueue);
+   }
+  }
+  if (rejectedBecause != null) {
+   callback.failed(urlInvoker, new RejectedExecutionException(rejectedBecause));
+   return;
+  }
+  submit(host, startable);
+ }
+
+ @Override
+ public void destroy() {
+  this.scheduler.shutdownNow();
+  this.executorService.shutdownNow();
+  HttpClientPool.closeAll();
+  UrlInvoker.shutdownDeadlines();
+ }
+
+ /**
+  * Current state of all hosts that have invocations in flight, waiting, or are rate limited.
+  */
+ public List<HostState> getHostStates() {
+  List<HostState> hostStates = newArrayList();
+  synchronized (this.hosts) {
+   long now = this.ticker.read();
+   for (Entry<String, HostQueue> entry : this.hosts.entrySet()) {
+    HostQueue hostQueue = entry.getValue();
+    hostQueue.refill(now);
+    hostStates.add(new HostState(entry.getKey(), hostQueue.inFlight, hostQueue.waiting.size(),
+      hostQueue.deliveryLimits, hostQueue.tokens, hostQueue.circuitState, hostQueue.consecutiveFailures));
+   }
+  }
+  return hostStates;
+ }
+
+ @VisibleForTesting
+ int getInFlight(String host) {
+  synchronized (this.hosts) {
+   HostQueue hostQueue = this.hosts.get(host);
+   return hostQueue == null ? 0 : hostQueue.inFlight;
+  }
+ }
+
+ @VisibleForTesting
+ int getWaiting(String host) {
+  synchronized (this.hosts) {
+   HostQueue hostQueue = this.hosts.get(host);
+   return hostQueue == null ? 0 : hostQueue.waiting.size();
+  }
+ }
+
+ /**
+  * Forgets hosts that are not idle, because their circuit breaker is not closed or they failed recently, but have not
+  * been used for a while.
+  */
+ @VisibleForTesting
+ void removeUnusedHosts() {
+  synchronized (this.hosts) {
+   long now = this.ticker.read();
+   Iterator<HostQueue> hostQueues = this.hosts.values().iterator();
+   while (hostQueues.hasNext()) {
+    if (hostQueues.next().isUnused(now)) {
+     hostQueues.remove();
+    }
+   }
+  }
+ }
+
+ /**
+  * Starts invocations that were waiting for the rate limit.
+  */
+ @VisibleForTesting
+ void wakeUp(String host) {
+  List<Delivery> startable;
+  synchronized (this.hosts) {
+   HostQueue hostQueue = this.hosts.get(host);
+   if (hostQueue == null) {
+    return;
+   }
+   hostQueue.wakeUpScheduled = false;
+   startable = takeStartable(host, hostQueue);
+   if (hostQueue.isIdle()) {
+    this.hosts.remove(host);
+   }
+  }
+  submit(host, startable);
+ }
+
+ /**
+  * The callback is told after the outcome is known, and if it throws that does not change the outcome. So that a bug
+  * in a callback is never counted as a failure of the host.
+  *
+  * @return true if a response was received.
+  */
+ private boolean doDeliver(Delivery delivery) {
+  Exception failure = null;
+  try {
+   delivery.invoker.invoke(delivery.urlInvoker);
+   failure = delivery.urlInvoker.getException().orNull();
+  } catch (Exception e) {
+   failure = e;
+  }
+  try {
+   if (failure != null) {
+    delivery.callback.failed(delivery.urlInvoker, failure);
+   } else {
+    delivery.callback.completed(delivery.urlInvoker);
+   }
+  } catch (Exception e) {
+   LOG.error("Callback failed for " + delivery.urlInvoker.getUrlParam(), e);
+  }
+  return failure == null;
+ }
+
+ private void done(String host, Delivery delivery, boolean responded) {
+  List<Delivery> startable;
+  List<Delivery> rejected = newArrayList();
+  synchronized (this.hosts) {
+   HostQueue hostQueue = this.hosts.get(host);
+   hostQueue.done(delivery);
+   if (hostQueue.deliveryLimits.hasCircuitBreaker()) {
+    updateCircuitState(host, hostQueue, delivery, responded, rejected);
+   }
+   startable = takeStartable(host, hostQueue);
+   if (hostQueue.isIdle()) {
+    this.hosts.remove(host);
+   }
+  }
+  for (Delivery r : rejected) {
+   r.callback.failed(r.urlInvoker, new RejectedExecutionException("Circuit breaker open for " + host));
+  }
+  submit(host, startable);
+ }
+
+ /**
+  * Must be called with the lock held. Half opens an open circuit breaker, if it has been open long enough, to let a
+  * trial invocation through. The circuit breaker is configured globally, so the limits of the invocation are as good
+  * as those of the host.
+  */
+ private boolean isInvocationAllowed(String host, HostQueue hostQueue, DeliveryLimits deliveryLimits, long now) {
+  if (!deliveryLimits.hasCircuitBreaker()) {
+   hostQueue.circuitState = CLOSED;
+   hostQueue.consecutiveFailures = 0;
+   return true;
+  }
+  if (hostQueue.circuitState != OPEN) {
+   return true;
+  }
+  if (now - hostQueue.openedAt < SECONDS.toNanos(deliveryLimits.getOpenSeconds())) {
+   return false;
+  }
+  hostQueue.circuitState = HALF_OPEN;
+  LOG.info("Circuit breaker for " + host + " half open, trying one invocation");
+  return true;
+ }
+
+ private void open(String host, HostQueue hostQueue, List<Delivery> rejected) {
+  hostQueue.circuitState = OPEN;
+  hostQueue.openedAt = this.ticker.read();
+  for (Delivery delivery : hostQueue.waiting) {
+   hostQueue.dequeued(delivery);
+   rejected.add(delivery);
+  }
+  hostQueue.waiting.clear();
+  LOG.warn("Circuit breaker for " + host + " open after " + hostQueue.consecutiveFailures
+    + " failed invocations in a row, invocations fail fast for " + hostQueue.deliveryLimits.getOpenSeconds()
+    + " seconds");
+ }
+
+ /**
+  * The invocation was never made, because the plugin is being disabled. Its place is freed without counting it as a
+  * failure of the host, and nothing more is started.
+  */
+ private void released(String host, Delivery delivery) {
+  synchronized (this.hosts) {
+   HostQueue hostQueue = this.hosts.get(host);
+   hostQueue.done(delivery);
+   if (hostQueue.isIdle()) {
+    this.hosts.remove(host);
+   }
+  }
+ }
+
+ private void scheduleWakeUp(final String host, HostQueue hostQueue) {
+  if (hostQueue.wakeUpScheduled) {
+   return;
+  }
+  hostQueue.wakeUpScheduled = true;
+  long delay = (long) Math.ceil((1 - hostQueue.tokens) * SECONDS.toNanos(1)
+    / hostQueue.deliveryLimits.getPermitsPerSecond());
+  this.scheduler.schedule(new Runnable() {
+   @Override
+   public void run() {
+    wakeUp(host);
+   }
+  }, delay, NANOSECONDS);
+ }
+
+ private void submit(final String host, List<Delivery> deliveries) {
+  for (final Delivery delivery : deliveries) {
+   try {
+    this.executorService.execute(new Runnable() {
+     @Override
+     public void run() {
+      boolean responded = false;
+      try {
+       responded = doDeliver(delivery);
+      } finally {
+       done(host, delivery, responded);
+      }
+     }
+    });
+   } catch (RejectedExecutionException e) {
+    delivery.callback.failed(delivery.urlInvoker, e);
+    released(host, delivery);
+   }
+  }
+ }
+
+ /**
+  * Takes the waiting invocations that may be started now, and counts them as in flight. If invocations are waiting
+  * only for the rate limit, they are started when there are tokens again.
+  */
+ private List<Delivery> takeStartable(String host, HostQueue hostQueue) {
+  List<Delivery> startable = newArrayList();
+  hostQueue.refill(this.ticker.read());
+  while (!hostQueue.waiting.isEmpty() && hostQueue.inFlight < hostQueue.deliveryLimits.getMaxConcurrent()) {
+   if (hostQueue.circuitState == HALF_OPEN && hostQueue.trialInFlight) {
+    break;
+   }
+   if (hostQueue.deliveryLimits.isRateLimited()) {
+    if (hostQueue.tokens < 1) {
+     scheduleWakeUp(host, hostQueue);
+     break;
+    }
+    hostQueue.tokens--;
+   }
+   Delivery delivery = hostQueue.waiting.poll();
+   if (hostQueue.circuitState == HALF_OPEN) {
+    delivery.trial = true;
+    hostQueue.trialInFlight = true;
+   }
+   hostQueue.inFlight++;
+   startable.add(delivery);
+  }
+  return startable;
+ }
+
+ /**
+  * Must be called with the lock held. Only the trial invocation decides what happens to a breaker that is not
+  * closed, invocations started before it opened do not. When the breaker opens the waiting invocations are rejected.
+  */
+ private void updateCircuitState(String host, HostQueue hostQueue, Delivery delivery, boolean responded,
+   List<Delivery> rejected) {
+  if (delivery.trial) {
+   if (responded) {
+    hostQueue.circuitState = CLOSED;
+    hostQueue.consecutiveFailures = 0;
+    LOG.info("Circuit breaker for " + host + " closed, host responded");
+   } else {
+    hostQueue.consecutiveFailures++;
+    open(host, hostQueue, rejected);
+   }
+  } else if (hostQueue.circuitState == CLOSED) {
+   if (responded) {
+    hostQueue.consecutiveFailures = 0;
+   } else if (++hostQueue.consecutiveFailures >= hostQueue.deliveryLimits.getFailureThreshold()) {
+    open(host, hostQueue, rejected);
+   }
+  }
+ }
+}
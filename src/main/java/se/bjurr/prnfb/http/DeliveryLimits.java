@@ -0,0 +1,182 @@
+package se.bjurr.prnfb.http;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Limits on the invocations to one host, enforced by the {@link DeliveryEngine}. The rate and concurrency are
+ * configured per notification, the circuit breaker in the global settings.
+ */
+public class DeliveryLimits {
+ @VisibleForTesting
+ static final int DEFAULT_FAILURE_THRESHOLD = 5;
+ @VisibleForTesting
+ static final int DEFAULT_MAX_CONCURRENT = 3;
+ @VisibleForTesting
+ static final int DEFAULT_OPEN_SECONDS = 30;
+ public static final DeliveryLimits DEFAULT = new DeliveryLimits(DEFAULT_MAX_CONCURRENT, 0, 1,
+   DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_SECONDS);
+ /**
+  * Half of the threads of the {@link DeliveryEngine}, so that one slow host can never occupy all of them.
+  */
+ public static final int MAX_CONCURRENT = DeliveryEngine.THREADS / 2;
+
+ /**
+  * The limits configured, defaults for those that are not configured.
+  */
+ public static DeliveryLimits deliveryLimits(PrnfbNotification notification, PrnfbSettingsData settings) {
+  int maxConcurrent = notification.getMaxConcurrent() != null && notification.getMaxConcurrent() > 0 //
+    ? Math.min(notification.getMaxConcurrent(), MAX_CONCURRENT) //
+    : DEFAULT_MAX_CONCURRENT;
+  double permitsPerSecond = notification.getRateLimitPerSecond() != null
+    && notification.getRateLimitPerSecond() > 0 //
+    ? notification.getRateLimitPerSecond() //
+    : 0;
+  int burst = notification.getRateLimitBurst() != null && notification.getRateLimitBurst() > 0 //
+    ? notification.getRateLimitBurst() //
+    : 1;
+  int failureThreshold = Math.max(0, settings.getCircuitBreakerFailureThreshold().or(DEFAULT_FAILURE_THRESHOLD));
+  int openSeconds = Math.max(1, settings.getCircuitBreakerOpenSeconds().or(DEFAULT_OPEN_SECONDS));
+  return new DeliveryLimits(maxConcurrent, permitsPerSecond, burst, failureThreshold, openSeconds);
+ }
+
+ /**
+  * The strictest of the given limits, at least one. Used when notifications with different limits invoke the same
+  * host.
+  */
+ public static DeliveryLimits strictest(Iterable<DeliveryLimits> deliveryLimits) {
+  int maxConcurrent = Integer.MAX_VALUE;
+  double permitsPerSecond = 0;
+  int burst = Integer.MAX_VALUE;
+  int failureThreshold = 0;
+  int openSeconds = 1;
+  for (DeliveryLimits candidate : deliveryLimits) {
+   maxConcurrent = Math.min(maxConcurrent, candidate.maxConcurrent);
+   if (candidate.isRateLimited()) {
+    permitsPerSecond = permitsPerSecond == 0 //
+      ? candidate.permitsPerSecond //
+      : Math.min(permitsPerSecond, candidate.permitsPerSecond);
+    burst = Math.min(burst, candidate.burst);
+   }
+   if (candidate.hasCircuitBreaker()) {
+    failureThreshold = failureThreshold == 0 //
+      ? candidate.failureThreshold //
+      : Math.min(failureThreshold, candidate.failureThreshold);
+   }
+   openSeconds = Math.max(openSeconds, candidate.openSeconds);
+  }
+  if (permitsPerSecond == 0) {
+   burst = 1;
+  }
+  return new DeliveryLimits(maxConcurrent, permitsPerSecond, burst, failureThreshold, openSeconds);
+ }
+
+ private final int burst;
+ private final int failureThreshold;
+ private final int maxConcurrent;
+ private final int openSeconds;
+ private final double permitsPerSecond;
+
+ @VisibleForTesting
+ DeliveryLimits(int maxConcurrent, double permitsPerSecond, int burst, int failureThreshold, int openSeconds) {
+  this.maxConcurrent = maxConcurrent;
+  this.permitsPerSecond = permitsPerSecond;
+  this.burst = burst;
+  this.failureThreshold = failureThreshold;
+  this.openSeconds = openSeconds;
+ }
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  DeliveryLimits other = (DeliveryLimits) obj;
+  if (this.burst != other.burst) {
+   return false;
+  }
+  if (this.failureThreshold != other.failureThreshold) {
+   return false;
+  }
+  if (this.maxConcurrent != other.maxConcurrent) {
+   return false;
+  }
+  if (this.openSeconds != other.openSeconds) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.permitsPerSecond) != Double.doubleToLongBits(other.permitsPerSecond)) {
+   return false;
+  }
+  return true;
+ }
+
+ /**
+  * Number of invocations that may be started at once, after a period without invocations.
+  */
+ public int getBurst() {
+  return this.burst;
+ }
+
+ /**
+  * Number of failed invocations in a row that opens the circuit breaker of the host. Zero if there is no circuit
+  * breaker.
+  */
+ public int getFailureThreshold() {
+  return this.failureThreshold;
+ }
+
+ public int getMaxConcurrent() {
+  return this.maxConcurrent;
+ }
+
+ /**
+  * For how long invocations fail fast, once the circuit breaker has opened, before one invocation is let through to
+  * see if the host is back.
+  */
+ public int getOpenSeconds() {
+  return this.openSeconds;
+ }
+
+ /**
+  * Zero if not rate limited.
+  */
+ public double getPermitsPerSecond() {
+  return this.permitsPerSecond;
+ }
+
+ public boolean hasCircuitBreaker() {
+  return this.failureThreshold > 0;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + this.burst;
+  result = prime * result + this.failureThreshold;
+  result = prime * result + this.maxConcurrent;
+  result = prime * result + this.openSeconds;
+  long temp = Double.doubleToLongBits(this.permitsPerSecond);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  return result;
+ }
+
+ public boolean isRateLimited() {
+  return this.permitsPerSecond > 0;
+ }
+
+ @Override
+ public String toString() {
+  return "DeliveryLimits [maxConcurrent=" + this.maxConcurrent + ", permitsPerSecond=" + this.permitsPerSecond
+    + ", burst=" + this.burst + ", failureThreshold=" + this.failureThreshold + ", openSeconds=" + this.openSeconds
+    + "]";
+ }
+}
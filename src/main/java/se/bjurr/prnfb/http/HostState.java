@@ -0,0 +1,69 @@
+package se.bjurr.prnfb.http;
+
+/**
+ * What the {@link DeliveryEngine} is doing with one host, at one point in time.
+ */
+public class HostState {
+ private final CircuitState circuitState;
+ private final int consecutiveFailures;
+ private final DeliveryLimits deliveryLimits;
+ private final String host;
+ private final int inFlight;
+ private final double tokens;
+ private final int waiting;
+
+ public HostState(String host, int inFlight, int waiting, DeliveryLimits deliveryLimits, double tokens,
+   CircuitState circuitState, int consecutiveFailures) {
+  this.host = host;
+  this.inFlight = inFlight;
+  this.waiting = waiting;
+  this.deliveryLimits = deliveryLimits;
+  this.tokens = tokens;
+  this.circuitState = circuitState;
+  this.consecutiveFailures = consecutiveFailures;
+ }
+
+ public CircuitState getCircuitState() {
+  return this.circuitState;
+ }
+
+ /**
+  * Number of invocations in a row that got no response.
+  */
+ public int getConsecutiveFailures() {
+  return this.consecutiveFailures;
+ }
+
+ public DeliveryLimits getDeliveryLimits() {
+  return this.deliveryLimits;
+ }
+
+ /**
+  * Host and port.
+  */
+ public String getHost() {
+  return this.host;
+ }
+
+ public int getInFlight() {
+  return this.inFlight;
+ }
+
+ /**
+  * Number of invocations that may be started now, as far as the rate limit is concerned.
+  */
+ public double getTokens() {
+  return this.tokens;
+ }
+
+ public int getWaiting() {
+  return this.waiting;
+ }
+
+ @Override
+ public String toString() {
+  return "HostState [host=" + this.host + ", inFlight=" + this.inFlight + ", waiting=" + this.waiting
+    + ", deliveryLimits=" + this.deliveryLimits + ", tokens=" + this.tokens + ", circuitState=" + this.circuitState
+    + ", consecutiveFailures=" + this.consecutiveFailures + "]";
+ }
+}
@@ -0,0 +1,117 @@
+package se.bjurr.prnfb.http;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Long lived HTTP clients, with pooled connections. One for each combination of SSL, keystore and proxy settings. So
+ * that connections to an endpoint that is invoked often are kept alive and reused, instead of doing a new TCP and TLS
+ * handshake for every invocation.<br>
+ * <br>
+ * Clients that have not been used for a while are closed, along with their connections.
+ */
+class HttpClientPool {
+ private static class HttpClientKey {
+  private final ClientKeyStore clientKeyStore;
+  private final Optional<String> proxyHost;
+  private final Optional<String> proxyPassword;
+  private final Optional<Integer> proxyPort;
+  private final Optional<String> proxyUser;
+  private final boolean shouldAcceptAnyCertificate;
+
+  public HttpClientKey(UrlInvoker urlInvoker) {
+   this.clientKeyStore = urlInvoker.getClientKeyStore();
+   this.proxyHost = urlInvoker.getProxyHost();
+   this.proxyPassword = urlInvoker.getProxyPassword();
+   this.proxyPort = urlInvoker.getProxyPort();
+   this.proxyUser = urlInvoker.getProxyUser();
+   this.shouldAcceptAnyCertificate = urlInvoker.shouldAcceptAnyCertificate();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   HttpClientKey other = (HttpClientKey) obj;
+   return this.shouldAcceptAnyCertificate == other.shouldAcceptAnyCertificate //
+     && Objects.equal(this.clientKeyStore, other.clientKeyStore) //
+     && Objects.equal(this.proxyHost, other.proxyHost) //
+     && Objects.equal(this.proxyPassword, other.proxyPassword) //
+     && Objects.equal(this.proxyPort, other.proxyPort) //
+     && Objects.equal(this.proxyUser, other.proxyUser);
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.clientKeyStore, this.proxyHost, this.proxyPassword, this.proxyPort, this.proxyUser,
+     this.shouldAcceptAnyCertificate);
+  }
+ }
+
+ private static final Logger LOG = getLogger(HttpClientPool.class);
+
+ private static final Cache<HttpClientKey, CloseableHttpClient> httpClients = CacheBuilder.newBuilder()//
+   .expireAfterAccess(30, MINUTES)//
+   .removalListener(new RemovalListener<HttpClientKey, CloseableHttpClient>() {
+    @Override
+    public void onRemoval(RemovalNotification<HttpClientKey, CloseableHttpClient> notification) {
+     try {
+      notification.getValue().close();
+     } catch (IOException e) {
+      LOG.warn("Unable to close HTTP client", e);
+     }
+    }
+   })//
+   .build();
+
+ /**
+  * Closes all clients. They are created again when needed.
+  */
+ static void closeAll() {
+  httpClients.invalidateAll();
+  httpClients.cleanUp();
+ }
+
+ /**
+  * A client configured with the SSL, keystore and proxy settings of the given invoker. Created by it, if there is no
+  * such client already.
+  */
+ static CloseableHttpClient getHttpClient(final UrlInvoker urlInvoker) {
+  try {
+   return httpClients.get(new HttpClientKey(urlInvoker), new Callable<CloseableHttpClient>() {
+    @Override
+    public CloseableHttpClient call() {
+     return urlInvoker.newHttpClient();
+    }
+   });
+  } catch (ExecutionException | UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  }
+ }
+
+ private HttpClientPool() {
+ }
+}
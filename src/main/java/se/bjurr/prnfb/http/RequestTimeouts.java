@@ -0,0 +1,88 @@
+package se.bjurr.prnfb.http;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * How long an invocation may take, enforced by the {@link UrlInvoker}. Configured per notification, with defaults in
+ * the global settings.
+ */
+public class RequestTimeouts {
+ @VisibleForTesting
+ static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+ @VisibleForTesting
+ static final int DEFAULT_READ_TIMEOUT_SECONDS = 30;
+ @VisibleForTesting
+ static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+ public static final RequestTimeouts DEFAULT = new RequestTimeouts(DEFAULT_CONNECT_TIMEOUT_SECONDS,
+   DEFAULT_READ_TIMEOUT_SECONDS, DEFAULT_REQUEST_TIMEOUT_SECONDS);
+
+ /**
+  * The timeouts configured in the notification, built in defaults for those that are not configured.
+  */
+ public static RequestTimeouts requestTimeouts(PrnfbNotification notification) {
+  return requestTimeouts(notification, DEFAULT);
+ }
+
+ /**
+  * The timeouts configured in the notification, the global settings for those that are not configured.
+  */
+ public static RequestTimeouts requestTimeouts(PrnfbNotification notification, PrnfbSettingsData settings) {
+  RequestTimeouts defaults = new RequestTimeouts(//
+    firstPositive(settings.getConnectTimeoutSeconds().orNull(), DEFAULT_CONNECT_TIMEOUT_SECONDS), //
+    firstPositive(settings.getReadTimeoutSeconds().orNull(), DEFAULT_READ_TIMEOUT_SECONDS), //
+    firstPositive(settings.getRequestTimeoutSeconds().orNull(), DEFAULT_REQUEST_TIMEOUT_SECONDS));
+  return requestTimeouts(notification, defaults);
+ }
+
+ private static int firstPositive(Integer configured, int fallback) {
+  return configured != null && configured > 0 ? configured : fallback;
+ }
+
+ private static RequestTimeouts requestTimeouts(PrnfbNotification notification, RequestTimeouts defaults) {
+  return new RequestTimeouts(//
+    firstPositive(notification.getConnectTimeoutSeconds(), defaults.connectTimeoutSeconds), //
+    firstPositive(notification.getReadTimeoutSeconds(), defaults.readTimeoutSeconds), //
+    firstPositive(notification.getRequestTimeoutSeconds(), defaults.requestTimeoutSeconds));
+ }
+
+ private final int connectTimeoutSeconds;
+ private final int readTimeoutSeconds;
+ private final int requestTimeoutSeconds;
+
+ @VisibleForTesting
+ RequestTimeouts(int connectTimeoutSeconds, int readTimeoutSeconds, int requestTimeoutSeconds) {
+  this.connectTimeoutSeconds = connectTimeoutSeconds;
+  this.readTimeoutSeconds = readTimeoutSeconds;
+  this.requestTimeoutSeconds = requestTimeoutSeconds;
+ }
+
+ /**
+  * Seconds to wait for a connection, both from the pool and to the host.
+  */
+ public int getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ /**
+  * Seconds to wait for more data from the host.
+  */
+ public int getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
+ /**
+  * Seconds the whole invocation may take, including reading the response, before it is aborted.
+  */
+ public int getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
+ @Override
+ public String toString() {
+  return "RequestTimeouts [connectTimeoutSeconds=" + this.connectTimeoutSeconds + ", readTimeoutSeconds="
+    + this.readTimeoutSeconds + ", requestTimeoutSeconds=" + this.requestTimeoutSeconds + "]";
+ }
+}
@@ -3,11 +3,16 @@ package se.bjurr.prnfb.http;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.base.Optional.of;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
 import static javax.xml.bind.DatatypeConverter.printBase64Binary;
 import static org.slf4j.LoggerFactory.getLogger;
+import static se.bjurr.prnfb.http.DeliveryEngine.getHost;
+import static se.bjurr.prnfb.http.HttpClientPool.getHttpClient;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.GET;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.POST;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.PUT;
@@ -18,39 +23,60 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
 
 import javax.net.ssl.SSLContext;
 
+import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.ProxyAuthenticationStrategy;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 
+import se.bjurr.prnfb.metrics.PrnfbMetrics;
 import se.bjurr.prnfb.settings.PrnfbHeader;
 import se.bjurr.prnfb.settings.PrnfbNotification;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * If told to accept all certificates, an unsafe X509 trust manager is used.<br>
@@ -68,7 +94,26 @@ public class UrlInvoker {
   DELETE, GET, POST, PUT
  }
 
+ /**
+  * Aborts invocations that are still running when their {@link RequestTimeouts#getRequestTimeoutSeconds()} has passed.
+  * Created when needed.
+  */
+ private static ScheduledThreadPoolExecutor deadlines;
+ /**
+  * Attribute of the {@link HttpContext} with the {@link System#nanoTime()} when the request was sent, on a connected
+  * connection.
+  */
+ private static final String CONNECTED_AT = "prnfb.connectedAt";
  private static final Logger LOG = getLogger(UrlInvoker.class);
+ private static final int MAX_CONNECTIONS = 200;
+ private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+ /**
+  * Key is the {@link ClientKeyStore} and whether any certificate is accepted.
+  */
+ private static final Cache<List<Object>, SSLContext> sslContexts = CacheBuilder.newBuilder()//
+   .maximumSize(20)//
+   .build();
+ private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
 
  @VisibleForTesting
  public static String getHeaderValue(PrnfbHeader header) {
@@ -79,7 +124,32 @@ public class UrlInvoker {
   return new UrlInvoker();
  }
 
+ /**
+  * Stops the thread that aborts invocations. It is started again when needed.
+  */
+ static synchronized void shutdownDeadlines() {
+  if (deadlines != null) {
+   deadlines.shutdownNow();
+   deadlines = null;
+  }
+ }
+
+ private static synchronized ScheduledExecutorService getDeadlines() {
+  if (deadlines == null) {
+   deadlines = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()//
+     .setNameFormat("prnfb-deadline-%d")//
+     .setDaemon(true)//
+     .build());
+   // Most invocations complete in time, do not keep their deadlines around
+   deadlines.setRemoveOnCancelPolicy(true);
+  }
+  return deadlines;
+ }
+
  private ClientKeyStore clientKeyStore;
+ private long connectNanos;
+ private DeliveryLimits deliveryLimits = DeliveryLimits.DEFAULT;
+ private Optional<Exception> exception = absent();
  private final List<PrnfbHeader> headers = newArrayList();
  private HTTP_METHOD method = GET;
  private Optional<String> postContent = absent();
@@ -87,10 +157,14 @@ public class UrlInvoker {
  private Optional<String> proxyPassword = absent();
  private Optional<Integer> proxyPort = absent();
  private Optional<String> proxyUser = absent();
+ private RequestTimeouts requestTimeouts = RequestTimeouts.DEFAULT;
+ private Optional<Integer> responseStatus = absent();
  private String responseString;
+ private long responseWaitNanos;
 
  private boolean shouldAcceptAnyCertificate;
 
+ private long transferNanos;
  private String urlParam;
 
  UrlInvoker() {
@@ -109,6 +183,26 @@ public class UrlInvoker {
   return this.clientKeyStore;
  }
 
+ /**
+  * Time to get a connection from the pool, or to connect to the host, including any TLS handshake. Taken by the last
+  * invocation.
+  */
+ public long getConnectNanos() {
+  return this.connectNanos;
+ }
+
+ public DeliveryLimits getDeliveryLimits() {
+  return this.deliveryLimits;
+ }
+
+ /**
+  * Present if the invocation failed before the whole response was received. Never present together with
+  * {@link #getResponseStatus()}.
+  */
+ public Optional<Exception> getException() {
+  return this.exception;
+ }
+
  public List<PrnfbHeader> getHeaders() {
   return this.headers;
  }
@@ -137,6 +231,17 @@ public class UrlInvoker {
   return this.proxyUser;
  }
 
+ public RequestTimeouts getRequestTimeouts() {
+  return this.requestTimeouts;
+ }
+
+ /**
+  * Present if the whole response was received.
+  */
+ public Optional<Integer> getResponseStatus() {
+  return this.responseStatus;
+ }
+
  public String getResponseString() {
   return this.responseString;
  }
@@ -145,22 +250,32 @@ public class UrlInvoker {
   return new ByteArrayInputStream(getResponseString().getBytes(UTF_8));
  }
 
+ /**
+  * Time from sending the request until the response headers were received. Taken by the last invocation.
+  */
+ public long getResponseWaitNanos() {
+  return this.responseWaitNanos;
+ }
+
+ /**
+  * Time to read the response body. Taken by the last invocation.
+  */
+ public long getTransferNanos() {
+  return this.transferNanos;
+ }
+
  public String getUrlParam() {
   return this.urlParam;
  }
 
  public void invoke() {
-  LOG.info("Url: \"" + this.urlParam + "\"");
+  LOG.debug("Url: \"" + this.urlParam + "\"");
 
   HttpRequestBase httpRequestBase = newHttpRequestBase();
   configureUrl(httpRequestBase);
   addHeaders(httpRequestBase);
 
-  HttpClientBuilder builder = HttpClientBuilder.create();
-  configureSsl(builder);
-  configureProxy(builder);
-
-  this.responseString = doInvoke(httpRequestBase, builder);
+  this.responseString = doInvoke(httpRequestBase);
   LOG.debug(this.responseString);
  }
 
@@ -198,6 +313,11 @@ public class UrlInvoker {
   return this;
  }
 
+ public UrlInvoker withDeliveryLimits(DeliveryLimits deliveryLimits) {
+  this.deliveryLimits = deliveryLimits;
+  return this;
+ }
+
  public UrlInvoker withHeader(String name, String value) {
   this.headers.add(new PrnfbHeader(name, value));
   return this;
@@ -233,6 +353,11 @@ public class UrlInvoker {
   return this;
  }
 
+ public UrlInvoker withRequestTimeouts(RequestTimeouts requestTimeouts) {
+  this.requestTimeouts = requestTimeouts;
+  return this;
+ }
+
  public UrlInvoker withUrlParam(String urlParam) {
   this.urlParam = urlParam.replaceAll("\\s", "%20");
   return this;
@@ -271,11 +396,28 @@ public class UrlInvoker {
   return customContext;
  }
 
+ /**
+  * Same context for all invokers with the same keystore and certificate settings.
+  */
+ private SSLContext getSslContext() {
+  try {
+   return sslContexts.get(Arrays.<Object> asList(this.clientKeyStore, this.shouldAcceptAnyCertificate),
+     new Callable<SSLContext>() {
+      @Override
+      public SSLContext call() throws Exception {
+       return newSslContext();
+      }
+     });
+  } catch (ExecutionException | UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  }
+ }
+
  private SSLContext newSslContext() throws Exception {
   SSLContextBuilder sslContextBuilder = SSLContexts.custom();
   if (this.shouldAcceptAnyCertificate) {
    doAcceptAnyCertificate(sslContextBuilder);
-   if (this.clientKeyStore.getKeyStore().isPresent()) {
+   if (this.clientKeyStore != null && this.clientKeyStore.getKeyStore().isPresent()) {
     sslContextBuilder.loadKeyMaterial(this.clientKeyStore.getKeyStore().get(), this.clientKeyStore.getPassword());
    }
   }
@@ -283,8 +425,32 @@ public class UrlInvoker {
   return sslContextBuilder.build();
  }
 
- private boolean shouldUseSsl() {
-  return this.urlParam.startsWith("https");
+ /**
+  * Splits the time of an invocation into connecting, waiting for the response and reading it. Phases that were not
+  * reached, because the invocation failed, take no time.
+  */
+ private void setTimings(HttpContext context, long start, long responded, long end) {
+  Long connected = (Long) context.getAttribute(CONNECTED_AT);
+  long connectedAt = connected == null ? end : connected;
+  long respondedAt = responded == 0 ? end : responded;
+  this.connectNanos = connectedAt - start;
+  this.responseWaitNanos = respondedAt - connectedAt;
+  this.transferNanos = end - respondedAt;
+ }
+
+ CloseableHttpClient newHttpClient() {
+  HttpClientBuilder builder = HttpClientBuilder.create();
+  builder.setRequestExecutor(new HttpRequestExecutor() {
+   @Override
+   public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context)
+     throws IOException, HttpException {
+    context.setAttribute(CONNECTED_AT, nanoTime());
+    return super.execute(request, conn, context);
+   }
+  });
+  configureSsl(builder);
+  configureProxy(builder);
+  return builder.build();
  }
 
  @VisibleForTesting
@@ -308,44 +474,88 @@ public class UrlInvoker {
   return builder;
  }
 
+ /**
+  * Connections are pooled, and kept alive, for both http and https. If the SSL
+  * context cannot be created, the default one is used for https.
+  */
  @VisibleForTesting
  HttpClientBuilder configureSsl(HttpClientBuilder builder) {
-  if (shouldUseSsl()) {
-   try {
-    SSLContext s = newSslContext();
-    SSLConnectionSocketFactory sslConnSocketFactory = new SSLConnectionSocketFactory(s);
-    builder.setSSLSocketFactory(sslConnSocketFactory);
-
-    Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()
-      .register("https", sslConnSocketFactory).build();
-
-    HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager(registry);
-
-    builder.setConnectionManager(ccm);
-   } catch (Exception e) {
-    propagate(e);
-   }
+  SSLConnectionSocketFactory sslConnSocketFactory;
+  try {
+   sslConnSocketFactory = new SSLConnectionSocketFactory(getSslContext());
+  } catch (Exception e) {
+   LOG.error("Unable to setup SSL, using defaults", e);
+   sslConnSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
   }
+  builder.setSSLSocketFactory(sslConnSocketFactory);
+
+  Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()//
+    .register("http", PlainConnectionSocketFactory.getSocketFactory())//
+    .register("https", sslConnSocketFactory)//
+    .build();
+
+  PoolingHttpClientConnectionManager ccm = new PoolingHttpClientConnectionManager(registry);
+  ccm.setMaxTotal(MAX_CONNECTIONS);
+  ccm.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+  ccm.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+  builder.setConnectionManager(ccm);
+  // All requests of a client use the same client certificate, so connections
+  // authenticated with it can be reused by any of them.
+  builder.disableConnectionState();
   return builder;
  }
 
+ /**
+  * The connect and read timeouts are enforced by the client. The request timeout by aborting the request, wherever it
+  * is, when it has passed.
+  */
  @VisibleForTesting
- String doInvoke(HttpRequestBase httpRequestBase, HttpClientBuilder builder) {
+ String doInvoke(final HttpRequestBase httpRequestBase) {
+  httpRequestBase.setConfig(newRequestConfig());
+  ScheduledFuture<?> deadline = getDeadlines().schedule(new Runnable() {
+   @Override
+   public void run() {
+    httpRequestBase.abort();
+   }
+  }, this.requestTimeouts.getRequestTimeoutSeconds(), SECONDS);
   CloseableHttpResponse httpResponse = null;
+  HttpClientContext context = HttpClientContext.create();
+  long start = nanoTime();
+  long responded = 0;
   try {
-   httpResponse = builder//
-     .build()//
-     .execute(httpRequestBase);
+   httpResponse = getHttpClient(this)//
+     .execute(httpRequestBase, context);
+   responded = nanoTime();
+   this.responseStatus = of(httpResponse.getStatusLine().getStatusCode());
 
    HttpEntity entity = httpResponse.getEntity();
-   return EntityUtils.toString(entity, UTF_8);
+   String responseString = EntityUtils.toString(entity, UTF_8);
+   long end = nanoTime();
+   setTimings(context, start, responded, end);
+   PrnfbMetrics.httpResponded(getHost(this), this.responseStatus.get(), end - start);
+   return responseString;
   } catch (final Exception e) {
-   LOG.error("", e);
+   // Also when failing to read the body, after the status was received
+   this.responseStatus = absent();
+   long end = nanoTime();
+   setTimings(context, start, responded, end);
+   PrnfbMetrics.httpFailed(getHost(this), end - start);
+   if (httpRequestBase.isAborted()) {
+    this.exception = of(new TimeoutException("Aborted " + this.urlParam + " after "
+      + this.requestTimeouts.getRequestTimeoutSeconds() + " seconds"));
+   } else {
+    this.exception = of(e);
+   }
+   LOG.error("", this.exception.get());
   } finally {
-   try {
-    httpResponse.close();
-   } catch (IOException e) {
-    propagate(e);
+   deadline.cancel(false);
+   if (httpResponse != null) {
+    try {
+     // Releases the connection back to the pool
+     httpResponse.close();
+    } catch (IOException e) {
+     LOG.warn("", e);
+    }
    }
   }
   return null;
@@ -382,4 +592,14 @@ public class UrlInvoker {
    }
   };
  }
+
+ @VisibleForTesting
+ RequestConfig newRequestConfig() {
+  int connectTimeoutMillis = (int) SECONDS.toMillis(this.requestTimeouts.getConnectTimeoutSeconds());
+  return RequestConfig.custom()//
+    .setConnectionRequestTimeout(connectTimeoutMillis)//
+    .setConnectTimeout(connectTimeoutMillis)//
+    .setSocketTimeout((int) SECONDS.toMillis(this.requestTimeouts.getReadTimeoutSeconds()))//
+    .build();
+ }
 }
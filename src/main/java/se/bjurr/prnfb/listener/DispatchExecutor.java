@@ -0,0 +1,159 @@
+package se.bjurr.prnfb.listener;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+import static se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY.CALLER_RUNS;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import se.bjurr.prnfb.service.SettingsService;
+import se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Handles pull request events on threads owned by the plugin, instead of on the executor shared with Bitbucket. The
+ * number of threads and the size of the queue are taken from the global settings, and changes to them are applied
+ * when the next event is queued. When the queue is full the {@link DISPATCH_SATURATION_POLICY} decides what happens.
+ */
+public class DispatchExecutor extends AbstractExecutorService implements DisposableBean {
+ @VisibleForTesting
+ static final int DEFAULT_QUEUE_SIZE = 1000;
+ @VisibleForTesting
+ static final int DEFAULT_THREADS = 4;
+ private static final Logger LOG = getLogger(DispatchExecutor.class);
+ private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+ private final LongAdder callerRuns = new LongAdder();
+ private final LongAdder dropped = new LongAdder();
+ private final BlockingDeque<Runnable> queue = new LinkedBlockingDeque<>();
+ /**
+  * Held while checking the size of the queue and adding to it. Threads taking from the queue do not hold it, so the
+  * queue cannot grow beyond the limit.
+  */
+ private final Object queueLock = new Object();
+ private final SettingsService settingsService;
+ private final ThreadPoolExecutor threadPoolExecutor;
+
+ public DispatchExecutor(SettingsService settingsService) {
+  this.settingsService = settingsService;
+  this.threadPoolExecutor = new ThreadPoolExecutor(DEFAULT_THREADS, DEFAULT_THREADS, 60, SECONDS, this.queue,
+    new ThreadFactoryBuilder()//
+      .setNameFormat("prnfb-dispatch-%d")//
+      .setDaemon(true)//
+      .build());
+  this.threadPoolExecutor.allowCoreThreadTimeOut(true);
+ }
+
+ @Override
+ public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+  return this.threadPoolExecutor.awaitTermination(timeout, unit);
+ }
+
+ @Override
+ public void destroy() {
+  this.threadPoolExecutor.shutdown();
+  try {
+   if (!this.threadPoolExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, SECONDS)) {
+    LOG.warn("Dropping " + this.threadPoolExecutor.shutdownNow().size() + " queued events");
+   }
+  } catch (InterruptedException e) {
+   this.threadPoolExecutor.shutdownNow();
+   Thread.currentThread().interrupt();
+  }
+ }
+
+ @Override
+ public void execute(Runnable command) {
+  PrnfbSettingsData settings = this.settingsService.getPrnfbSettingsData();
+  setThreads(Math.max(1, settings.getDispatchThreads().or(DEFAULT_THREADS)));
+  int queueSize = Math.max(0, settings.getDispatchQueueSize().or(DEFAULT_QUEUE_SIZE));
+  DISPATCH_SATURATION_POLICY policy = firstNonNull(settings.getDispatchSaturationPolicy(), CALLER_RUNS);
+  synchronized (this.queueLock) {
+   if (this.queue.size() < queueSize) {
+    this.threadPoolExecutor.execute(command);
+    return;
+   }
+   if (policy != CALLER_RUNS) {
+    if (this.queue.pollFirst() != null) {
+     this.dropped.increment();
+     LOG.debug("Dispatch queue full, dropped oldest event");
+    }
+    this.threadPoolExecutor.execute(command);
+    return;
+   }
+  }
+  this.callerRuns.increment();
+  command.run();
+ }
+
+ /**
+  * Number of events handled on the thread that published them, because the queue was full.
+  */
+ public long getCallerRuns() {
+  return this.callerRuns.sum();
+ }
+
+ /**
+  * Number of events dropped, because the queue was full.
+  */
+ public long getDropped() {
+  return this.dropped.sum();
+ }
+
+ public int getQueueDepth() {
+  return this.queue.size();
+ }
+
+ @Override
+ public boolean isShutdown() {
+  return this.threadPoolExecutor.isShutdown();
+ }
+
+ @Override
+ public boolean isTerminated() {
+  return this.threadPoolExecutor.isTerminated();
+ }
+
+ @Override
+ public void shutdown() {
+  this.threadPoolExecutor.shutdown();
+ }
+
+ @Override
+ public List<Runnable> shutdownNow() {
+  return this.threadPoolExecutor.shutdownNow();
+ }
+
+ private void setThreads(int threads) {
+  if (threads == this.threadPoolExecutor.getMaximumPoolSize()) {
+   return;
+  }
+  synchronized (this.threadPoolExecutor) {
+   if (threads > this.threadPoolExecutor.getMaximumPoolSize()) {
+    this.threadPoolExecutor.setMaximumPoolSize(threads);
+    this.threadPoolExecutor.setCorePoolSize(threads);
+   } else {
+    this.threadPoolExecutor.setCorePoolSize(threads);
+    this.threadPoolExecutor.setMaximumPoolSize(threads);
+   }
+  }
+ }
+
+ @VisibleForTesting
+ int getThreads() {
+  return this.threadPoolExecutor.getMaximumPoolSize();
+ }
+}
@@ -0,0 +1,148 @@
+package se.bjurr.prnfb.listener;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_FROM;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_TO;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.UPDATED;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collapses bursts of rescoped and updated events, on the same pull request, for notifications with
+ * {@link PrnfbNotification#getDebounceSeconds()}. The first event starts the window, events within it replace the
+ * pending one and when the window ends only the latest is notified. So that a series of pushes triggers one build, of
+ * the last commit, instead of one per push.
+ */
+public class EventCoalescer implements DisposableBean {
+ private static class CoalesceKey {
+  private final PrnfbPullRequestAction action;
+  private final UUID notificationUuid;
+  private final Long pullRequestId;
+  private final Integer repositoryId;
+
+  public CoalesceKey(UUID notificationUuid, PullRequest pullRequest, PrnfbPullRequestAction action) {
+   this.notificationUuid = notificationUuid;
+   this.repositoryId = pullRequest.getToRef().getRepository().getId();
+   this.pullRequestId = pullRequest.getId();
+   this.action = action;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   CoalesceKey other = (CoalesceKey) obj;
+   return Objects.equal(this.notificationUuid, other.notificationUuid) //
+     && Objects.equal(this.repositoryId, other.repositoryId) //
+     && Objects.equal(this.pullRequestId, other.pullRequestId) //
+     && this.action == other.action;
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.notificationUuid, this.repositoryId, this.pullRequestId, this.action);
+  }
+ }
+
+ private static final Set<PrnfbPullRequestAction> COALESCED_ACTIONS = EnumSet.of(RESCOPED, RESCOPED_FROM,
+   RESCOPED_TO, UPDATED);
+
+ private final LongAdder coalesced = new LongAdder();
+ private final ExecutorService executorService;
+ private final Map<CoalesceKey, Runnable> pending = newHashMap();
+ private final ScheduledExecutorService scheduler;
+
+ /**
+  * Notifications are done on the given executor, when the window has ended.
+  */
+ public EventCoalescer(ExecutorService executorService) {
+  this(executorService, newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()//
+    .setNameFormat("prnfb-coalesce-%d")//
+    .setDaemon(true)//
+    .build()));
+ }
+
+ @VisibleForTesting
+ EventCoalescer(ExecutorService executorService, ScheduledExecutorService scheduler) {
+  this.executorService = executorService;
+  this.scheduler = scheduler;
+ }
+
+ /**
+  * Runs the notification when the window of the notification ends, unless another event replaces it before that. If
+  * the window can not be scheduled, because the plugin is being disabled, it is run without waiting.
+  */
+ public void coalesce(PrnfbNotification notification, PullRequest pullRequest, PrnfbPullRequestAction action,
+   Runnable notify) {
+  final CoalesceKey key = new CoalesceKey(notification.getUuid(), pullRequest, action);
+  synchronized (this.pending) {
+   if (this.pending.put(key, notify) != null) {
+    this.coalesced.increment();
+    return;
+   }
+  }
+  try {
+   this.scheduler.schedule(new Runnable() {
+    @Override
+    public void run() {
+     notifyLatest(key);
+    }
+   }, notification.getDebounceSeconds(), SECONDS);
+  } catch (RejectedExecutionException e) {
+   // Left pending, every later event for the key would be coalesced and never notified
+   notifyLatest(key);
+  }
+ }
+
+ @Override
+ public void destroy() {
+  this.scheduler.shutdownNow();
+ }
+
+ /**
+  * Number of events that were replaced by a later event, and not notified.
+  */
+ public long getCoalesced() {
+  return this.coalesced.sum();
+ }
+
+ public boolean isCoalesced(PrnfbNotification notification, PrnfbPullRequestAction action) {
+  return notification.getDebounceSeconds() != null //
+    && notification.getDebounceSeconds() > 0 //
+    && COALESCED_ACTIONS.contains(action);
+ }
+
+ private void notifyLatest(CoalesceKey key) {
+  Runnable latest;
+  synchronized (this.pending) {
+   latest = this.pending.remove(key);
+  }
+  this.executorService.execute(latest);
+ }
+}
@@ -1,9 +1,12 @@
 package se.bjurr.prnfb.listener;
 
+import java.util.List;
+
 import se.bjurr.prnfb.settings.PrnfbNotification;
 
 import com.atlassian.bitbucket.event.pull.PullRequestEvent;
 import com.atlassian.bitbucket.event.pull.PullRequestRescopedEvent;
+import com.google.common.collect.ImmutableList;
 
 public enum PrnfbPullRequestAction {
 
@@ -41,4 +44,15 @@ public enum PrnfbPullRequestAction {
   }
   return PrnfbPullRequestAction.valueOf(event.getAction().name());
  }
+
+ /**
+  * All actions that {@link #fromPullRequestEvent(PullRequestEvent, PrnfbNotification)} may return for the event,
+  * with any notification.
+  */
+ public static List<PrnfbPullRequestAction> possibleActions(PullRequestEvent event) {
+  if (event instanceof PullRequestRescopedEvent) {
+   return ImmutableList.of(RESCOPED, RESCOPED_FROM, RESCOPED_TO);
+  }
+  return ImmutableList.of(PrnfbPullRequestAction.valueOf(event.getAction().name()));
+ }
 }
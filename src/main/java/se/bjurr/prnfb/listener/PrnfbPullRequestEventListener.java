@@ -2,30 +2,53 @@ package se.bjurr.prnfb.listener;
 
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.of;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
-import static java.util.regex.Pattern.compile;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
+import static se.bjurr.prnfb.http.ClientKeyStore.clientKeyStore;
+import static se.bjurr.prnfb.http.DeliveryLimits.deliveryLimits;
+import static se.bjurr.prnfb.http.RequestTimeouts.requestTimeouts;
 import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.fromPullRequestEvent;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.possibleActions;
+import static se.bjurr.prnfb.listener.TriggerCheck.CAN_MERGE;
+import static se.bjurr.prnfb.listener.TriggerCheck.FILTER;
+import static se.bjurr.prnfb.listener.TriggerCheck.IGNORED_STATE;
+import static se.bjurr.prnfb.listener.TriggerCheck.PROJECT;
+import static se.bjurr.prnfb.listener.TriggerCheck.REPOSITORY;
+import static se.bjurr.prnfb.listener.TriggerCheck.TRIGGER;
+import static se.bjurr.prnfb.metrics.SlowThresholds.slowThresholds;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_COMMENT_TEXT;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_MERGE_COMMIT;
 import static se.bjurr.prnfb.settings.TRIGGER_IF_MERGE.ALWAYS;
 import static se.bjurr.prnfb.settings.TRIGGER_IF_MERGE.CONFLICTING;
 import static se.bjurr.prnfb.settings.TRIGGER_IF_MERGE.NOT_CONFLICTING;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 
 import se.bjurr.prnfb.http.ClientKeyStore;
+import se.bjurr.prnfb.http.DeliveryCallback;
+import se.bjurr.prnfb.http.DeliveryEngine;
 import se.bjurr.prnfb.http.Invoker;
 import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.metrics.PrnfbMetrics;
+import se.bjurr.prnfb.metrics.SlowSamples;
+import se.bjurr.prnfb.metrics.SlowThresholds;
+import se.bjurr.prnfb.service.CanMergeCache;
+import se.bjurr.prnfb.service.DeliveryLog;
+import se.bjurr.prnfb.service.OutboxService;
 import se.bjurr.prnfb.service.PrnfbRenderer;
 import se.bjurr.prnfb.service.PrnfbRendererFactory;
 import se.bjurr.prnfb.service.PrnfbVariable;
+import se.bjurr.prnfb.service.PrnfbVariableCache;
 import se.bjurr.prnfb.service.SettingsService;
 import se.bjurr.prnfb.settings.PrnfbHeader;
 import se.bjurr.prnfb.settings.PrnfbNotification;
@@ -46,6 +69,7 @@ import com.atlassian.bitbucket.event.pull.PullRequestUnapprovedEvent;
 import com.atlassian.bitbucket.event.pull.PullRequestUpdatedEvent;
 import com.atlassian.bitbucket.pull.PullRequest;
 import com.atlassian.bitbucket.pull.PullRequestService;
+import com.atlassian.bitbucket.repository.Repository;
 import com.atlassian.event.api.EventListener;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
@@ -61,18 +85,30 @@ public class PrnfbPullRequestEventListener {
   PrnfbPullRequestEventListener.mockedInvoker = invoker;
  }
 
+ private final CanMergeCache canMergeCache;
+ private final DeliveryEngine deliveryEngine;
+ private final DeliveryLog deliveryLog;
+ private final EventCoalescer eventCoalescer;
  private final ExecutorService executorService;
+ private final OutboxService outboxService;
  private final PrnfbRendererFactory prnfbRendererFactory;
  private final PullRequestService pullRequestService;
-
  private final SettingsService settingsService;
+ private final SlowSamples slowSamples;
 
  public PrnfbPullRequestEventListener(PrnfbRendererFactory prnfbRendererFactory, PullRequestService pullRequestService,
-   ExecutorService executorService, SettingsService settingsService) {
+   ExecutorService executorService, SettingsService settingsService, DeliveryEngine deliveryEngine,
+   OutboxService outboxService, EventCoalescer eventCoalescer, DeliveryLog deliveryLog, SlowSamples slowSamples) {
   this.prnfbRendererFactory = prnfbRendererFactory;
   this.pullRequestService = pullRequestService;
+  this.canMergeCache = new CanMergeCache(pullRequestService);
   this.executorService = executorService;
   this.settingsService = settingsService;
+  this.deliveryEngine = deliveryEngine;
+  this.outboxService = outboxService;
+  this.eventCoalescer = eventCoalescer;
+  this.deliveryLog = deliveryLog;
+  this.slowSamples = slowSamples;
  }
 
  @VisibleForTesting
@@ -85,82 +121,19 @@ public class PrnfbPullRequestEventListener {
   });
  }
 
+ /**
+  * Also used by the buttons, for every notification on every page view, so rejections are not counted here.
+  */
  public boolean isNotificationTriggeredByAction(PrnfbNotification notification,
    PrnfbPullRequestAction pullRequestAction, PrnfbRenderer renderer, PullRequest pullRequest,
    ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
-  if (!notification.getTriggers().contains(pullRequestAction)) {
-   return FALSE;
-  }
-
-  if (notification.getProjectKey().isPresent()) {
-   if (!notification.getProjectKey().get().equals(pullRequest.getToRef().getRepository().getProject().getKey())) {
-    return FALSE;
-   }
-  }
-
-  if (notification.getRepositorySlug().isPresent()) {
-   if (!notification.getRepositorySlug().get().equals(pullRequest.getToRef().getRepository().getSlug())) {
-    return FALSE;
-   }
-  }
-
-  if (notification.getFilterRegexp().isPresent()
-    && notification.getFilterString().isPresent()
-    && !compile(notification.getFilterRegexp().get()).matcher(
-      renderer.render(notification.getFilterString().get(), FALSE, clientKeyStore, shouldAcceptAnyCertificate)).find()) {
-   return FALSE;
-  }
-
-  if (notification.getTriggerIgnoreStateList().contains(pullRequest.getState())) {
-   return FALSE;
-  }
-
-  if (notification.getTriggerIfCanMerge() != ALWAYS && pullRequest.isOpen()) {
-   // Cannot perform canMerge unless PR is open
-   boolean isConflicted = this.pullRequestService.canMerge(pullRequest.getToRef().getRepository().getId(),
-     pullRequest.getId()).isConflicted();
-   if (ignoreBecauseOfConflicting(notification.getTriggerIfCanMerge(), isConflicted)) {
-    return FALSE;
-   }
-  }
-
-  return TRUE;
+  return !getRejectingCheck(notification, pullRequestAction, renderer, pullRequest, clientKeyStore,
+    shouldAcceptAnyCertificate).isPresent();
  }
 
- public void notify(final PrnfbNotification notification, PrnfbPullRequestAction pullRequestAction,
-   PullRequest pullRequest, PrnfbRenderer renderer, ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
-  if (!isNotificationTriggeredByAction(notification, pullRequestAction, renderer, pullRequest, clientKeyStore,
-    shouldAcceptAnyCertificate)) {
-   return;
-  }
-
-  Optional<String> postContent = absent();
-  if (notification.getPostContent().isPresent()) {
-   postContent = of(renderer.render(notification.getPostContent().get(), FALSE, clientKeyStore,
-     shouldAcceptAnyCertificate));
-  }
-  String renderedUrl = renderer.render(notification.getUrl(), TRUE, clientKeyStore, shouldAcceptAnyCertificate);
-  LOG.info(notification.getName() + " > " //
-    + pullRequest.getFromRef().getId() + "(" + pullRequest.getFromRef().getLatestCommit() + ") -> " //
-    + pullRequest.getToRef().getId() + "(" + pullRequest.getToRef().getLatestCommit() + ")" + " " //
-    + renderedUrl);
-  UrlInvoker urlInvoker = urlInvoker()//
-    .withClientKeyStore(clientKeyStore)//
-    .withUrlParam(renderedUrl)//
-    .withMethod(notification.getMethod())//
-    .withPostContent(postContent)//
-    .appendBasicAuth(notification);
-  for (PrnfbHeader header : notification.getHeaders()) {
-   urlInvoker//
-     .withHeader(header.getName(),
-       renderer.render(header.getValue(), FALSE, clientKeyStore, shouldAcceptAnyCertificate));
-  }
-  createInvoker().invoke(urlInvoker//
-    .withProxyServer(notification.getProxyServer()) //
-    .withProxyPort(notification.getProxyPort())//
-    .withProxyUser(notification.getProxyUser())//
-    .withProxyPassword(notification.getProxyPassword())//
-    .shouldAcceptAnyCertificate(shouldAcceptAnyCertificate));
+ public void notify(final PrnfbNotification notification, final PrnfbPullRequestAction pullRequestAction,
+   final PullRequest pullRequest, PrnfbRenderer renderer, ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
+  notifyIfTriggered(notification, pullRequestAction, pullRequest, renderer, clientKeyStore, shouldAcceptAnyCertificate);
  }
 
  @EventListener
@@ -229,18 +202,197 @@ public class PrnfbPullRequestEventListener {
   if (pullRequestEvent.getPullRequest().isClosed() && pullRequestEvent instanceof PullRequestCommentEvent) {
    return;
   }
+  PrnfbMetrics.eventReceived(possibleActions(pullRequestEvent).get(0));
   final PrnfbSettingsData settings = this.settingsService.getPrnfbSettingsData();
-  ClientKeyStore clientKeyStore = new ClientKeyStore(settings);
-  for (final PrnfbNotification notification : this.settingsService.getNotifications()) {
-   PrnfbPullRequestAction action = fromPullRequestEvent(pullRequestEvent, notification);
-   Map<PrnfbVariable, Supplier<String>> variables = populateVariables(pullRequestEvent);
-   PrnfbRenderer renderer = this.prnfbRendererFactory.create(pullRequestEvent.getPullRequest(), action, notification,
-     variables);
-   notify(notification, action, pullRequestEvent.getPullRequest(), renderer, clientKeyStore,
-     settings.isShouldAcceptAnyCertificate());
+  final ClientKeyStore clientKeyStore = clientKeyStore(settings);
+  Repository repository = pullRequestEvent.getPullRequest().getToRef().getRepository();
+  final Map<PrnfbVariable, Supplier<String>> variables = populateVariables(pullRequestEvent);
+  PrnfbVariableCache variableCache = new PrnfbVariableCache();
+  for (final PrnfbNotification notification : this.settingsService.getNotificationCandidates(
+    possibleActions(pullRequestEvent), repository.getProject().getKey(), repository.getSlug())) {
+   final PrnfbPullRequestAction action = fromPullRequestEvent(pullRequestEvent, notification);
+   if (this.eventCoalescer.isCoalesced(notification, action)) {
+    this.eventCoalescer.coalesce(notification, pullRequestEvent.getPullRequest(), action, new Runnable() {
+     @Override
+     public void run() {
+      notifyLatest(notification, action, pullRequestEvent.getPullRequest(), variables, clientKeyStore,
+        settings.isShouldAcceptAnyCertificate());
+     }
+    });
+   } else {
+    PrnfbRenderer renderer = this.prnfbRendererFactory.create(pullRequestEvent.getPullRequest(), action,
+      notification, variables, variableCache);
+    notifyEvent(notification, action, pullRequestEvent.getPullRequest(), renderer, clientKeyStore,
+      settings.isShouldAcceptAnyCertificate());
+   }
+  }
+ }
+
+ /**
+  * Rejections and matches are only counted here, for events, so that they are not mixed with the checks done by the
+  * buttons.
+  */
+ private void notifyEvent(PrnfbNotification notification, PrnfbPullRequestAction pullRequestAction,
+   PullRequest pullRequest, PrnfbRenderer renderer, ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
+  Optional<TriggerCheck> rejectedBy = notifyIfTriggered(notification, pullRequestAction, pullRequest, renderer,
+    clientKeyStore, shouldAcceptAnyCertificate);
+  if (rejectedBy.isPresent()) {
+   TriggerRejections.rejected(rejectedBy.get());
+  } else {
+   PrnfbMetrics.notificationMatched();
   }
  }
 
+ /**
+  * @return the check that rejected the notification, absent if it was delivered.
+  */
+ private Optional<TriggerCheck> notifyIfTriggered(final PrnfbNotification notification,
+   final PrnfbPullRequestAction pullRequestAction, final PullRequest pullRequest, PrnfbRenderer renderer,
+   ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
+  Optional<TriggerCheck> rejectedBy = getRejectingCheck(notification, pullRequestAction, renderer, pullRequest,
+    clientKeyStore, shouldAcceptAnyCertificate);
+  if (rejectedBy.isPresent()) {
+   if (renderer.getRenderNanos() > 0) {
+    // The filter string was rendered
+    sampleIfSlowRender(notification, renderer,
+      slowThresholds(notification, this.settingsService.getPrnfbSettingsData()));
+   }
+   return rejectedBy;
+  }
+
+  Optional<String> postContent = absent();
+  if (notification.getPostContent().isPresent()) {
+   postContent = of(renderer.render(notification.getPostContent().get(), FALSE, clientKeyStore,
+     shouldAcceptAnyCertificate));
+  }
+  String renderedUrl = renderer.render(notification.getUrl(), TRUE, clientKeyStore, shouldAcceptAnyCertificate);
+  List<PrnfbHeader> renderedHeaders = newArrayList();
+  for (PrnfbHeader header : notification.getHeaders()) {
+   renderedHeaders.add(new PrnfbHeader(header.getName(), renderer.render(header.getValue(), FALSE, clientKeyStore,
+     shouldAcceptAnyCertificate)));
+  }
+  // Includes rendering the filter string
+  PrnfbMetrics.rendered(renderer.getRenderNanos());
+  PrnfbSettingsData settings = this.settingsService.getPrnfbSettingsData();
+  final SlowThresholds slowThresholds = slowThresholds(notification, settings);
+  sampleIfSlowRender(notification, renderer, slowThresholds);
+  if (LOG.isDebugEnabled()) {
+   LOG.debug(notification.getName() + " > " //
+     + pullRequest.getFromRef().getId() + "(" + pullRequest.getFromRef().getLatestCommit() + ") -> " //
+     + pullRequest.getToRef().getId() + "(" + pullRequest.getToRef().getLatestCommit() + ")" + " " //
+     + renderedUrl);
+  }
+  UrlInvoker urlInvoker = urlInvoker()//
+    .withClientKeyStore(clientKeyStore)//
+    .withUrlParam(renderedUrl)//
+    .withMethod(notification.getMethod())//
+    .withPostContent(postContent)//
+    .withDeliveryLimits(deliveryLimits(notification, settings))//
+    .withRequestTimeouts(requestTimeouts(notification, settings))//
+    .appendBasicAuth(notification);
+  for (PrnfbHeader header : renderedHeaders) {
+   urlInvoker//
+     .withHeader(header.getName(), header.getValue());
+  }
+  final long deliverStart = nanoTime();
+  this.deliveryEngine.deliver(urlInvoker//
+    .withProxyServer(notification.getProxyServer()) //
+    .withProxyPort(notification.getProxyPort())//
+    .withProxyUser(notification.getProxyUser())//
+    .withProxyPassword(notification.getProxyPassword())//
+    .shouldAcceptAnyCertificate(shouldAcceptAnyCertificate), createInvoker(), new DeliveryCallback() {
+   @Override
+   public void completed(UrlInvoker urlInvoker) {
+    if (LOG.isDebugEnabled()) {
+     LOG.debug(urlInvoker.getUrlParam() + " responded " + urlInvoker.getResponseStatus().orNull());
+    }
+    PrnfbPullRequestEventListener.this.deliveryLog.delivered(notification.getUuid(), pullRequestAction,
+      pullRequest.getId(), urlInvoker, NANOSECONDS.toMillis(nanoTime() - deliverStart));
+    PrnfbPullRequestEventListener.this.slowSamples.invoked(notification, slowThresholds, urlInvoker);
+   }
+
+   @Override
+   public void failed(UrlInvoker urlInvoker, Exception e) {
+    PrnfbPullRequestEventListener.this.deliveryLog.failed(notification.getUuid(), pullRequestAction,
+      pullRequest.getId(), urlInvoker, e, NANOSECONDS.toMillis(nanoTime() - deliverStart));
+    PrnfbPullRequestEventListener.this.slowSamples.invoked(notification, slowThresholds, urlInvoker);
+    PrnfbPullRequestEventListener.this.outboxService.add(notification, pullRequestAction, pullRequest.getId(),
+      urlInvoker, e);
+   }
+  });
+  return absent();
+ }
+
+ /**
+  * Notifies, when a coalescing window has ended, with the pull request as it is now. So that the from hash is the last
+  * pushed commit, and a pull request that was merged or declined within the window is checked as such.
+  */
+ private void notifyLatest(PrnfbNotification notification, PrnfbPullRequestAction pullRequestAction,
+   PullRequest pullRequest, Map<PrnfbVariable, Supplier<String>> variables, ClientKeyStore clientKeyStore,
+   Boolean shouldAcceptAnyCertificate) {
+  PullRequest latest = this.pullRequestService.getById(pullRequest.getToRef().getRepository().getId(),
+    pullRequest.getId());
+  if (latest == null) {
+   LOG.info("Pull request " + pullRequest.getId() + " was deleted before " + notification.getName() + " was notified");
+   return;
+  }
+  PrnfbRenderer renderer = this.prnfbRendererFactory.create(latest, pullRequestAction, notification, variables,
+    new PrnfbVariableCache());
+  notifyEvent(notification, pullRequestAction, latest, renderer, clientKeyStore, shouldAcceptAnyCertificate);
+ }
+
+ /**
+  * The variables are only broken down if the rendering was slow.
+  */
+ private void sampleIfSlowRender(PrnfbNotification notification, PrnfbRenderer renderer,
+   SlowThresholds slowThresholds) {
+  if (slowThresholds.isSlowRender(renderer.getRenderNanos())) {
+   this.slowSamples.rendered(notification, slowThresholds, renderer.getRenderNanos(), renderer.getResolveNanos());
+  }
+ }
+
+ @VisibleForTesting
+ Optional<TriggerCheck> getRejectingCheck(PrnfbNotification notification, PrnfbPullRequestAction pullRequestAction,
+   PrnfbRenderer renderer, PullRequest pullRequest, ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
+  if (!notification.getTriggers().contains(pullRequestAction)) {
+   return of(TRIGGER);
+  }
+
+  if (notification.getProjectKey().isPresent()) {
+   if (!notification.getProjectKey().get().equals(pullRequest.getToRef().getRepository().getProject().getKey())) {
+    return of(PROJECT);
+   }
+  }
+
+  if (notification.getRepositorySlug().isPresent()) {
+   if (!notification.getRepositorySlug().get().equals(pullRequest.getToRef().getRepository().getSlug())) {
+    return of(REPOSITORY);
+   }
+  }
+
+  if (notification.getTriggerIgnoreStateList().contains(pullRequest.getState())) {
+   return of(IGNORED_STATE);
+  }
+
+  // Rendering may invoke the injection URL, so it is done after the checks on values in memory
+  if (notification.getFilterPattern().isPresent()
+    && notification.getFilterString().isPresent()
+    && !notification.getFilterPattern().get().matcher(
+      renderer.render(notification.getFilterString().get(), FALSE, clientKeyStore, shouldAcceptAnyCertificate)).find()) {
+   return of(FILTER);
+  }
+
+  if (notification.getTriggerIfCanMerge() != ALWAYS && pullRequest.isOpen()) {
+   // Cannot perform canMerge unless PR is open
+   boolean isConflicted = this.canMergeCache.isConflicted(pullRequest);
+   if (ignoreBecauseOfConflicting(notification.getTriggerIfCanMerge(), isConflicted)) {
+    return of(CAN_MERGE);
+   }
+  }
+
+  return absent();
+ }
+
  @VisibleForTesting
  boolean ignoreBecauseOfConflicting(TRIGGER_IF_MERGE triggerIfCanMerge, boolean isConflicted) {
   return triggerIfCanMerge == NOT_CONFLICTING && isConflicted || //
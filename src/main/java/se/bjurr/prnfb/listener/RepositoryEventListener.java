@@ -0,0 +1,24 @@
+package se.bjurr.prnfb.listener;
+
+import se.bjurr.prnfb.service.CloneUrlCache;
+
+import com.atlassian.bitbucket.event.repository.RepositoryDeletedEvent;
+import com.atlassian.bitbucket.event.repository.RepositoryModifiedEvent;
+import com.atlassian.event.api.EventListener;
+
+/**
+ * Forgets what is cached about repositories when they change.
+ */
+public class RepositoryEventListener {
+
+ @EventListener
+ public void onEvent(RepositoryDeletedEvent e) {
+  CloneUrlCache.invalidate(e.getRepository().getId());
+ }
+
+ @EventListener
+ public void onEvent(RepositoryModifiedEvent e) {
+  CloneUrlCache.invalidate(e.getRepository().getId());
+ }
+
+}
@@ -0,0 +1,33 @@
+package se.bjurr.prnfb.listener;
+
+/**
+ * The checks done to find out if a notification is triggered, in the order they are done. Cheap checks, on values
+ * already in memory, come first. Rendering the filter, that may invoke injection URL:s, and checking if the pull
+ * request can be merged, are only done if all cheaper checks passed.
+ */
+public enum TriggerCheck {
+ /**
+  * The action is not one of the triggers.
+  */
+ TRIGGER,
+ /**
+  * The pull request targets another project.
+  */
+ PROJECT,
+ /**
+  * The pull request targets another repository.
+  */
+ REPOSITORY,
+ /**
+  * The pull request is in a state that is ignored.
+  */
+ IGNORED_STATE,
+ /**
+  * The rendered filter string did not match the filter regexp.
+  */
+ FILTER,
+ /**
+  * The pull request is, or is not, conflicting.
+  */
+ CAN_MERGE
+}
@@ -0,0 +1,50 @@
+package se.bjurr.prnfb.listener;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Number of times a notification was not triggered by an event, per {@link TriggerCheck}. Shows admins where
+ * notifications are filtered out. The checks done when listing buttons are not counted.
+ */
+public class TriggerRejections {
+ private static final Map<TriggerCheck, LongAdder> rejections = new EnumMap<>(TriggerCheck.class);
+ static {
+  for (TriggerCheck triggerCheck : TriggerCheck.values()) {
+   rejections.put(triggerCheck, new LongAdder());
+  }
+ }
+
+ public static long getRejections(TriggerCheck triggerCheck) {
+  return rejections.get(triggerCheck).sum();
+ }
+
+ /**
+  * All checks, in the order they are done.
+  */
+ public static Map<String, Long> getRejectionsPerCheck() {
+  Map<String, Long> perCheck = new LinkedHashMap<>();
+  for (TriggerCheck triggerCheck : TriggerCheck.values()) {
+   perCheck.put(triggerCheck.name(), getRejections(triggerCheck));
+  }
+  return perCheck;
+ }
+
+ static void rejected(TriggerCheck triggerCheck) {
+  rejections.get(triggerCheck).increment();
+ }
+
+ @VisibleForTesting
+ static void clear() {
+  for (LongAdder rejected : rejections.values()) {
+   rejected.reset();
+  }
+ }
+
+ private TriggerRejections() {
+ }
+}
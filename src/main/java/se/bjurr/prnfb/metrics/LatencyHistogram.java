@@ -0,0 +1,101 @@
+package se.bjurr.prnfb.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations without locking, in buckets that double in size from one microsecond and up. A percentile is the
+ * upper bound of the bucket it falls in, so it is never below, and at most twice, the real value.
+ */
+public class LatencyHistogram {
+ private static final int BUCKETS = 41;
+ private static final double NANOS_PER_MILLI = 1000000d;
+
+ /**
+  * Bucket 0 holds durations below one microsecond, bucket i those from 2^(i-1) up to 2^i microseconds.
+  */
+ private static int bucketOf(long nanos) {
+  long micros = NANOSECONDS.toMicros(Math.max(0, nanos));
+  return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+ }
+
+ private final LongAdder[] buckets = new LongAdder[BUCKETS];
+ private final LongAdder count = new LongAdder();
+ private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+ private final LongAdder totalNanos = new LongAdder();
+
+ public LatencyHistogram() {
+  for (int i = 0; i < BUCKETS; i++) {
+   this.buckets[i] = new LongAdder();
+  }
+ }
+
+ public long getCount() {
+  return this.count.sum();
+ }
+
+ public double getMaxMillis() {
+  return this.maxNanos.get() / NANOS_PER_MILLI;
+ }
+
+ public double getMeanMillis() {
+  long count = this.count.sum();
+  if (count == 0) {
+   return 0;
+  }
+  return this.totalNanos.sum() / NANOS_PER_MILLI / count;
+ }
+
+ /**
+  * @param percentile
+  *         From 0 to 100.
+  */
+ public double getPercentileMillis(double percentile) {
+  long[] counts = new long[BUCKETS];
+  long total = 0;
+  for (int i = 0; i < BUCKETS; i++) {
+   counts[i] = this.buckets[i].sum();
+   total += counts[i];
+  }
+  if (total == 0) {
+   return 0;
+  }
+  long rank = (long) Math.ceil(percentile / 100 * total);
+  long seen = 0;
+  for (int i = 0; i < BUCKETS; i++) {
+   seen += counts[i];
+   if (seen >= rank && counts[i] > 0) {
+    long upperBoundNanos = MICROSECONDS.toNanos(1L << i);
+    return Math.min(upperBoundNanos, this.maxNanos.get()) / NANOS_PER_MILLI;
+   }
+  }
+  return getMaxMillis();
+ }
+
+ public void record(long nanos) {
+  this.buckets[bucketOf(nanos)].increment();
+  this.count.increment();
+  this.totalNanos.add(nanos);
+  this.maxNanos.accumulate(nanos);
+ }
+
+ /**
+  * Not atomic, durations recorded at the same time may be partly kept.
+  */
+ public void reset() {
+  for (LongAdder bucket : this.buckets) {
+   bucket.reset();
+  }
+  this.count.reset();
+  this.totalNanos.reset();
+  this.maxNanos.reset();
+ }
+
+ public LatencyStats toLatencyStats() {
+  return new LatencyStats(getCount(), getMeanMillis(), getMaxMillis(), getPercentileMillis(50),
+    getPercentileMillis(95), getPercentileMillis(99));
+ }
+}
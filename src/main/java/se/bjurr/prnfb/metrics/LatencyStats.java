@@ -0,0 +1,55 @@
+package se.bjurr.prnfb.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * What a {@link LatencyHistogram} had recorded when it was taken. Times are in milliseconds.
+ */
+public class LatencyStats {
+ private final long count;
+ private final double max;
+ private final double mean;
+ private final double p50;
+ private final double p95;
+ private final double p99;
+
+ @ConstructorProperties({ "count", "mean", "max", "p50", "p95", "p99" })
+ public LatencyStats(long count, double mean, double max, double p50, double p95, double p99) {
+  this.count = count;
+  this.mean = mean;
+  this.max = max;
+  this.p50 = p50;
+  this.p95 = p95;
+  this.p99 = p99;
+ }
+
+ public long getCount() {
+  return this.count;
+ }
+
+ public double getMax() {
+  return this.max;
+ }
+
+ public double getMean() {
+  return this.mean;
+ }
+
+ public double getP50() {
+  return this.p50;
+ }
+
+ public double getP95() {
+  return this.p95;
+ }
+
+ public double getP99() {
+  return this.p99;
+ }
+
+ @Override
+ public String toString() {
+  return "LatencyStats [count=" + this.count + ", mean=" + this.mean + ", max=" + this.max + ", p50=" + this.p50
+    + ", p95=" + this.p95 + ", p99=" + this.p99 + "]";
+ }
+}
@@ -0,0 +1,124 @@
+package se.bjurr.prnfb.metrics;
+
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import se.bjurr.prnfb.http.DeliveryEngine;
+import se.bjurr.prnfb.http.HostState;
+import se.bjurr.prnfb.listener.DispatchExecutor;
+import se.bjurr.prnfb.listener.TriggerRejections;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Publishes {@link PrnfbMetrics}, and the depth of the queues, in JMX as {@link #OBJECT_NAME}. The same metrics are
+ * available to admins as JSON.
+ */
+public class MetricsPublisher implements PrnfbMetricsMXBean, InitializingBean, DisposableBean {
+ private static final Logger LOG = getLogger(MetricsPublisher.class);
+ @VisibleForTesting
+ static final String OBJECT_NAME = "se.bjurr.prnfb:type=Metrics";
+
+ private final DeliveryEngine deliveryEngine;
+ private final DispatchExecutor dispatchExecutor;
+ private final MBeanServer mBeanServer;
+
+ public MetricsPublisher(DispatchExecutor dispatchExecutor, DeliveryEngine deliveryEngine) {
+  this(dispatchExecutor, deliveryEngine, getPlatformMBeanServer());
+ }
+
+ @VisibleForTesting
+ MetricsPublisher(DispatchExecutor dispatchExecutor, DeliveryEngine deliveryEngine, MBeanServer mBeanServer) {
+  this.dispatchExecutor = dispatchExecutor;
+  this.deliveryEngine = deliveryEngine;
+  this.mBeanServer = mBeanServer;
+ }
+
+ /**
+  * Replaces the MBean of an earlier version of the plugin, if it was not unregistered.
+  */
+ @Override
+ public void afterPropertiesSet() throws Exception {
+  ObjectName objectName = new ObjectName(OBJECT_NAME);
+  if (this.mBeanServer.isRegistered(objectName)) {
+   this.mBeanServer.unregisterMBean(objectName);
+  }
+  this.mBeanServer.registerMBean(this, objectName);
+ }
+
+ @Override
+ public void destroy() {
+  try {
+   this.mBeanServer.unregisterMBean(new ObjectName(OBJECT_NAME));
+  } catch (Exception e) {
+   LOG.warn("Could not unregister " + OBJECT_NAME, e);
+  }
+ }
+
+ @Override
+ public int getDeliveriesInFlight() {
+  int inFlight = 0;
+  for (HostState hostState : this.deliveryEngine.getHostStates()) {
+   inFlight += hostState.getInFlight();
+  }
+  return inFlight;
+ }
+
+ @Override
+ public int getDeliveryQueueDepth() {
+  int waiting = 0;
+  for (HostState hostState : this.deliveryEngine.getHostStates()) {
+   waiting += hostState.getWaiting();
+  }
+  return waiting;
+ }
+
+ @Override
+ public int getDispatchQueueDepth() {
+  return this.dispatchExecutor.getQueueDepth();
+ }
+
+ @Override
+ public Map<String, Long> getEventsReceived() {
+  return PrnfbMetrics.getEventsReceived();
+ }
+
+ @Override
+ public Map<String, Long> getHttpFailures() {
+  return PrnfbMetrics.getHttpFailures();
+ }
+
+ @Override
+ public Map<String, LatencyStats> getHttpLatency() {
+  return PrnfbMetrics.getHttpLatency();
+ }
+
+ @Override
+ public Map<String, Map<String, Long>> getHttpResponses() {
+  return PrnfbMetrics.getHttpResponses();
+ }
+
+ @Override
+ public long getNotificationsMatched() {
+  return PrnfbMetrics.getNotificationsMatched();
+ }
+
+ @Override
+ public Map<String, Long> getNotificationsRejected() {
+  return TriggerRejections.getRejectionsPerCheck();
+ }
+
+ @Override
+ public LatencyStats getRenderTime() {
+  return PrnfbMetrics.getRenderTime();
+ }
+}
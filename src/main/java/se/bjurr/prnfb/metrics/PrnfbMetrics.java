@@ -0,0 +1,172 @@
+package se.bjurr.prnfb.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Counters and latencies of the notification pipeline, from event to HTTP response. Recording never takes a lock, only
+ * the first recording for a new host adds it to a concurrent map. Hosts come from rendered URLs, so only the first
+ * {@link #MAX_HOSTS} are tracked, later ones are counted as {@link #OTHER_HOSTS}. Published by
+ * {@link MetricsPublisher}.
+ */
+public class PrnfbMetrics {
+ @VisibleForTesting
+ static final int MAX_HOSTS = 100;
+ @VisibleForTesting
+ static final String OTHER_HOSTS = "other";
+ private static final Map<PrnfbPullRequestAction, LongAdder> eventsReceived = new EnumMap<>(
+   PrnfbPullRequestAction.class);
+ /**
+  * Key is host and port.
+  */
+ private static final ConcurrentMap<String, LongAdder> httpFailures = new ConcurrentHashMap<>();
+ /**
+  * Key is host and port.
+  */
+ private static final ConcurrentMap<String, LatencyHistogram> httpLatency = new ConcurrentHashMap<>();
+ /**
+  * Key is host and port, and then status code.
+  */
+ private static final ConcurrentMap<String, ConcurrentMap<Integer, LongAdder>> httpResponses = //
+   new ConcurrentHashMap<>();
+ private static final LongAdder notificationsMatched = new LongAdder();
+ private static final LatencyHistogram renderTime = new LatencyHistogram();
+ static {
+  for (PrnfbPullRequestAction action : PrnfbPullRequestAction.values()) {
+   eventsReceived.put(action, new LongAdder());
+  }
+ }
+
+ public static void eventReceived(PrnfbPullRequestAction action) {
+  eventsReceived.get(action).increment();
+ }
+
+ /**
+  * All actions, in the order they are declared.
+  */
+ public static Map<String, Long> getEventsReceived() {
+  Map<String, Long> perAction = new LinkedHashMap<>();
+  for (Entry<PrnfbPullRequestAction, LongAdder> entry : eventsReceived.entrySet()) {
+   perAction.put(entry.getKey().name(), entry.getValue().sum());
+  }
+  return perAction;
+ }
+
+ /**
+  * Invocations that got no response, per host.
+  */
+ public static Map<String, Long> getHttpFailures() {
+  Map<String, Long> perHost = new TreeMap<>();
+  for (Entry<String, LongAdder> entry : httpFailures.entrySet()) {
+   perHost.put(entry.getKey(), entry.getValue().sum());
+  }
+  return perHost;
+ }
+
+ /**
+  * Time from sending the request to having read the response, or failing, per host.
+  */
+ public static Map<String, LatencyStats> getHttpLatency() {
+  Map<String, LatencyStats> perHost = new TreeMap<>();
+  for (Entry<String, LatencyHistogram> entry : httpLatency.entrySet()) {
+   perHost.put(entry.getKey(), entry.getValue().toLatencyStats());
+  }
+  return perHost;
+ }
+
+ /**
+  * Number of responses per host and status code.
+  */
+ public static Map<String, Map<String, Long>> getHttpResponses() {
+  Map<String, Map<String, Long>> perHost = new TreeMap<>();
+  for (Entry<String, ConcurrentMap<Integer, LongAdder>> host : httpResponses.entrySet()) {
+   Map<String, Long> perStatus = new TreeMap<>();
+   for (Entry<Integer, LongAdder> status : host.getValue().entrySet()) {
+    perStatus.put(status.getKey().toString(), status.getValue().sum());
+   }
+   perHost.put(host.getKey(), perStatus);
+  }
+  return perHost;
+ }
+
+ public static long getNotificationsMatched() {
+  return notificationsMatched.sum();
+ }
+
+ public static LatencyStats getRenderTime() {
+  return renderTime.toLatencyStats();
+ }
+
+ public static void httpFailed(String host, long nanos) {
+  String key = tracked(host);
+  getOrAdd(httpLatency, key, h -> new LatencyHistogram()).record(nanos);
+  getOrAdd(httpFailures, key, h -> new LongAdder()).increment();
+ }
+
+ public static void httpResponded(String host, int status, long nanos) {
+  String key = tracked(host);
+  getOrAdd(httpLatency, key, h -> new LatencyHistogram()).record(nanos);
+  getOrAdd(getOrAdd(httpResponses, key, h -> new ConcurrentHashMap<>()), status, s -> new LongAdder()).increment();
+ }
+
+ /**
+  * A notification was triggered by an event, and delivered. Buttons are not counted.
+  */
+ public static void notificationMatched() {
+  notificationsMatched.increment();
+ }
+
+ /**
+  * Time to render the filter string, URL, post content and headers of a notification.
+  */
+ public static void rendered(long nanos) {
+  renderTime.record(nanos);
+ }
+
+ /**
+  * Looks up before adding, since a lookup in a {@link ConcurrentHashMap} never locks but adding may.
+  */
+ private static <K, V> V getOrAdd(ConcurrentMap<K, V> map, K key, Function<K, V> newValue) {
+  V existing = map.get(key);
+  if (existing != null) {
+   return existing;
+  }
+  return map.computeIfAbsent(key, newValue);
+ }
+
+ /**
+  * Every recorded host has a latency. Concurrent recordings of new hosts may pass the limit by a few.
+  */
+ private static String tracked(String host) {
+  if (httpLatency.size() < MAX_HOSTS || httpLatency.containsKey(host)) {
+   return host;
+  }
+  return OTHER_HOSTS;
+ }
+
+ @VisibleForTesting
+ static void clear() {
+  for (LongAdder received : eventsReceived.values()) {
+   received.reset();
+  }
+  httpFailures.clear();
+  httpLatency.clear();
+  httpResponses.clear();
+  notificationsMatched.reset();
+  renderTime.reset();
+ }
+
+ private PrnfbMetrics() {
+ }
+}
@@ -0,0 +1,31 @@
+package se.bjurr.prnfb.metrics;
+
+import java.util.Map;
+
+/**
+ * Metrics of the notification pipeline, as published in JMX. Maps are keyed by action, check or host and port.
+ */
+public interface PrnfbMetricsMXBean {
+ int getDeliveriesInFlight();
+
+ /**
+  * Invocations waiting in the delivery engine, for all hosts.
+  */
+ int getDeliveryQueueDepth();
+
+ int getDispatchQueueDepth();
+
+ Map<String, Long> getEventsReceived();
+
+ Map<String, Long> getHttpFailures();
+
+ Map<String, LatencyStats> getHttpLatency();
+
+ Map<String, Map<String, Long>> getHttpResponses();
+
+ long getNotificationsMatched();
+
+ Map<String, Long> getNotificationsRejected();
+
+ LatencyStats getRenderTime();
+}
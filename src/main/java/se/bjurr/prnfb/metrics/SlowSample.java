@@ -0,0 +1,77 @@
+package se.bjurr.prnfb.metrics;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A rendering, or invocation, of a notification that took longer than its {@link SlowThresholds}. Times are in
+ * milliseconds.
+ */
+public class SlowSample {
+ public enum PHASE {
+  /**
+   * Broken down into connect, response wait and transfer.
+   */
+  INVOCATION,
+  /**
+   * Broken down into the variables that were resolved.
+   */
+  RENDER
+ }
+
+ /**
+  * Variables slowest first, or phases of the invocation in the order they happened.
+  */
+ private final Map<String, Double> breakdown;
+ private final double millis;
+ private final String notificationName;
+ private final UUID notificationUuid;
+ private final PHASE phase;
+ private final int thresholdMillis;
+ private final long timestamp;
+
+ public SlowSample(long timestamp, UUID notificationUuid, String notificationName, PHASE phase, double millis,
+   int thresholdMillis, Map<String, Double> breakdown) {
+  this.timestamp = timestamp;
+  this.notificationUuid = notificationUuid;
+  this.notificationName = notificationName;
+  this.phase = phase;
+  this.millis = millis;
+  this.thresholdMillis = thresholdMillis;
+  this.breakdown = breakdown;
+ }
+
+ public Map<String, Double> getBreakdown() {
+  return this.breakdown;
+ }
+
+ public double getMillis() {
+  return this.millis;
+ }
+
+ public String getNotificationName() {
+  return this.notificationName;
+ }
+
+ public UUID getNotificationUuid() {
+  return this.notificationUuid;
+ }
+
+ public PHASE getPhase() {
+  return this.phase;
+ }
+
+ public int getThresholdMillis() {
+  return this.thresholdMillis;
+ }
+
+ public long getTimestamp() {
+  return this.timestamp;
+ }
+
+ @Override
+ public String toString() {
+  return "SlowSample [timestamp=" + this.timestamp + ", notificationUuid=" + this.notificationUuid + ", phase="
+    + this.phase + ", millis=" + this.millis + ", breakdown=" + this.breakdown + "]";
+ }
+}
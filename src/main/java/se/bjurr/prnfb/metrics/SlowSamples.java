@@ -0,0 +1,104 @@
+package se.bjurr.prnfb.metrics;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static se.bjurr.prnfb.metrics.SlowSample.PHASE.INVOCATION;
+import static se.bjurr.prnfb.metrics.SlowSample.PHASE.RENDER;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.metrics.SlowSample.PHASE;
+import se.bjurr.prnfb.service.PrnfbVariable;
+import se.bjurr.prnfb.service.RingBuffer;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Samples of notifications that were slow to render or invoke, with a breakdown of where the time went, so that
+ * expensive notifications can be found without a profiler. Only the latest samples of each notification are kept, so
+ * that one notification that is always slow does not hide the others. Nothing is allocated unless a threshold was
+ * exceeded, the time is kept track of in arrays and the breakdown is only created for a sample.
+ */
+public class SlowSamples {
+ private static final double NANOS_PER_MILLI = 1000000d;
+ @VisibleForTesting
+ static final int SAMPLES_PER_NOTIFICATION = 5;
+
+ private static double toMillis(long nanos) {
+  return nanos / NANOS_PER_MILLI;
+ }
+
+ private final ConcurrentMap<UUID, RingBuffer<SlowSample>> samples = new ConcurrentHashMap<>();
+
+ /**
+  * Samples of all notifications, newest first.
+  */
+ public List<SlowSample> getSamples() {
+  List<SlowSample> all = newArrayList();
+  for (RingBuffer<SlowSample> ring : this.samples.values()) {
+   all.addAll(ring.getElements());
+  }
+  all.sort(new Comparator<SlowSample>() {
+   @Override
+   public int compare(SlowSample o1, SlowSample o2) {
+    return Long.compare(o2.getTimestamp(), o1.getTimestamp());
+   }
+  });
+  return all;
+ }
+
+ /**
+  * Samples the invocation if it took longer than the threshold.
+  */
+ public void invoked(PrnfbNotification notification, SlowThresholds thresholds, UrlInvoker urlInvoker) {
+  long nanos = urlInvoker.getConnectNanos() + urlInvoker.getResponseWaitNanos() + urlInvoker.getTransferNanos();
+  if (!thresholds.isSlowInvocation(nanos)) {
+   return;
+  }
+  Map<String, Double> breakdown = new LinkedHashMap<>();
+  breakdown.put("connect", toMillis(urlInvoker.getConnectNanos()));
+  breakdown.put("responseWait", toMillis(urlInvoker.getResponseWaitNanos()));
+  breakdown.put("transfer", toMillis(urlInvoker.getTransferNanos()));
+  add(notification, INVOCATION, nanos, thresholds.getSlowInvocationMillis(), breakdown);
+ }
+
+ /**
+  * Samples the rendering if it took longer than the threshold.
+  */
+ public void rendered(PrnfbNotification notification, SlowThresholds thresholds, long nanos,
+   Map<PrnfbVariable, Long> resolveNanos) {
+  if (!thresholds.isSlowRender(nanos)) {
+   return;
+  }
+  List<Entry<PrnfbVariable, Long>> slowestFirst = newArrayList(resolveNanos.entrySet());
+  slowestFirst.sort(new Comparator<Entry<PrnfbVariable, Long>>() {
+   @Override
+   public int compare(Entry<PrnfbVariable, Long> o1, Entry<PrnfbVariable, Long> o2) {
+    return Long.compare(o2.getValue(), o1.getValue());
+   }
+  });
+  Map<String, Double> breakdown = new LinkedHashMap<>();
+  for (Entry<PrnfbVariable, Long> resolved : slowestFirst) {
+   breakdown.put(resolved.getKey().name(), toMillis(resolved.getValue()));
+  }
+  add(notification, RENDER, nanos, thresholds.getSlowRenderMillis(), breakdown);
+ }
+
+ private void add(PrnfbNotification notification, PHASE phase, long nanos, int thresholdMillis,
+   Map<String, Double> breakdown) {
+  RingBuffer<SlowSample> ring = this.samples.get(notification.getUuid());
+  if (ring == null) {
+   ring = this.samples.computeIfAbsent(notification.getUuid(), uuid -> new RingBuffer<>(SAMPLES_PER_NOTIFICATION));
+  }
+  ring.add(new SlowSample(System.currentTimeMillis(), notification.getUuid(), notification.getName(), phase,
+    toMillis(nanos), thresholdMillis, breakdown));
+ }
+}
@@ -0,0 +1,74 @@
+package se.bjurr.prnfb.metrics;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * When rendering, or invoking, a notification is slow enough to be sampled by {@link SlowSamples}. Configured per
+ * notification, with defaults in the global settings.
+ */
+public class SlowThresholds {
+ @VisibleForTesting
+ static final int DEFAULT_SLOW_INVOCATION_MILLIS = 5000;
+ @VisibleForTesting
+ static final int DEFAULT_SLOW_RENDER_MILLIS = 1000;
+
+ /**
+  * The thresholds configured in the notification, the global settings for those that are not configured.
+  */
+ public static SlowThresholds slowThresholds(PrnfbNotification notification, PrnfbSettingsData settings) {
+  return new SlowThresholds(//
+    firstPositive(notification.getSlowInvocationMillis(), settings.getSlowInvocationMillis().orNull(),
+      DEFAULT_SLOW_INVOCATION_MILLIS), //
+    firstPositive(notification.getSlowRenderMillis(), settings.getSlowRenderMillis().orNull(),
+      DEFAULT_SLOW_RENDER_MILLIS));
+ }
+
+ private static int firstPositive(Integer configured, Integer global, int fallback) {
+  if (configured != null && configured > 0) {
+   return configured;
+  }
+  return global != null && global > 0 ? global : fallback;
+ }
+
+ private final int slowInvocationMillis;
+ private final int slowRenderMillis;
+
+ @VisibleForTesting
+ SlowThresholds(int slowInvocationMillis, int slowRenderMillis) {
+  this.slowInvocationMillis = slowInvocationMillis;
+  this.slowRenderMillis = slowRenderMillis;
+ }
+
+ /**
+  * From sending the request until the response was read, or the invocation failed.
+  */
+ public int getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ /**
+  * Rendering of filter string, URL, post content and headers.
+  */
+ public int getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
+ public boolean isSlowInvocation(long nanos) {
+  return nanos >= MILLISECONDS.toNanos(this.slowInvocationMillis);
+ }
+
+ public boolean isSlowRender(long nanos) {
+  return nanos >= MILLISECONDS.toNanos(this.slowRenderMillis);
+ }
+
+ @Override
+ public String toString() {
+  return "SlowThresholds [slowInvocationMillis=" + this.slowInvocationMillis + ", slowRenderMillis="
+    + this.slowRenderMillis + "]";
+ }
+}
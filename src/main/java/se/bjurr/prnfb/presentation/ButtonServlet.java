@@ -20,7 +20,11 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
 import se.bjurr.prnfb.presentation.dto.ButtonDTO;
 import se.bjurr.prnfb.service.ButtonsService;
@@ -87,18 +91,32 @@ public class ButtonServlet {
   return ok(dtos, APPLICATION_JSON).build();
  }
 
+ /**
+  * Responds with 304 if the client sends, in If-None-Match, the entity tag it was given last time and nothing that
+  * the buttons depend on has changed since.
+  */
  @GET
  @Path("/repository/{repositoryId}/pullrequest/{pullRequestId}")
  @Produces(APPLICATION_JSON)
- public Response get(@PathParam("repositoryId") Integer repositoryId, @PathParam("pullRequestId") Long pullRequestId) {
+ public Response get(@PathParam("repositoryId") Integer repositoryId, @PathParam("pullRequestId") Long pullRequestId,
+   @Context Request request) {
   if (!this.userCheckService.isViewAllowed()) {
    return status(UNAUTHORIZED).build();
   }
+  EntityTag entityTag = new EntityTag(this.buttonsService.getButtonsETag(repositoryId, pullRequestId));
+  ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+  if (notModified != null) {
+   return notModified//
+     .tag(entityTag)//
+     .build();
+  }
   List<PrnfbButton> buttons = this.buttonsService.getButtons(repositoryId, pullRequestId);
   Iterable<PrnfbButton> allowedButtons = this.userCheckService.filterAllowed(buttons);
   List<ButtonDTO> dtos = toButtonDtoList(allowedButtons);
   Collections.sort(dtos);
-  return ok(dtos, APPLICATION_JSON).build();
+  return ok(dtos, APPLICATION_JSON)//
+    .tag(entityTag)//
+    .build();
  }
 
  @GET
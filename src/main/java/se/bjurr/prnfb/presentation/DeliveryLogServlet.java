@@ -0,0 +1,63 @@
+package se.bjurr.prnfb.presentation;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
+import static se.bjurr.prnfb.transformer.DeliveryLogTransformer.toDeliveryLogEntryDtoList;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import se.bjurr.prnfb.presentation.dto.DeliveryLogEntryDTO;
+import se.bjurr.prnfb.service.DeliveryLog;
+import se.bjurr.prnfb.service.SettingsService;
+import se.bjurr.prnfb.service.UserCheckService;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.google.common.base.Optional;
+
+/**
+ * The latest deliveries of a notification, see {@link DeliveryLog}.
+ */
+@Path("/deliveries")
+public class DeliveryLogServlet {
+ private final DeliveryLog deliveryLog;
+ private final SettingsService settingsService;
+ private final UserCheckService userCheckService;
+
+ public DeliveryLogServlet(DeliveryLog deliveryLog, SettingsService settingsService,
+   UserCheckService userCheckService) {
+  this.deliveryLog = deliveryLog;
+  this.settingsService = settingsService;
+  this.userCheckService = userCheckService;
+ }
+
+ /**
+  * Newest first.
+  */
+ @GET
+ @Path("{uuid}")
+ @Produces(APPLICATION_JSON)
+ public Response get(@PathParam("uuid") UUID notificationUuid) {
+  Optional<PrnfbNotification> notification = this.settingsService.findNotification(notificationUuid);
+  if (!notification.isPresent()) {
+   return status(NOT_FOUND).build();
+  }
+  if (!this.userCheckService.isAdminAllowed(//
+    notification.get().getProjectKey().orNull(), //
+    notification.get().getRepositorySlug().orNull())) {
+   return status(UNAUTHORIZED).build();
+  }
+  List<DeliveryLogEntryDTO> dtos = toDeliveryLogEntryDtoList(this.deliveryLog.getEntries(notificationUuid));
+  return ok(dtos, APPLICATION_JSON).build();
+ }
+
+}
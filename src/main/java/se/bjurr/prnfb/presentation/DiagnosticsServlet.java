@@ -0,0 +1,112 @@
+package se.bjurr.prnfb.presentation;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
+import static se.bjurr.prnfb.transformer.HostStateTransformer.toHostStateDtoList;
+import static se.bjurr.prnfb.transformer.MetricsTransformer.toMetricsDto;
+import static se.bjurr.prnfb.transformer.MetricsTransformer.toSlowSampleDtoList;
+
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import se.bjurr.prnfb.http.DeliveryEngine;
+import se.bjurr.prnfb.listener.DispatchExecutor;
+import se.bjurr.prnfb.listener.EventCoalescer;
+import se.bjurr.prnfb.listener.TriggerRejections;
+import se.bjurr.prnfb.metrics.MetricsPublisher;
+import se.bjurr.prnfb.metrics.SlowSamples;
+import se.bjurr.prnfb.presentation.dto.DiagnosticsDTO;
+import se.bjurr.prnfb.presentation.dto.HostStateDTO;
+import se.bjurr.prnfb.presentation.dto.SlowSampleDTO;
+import se.bjurr.prnfb.service.InjectionUrlCache;
+import se.bjurr.prnfb.service.UserCheckService;
+
+/**
+ * Counters that show how the plugin is doing, for admins.
+ */
+@Path("/diagnostics")
+public class DiagnosticsServlet {
+ private final DeliveryEngine deliveryEngine;
+ private final DispatchExecutor dispatchExecutor;
+ private final EventCoalescer eventCoalescer;
+ private final MetricsPublisher metricsPublisher;
+ private final SlowSamples slowSamples;
+ private final UserCheckService userCheckService;
+
+ public DiagnosticsServlet(UserCheckService userCheckService, DispatchExecutor dispatchExecutor,
+   EventCoalescer eventCoalescer, DeliveryEngine deliveryEngine, MetricsPublisher metricsPublisher,
+   SlowSamples slowSamples) {
+  this.userCheckService = userCheckService;
+  this.dispatchExecutor = dispatchExecutor;
+  this.eventCoalescer = eventCoalescer;
+  this.deliveryEngine = deliveryEngine;
+  this.metricsPublisher = metricsPublisher;
+  this.slowSamples = slowSamples;
+ }
+
+ @GET
+ @Produces(APPLICATION_JSON)
+ public Response get() {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  DiagnosticsDTO dto = new DiagnosticsDTO();
+  dto.setDispatchCallerRuns(this.dispatchExecutor.getCallerRuns());
+  dto.setDispatchDropped(this.dispatchExecutor.getDropped());
+  dto.setDispatchQueueDepth(this.dispatchExecutor.getQueueDepth());
+  dto.setEventsCoalesced(this.eventCoalescer.getCoalesced());
+  dto.setInjectionUrlCacheHits(InjectionUrlCache.getHits());
+  dto.setInjectionUrlCacheMisses(InjectionUrlCache.getMisses());
+  dto.setInjectionUrlCacheSize(InjectionUrlCache.getSize());
+  dto.setTriggerRejections(TriggerRejections.getRejectionsPerCheck());
+  return ok(dto, APPLICATION_JSON).build();
+ }
+
+ /**
+  * Throttle state of the hosts notifications are delivered to.
+  */
+ @GET
+ @Path("/hosts")
+ @Produces(APPLICATION_JSON)
+ public Response getHosts() {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  List<HostStateDTO> dtos = toHostStateDtoList(this.deliveryEngine.getHostStates());
+  return ok(dtos, APPLICATION_JSON).build();
+ }
+
+ /**
+  * Same metrics as published in JMX.
+  */
+ @GET
+ @Path("/metrics")
+ @Produces(APPLICATION_JSON)
+ public Response getMetrics() {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  return ok(toMetricsDto(this.metricsPublisher), APPLICATION_JSON).build();
+ }
+
+ /**
+  * Notifications that were slow to render or invoke, newest first.
+  */
+ @GET
+ @Path("/slow")
+ @Produces(APPLICATION_JSON)
+ public Response getSlowSamples() {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  List<SlowSampleDTO> dtos = toSlowSampleDtoList(this.slowSamples.getSamples());
+  return ok(dtos, APPLICATION_JSON).build();
+ }
+
+}
@@ -24,6 +24,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
 
 import se.bjurr.prnfb.presentation.dto.NotificationDTO;
+import se.bjurr.prnfb.service.DeliveryLog;
 import se.bjurr.prnfb.service.SettingsService;
 import se.bjurr.prnfb.service.UserCheckService;
 import se.bjurr.prnfb.settings.PrnfbNotification;
@@ -32,10 +33,13 @@ import com.atlassian.annotations.security.XsrfProtectionExcluded;
 
 @Path("/settings/notifications")
 public class NotificationServlet {
+ private final DeliveryLog deliveryLog;
  private final SettingsService settingsService;
  private final UserCheckService userCheckService;
 
- public NotificationServlet(SettingsService settingsService, UserCheckService userCheckService) {
+ public NotificationServlet(SettingsService settingsService, UserCheckService userCheckService,
+   DeliveryLog deliveryLog) {
+  this.deliveryLog = deliveryLog;
   this.settingsService = settingsService;
   this.userCheckService = userCheckService;
  }
@@ -72,6 +76,7 @@ public class NotificationServlet {
    return status(UNAUTHORIZED).build();
   }
   this.settingsService.deleteNotification(notification);
+  this.deliveryLog.remove(notification);
   return status(OK).build();
  }
 
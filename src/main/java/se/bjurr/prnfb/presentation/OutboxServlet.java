@@ -0,0 +1,96 @@
+package se.bjurr.prnfb.presentation;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
+import static se.bjurr.prnfb.transformer.OutboxTransformer.toOutboxEntryDto;
+import static se.bjurr.prnfb.transformer.OutboxTransformer.toOutboxEntryDtoList;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import se.bjurr.prnfb.presentation.dto.OutboxEntryDTO;
+import se.bjurr.prnfb.service.OutboxEntry;
+import se.bjurr.prnfb.service.OutboxService;
+import se.bjurr.prnfb.service.UserCheckService;
+
+import com.atlassian.annotations.security.XsrfProtectionExcluded;
+import com.google.common.base.Optional;
+
+/**
+ * Notifications that could not be delivered, see {@link OutboxService}.
+ */
+@Path("/outbox")
+public class OutboxServlet {
+ private final OutboxService outboxService;
+ private final UserCheckService userCheckService;
+
+ public OutboxServlet(OutboxService outboxService, UserCheckService userCheckService) {
+  this.outboxService = outboxService;
+  this.userCheckService = userCheckService;
+ }
+
+ @DELETE
+ @Path("{uuid}")
+ @XsrfProtectionExcluded
+ @Produces(APPLICATION_JSON)
+ public Response delete(@PathParam("uuid") UUID uuid) {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  if (!this.outboxService.delete(uuid)) {
+   return status(NOT_FOUND).build();
+  }
+  return status(OK).build();
+ }
+
+ @GET
+ @Produces(APPLICATION_JSON)
+ public Response get() {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  List<OutboxEntryDTO> dtos = toOutboxEntryDtoList(this.outboxService.getEntries());
+  return ok(dtos, APPLICATION_JSON).build();
+ }
+
+ @GET
+ @Path("{uuid}")
+ @Produces(APPLICATION_JSON)
+ public Response get(@PathParam("uuid") UUID uuid) {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  Optional<OutboxEntry> entry = this.outboxService.getEntry(uuid);
+  if (!entry.isPresent()) {
+   return status(NOT_FOUND).build();
+  }
+  return ok(toOutboxEntryDto(entry.get()), APPLICATION_JSON).build();
+ }
+
+ @POST
+ @Path("{uuid}/replay")
+ @XsrfProtectionExcluded
+ @Produces(APPLICATION_JSON)
+ public Response replay(@PathParam("uuid") UUID uuid) {
+  if (!this.userCheckService.isAdminAllowed(null, null)) {
+   return status(UNAUTHORIZED).build();
+  }
+  if (!this.outboxService.replay(uuid)) {
+   return status(NOT_FOUND).build();
+  }
+  return status(OK).build();
+ }
+
+}
@@ -0,0 +1,133 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class DeliveryLogEntryDTO {
+ private PrnfbPullRequestAction action;
+ private long latencyMillis;
+ private long pullRequestId;
+ private String response;
+ private Integer status;
+ private long timestamp;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  DeliveryLogEntryDTO other = (DeliveryLogEntryDTO) obj;
+  if (this.action == null) {
+   if (other.action != null) {
+    return false;
+   }
+  } else if (!this.action.equals(other.action)) {
+   return false;
+  }
+  if (this.latencyMillis != other.latencyMillis) {
+   return false;
+  }
+  if (this.pullRequestId != other.pullRequestId) {
+   return false;
+  }
+  if (this.response == null) {
+   if (other.response != null) {
+    return false;
+   }
+  } else if (!this.response.equals(other.response)) {
+   return false;
+  }
+  if (this.status == null) {
+   if (other.status != null) {
+    return false;
+   }
+  } else if (!this.status.equals(other.status)) {
+   return false;
+  }
+  if (this.timestamp != other.timestamp) {
+   return false;
+  }
+  return true;
+ }
+
+ public PrnfbPullRequestAction getAction() {
+  return this.action;
+ }
+
+ public long getLatencyMillis() {
+  return this.latencyMillis;
+ }
+
+ public long getPullRequestId() {
+  return this.pullRequestId;
+ }
+
+ public String getResponse() {
+  return this.response;
+ }
+
+ public Integer getStatus() {
+  return this.status;
+ }
+
+ public long getTimestamp() {
+  return this.timestamp;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + ((this.action == null) ? 0 : this.action.hashCode());
+  result = prime * result + (int) (this.latencyMillis ^ this.latencyMillis >>> 32);
+  result = prime * result + (int) (this.pullRequestId ^ this.pullRequestId >>> 32);
+  result = prime * result + ((this.response == null) ? 0 : this.response.hashCode());
+  result = prime * result + ((this.status == null) ? 0 : this.status.hashCode());
+  result = prime * result + (int) (this.timestamp ^ this.timestamp >>> 32);
+  return result;
+ }
+
+ public void setAction(PrnfbPullRequestAction action) {
+  this.action = action;
+ }
+
+ public void setLatencyMillis(long latencyMillis) {
+  this.latencyMillis = latencyMillis;
+ }
+
+ public void setPullRequestId(long pullRequestId) {
+  this.pullRequestId = pullRequestId;
+ }
+
+ public void setResponse(String response) {
+  this.response = response;
+ }
+
+ public void setStatus(Integer status) {
+  this.status = status;
+ }
+
+ public void setTimestamp(long timestamp) {
+  this.timestamp = timestamp;
+ }
+
+ @Override
+ public String toString() {
+  return "DeliveryLogEntryDTO [action=" + this.action + ", latencyMillis=" + this.latencyMillis
+    + ", pullRequestId=" + this.pullRequestId + ", response=" + this.response + ", status=" + this.status
+    + ", timestamp=" + this.timestamp + "]";
+ }
+
+}
@@ -0,0 +1,156 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class DiagnosticsDTO {
+ private long dispatchCallerRuns;
+ private long dispatchDropped;
+ private long dispatchQueueDepth;
+ private long eventsCoalesced;
+ private long injectionUrlCacheHits;
+ private long injectionUrlCacheMisses;
+ private long injectionUrlCacheSize;
+ /**
+  * Number of times a notification was not triggered, per check, in the order the checks are done.
+  */
+ private Map<String, Long> triggerRejections;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  DiagnosticsDTO other = (DiagnosticsDTO) obj;
+  if (this.dispatchCallerRuns != other.dispatchCallerRuns) {
+   return false;
+  }
+  if (this.dispatchDropped != other.dispatchDropped) {
+   return false;
+  }
+  if (this.dispatchQueueDepth != other.dispatchQueueDepth) {
+   return false;
+  }
+  if (this.eventsCoalesced != other.eventsCoalesced) {
+   return false;
+  }
+  if (this.injectionUrlCacheHits != other.injectionUrlCacheHits) {
+   return false;
+  }
+  if (this.injectionUrlCacheMisses != other.injectionUrlCacheMisses) {
+   return false;
+  }
+  if (this.injectionUrlCacheSize != other.injectionUrlCacheSize) {
+   return false;
+  }
+  if (this.triggerRejections == null) {
+   if (other.triggerRejections != null) {
+    return false;
+   }
+  } else if (!this.triggerRejections.equals(other.triggerRejections)) {
+   return false;
+  }
+  return true;
+ }
+
+ public long getDispatchCallerRuns() {
+  return this.dispatchCallerRuns;
+ }
+
+ public long getDispatchDropped() {
+  return this.dispatchDropped;
+ }
+
+ public long getDispatchQueueDepth() {
+  return this.dispatchQueueDepth;
+ }
+
+ public long getEventsCoalesced() {
+  return this.eventsCoalesced;
+ }
+
+ public long getInjectionUrlCacheHits() {
+  return this.injectionUrlCacheHits;
+ }
+
+ public long getInjectionUrlCacheMisses() {
+  return this.injectionUrlCacheMisses;
+ }
+
+ public long getInjectionUrlCacheSize() {
+  return this.injectionUrlCacheSize;
+ }
+
+ public Map<String, Long> getTriggerRejections() {
+  return this.triggerRejections;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + (int) (this.dispatchCallerRuns ^ this.dispatchCallerRuns >>> 32);
+  result = prime * result + (int) (this.dispatchDropped ^ this.dispatchDropped >>> 32);
+  result = prime * result + (int) (this.dispatchQueueDepth ^ this.dispatchQueueDepth >>> 32);
+  result = prime * result + (int) (this.eventsCoalesced ^ this.eventsCoalesced >>> 32);
+  result = prime * result + (int) (this.injectionUrlCacheHits ^ this.injectionUrlCacheHits >>> 32);
+  result = prime * result + (int) (this.injectionUrlCacheMisses ^ this.injectionUrlCacheMisses >>> 32);
+  result = prime * result + (int) (this.injectionUrlCacheSize ^ this.injectionUrlCacheSize >>> 32);
+  result = prime * result + ((this.triggerRejections == null) ? 0 : this.triggerRejections.hashCode());
+  return result;
+ }
+
+ public void setDispatchCallerRuns(long dispatchCallerRuns) {
+  this.dispatchCallerRuns = dispatchCallerRuns;
+ }
+
+ public void setDispatchDropped(long dispatchDropped) {
+  this.dispatchDropped = dispatchDropped;
+ }
+
+ public void setDispatchQueueDepth(long dispatchQueueDepth) {
+  this.dispatchQueueDepth = dispatchQueueDepth;
+ }
+
+ public void setEventsCoalesced(long eventsCoalesced) {
+  this.eventsCoalesced = eventsCoalesced;
+ }
+
+ public void setInjectionUrlCacheHits(long injectionUrlCacheHits) {
+  this.injectionUrlCacheHits = injectionUrlCacheHits;
+ }
+
+ public void setInjectionUrlCacheMisses(long injectionUrlCacheMisses) {
+  this.injectionUrlCacheMisses = injectionUrlCacheMisses;
+ }
+
+ public void setInjectionUrlCacheSize(long injectionUrlCacheSize) {
+  this.injectionUrlCacheSize = injectionUrlCacheSize;
+ }
+
+ public void setTriggerRejections(Map<String, Long> triggerRejections) {
+  this.triggerRejections = triggerRejections;
+ }
+
+ @Override
+ public String toString() {
+  return "DiagnosticsDTO [dispatchCallerRuns=" + this.dispatchCallerRuns + ", dispatchDropped=" + this.dispatchDropped
+    + ", dispatchQueueDepth=" + this.dispatchQueueDepth + ", eventsCoalesced=" + this.eventsCoalesced
+    + ", injectionUrlCacheHits=" + this.injectionUrlCacheHits
+    + ", injectionUrlCacheMisses=" + this.injectionUrlCacheMisses
+    + ", injectionUrlCacheSize=" + this.injectionUrlCacheSize + ", triggerRejections=" + this.triggerRejections + "]";
+ }
+
+}
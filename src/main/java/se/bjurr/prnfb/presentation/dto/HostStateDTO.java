@@ -0,0 +1,168 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import se.bjurr.prnfb.http.CircuitState;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class HostStateDTO {
+ private CircuitState circuitState;
+ private int consecutiveFailures;
+ private String host;
+ private int inFlight;
+ private int maxConcurrent;
+ private int rateLimitBurst;
+ private double rateLimitPerSecond;
+ private double tokens;
+ private int waiting;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  HostStateDTO other = (HostStateDTO) obj;
+  if (this.circuitState != other.circuitState) {
+   return false;
+  }
+  if (this.consecutiveFailures != other.consecutiveFailures) {
+   return false;
+  }
+  if (this.host == null) {
+   if (other.host != null) {
+    return false;
+   }
+  } else if (!this.host.equals(other.host)) {
+   return false;
+  }
+  if (this.inFlight != other.inFlight) {
+   return false;
+  }
+  if (this.maxConcurrent != other.maxConcurrent) {
+   return false;
+  }
+  if (this.rateLimitBurst != other.rateLimitBurst) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.rateLimitPerSecond) != Double.doubleToLongBits(other.rateLimitPerSecond)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.tokens) != Double.doubleToLongBits(other.tokens)) {
+   return false;
+  }
+  if (this.waiting != other.waiting) {
+   return false;
+  }
+  return true;
+ }
+
+ public CircuitState getCircuitState() {
+  return this.circuitState;
+ }
+
+ public int getConsecutiveFailures() {
+  return this.consecutiveFailures;
+ }
+
+ public String getHost() {
+  return this.host;
+ }
+
+ public int getInFlight() {
+  return this.inFlight;
+ }
+
+ public int getMaxConcurrent() {
+  return this.maxConcurrent;
+ }
+
+ public int getRateLimitBurst() {
+  return this.rateLimitBurst;
+ }
+
+ public double getRateLimitPerSecond() {
+  return this.rateLimitPerSecond;
+ }
+
+ public double getTokens() {
+  return this.tokens;
+ }
+
+ public int getWaiting() {
+  return this.waiting;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  long temp;
+  result = prime * result + ((this.circuitState == null) ? 0 : this.circuitState.hashCode());
+  result = prime * result + this.consecutiveFailures;
+  result = prime * result + ((this.host == null) ? 0 : this.host.hashCode());
+  result = prime * result + this.inFlight;
+  result = prime * result + this.maxConcurrent;
+  result = prime * result + this.rateLimitBurst;
+  temp = Double.doubleToLongBits(this.rateLimitPerSecond);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  temp = Double.doubleToLongBits(this.tokens);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  result = prime * result + this.waiting;
+  return result;
+ }
+
+ public void setCircuitState(CircuitState circuitState) {
+  this.circuitState = circuitState;
+ }
+
+ public void setConsecutiveFailures(int consecutiveFailures) {
+  this.consecutiveFailures = consecutiveFailures;
+ }
+
+ public void setHost(String host) {
+  this.host = host;
+ }
+
+ public void setInFlight(int inFlight) {
+  this.inFlight = inFlight;
+ }
+
+ public void setMaxConcurrent(int maxConcurrent) {
+  this.maxConcurrent = maxConcurrent;
+ }
+
+ public void setRateLimitBurst(int rateLimitBurst) {
+  this.rateLimitBurst = rateLimitBurst;
+ }
+
+ public void setRateLimitPerSecond(double rateLimitPerSecond) {
+  this.rateLimitPerSecond = rateLimitPerSecond;
+ }
+
+ public void setTokens(double tokens) {
+  this.tokens = tokens;
+ }
+
+ public void setWaiting(int waiting) {
+  this.waiting = waiting;
+ }
+
+ @Override
+ public String toString() {
+  return "HostStateDTO [circuitState=" + this.circuitState + ", consecutiveFailures=" + this.consecutiveFailures
+    + ", host=" + this.host + ", inFlight=" + this.inFlight + ", maxConcurrent=" + this.maxConcurrent
+    + ", rateLimitBurst=" + this.rateLimitBurst + ", rateLimitPerSecond=" + this.rateLimitPerSecond
+    + ", tokens=" + this.tokens + ", waiting=" + this.waiting + "]";
+ }
+
+}
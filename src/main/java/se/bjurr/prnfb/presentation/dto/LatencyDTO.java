@@ -0,0 +1,127 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class LatencyDTO {
+ private long count;
+ /**
+  * Milliseconds, as are the mean and the percentiles.
+  */
+ private double max;
+ private double mean;
+ private double p50;
+ private double p95;
+ private double p99;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  LatencyDTO other = (LatencyDTO) obj;
+  if (this.count != other.count) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.max) != Double.doubleToLongBits(other.max)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.mean) != Double.doubleToLongBits(other.mean)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.p50) != Double.doubleToLongBits(other.p50)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.p95) != Double.doubleToLongBits(other.p95)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.p99) != Double.doubleToLongBits(other.p99)) {
+   return false;
+  }
+  return true;
+ }
+
+ public long getCount() {
+  return this.count;
+ }
+
+ public double getMax() {
+  return this.max;
+ }
+
+ public double getMean() {
+  return this.mean;
+ }
+
+ public double getP50() {
+  return this.p50;
+ }
+
+ public double getP95() {
+  return this.p95;
+ }
+
+ public double getP99() {
+  return this.p99;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  long temp;
+  result = prime * result + (int) (this.count ^ this.count >>> 32);
+  temp = Double.doubleToLongBits(this.max);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  temp = Double.doubleToLongBits(this.mean);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  temp = Double.doubleToLongBits(this.p50);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  temp = Double.doubleToLongBits(this.p95);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  temp = Double.doubleToLongBits(this.p99);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  return result;
+ }
+
+ public void setCount(long count) {
+  this.count = count;
+ }
+
+ public void setMax(double max) {
+  this.max = max;
+ }
+
+ public void setMean(double mean) {
+  this.mean = mean;
+ }
+
+ public void setP50(double p50) {
+  this.p50 = p50;
+ }
+
+ public void setP95(double p95) {
+  this.p95 = p95;
+ }
+
+ public void setP99(double p99) {
+  this.p99 = p99;
+ }
+
+ @Override
+ public String toString() {
+  return "LatencyDTO [count=" + this.count + ", max=" + this.max + ", mean=" + this.mean + ", p50=" + this.p50
+    + ", p95=" + this.p95 + ", p99=" + this.p99 + "]";
+ }
+
+}
@@ -0,0 +1,200 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class MetricsDTO {
+ private int deliveriesInFlight;
+ private int deliveryQueueDepth;
+ private int dispatchQueueDepth;
+ private Map<String, Long> eventsReceived;
+ private Map<String, Long> httpFailures;
+ private Map<String, LatencyDTO> httpLatency;
+ private Map<String, Map<String, Long>> httpResponses;
+ private long notificationsMatched;
+ private Map<String, Long> notificationsRejected;
+ private LatencyDTO renderTime;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  MetricsDTO other = (MetricsDTO) obj;
+  if (this.deliveriesInFlight != other.deliveriesInFlight) {
+   return false;
+  }
+  if (this.deliveryQueueDepth != other.deliveryQueueDepth) {
+   return false;
+  }
+  if (this.dispatchQueueDepth != other.dispatchQueueDepth) {
+   return false;
+  }
+  if (this.eventsReceived == null) {
+   if (other.eventsReceived != null) {
+    return false;
+   }
+  } else if (!this.eventsReceived.equals(other.eventsReceived)) {
+   return false;
+  }
+  if (this.httpFailures == null) {
+   if (other.httpFailures != null) {
+    return false;
+   }
+  } else if (!this.httpFailures.equals(other.httpFailures)) {
+   return false;
+  }
+  if (this.httpLatency == null) {
+   if (other.httpLatency != null) {
+    return false;
+   }
+  } else if (!this.httpLatency.equals(other.httpLatency)) {
+   return false;
+  }
+  if (this.httpResponses == null) {
+   if (other.httpResponses != null) {
+    return false;
+   }
+  } else if (!this.httpResponses.equals(other.httpResponses)) {
+   return false;
+  }
+  if (this.notificationsMatched != other.notificationsMatched) {
+   return false;
+  }
+  if (this.notificationsRejected == null) {
+   if (other.notificationsRejected != null) {
+    return false;
+   }
+  } else if (!this.notificationsRejected.equals(other.notificationsRejected)) {
+   return false;
+  }
+  if (this.renderTime == null) {
+   if (other.renderTime != null) {
+    return false;
+   }
+  } else if (!this.renderTime.equals(other.renderTime)) {
+   return false;
+  }
+  return true;
+ }
+
+ public int getDeliveriesInFlight() {
+  return this.deliveriesInFlight;
+ }
+
+ public int getDeliveryQueueDepth() {
+  return this.deliveryQueueDepth;
+ }
+
+ public int getDispatchQueueDepth() {
+  return this.dispatchQueueDepth;
+ }
+
+ public Map<String, Long> getEventsReceived() {
+  return this.eventsReceived;
+ }
+
+ public Map<String, Long> getHttpFailures() {
+  return this.httpFailures;
+ }
+
+ public Map<String, LatencyDTO> getHttpLatency() {
+  return this.httpLatency;
+ }
+
+ public Map<String, Map<String, Long>> getHttpResponses() {
+  return this.httpResponses;
+ }
+
+ public long getNotificationsMatched() {
+  return this.notificationsMatched;
+ }
+
+ public Map<String, Long> getNotificationsRejected() {
+  return this.notificationsRejected;
+ }
+
+ public LatencyDTO getRenderTime() {
+  return this.renderTime;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + this.deliveriesInFlight;
+  result = prime * result + this.deliveryQueueDepth;
+  result = prime * result + this.dispatchQueueDepth;
+  result = prime * result + ((this.eventsReceived == null) ? 0 : this.eventsReceived.hashCode());
+  result = prime * result + ((this.httpFailures == null) ? 0 : this.httpFailures.hashCode());
+  result = prime * result + ((this.httpLatency == null) ? 0 : this.httpLatency.hashCode());
+  result = prime * result + ((this.httpResponses == null) ? 0 : this.httpResponses.hashCode());
+  result = prime * result + (int) (this.notificationsMatched ^ this.notificationsMatched >>> 32);
+  result = prime * result + ((this.notificationsRejected == null) ? 0 : this.notificationsRejected.hashCode());
+  result = prime * result + ((this.renderTime == null) ? 0 : this.renderTime.hashCode());
+  return result;
+ }
+
+ public void setDeliveriesInFlight(int deliveriesInFlight) {
+  this.deliveriesInFlight = deliveriesInFlight;
+ }
+
+ public void setDeliveryQueueDepth(int deliveryQueueDepth) {
+  this.deliveryQueueDepth = deliveryQueueDepth;
+ }
+
+ public void setDispatchQueueDepth(int dispatchQueueDepth) {
+  this.dispatchQueueDepth = dispatchQueueDepth;
+ }
+
+ public void setEventsReceived(Map<String, Long> eventsReceived) {
+  this.eventsReceived = eventsReceived;
+ }
+
+ public void setHttpFailures(Map<String, Long> httpFailures) {
+  this.httpFailures = httpFailures;
+ }
+
+ public void setHttpLatency(Map<String, LatencyDTO> httpLatency) {
+  this.httpLatency = httpLatency;
+ }
+
+ public void setHttpResponses(Map<String, Map<String, Long>> httpResponses) {
+  this.httpResponses = httpResponses;
+ }
+
+ public void setNotificationsMatched(long notificationsMatched) {
+  this.notificationsMatched = notificationsMatched;
+ }
+
+ public void setNotificationsRejected(Map<String, Long> notificationsRejected) {
+  this.notificationsRejected = notificationsRejected;
+ }
+
+ public void setRenderTime(LatencyDTO renderTime) {
+  this.renderTime = renderTime;
+ }
+
+ @Override
+ public String toString() {
+  return "MetricsDTO [deliveriesInFlight=" + this.deliveriesInFlight
+    + ", deliveryQueueDepth=" + this.deliveryQueueDepth + ", dispatchQueueDepth=" + this.dispatchQueueDepth
+    + ", eventsReceived=" + this.eventsReceived + ", httpFailures=" + this.httpFailures
+    + ", httpLatency=" + this.httpLatency + ", httpResponses=" + this.httpResponses
+    + ", notificationsMatched=" + this.notificationsMatched + ", notificationsRejected=" + this.notificationsRejected
+    + ", renderTime=" + this.renderTime + "]";
+ }
+
+}
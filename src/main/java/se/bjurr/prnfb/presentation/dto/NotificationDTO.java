@@ -14,11 +14,15 @@ import se.bjurr.prnfb.settings.TRIGGER_IF_MERGE;
 @XmlRootElement
 @XmlAccessorType(FIELD)
 public class NotificationDTO implements Comparable<NotificationDTO> {
+ private Integer connectTimeoutSeconds;
+ private Integer debounceSeconds;
  private String filterRegexp;
  private String filterString;
  private List<HeaderDTO> headers;
  private String injectionUrl;
+ private Integer injectionUrlCacheSeconds;
  private String injectionUrlRegexp;
+ private Integer maxConcurrent;
  private HTTP_METHOD method;
  private String name;
  private String password;
@@ -28,7 +32,13 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
  private Integer proxyPort;
  private String proxyServer;
  private String proxyUser;
+ private Integer rateLimitBurst;
+ private Double rateLimitPerSecond;
+ private Integer readTimeoutSeconds;
  private String repositorySlug;
+ private Integer requestTimeoutSeconds;
+ private Integer slowInvocationMillis;
+ private Integer slowRenderMillis;
  private TRIGGER_IF_MERGE triggerIfCanMerge;
  private List<String> triggerIgnoreStateList;
  private List<String> triggers;
@@ -53,6 +63,20 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
    return false;
   }
   NotificationDTO other = (NotificationDTO) obj;
+  if (this.connectTimeoutSeconds == null) {
+   if (other.connectTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.connectTimeoutSeconds.equals(other.connectTimeoutSeconds)) {
+   return false;
+  }
+  if (this.debounceSeconds == null) {
+   if (other.debounceSeconds != null) {
+    return false;
+   }
+  } else if (!this.debounceSeconds.equals(other.debounceSeconds)) {
+   return false;
+  }
   if (this.filterRegexp == null) {
    if (other.filterRegexp != null) {
     return false;
@@ -81,6 +105,13 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   } else if (!this.injectionUrl.equals(other.injectionUrl)) {
    return false;
   }
+  if (this.injectionUrlCacheSeconds == null) {
+   if (other.injectionUrlCacheSeconds != null) {
+    return false;
+   }
+  } else if (!this.injectionUrlCacheSeconds.equals(other.injectionUrlCacheSeconds)) {
+   return false;
+  }
   if (this.injectionUrlRegexp == null) {
    if (other.injectionUrlRegexp != null) {
     return false;
@@ -88,6 +119,13 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   } else if (!this.injectionUrlRegexp.equals(other.injectionUrlRegexp)) {
    return false;
   }
+  if (this.maxConcurrent == null) {
+   if (other.maxConcurrent != null) {
+    return false;
+   }
+  } else if (!this.maxConcurrent.equals(other.maxConcurrent)) {
+   return false;
+  }
   if (this.method != other.method) {
    return false;
   }
@@ -147,6 +185,27 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   } else if (!this.proxyUser.equals(other.proxyUser)) {
    return false;
   }
+  if (this.rateLimitBurst == null) {
+   if (other.rateLimitBurst != null) {
+    return false;
+   }
+  } else if (!this.rateLimitBurst.equals(other.rateLimitBurst)) {
+   return false;
+  }
+  if (this.rateLimitPerSecond == null) {
+   if (other.rateLimitPerSecond != null) {
+    return false;
+   }
+  } else if (!this.rateLimitPerSecond.equals(other.rateLimitPerSecond)) {
+   return false;
+  }
+  if (this.readTimeoutSeconds == null) {
+   if (other.readTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.readTimeoutSeconds.equals(other.readTimeoutSeconds)) {
+   return false;
+  }
   if (this.repositorySlug == null) {
    if (other.repositorySlug != null) {
     return false;
@@ -154,6 +213,27 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   } else if (!this.repositorySlug.equals(other.repositorySlug)) {
    return false;
   }
+  if (this.requestTimeoutSeconds == null) {
+   if (other.requestTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.requestTimeoutSeconds.equals(other.requestTimeoutSeconds)) {
+   return false;
+  }
+  if (this.slowInvocationMillis == null) {
+   if (other.slowInvocationMillis != null) {
+    return false;
+   }
+  } else if (!this.slowInvocationMillis.equals(other.slowInvocationMillis)) {
+   return false;
+  }
+  if (this.slowRenderMillis == null) {
+   if (other.slowRenderMillis != null) {
+    return false;
+   }
+  } else if (!this.slowRenderMillis.equals(other.slowRenderMillis)) {
+   return false;
+  }
   if (this.triggerIfCanMerge != other.triggerIfCanMerge) {
    return false;
   }
@@ -195,6 +275,14 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   return true;
  }
 
+ public Integer getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ public Integer getDebounceSeconds() {
+  return this.debounceSeconds;
+ }
+
  public String getFilterRegexp() {
   return this.filterRegexp;
  }
@@ -211,10 +299,18 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   return this.injectionUrl;
  }
 
+ public Integer getInjectionUrlCacheSeconds() {
+  return this.injectionUrlCacheSeconds;
+ }
+
  public String getInjectionUrlRegexp() {
   return this.injectionUrlRegexp;
  }
 
+ public Integer getMaxConcurrent() {
+  return this.maxConcurrent;
+ }
+
  public HTTP_METHOD getMethod() {
   return this.method;
  }
@@ -251,10 +347,34 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   return this.proxyUser;
  }
 
+ public Integer getRateLimitBurst() {
+  return this.rateLimitBurst;
+ }
+
+ public Double getRateLimitPerSecond() {
+  return this.rateLimitPerSecond;
+ }
+
+ public Integer getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
  public String getRepositorySlug() {
   return this.repositorySlug;
  }
 
+ public Integer getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
+ public Integer getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ public Integer getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
  public TRIGGER_IF_MERGE getTriggerIfCanMerge() {
   return this.triggerIfCanMerge;
  }
@@ -283,11 +403,15 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
  public int hashCode() {
   final int prime = 31;
   int result = 1;
+  result = prime * result + ((this.connectTimeoutSeconds == null) ? 0 : this.connectTimeoutSeconds.hashCode());
+  result = prime * result + ((this.debounceSeconds == null) ? 0 : this.debounceSeconds.hashCode());
   result = prime * result + ((this.filterRegexp == null) ? 0 : this.filterRegexp.hashCode());
   result = prime * result + ((this.filterString == null) ? 0 : this.filterString.hashCode());
   result = prime * result + ((this.headers == null) ? 0 : this.headers.hashCode());
   result = prime * result + ((this.injectionUrl == null) ? 0 : this.injectionUrl.hashCode());
+  result = prime * result + ((this.injectionUrlCacheSeconds == null) ? 0 : this.injectionUrlCacheSeconds.hashCode());
   result = prime * result + ((this.injectionUrlRegexp == null) ? 0 : this.injectionUrlRegexp.hashCode());
+  result = prime * result + ((this.maxConcurrent == null) ? 0 : this.maxConcurrent.hashCode());
   result = prime * result + ((this.method == null) ? 0 : this.method.hashCode());
   result = prime * result + ((this.name == null) ? 0 : this.name.hashCode());
   result = prime * result + ((this.password == null) ? 0 : this.password.hashCode());
@@ -297,7 +421,13 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   result = prime * result + ((this.proxyPort == null) ? 0 : this.proxyPort.hashCode());
   result = prime * result + ((this.proxyServer == null) ? 0 : this.proxyServer.hashCode());
   result = prime * result + ((this.proxyUser == null) ? 0 : this.proxyUser.hashCode());
+  result = prime * result + ((this.rateLimitBurst == null) ? 0 : this.rateLimitBurst.hashCode());
+  result = prime * result + ((this.rateLimitPerSecond == null) ? 0 : this.rateLimitPerSecond.hashCode());
+  result = prime * result + ((this.readTimeoutSeconds == null) ? 0 : this.readTimeoutSeconds.hashCode());
   result = prime * result + ((this.repositorySlug == null) ? 0 : this.repositorySlug.hashCode());
+  result = prime * result + ((this.requestTimeoutSeconds == null) ? 0 : this.requestTimeoutSeconds.hashCode());
+  result = prime * result + ((this.slowInvocationMillis == null) ? 0 : this.slowInvocationMillis.hashCode());
+  result = prime * result + ((this.slowRenderMillis == null) ? 0 : this.slowRenderMillis.hashCode());
   result = prime * result + ((this.triggerIfCanMerge == null) ? 0 : this.triggerIfCanMerge.hashCode());
   result = prime * result + ((this.triggerIgnoreStateList == null) ? 0 : this.triggerIgnoreStateList.hashCode());
   result = prime * result + ((this.triggers == null) ? 0 : this.triggers.hashCode());
@@ -307,6 +437,14 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   return result;
  }
 
+ public void setConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+  this.connectTimeoutSeconds = connectTimeoutSeconds;
+ }
+
+ public void setDebounceSeconds(Integer debounceSeconds) {
+  this.debounceSeconds = debounceSeconds;
+ }
+
  public void setFilterRegexp(String filterRegexp) {
   this.filterRegexp = filterRegexp;
  }
@@ -323,10 +461,18 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   this.injectionUrl = injectionUrl;
  }
 
+ public void setInjectionUrlCacheSeconds(Integer injectionUrlCacheSeconds) {
+  this.injectionUrlCacheSeconds = injectionUrlCacheSeconds;
+ }
+
  public void setInjectionUrlRegexp(String injectionUrlRegexp) {
   this.injectionUrlRegexp = injectionUrlRegexp;
  }
 
+ public void setMaxConcurrent(Integer maxConcurrent) {
+  this.maxConcurrent = maxConcurrent;
+ }
+
  public void setMethod(HTTP_METHOD method) {
   this.method = method;
  }
@@ -363,10 +509,34 @@ public class NotificationDTO implements Comparable<NotificationDTO> {
   this.proxyUser = proxyUser;
  }
 
+ public void setRateLimitBurst(Integer rateLimitBurst) {
+  this.rateLimitBurst = rateLimitBurst;
+ }
+
+ public void setRateLimitPerSecond(Double rateLimitPerSecond) {
+  this.rateLimitPerSecond = rateLimitPerSecond;
+ }
+
+ public void setReadTimeoutSeconds(Integer readTimeoutSeconds) {
+  this.readTimeoutSeconds = readTimeoutSeconds;
+ }
+
  public void setRepositorySlug(String repositorySlug) {
   this.repositorySlug = repositorySlug;
  }
 
+ public void setRequestTimeoutSeconds(Integer requestTimeoutSeconds) {
+  this.requestTimeoutSeconds = requestTimeoutSeconds;
+ }
+
+ public void setSlowInvocationMillis(Integer slowInvocationMillis) {
+  this.slowInvocationMillis = slowInvocationMillis;
+ }
+
+ public void setSlowRenderMillis(Integer slowRenderMillis) {
+  this.slowRenderMillis = slowRenderMillis;
+ }
+
  public void setTriggerIfCanMerge(TRIGGER_IF_MERGE triggerIfCanMerge) {
   this.triggerIfCanMerge = triggerIfCanMerge;
  }
@@ -0,0 +1,215 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class OutboxEntryDTO {
+ private int attempts;
+ private long createdAt;
+ private boolean dead;
+ private List<HeaderDTO> headers;
+ private String lastError;
+ private HTTP_METHOD method;
+ private long nextAttemptAt;
+ private UUID notificationUuid;
+ private String postContent;
+ private String url;
+ private UUID uuid;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  OutboxEntryDTO other = (OutboxEntryDTO) obj;
+  if (this.attempts != other.attempts) {
+   return false;
+  }
+  if (this.createdAt != other.createdAt) {
+   return false;
+  }
+  if (this.dead != other.dead) {
+   return false;
+  }
+  if (this.headers == null) {
+   if (other.headers != null) {
+    return false;
+   }
+  } else if (!this.headers.equals(other.headers)) {
+   return false;
+  }
+  if (this.lastError == null) {
+   if (other.lastError != null) {
+    return false;
+   }
+  } else if (!this.lastError.equals(other.lastError)) {
+   return false;
+  }
+  if (this.method == null) {
+   if (other.method != null) {
+    return false;
+   }
+  } else if (!this.method.equals(other.method)) {
+   return false;
+  }
+  if (this.nextAttemptAt != other.nextAttemptAt) {
+   return false;
+  }
+  if (this.notificationUuid == null) {
+   if (other.notificationUuid != null) {
+    return false;
+   }
+  } else if (!this.notificationUuid.equals(other.notificationUuid)) {
+   return false;
+  }
+  if (this.postContent == null) {
+   if (other.postContent != null) {
+    return false;
+   }
+  } else if (!this.postContent.equals(other.postContent)) {
+   return false;
+  }
+  if (this.url == null) {
+   if (other.url != null) {
+    return false;
+   }
+  } else if (!this.url.equals(other.url)) {
+   return false;
+  }
+  if (this.uuid == null) {
+   if (other.uuid != null) {
+    return false;
+   }
+  } else if (!this.uuid.equals(other.uuid)) {
+   return false;
+  }
+  return true;
+ }
+
+ public int getAttempts() {
+  return this.attempts;
+ }
+
+ public long getCreatedAt() {
+  return this.createdAt;
+ }
+
+ public List<HeaderDTO> getHeaders() {
+  return this.headers;
+ }
+
+ public String getLastError() {
+  return this.lastError;
+ }
+
+ public HTTP_METHOD getMethod() {
+  return this.method;
+ }
+
+ public long getNextAttemptAt() {
+  return this.nextAttemptAt;
+ }
+
+ public UUID getNotificationUuid() {
+  return this.notificationUuid;
+ }
+
+ public String getPostContent() {
+  return this.postContent;
+ }
+
+ public String getUrl() {
+  return this.url;
+ }
+
+ public UUID getUuid() {
+  return this.uuid;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  result = prime * result + this.attempts;
+  result = prime * result + (int) (this.createdAt ^ this.createdAt >>> 32);
+  result = prime * result + (this.dead ? 1231 : 1237);
+  result = prime * result + ((this.headers == null) ? 0 : this.headers.hashCode());
+  result = prime * result + ((this.lastError == null) ? 0 : this.lastError.hashCode());
+  result = prime * result + ((this.method == null) ? 0 : this.method.hashCode());
+  result = prime * result + (int) (this.nextAttemptAt ^ this.nextAttemptAt >>> 32);
+  result = prime * result + ((this.notificationUuid == null) ? 0 : this.notificationUuid.hashCode());
+  result = prime * result + ((this.postContent == null) ? 0 : this.postContent.hashCode());
+  result = prime * result + ((this.url == null) ? 0 : this.url.hashCode());
+  result = prime * result + ((this.uuid == null) ? 0 : this.uuid.hashCode());
+  return result;
+ }
+
+ public boolean isDead() {
+  return this.dead;
+ }
+
+ public void setAttempts(int attempts) {
+  this.attempts = attempts;
+ }
+
+ public void setCreatedAt(long createdAt) {
+  this.createdAt = createdAt;
+ }
+
+ public void setDead(boolean dead) {
+  this.dead = dead;
+ }
+
+ public void setHeaders(List<HeaderDTO> headers) {
+  this.headers = headers;
+ }
+
+ public void setLastError(String lastError) {
+  this.lastError = lastError;
+ }
+
+ public void setMethod(HTTP_METHOD method) {
+  this.method = method;
+ }
+
+ public void setNextAttemptAt(long nextAttemptAt) {
+  this.nextAttemptAt = nextAttemptAt;
+ }
+
+ public void setNotificationUuid(UUID notificationUuid) {
+  this.notificationUuid = notificationUuid;
+ }
+
+ public void setPostContent(String postContent) {
+  this.postContent = postContent;
+ }
+
+ public void setUrl(String url) {
+  this.url = url;
+ }
+
+ public void setUuid(UUID uuid) {
+  this.uuid = uuid;
+ }
+
+ @Override
+ public String toString() {
+  return "OutboxEntryDTO [attempts=" + this.attempts + ", createdAt=" + this.createdAt + ", dead=" + this.dead + ", headers=" + this.headers + ", lastError=" + this.lastError + ", method=" + this.method + ", nextAttemptAt=" + this.nextAttemptAt + ", notificationUuid=" + this.notificationUuid + ", postContent=" + this.postContent + ", url=" + this.url + ", uuid=" + this.uuid + "]";
+ }
+
+}
@@ -5,6 +5,7 @@ import static javax.xml.bind.annotation.XmlAccessType.FIELD;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY;
 import se.bjurr.prnfb.settings.USER_LEVEL;
 
 @XmlRootElement
@@ -12,9 +13,19 @@ import se.bjurr.prnfb.settings.USER_LEVEL;
 public class SettingsDataDTO {
 
  private USER_LEVEL adminRestriction;
+ private Integer circuitBreakerFailureThreshold;
+ private Integer circuitBreakerOpenSeconds;
+ private Integer connectTimeoutSeconds;
+ private Integer dispatchQueueSize;
+ private DISPATCH_SATURATION_POLICY dispatchSaturationPolicy;
+ private Integer dispatchThreads;
  private String keyStore;
  private String keyStorePassword;
  private String keyStoreType;
+ private Integer readTimeoutSeconds;
+ private Integer requestTimeoutSeconds;
+ private Integer slowInvocationMillis;
+ private Integer slowRenderMillis;
  private boolean shouldAcceptAnyCertificate;
 
  @Override
@@ -32,6 +43,44 @@ public class SettingsDataDTO {
   if (this.adminRestriction != other.adminRestriction) {
    return false;
   }
+  if (this.circuitBreakerFailureThreshold == null) {
+   if (other.circuitBreakerFailureThreshold != null) {
+    return false;
+   }
+  } else if (!this.circuitBreakerFailureThreshold.equals(other.circuitBreakerFailureThreshold)) {
+   return false;
+  }
+  if (this.circuitBreakerOpenSeconds == null) {
+   if (other.circuitBreakerOpenSeconds != null) {
+    return false;
+   }
+  } else if (!this.circuitBreakerOpenSeconds.equals(other.circuitBreakerOpenSeconds)) {
+   return false;
+  }
+  if (this.connectTimeoutSeconds == null) {
+   if (other.connectTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.connectTimeoutSeconds.equals(other.connectTimeoutSeconds)) {
+   return false;
+  }
+  if (this.dispatchQueueSize == null) {
+   if (other.dispatchQueueSize != null) {
+    return false;
+   }
+  } else if (!this.dispatchQueueSize.equals(other.dispatchQueueSize)) {
+   return false;
+  }
+  if (this.dispatchSaturationPolicy != other.dispatchSaturationPolicy) {
+   return false;
+  }
+  if (this.dispatchThreads == null) {
+   if (other.dispatchThreads != null) {
+    return false;
+   }
+  } else if (!this.dispatchThreads.equals(other.dispatchThreads)) {
+   return false;
+  }
   if (this.keyStore == null) {
    if (other.keyStore != null) {
     return false;
@@ -53,6 +102,34 @@ public class SettingsDataDTO {
   } else if (!this.keyStoreType.equals(other.keyStoreType)) {
    return false;
   }
+  if (this.readTimeoutSeconds == null) {
+   if (other.readTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.readTimeoutSeconds.equals(other.readTimeoutSeconds)) {
+   return false;
+  }
+  if (this.requestTimeoutSeconds == null) {
+   if (other.requestTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.requestTimeoutSeconds.equals(other.requestTimeoutSeconds)) {
+   return false;
+  }
+  if (this.slowInvocationMillis == null) {
+   if (other.slowInvocationMillis != null) {
+    return false;
+   }
+  } else if (!this.slowInvocationMillis.equals(other.slowInvocationMillis)) {
+   return false;
+  }
+  if (this.slowRenderMillis == null) {
+   if (other.slowRenderMillis != null) {
+    return false;
+   }
+  } else if (!this.slowRenderMillis.equals(other.slowRenderMillis)) {
+   return false;
+  }
   if (this.shouldAcceptAnyCertificate != other.shouldAcceptAnyCertificate) {
    return false;
   }
@@ -63,6 +140,30 @@ public class SettingsDataDTO {
   return this.adminRestriction;
  }
 
+ public Integer getCircuitBreakerFailureThreshold() {
+  return this.circuitBreakerFailureThreshold;
+ }
+
+ public Integer getCircuitBreakerOpenSeconds() {
+  return this.circuitBreakerOpenSeconds;
+ }
+
+ public Integer getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ public Integer getDispatchQueueSize() {
+  return this.dispatchQueueSize;
+ }
+
+ public DISPATCH_SATURATION_POLICY getDispatchSaturationPolicy() {
+  return this.dispatchSaturationPolicy;
+ }
+
+ public Integer getDispatchThreads() {
+  return this.dispatchThreads;
+ }
+
  public String getKeyStore() {
   return this.keyStore;
  }
@@ -75,18 +176,45 @@ public class SettingsDataDTO {
   return this.keyStoreType;
  }
 
+ public Integer getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
+ public Integer getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
  @Override
  public int hashCode() {
   final int prime = 31;
   int result = 1;
   result = prime * result + ((this.adminRestriction == null) ? 0 : this.adminRestriction.hashCode());
+  result = prime * result
+    + ((this.circuitBreakerFailureThreshold == null) ? 0 : this.circuitBreakerFailureThreshold.hashCode());
+  result = prime * result + ((this.circuitBreakerOpenSeconds == null) ? 0 : this.circuitBreakerOpenSeconds.hashCode());
+  result = prime * result + ((this.connectTimeoutSeconds == null) ? 0 : this.connectTimeoutSeconds.hashCode());
+  result = prime * result + ((this.dispatchQueueSize == null) ? 0 : this.dispatchQueueSize.hashCode());
+  result = prime * result + ((this.dispatchSaturationPolicy == null) ? 0 : this.dispatchSaturationPolicy.hashCode());
+  result = prime * result + ((this.dispatchThreads == null) ? 0 : this.dispatchThreads.hashCode());
   result = prime * result + ((this.keyStore == null) ? 0 : this.keyStore.hashCode());
   result = prime * result + ((this.keyStorePassword == null) ? 0 : this.keyStorePassword.hashCode());
   result = prime * result + ((this.keyStoreType == null) ? 0 : this.keyStoreType.hashCode());
+  result = prime * result + ((this.readTimeoutSeconds == null) ? 0 : this.readTimeoutSeconds.hashCode());
+  result = prime * result + ((this.requestTimeoutSeconds == null) ? 0 : this.requestTimeoutSeconds.hashCode());
+  result = prime * result + ((this.slowInvocationMillis == null) ? 0 : this.slowInvocationMillis.hashCode());
+  result = prime * result + ((this.slowRenderMillis == null) ? 0 : this.slowRenderMillis.hashCode());
   result = prime * result + (this.shouldAcceptAnyCertificate ? 1231 : 1237);
   return result;
  }
 
+ public Integer getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ public Integer getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
  public boolean isShouldAcceptAnyCertificate() {
   return this.shouldAcceptAnyCertificate;
  }
@@ -95,6 +223,30 @@ public class SettingsDataDTO {
   this.adminRestriction = adminRestriction;
  }
 
+ public void setCircuitBreakerFailureThreshold(Integer circuitBreakerFailureThreshold) {
+  this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+ }
+
+ public void setCircuitBreakerOpenSeconds(Integer circuitBreakerOpenSeconds) {
+  this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+ }
+
+ public void setConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+  this.connectTimeoutSeconds = connectTimeoutSeconds;
+ }
+
+ public void setDispatchQueueSize(Integer dispatchQueueSize) {
+  this.dispatchQueueSize = dispatchQueueSize;
+ }
+
+ public void setDispatchSaturationPolicy(DISPATCH_SATURATION_POLICY dispatchSaturationPolicy) {
+  this.dispatchSaturationPolicy = dispatchSaturationPolicy;
+ }
+
+ public void setDispatchThreads(Integer dispatchThreads) {
+  this.dispatchThreads = dispatchThreads;
+ }
+
  public void setKeyStore(String keyStore) {
   this.keyStore = keyStore;
  }
@@ -107,15 +259,37 @@ public class SettingsDataDTO {
   this.keyStoreType = keyStoreType;
  }
 
+ public void setReadTimeoutSeconds(Integer readTimeoutSeconds) {
+  this.readTimeoutSeconds = readTimeoutSeconds;
+ }
+
+ public void setRequestTimeoutSeconds(Integer requestTimeoutSeconds) {
+  this.requestTimeoutSeconds = requestTimeoutSeconds;
+ }
+
+ public void setSlowInvocationMillis(Integer slowInvocationMillis) {
+  this.slowInvocationMillis = slowInvocationMillis;
+ }
+
+ public void setSlowRenderMillis(Integer slowRenderMillis) {
+  this.slowRenderMillis = slowRenderMillis;
+ }
+
  public void setShouldAcceptAnyCertificate(boolean shouldAcceptAnyCertificate) {
   this.shouldAcceptAnyCertificate = shouldAcceptAnyCertificate;
  }
 
  @Override
  public String toString() {
-  return "SettingsDataDTO [adminRestriction=" + this.adminRestriction + ", keyStore=" + this.keyStore
+  return "SettingsDataDTO [adminRestriction=" + this.adminRestriction + ", dispatchQueueSize="
+    + this.dispatchQueueSize + ", dispatchSaturationPolicy=" + this.dispatchSaturationPolicy + ", dispatchThreads="
+    + this.dispatchThreads + ", keyStore=" + this.keyStore
     + ", keyStorePassword=" + this.keyStorePassword + ", keyStoreType=" + this.keyStoreType
-    + ", shouldAcceptAnyCertificate=" + this.shouldAcceptAnyCertificate + "]";
+    + ", shouldAcceptAnyCertificate=" + this.shouldAcceptAnyCertificate
+    + ", circuitBreakerFailureThreshold=" + this.circuitBreakerFailureThreshold + ", circuitBreakerOpenSeconds="
+    + this.circuitBreakerOpenSeconds + ", connectTimeoutSeconds=" + this.connectTimeoutSeconds + ", readTimeoutSeconds="
+    + this.readTimeoutSeconds + ", requestTimeoutSeconds=" + this.requestTimeoutSeconds + ", slowInvocationMillis="
+    + this.slowInvocationMillis + ", slowRenderMillis=" + this.slowRenderMillis + "]";
  }
 
 }
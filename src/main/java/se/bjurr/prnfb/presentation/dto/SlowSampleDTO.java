@@ -0,0 +1,155 @@
+package se.bjurr.prnfb.presentation.dto;
+
+import static javax.xml.bind.annotation.XmlAccessType.FIELD;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import se.bjurr.prnfb.metrics.SlowSample.PHASE;
+
+@XmlRootElement
+@XmlAccessorType(FIELD)
+public class SlowSampleDTO {
+ private Map<String, Double> breakdown;
+ private double millis;
+ private String notificationName;
+ private UUID notificationUuid;
+ private PHASE phase;
+ private int thresholdMillis;
+ private long timestamp;
+
+ @Override
+ public boolean equals(Object obj) {
+  if (this == obj) {
+   return true;
+  }
+  if (obj == null) {
+   return false;
+  }
+  if (getClass() != obj.getClass()) {
+   return false;
+  }
+  SlowSampleDTO other = (SlowSampleDTO) obj;
+  if (this.breakdown == null) {
+   if (other.breakdown != null) {
+    return false;
+   }
+  } else if (!this.breakdown.equals(other.breakdown)) {
+   return false;
+  }
+  if (Double.doubleToLongBits(this.millis) != Double.doubleToLongBits(other.millis)) {
+   return false;
+  }
+  if (this.notificationName == null) {
+   if (other.notificationName != null) {
+    return false;
+   }
+  } else if (!this.notificationName.equals(other.notificationName)) {
+   return false;
+  }
+  if (this.notificationUuid == null) {
+   if (other.notificationUuid != null) {
+    return false;
+   }
+  } else if (!this.notificationUuid.equals(other.notificationUuid)) {
+   return false;
+  }
+  if (this.phase == null) {
+   if (other.phase != null) {
+    return false;
+   }
+  } else if (!this.phase.equals(other.phase)) {
+   return false;
+  }
+  if (this.thresholdMillis != other.thresholdMillis) {
+   return false;
+  }
+  if (this.timestamp != other.timestamp) {
+   return false;
+  }
+  return true;
+ }
+
+ public Map<String, Double> getBreakdown() {
+  return this.breakdown;
+ }
+
+ public double getMillis() {
+  return this.millis;
+ }
+
+ public String getNotificationName() {
+  return this.notificationName;
+ }
+
+ public UUID getNotificationUuid() {
+  return this.notificationUuid;
+ }
+
+ public PHASE getPhase() {
+  return this.phase;
+ }
+
+ public int getThresholdMillis() {
+  return this.thresholdMillis;
+ }
+
+ public long getTimestamp() {
+  return this.timestamp;
+ }
+
+ @Override
+ public int hashCode() {
+  final int prime = 31;
+  int result = 1;
+  long temp;
+  result = prime * result + ((this.breakdown == null) ? 0 : this.breakdown.hashCode());
+  temp = Double.doubleToLongBits(this.millis);
+  result = prime * result + (int) (temp ^ temp >>> 32);
+  result = prime * result + ((this.notificationName == null) ? 0 : this.notificationName.hashCode());
+  result = prime * result + ((this.notificationUuid == null) ? 0 : this.notificationUuid.hashCode());
+  result = prime * result + ((this.phase == null) ? 0 : this.phase.hashCode());
+  result = prime * result + this.thresholdMillis;
+  result = prime * result + (int) (this.timestamp ^ this.timestamp >>> 32);
+  return result;
+ }
+
+ public void setBreakdown(Map<String, Double> breakdown) {
+  this.breakdown = breakdown;
+ }
+
+ public void setMillis(double millis) {
+  this.millis = millis;
+ }
+
+ public void setNotificationName(String notificationName) {
+  this.notificationName = notificationName;
+ }
+
+ public void setNotificationUuid(UUID notificationUuid) {
+  this.notificationUuid = notificationUuid;
+ }
+
+ public void setPhase(PHASE phase) {
+  this.phase = phase;
+ }
+
+ public void setThresholdMillis(int thresholdMillis) {
+  this.thresholdMillis = thresholdMillis;
+ }
+
+ public void setTimestamp(long timestamp) {
+  this.timestamp = timestamp;
+ }
+
+ @Override
+ public String toString() {
+  return "SlowSampleDTO [breakdown=" + this.breakdown + ", millis=" + this.millis
+    + ", notificationName=" + this.notificationName + ", notificationUuid=" + this.notificationUuid
+    + ", phase=" + this.phase + ", thresholdMillis=" + this.thresholdMillis + ", timestamp=" + this.timestamp + "]";
+ }
+
+}
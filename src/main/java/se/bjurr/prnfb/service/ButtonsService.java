@@ -4,9 +4,12 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Ordering.usingToString;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static se.bjurr.prnfb.http.ClientKeyStore.clientKeyStore;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.BUTTON_TRIGGER;
 import static se.bjurr.prnfb.service.PrnfbVariable.BUTTON_TRIGGER_TITLE;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,11 +23,14 @@ import se.bjurr.prnfb.settings.PrnfbNotification;
 import se.bjurr.prnfb.settings.PrnfbSettingsData;
 
 import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestParticipant;
 import com.atlassian.bitbucket.pull.PullRequestService;
 import com.atlassian.bitbucket.repository.Repository;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.base.Joiner;
 import com.google.common.base.Suppliers;
+import com.google.common.hash.Hashing;
 
 public class ButtonsService {
 
@@ -47,15 +53,45 @@ public class ButtonsService {
  public List<PrnfbButton> getButtons(Integer repositoryId, Long pullRequestId) {
   final PrnfbSettingsData settings = this.settingsService.getPrnfbSettingsData();
   List<PrnfbNotification> notifications = this.settingsService.getNotifications();
-  ClientKeyStore clientKeyStore = new ClientKeyStore(settings);
+  ClientKeyStore clientKeyStore = clientKeyStore(settings);
   final PullRequest pullRequest = this.pullRequestService.getById(repositoryId, pullRequestId);
   boolean shouldAcceptAnyCertificate = settings.isShouldAcceptAnyCertificate();
   return doGetButtons(notifications, clientKeyStore, pullRequest, shouldAcceptAnyCertificate);
  }
 
+ /**
+  * Strong entity tag of the buttons given by {@link #getButtons(Integer, Long)}. Computed from what the buttons
+  * depend on: the settings, the pull request and its refs, the approvals and the permissions of the current user. So
+  * that a client can be told that nothing has changed without evaluating any notification.
+  */
+ public String getButtonsETag(Integer repositoryId, Long pullRequestId) {
+  PullRequest pullRequest = this.pullRequestService.getById(repositoryId, pullRequestId);
+  List<String> participants = newArrayList();
+  for (PullRequestParticipant participant : pullRequest.getParticipants()) {
+   participants.add(participant.getUser().getId() + "=" + participant.isApproved());
+  }
+  for (PullRequestParticipant reviewer : pullRequest.getReviewers()) {
+   participants.add(reviewer.getUser().getId() + "=" + reviewer.isApproved());
+  }
+  Collections.sort(participants);
+  String tagged = Joiner.on('|').useForNull("").join(//
+    this.settingsService.getSettingsVersion(), //
+    repositoryId, //
+    pullRequestId, //
+    pullRequest.getVersion(), //
+    pullRequest.getState(), //
+    pullRequest.getFromRef().getLatestCommit(), //
+    pullRequest.getToRef().getLatestCommit(), //
+    Joiner.on(',').join(participants), //
+    this.userCheckService.getPermissionFingerprint(this.settingsService.getButtons()));
+  return Hashing.sha256()//
+    .hashString(tagged, UTF_8)//
+    .toString();
+ }
+
  public void handlePressed(Integer repositoryId, Long pullRequestId, UUID buttonUuid) {
   final PrnfbSettingsData prnfbSettingsData = this.settingsService.getPrnfbSettingsData();
-  ClientKeyStore clientKeyStore = new ClientKeyStore(prnfbSettingsData);
+  ClientKeyStore clientKeyStore = clientKeyStore(prnfbSettingsData);
   boolean shouldAcceptAnyCertificate = prnfbSettingsData.isShouldAcceptAnyCertificate();
   final PullRequest pullRequest = this.pullRequestService.getById(repositoryId, pullRequestId);
   doHandlePressed(buttonUuid, clientKeyStore, shouldAcceptAnyCertificate, pullRequest);
@@ -63,10 +99,10 @@ public class ButtonsService {
 
  private boolean isTriggeredByAction(ClientKeyStore clientKeyStore, List<PrnfbNotification> notifications,
    boolean shouldAcceptAnyCertificate, PrnfbPullRequestAction pullRequestAction, PullRequest pullRequest,
-   Map<PrnfbVariable, Supplier<String>> variables) {
+   Map<PrnfbVariable, Supplier<String>> variables, PrnfbVariableCache variableCache) {
   for (PrnfbNotification prnfbNotification : notifications) {
    PrnfbRenderer renderer = this.prnfbRendererFactory.create(pullRequest, pullRequestAction, prnfbNotification,
-     variables);
+     variables, variableCache);
    if (this.prnfbPullRequestEventListener.isNotificationTriggeredByAction(prnfbNotification, pullRequestAction,
      renderer, pullRequest, clientKeyStore, shouldAcceptAnyCertificate)) {
     return TRUE;
@@ -111,12 +147,13 @@ public class ButtonsService {
  List<PrnfbButton> doGetButtons(List<PrnfbNotification> notifications, ClientKeyStore clientKeyStore,
    final PullRequest pullRequest, boolean shouldAcceptAnyCertificate) {
   List<PrnfbButton> allFoundButtons = newArrayList();
+  PrnfbVariableCache variableCache = new PrnfbVariableCache();
   for (PrnfbButton candidate : this.settingsService.getButtons()) {
    Map<PrnfbVariable, Supplier<String>> variables = getVariables(candidate.getUuid());
    PrnfbPullRequestAction pullRequestAction = BUTTON_TRIGGER;
    if (this.userCheckService.isAllowedUseButton(candidate)//
      && isTriggeredByAction(clientKeyStore, notifications, shouldAcceptAnyCertificate, pullRequestAction, pullRequest,
-       variables) //
+       variables, variableCache) //
      && (isVisibleOnPullRequest(candidate, pullRequest))) {
     allFoundButtons.add(candidate);
    }
@@ -129,10 +166,11 @@ public class ButtonsService {
  void doHandlePressed(UUID buttonUuid, ClientKeyStore clientKeyStore, boolean shouldAcceptAnyCertificate,
    final PullRequest pullRequest) {
   Map<PrnfbVariable, Supplier<String>> variables = getVariables(buttonUuid);
+  PrnfbVariableCache variableCache = new PrnfbVariableCache();
   for (PrnfbNotification prnfbNotification : this.settingsService.getNotifications()) {
    PrnfbPullRequestAction pullRequestAction = BUTTON_TRIGGER;
    PrnfbRenderer renderer = this.prnfbRendererFactory.create(pullRequest, pullRequestAction, prnfbNotification,
-     variables);
+     variables, variableCache);
    if (this.prnfbPullRequestEventListener.isNotificationTriggeredByAction(prnfbNotification, pullRequestAction,
      renderer, pullRequest, clientKeyStore, shouldAcceptAnyCertificate)) {
     this.prnfbPullRequestEventListener.notify(prnfbNotification, pullRequestAction, pullRequest, renderer,
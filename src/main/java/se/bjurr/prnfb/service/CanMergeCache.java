@@ -0,0 +1,87 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestService;
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Whether pull requests can be merged without conflicts. {@link PullRequestService#canMerge(int, long)} may do a
+ * merge in the repository, so it is done once for each version of a pull request, not once for each notification and
+ * button that depends on it.<br>
+ * <br>
+ * A version is identified by the latest commit of both refs, so a new commit on either side means a new check.
+ * Threads asking for the same version at the same time wait for one check.
+ */
+public class CanMergeCache {
+ private static class PullRequestVersion {
+  private final String fromHash;
+  private final long pullRequestId;
+  private final int repositoryId;
+  private final String toHash;
+
+  public PullRequestVersion(PullRequest pullRequest) {
+   this.repositoryId = pullRequest.getToRef().getRepository().getId();
+   this.pullRequestId = pullRequest.getId();
+   this.fromHash = pullRequest.getFromRef().getLatestCommit();
+   this.toHash = pullRequest.getToRef().getLatestCommit();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   PullRequestVersion other = (PullRequestVersion) obj;
+   return this.repositoryId == other.repositoryId //
+     && this.pullRequestId == other.pullRequestId //
+     && Objects.equal(this.fromHash, other.fromHash) //
+     && Objects.equal(this.toHash, other.toHash);
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.repositoryId, this.pullRequestId, this.fromHash, this.toHash);
+  }
+ }
+
+ private static final long EXPIRE_SECONDS = 60;
+ private static final long MAX_SIZE = 1000;
+
+ private final LoadingCache<PullRequestVersion, Boolean> conflicted;
+
+ public CanMergeCache(final PullRequestService pullRequestService) {
+  this.conflicted = CacheBuilder.newBuilder()//
+    .maximumSize(MAX_SIZE)//
+    .expireAfterWrite(EXPIRE_SECONDS, SECONDS)//
+    .build(new CacheLoader<PullRequestVersion, Boolean>() {
+     @Override
+     public Boolean load(PullRequestVersion key) {
+      return pullRequestService.canMerge(key.repositoryId, key.pullRequestId).isConflicted();
+     }
+    });
+ }
+
+ /**
+  * The pull request must be open.
+  */
+ public boolean isConflicted(PullRequest pullRequest) {
+  try {
+   return this.conflicted.getUnchecked(new PullRequestVersion(pullRequest));
+  } catch (UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  }
+ }
+}
@@ -0,0 +1,80 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Clone URL:s of repositories. They are looked up with escalated permissions and seldom change, so they are kept
+ * until the repository is modified or deleted, see {@link #invalidate(int)}, or for at most an hour.
+ */
+public class CloneUrlCache {
+ private static class CloneUrlKey {
+  private final RepoProtocol protocol;
+  private final int repositoryId;
+
+  public CloneUrlKey(int repositoryId, RepoProtocol protocol) {
+   this.repositoryId = repositoryId;
+   this.protocol = protocol;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   CloneUrlKey other = (CloneUrlKey) obj;
+   return this.repositoryId == other.repositoryId //
+     && this.protocol == other.protocol;
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.repositoryId, this.protocol);
+  }
+ }
+
+ private static final Cache<CloneUrlKey, String> cloneUrls = CacheBuilder.newBuilder()//
+   .maximumSize(10000)//
+   .expireAfterWrite(1, HOURS)//
+   .build();
+
+ /**
+  * The cached clone URL, or the one from the loader if it is not cached.
+  */
+ public static String getCloneUrl(int repositoryId, RepoProtocol protocol, Callable<String> loader) {
+  try {
+   return cloneUrls.get(new CloneUrlKey(repositoryId, protocol), loader);
+  } catch (ExecutionException | UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  }
+ }
+
+ public static void invalidate(int repositoryId) {
+  for (RepoProtocol protocol : RepoProtocol.values()) {
+   cloneUrls.invalidate(new CloneUrlKey(repositoryId, protocol));
+  }
+ }
+
+ @VisibleForTesting
+ static void clear() {
+  cloneUrls.invalidateAll();
+ }
+
+ private CloneUrlCache() {
+ }
+}
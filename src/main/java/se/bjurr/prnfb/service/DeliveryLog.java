@@ -0,0 +1,73 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The latest deliveries of each notification, so that admins can see if, and how, a notification was delivered without
+ * searching the logs. Each notification has a {@link RingBuffer}, and recording a delivery only allocates the
+ * entry and never locks. Kept in memory only, and on the node that delivered. The ring of a notification is removed
+ * when the notification is deleted.
+ */
+public class DeliveryLog {
+ @VisibleForTesting
+ static final int ENTRIES_PER_NOTIFICATION = 20;
+ @VisibleForTesting
+ static final int MAX_RESPONSE_LENGTH = 256;
+
+ private static String truncate(String string) {
+  if (string == null || string.length() <= MAX_RESPONSE_LENGTH) {
+   return string;
+  }
+  return string.substring(0, MAX_RESPONSE_LENGTH) + "...";
+ }
+
+ private final ConcurrentMap<UUID, RingBuffer<DeliveryLogEntry>> rings = new ConcurrentHashMap<>();
+
+ public void delivered(UUID notificationUuid, PrnfbPullRequestAction action, long pullRequestId,
+   UrlInvoker urlInvoker, long latencyMillis) {
+  add(notificationUuid, new DeliveryLogEntry(System.currentTimeMillis(), action, pullRequestId,
+    urlInvoker.getResponseStatus().orNull(), latencyMillis, truncate(urlInvoker.getResponseString())));
+ }
+
+ public void failed(UUID notificationUuid, PrnfbPullRequestAction action, long pullRequestId, UrlInvoker urlInvoker,
+   Exception e, long latencyMillis) {
+  add(notificationUuid, new DeliveryLogEntry(System.currentTimeMillis(), action, pullRequestId,
+    urlInvoker.getResponseStatus().orNull(), latencyMillis, truncate(e.toString())));
+ }
+
+ /**
+  * Newest first.
+  */
+ public List<DeliveryLogEntry> getEntries(UUID notificationUuid) {
+  RingBuffer<DeliveryLogEntry> ring = this.rings.get(notificationUuid);
+  if (ring == null) {
+   return newArrayList();
+  }
+  return ring.getElements();
+ }
+
+ /**
+  * Forgets the deliveries of a deleted notification.
+  */
+ public void remove(UUID notificationUuid) {
+  this.rings.remove(notificationUuid);
+ }
+
+ private void add(UUID notificationUuid, DeliveryLogEntry entry) {
+  RingBuffer<DeliveryLogEntry> ring = this.rings.get(notificationUuid);
+  if (ring == null) {
+   ring = this.rings.computeIfAbsent(notificationUuid, uuid -> new RingBuffer<>(ENTRIES_PER_NOTIFICATION));
+  }
+  ring.add(entry);
+ }
+}
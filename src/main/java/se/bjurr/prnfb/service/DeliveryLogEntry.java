@@ -0,0 +1,69 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Optional.fromNullable;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+
+import com.google.common.base.Optional;
+
+/**
+ * One delivery of a notification, as kept in the {@link DeliveryLog}.
+ */
+public class DeliveryLogEntry {
+ private final PrnfbPullRequestAction action;
+ private final long latencyMillis;
+ private final long pullRequestId;
+ /**
+  * The response, or the error if there was no response. Truncated.
+  */
+ private final String response;
+ private final Integer status;
+ private final long timestamp;
+
+ public DeliveryLogEntry(long timestamp, PrnfbPullRequestAction action, long pullRequestId, Integer status,
+   long latencyMillis, String response) {
+  this.timestamp = timestamp;
+  this.action = action;
+  this.pullRequestId = pullRequestId;
+  this.status = status;
+  this.latencyMillis = latencyMillis;
+  this.response = response;
+ }
+
+ public PrnfbPullRequestAction getAction() {
+  return this.action;
+ }
+
+ /**
+  * From when the invocation was handed to the delivery engine until it was done, including any wait for the limits of
+  * the host.
+  */
+ public long getLatencyMillis() {
+  return this.latencyMillis;
+ }
+
+ public long getPullRequestId() {
+  return this.pullRequestId;
+ }
+
+ public String getResponse() {
+  return this.response;
+ }
+
+ /**
+  * Absent if there was no response.
+  */
+ public Optional<Integer> getStatus() {
+  return fromNullable(this.status);
+ }
+
+ public long getTimestamp() {
+  return this.timestamp;
+ }
+
+ @Override
+ public String toString() {
+  return "DeliveryLogEntry [timestamp=" + this.timestamp + ", action=" + this.action + ", pullRequestId="
+    + this.pullRequestId + ", status=" + this.status + ", latencyMillis=" + this.latencyMillis + "]";
+ }
+}
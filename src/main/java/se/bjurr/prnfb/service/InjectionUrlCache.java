@@ -0,0 +1,137 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Values of {@link PrnfbVariable#INJECTION_URL_VALUE}, reused for {@link PrnfbNotification#getInjectionUrlCacheSeconds()}
+ * seconds. A template may use the variable several times, in URL, headers and post content, and buttons render it
+ * on every page view. If several threads need a value that is not cached, one of them fetches it and the others wait
+ * for that.
+ */
+public class InjectionUrlCache {
+ private static class InjectionUrlKey {
+  private final String injectionUrl;
+  private final String injectionUrlRegexp;
+  private final UUID notificationUuid;
+
+  public InjectionUrlKey(PrnfbNotification notification) {
+   this.notificationUuid = notification.getUuid();
+   this.injectionUrl = notification.getInjectionUrl().orNull();
+   this.injectionUrlRegexp = notification.getInjectionUrlRegexp().orNull();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   InjectionUrlKey other = (InjectionUrlKey) obj;
+   return Objects.equal(this.notificationUuid, other.notificationUuid) //
+     && Objects.equal(this.injectionUrl, other.injectionUrl) //
+     && Objects.equal(this.injectionUrlRegexp, other.injectionUrlRegexp);
+  }
+
+  @Override
+  public int hashCode() {
+   return Objects.hashCode(this.notificationUuid, this.injectionUrl, this.injectionUrlRegexp);
+  }
+ }
+
+ private static class InjectionUrlValue {
+  private final long expiresAt;
+  private final String value;
+
+  public InjectionUrlValue(String value, long expiresAt) {
+   this.value = value;
+   this.expiresAt = expiresAt;
+  }
+ }
+
+ @VisibleForTesting
+ static final int MAX_SIZE = 1000;
+
+ private static final LongAdder misses = new LongAdder();
+ private static final LongAdder requests = new LongAdder();
+ private static final Cache<InjectionUrlKey, InjectionUrlValue> values = CacheBuilder.newBuilder()//
+   .maximumSize(MAX_SIZE)//
+   .build();
+
+ /**
+  * Number of times a cached value was used, or a fetch done by another thread was waited for.
+  */
+ public static long getHits() {
+  return requests.sum() - misses.sum();
+ }
+
+ /**
+  * The value for the notification, from the cache or from the fetcher. Always from the fetcher if the notification
+  * does not cache it.
+  */
+ public static String getInjectionUrlValue(PrnfbNotification notification, final Callable<String> fetcher) {
+  final Integer cacheSeconds = notification.getInjectionUrlCacheSeconds();
+  try {
+   if (cacheSeconds == null || cacheSeconds <= 0) {
+    return fetcher.call();
+   }
+   InjectionUrlKey key = new InjectionUrlKey(notification);
+   requests.increment();
+   InjectionUrlValue cached = values.getIfPresent(key);
+   if (cached != null && cached.expiresAt <= System.currentTimeMillis()) {
+    values.asMap().remove(key, cached);
+   }
+   return values.get(key, new Callable<InjectionUrlValue>() {
+    @Override
+    public InjectionUrlValue call() throws Exception {
+     misses.increment();
+     String value = fetcher.call();
+     return new InjectionUrlValue(value, System.currentTimeMillis() + SECONDS.toMillis(cacheSeconds));
+    }
+   }).value;
+  } catch (ExecutionException | UncheckedExecutionException e) {
+   throw propagate(e.getCause());
+  } catch (Exception e) {
+   throw propagate(e);
+  }
+ }
+
+ /**
+  * Number of times a value was fetched because it was not cached, or had expired.
+  */
+ public static long getMisses() {
+  return misses.sum();
+ }
+
+ public static long getSize() {
+  return values.size();
+ }
+
+ @VisibleForTesting
+ static void clear() {
+  values.invalidateAll();
+  requests.reset();
+  misses.reset();
+ }
+
+ private InjectionUrlCache() {
+ }
+}
@@ -0,0 +1,136 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Arrays.sort;
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+/**
+ * Notifications grouped by trigger, project and repository. So that an event only needs to look at the notifications
+ * that may be triggered by it, not all configured notifications. Built from, and as immutable as, a settings
+ * snapshot.
+ */
+public class NotificationDispatchIndex {
+ private static class IndexKey {
+  private final PrnfbPullRequestAction action;
+  private final String projectKey;
+  private final String repositorySlug;
+
+  public IndexKey(PrnfbPullRequestAction action, String projectKey, String repositorySlug) {
+   this.action = action;
+   this.projectKey = nullToEmpty(projectKey);
+   this.repositorySlug = nullToEmpty(repositorySlug);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+   if (this == obj) {
+    return true;
+   }
+   if (obj == null) {
+    return false;
+   }
+   if (getClass() != obj.getClass()) {
+    return false;
+   }
+   IndexKey other = (IndexKey) obj;
+   return this.action == other.action //
+     && this.projectKey.equals(other.projectKey) //
+     && this.repositorySlug.equals(other.repositorySlug);
+  }
+
+  @Override
+  public int hashCode() {
+   final int prime = 31;
+   int result = 1;
+   result = prime * result + this.action.hashCode();
+   result = prime * result + this.projectKey.hashCode();
+   result = prime * result + this.repositorySlug.hashCode();
+   return result;
+  }
+ }
+
+ /**
+  * Positions, in {@link #notifications}, of the notifications in each group. Sorted so that matches can be returned
+  * in the order they were configured.
+  */
+ private final Map<IndexKey, int[]> index;
+ private final List<PrnfbNotification> notifications;
+
+ public NotificationDispatchIndex(List<PrnfbNotification> notifications) {
+  this.notifications = notifications;
+  Map<IndexKey, List<Integer>> positions = newHashMap();
+  for (int i = 0; i < notifications.size(); i++) {
+   PrnfbNotification notification = notifications.get(i);
+   for (PrnfbPullRequestAction trigger : notification.getTriggers()) {
+    IndexKey key = new IndexKey(trigger, notification.getProjectKey().orNull(), notification.getRepositorySlug()
+      .orNull());
+    if (!positions.containsKey(key)) {
+     positions.put(key, newArrayList());
+    }
+    List<Integer> group = positions.get(key);
+    if (group.isEmpty() || group.get(group.size() - 1) != i) {
+     group.add(i);
+    }
+   }
+  }
+  this.index = newHashMap();
+  for (Entry<IndexKey, List<Integer>> entry : positions.entrySet()) {
+   int[] group = new int[entry.getValue().size()];
+   for (int i = 0; i < group.length; i++) {
+    group[i] = entry.getValue().get(i);
+   }
+   this.index.put(entry.getKey(), group);
+  }
+ }
+
+ /**
+  * Notifications that have any of the given actions as trigger and that are global, or configured for the given
+  * project and/or repository. In the order they are configured.
+  */
+ public List<PrnfbNotification> getCandidates(Iterable<PrnfbPullRequestAction> actions, String projectKey,
+   String repositorySlug) {
+  List<int[]> groups = newArrayList();
+  int size = 0;
+  for (PrnfbPullRequestAction action : actions) {
+   size += addGroup(groups, action, null, null);
+   size += addGroup(groups, action, projectKey, null);
+   size += addGroup(groups, action, null, repositorySlug);
+   size += addGroup(groups, action, projectKey, repositorySlug);
+  }
+  if (size == 0) {
+   return emptyList();
+  }
+  int[] found = new int[size];
+  int position = 0;
+  for (int[] group : groups) {
+   System.arraycopy(group, 0, found, position, group.length);
+   position += group.length;
+  }
+  sort(found);
+  List<PrnfbNotification> candidates = newArrayList();
+  for (int i = 0; i < found.length; i++) {
+   if (i == 0 || found[i] != found[i - 1]) {
+    candidates.add(this.notifications.get(found[i]));
+   }
+  }
+  return candidates;
+ }
+
+ private int addGroup(List<int[]> groups, PrnfbPullRequestAction action, String projectKey, String repositorySlug) {
+  int[] group = this.index.get(new IndexKey(action, projectKey, repositorySlug));
+  if (group == null) {
+   return 0;
+  }
+  groups.add(group);
+  return group.length;
+ }
+}
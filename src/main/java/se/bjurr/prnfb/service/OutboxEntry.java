@@ -0,0 +1,156 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+import se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD;
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.settings.PrnfbHeader;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A rendered notification that could not be delivered. Credentials, for basic authentication and proxy, and headers
+ * without variables, like tokens, are not stored here. They are taken from the notification when it is retried, so a
+ * changed token is used.<br>
+ * <br>
+ * The URL, the post content and the headers with variables are stored as rendered, because the pull request they were
+ * rendered for may have changed. Anything secret in them, like a token in the URL, is stored in plain text in the
+ * outbox file and is shown by the outbox REST resource.
+ */
+public class OutboxEntry {
+ /**
+  * Null, and {@link #pullRequestId} 0, in entries stored before these were.
+  */
+ private final PrnfbPullRequestAction action;
+ private final int attempts;
+ private final long createdAt;
+ private final boolean dead;
+ private final List<PrnfbHeader> headers;
+ private final String lastError;
+ private final HTTP_METHOD method;
+ private final long nextAttemptAt;
+ private final UUID notificationUuid;
+ private final String postContent;
+ private final long pullRequestId;
+ private final String url;
+ private final UUID uuid;
+
+ public OutboxEntry(UUID notificationUuid, PrnfbPullRequestAction action, long pullRequestId, String url,
+   HTTP_METHOD method, Optional<String> postContent, List<PrnfbHeader> headers, long createdAt) {
+  this(UUID.randomUUID(), checkNotNull(notificationUuid, "notificationUuid"), action, pullRequestId,
+    checkNotNull(url, "url"), method, postContent.orNull(), ImmutableList.copyOf(headers), createdAt, 0, createdAt,
+    null, false);
+ }
+
+ private OutboxEntry(UUID uuid, UUID notificationUuid, PrnfbPullRequestAction action, long pullRequestId, String url,
+   HTTP_METHOD method, String postContent, List<PrnfbHeader> headers, long createdAt, int attempts,
+   long nextAttemptAt, String lastError, boolean dead) {
+  this.uuid = uuid;
+  this.notificationUuid = notificationUuid;
+  this.action = action;
+  this.pullRequestId = pullRequestId;
+  this.url = url;
+  this.method = method;
+  this.postContent = postContent;
+  this.headers = headers;
+  this.createdAt = createdAt;
+  this.attempts = attempts;
+  this.nextAttemptAt = nextAttemptAt;
+  this.lastError = lastError;
+  this.dead = dead;
+ }
+
+ /**
+  * The action that triggered the notification.
+  */
+ public PrnfbPullRequestAction getAction() {
+  return this.action;
+ }
+
+ public int getAttempts() {
+  return this.attempts;
+ }
+
+ public long getCreatedAt() {
+  return this.createdAt;
+ }
+
+ public List<PrnfbHeader> getHeaders() {
+  return this.headers;
+ }
+
+ public Optional<String> getLastError() {
+  return fromNullable(this.lastError);
+ }
+
+ public HTTP_METHOD getMethod() {
+  return this.method;
+ }
+
+ public long getNextAttemptAt() {
+  return this.nextAttemptAt;
+ }
+
+ public UUID getNotificationUuid() {
+  return this.notificationUuid;
+ }
+
+ public Optional<String> getPostContent() {
+  return fromNullable(this.postContent);
+ }
+
+ public long getPullRequestId() {
+  return this.pullRequestId;
+ }
+
+ public String getUrl() {
+  return this.url;
+ }
+
+ public UUID getUuid() {
+  return this.uuid;
+ }
+
+ /**
+  * In the dead letter list, not retried unless replayed.
+  */
+ public boolean isDead() {
+  return this.dead;
+ }
+
+ @Override
+ public String toString() {
+  return "OutboxEntry [uuid=" + this.uuid + ", notificationUuid=" + this.notificationUuid + ", url=" + this.url
+    + ", method=" + this.method + ", attempts=" + this.attempts + ", nextAttemptAt=" + this.nextAttemptAt
+    + ", dead=" + this.dead + ", lastError=" + this.lastError + "]";
+ }
+
+ /**
+  * Failed again, to be retried at the given time.
+  */
+ public OutboxEntry withAttemptFailed(String error, long nextAttemptAt) {
+  return new OutboxEntry(this.uuid, this.notificationUuid, this.action, this.pullRequestId, this.url, this.method,
+    this.postContent, this.headers, this.createdAt, this.attempts + 1, nextAttemptAt, error, false);
+ }
+
+ /**
+  * Failed for the last time.
+  */
+ public OutboxEntry withDead(String error) {
+  return new OutboxEntry(this.uuid, this.notificationUuid, this.action, this.pullRequestId, this.url, this.method,
+    this.postContent, this.headers, this.createdAt, this.attempts + 1, this.nextAttemptAt, error, true);
+ }
+
+ /**
+  * To be retried now, with the attempts counted from the start again.
+  */
+ public OutboxEntry withReplay(long now) {
+  return new OutboxEntry(this.uuid, this.notificationUuid, this.action, this.pullRequestId, this.url, this.method,
+    this.postContent, this.headers, this.createdAt, 0, now, this.lastError, false);
+ }
+}
@@ -0,0 +1,544 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static org.slf4j.LoggerFactory.getLogger;
+import static se.bjurr.prnfb.http.ClientKeyStore.clientKeyStore;
+import static se.bjurr.prnfb.http.DeliveryLimits.deliveryLimits;
+import static se.bjurr.prnfb.http.RequestTimeouts.requestTimeouts;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
+import static se.bjurr.prnfb.service.PrnfbTemplate.prnfbTemplate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import se.bjurr.prnfb.http.DeliveryCallback;
+import se.bjurr.prnfb.http.DeliveryEngine;
+import se.bjurr.prnfb.http.Invoker;
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.settings.PrnfbHeader;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+import com.atlassian.bitbucket.server.ApplicationPropertiesService;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Notifications that could not be delivered, kept in a file in the Bitbucket home directory so that they survive a
+ * restart. They are retried with exponential backoff, and jitter, and moved to a dead letter list after
+ * {@link #MAX_ATTEMPTS} attempts. At most {@link #MAX_ENTRIES} entries, of which {@link #MAX_DEAD_LETTERS} dead
+ * letters, are kept, so that a host that stays down does not fill the memory and the disk. The oldest dead letters are
+ * evicted first.<br>
+ * <br>
+ * The file is an append only journal, one JSON record per line. Records are written in batches by a background
+ * thread, so adding an entry never waits for the disk. The journal is compacted, replaced by the current entries,
+ * when it has grown much larger than them.<br>
+ * <br>
+ * See {@link OutboxEntry} for what is, and what is not, stored. Retries are recorded in the {@link DeliveryLog}, like
+ * the first attempt.
+ */
+public class OutboxService implements DisposableBean {
+ /**
+  * A line in the journal. Either an entry that was added or changed, or the UUID of an entry that was removed.
+  */
+ private static class OutboxRecord {
+  private final OutboxEntry put;
+  private final UUID removed;
+
+  public OutboxRecord(OutboxEntry put, UUID removed) {
+   this.put = put;
+   this.removed = removed;
+  }
+ }
+
+ private static final long BASE_DELAY_MILLIS = SECONDS.toMillis(30);
+ private static final int COMPACT_MIN_RECORDS = 1000;
+ private static final int COMPACT_RECORDS_PER_ENTRY = 4;
+ private static final long FLUSH_INTERVAL_MILLIS = 500;
+ private static final Gson gson = new Gson();
+ private static final Logger LOG = getLogger(OutboxService.class);
+ @VisibleForTesting
+ static final int MAX_ATTEMPTS = 10;
+ @VisibleForTesting
+ static final int MAX_DEAD_LETTERS = 100;
+ private static final long MAX_DELAY_MILLIS = HOURS.toMillis(1);
+ @VisibleForTesting
+ static final int MAX_ENTRIES = 1000;
+ private static Invoker mockedInvoker = null;
+ private static final long RETRY_INTERVAL_MILLIS = SECONDS.toMillis(5);
+
+ /**
+  * Doubles with each attempt, up to {@link #MAX_DELAY_MILLIS}. A random half of it is jitter, so that entries that
+  * failed at the same time are not all retried at the same time.
+  */
+ @VisibleForTesting
+ static long getBackoffMillis(int attempts, Random random) {
+  long delay = min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << min(attempts - 1, 20));
+  return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+ }
+
+ private static boolean hasVariables(PrnfbHeader header) {
+  return !prnfbTemplate(header.getValue()).getVariables().isEmpty();
+ }
+
+ @VisibleForTesting
+ public static void setInvoker(Invoker invoker) {
+  OutboxService.mockedInvoker = invoker;
+ }
+
+ /**
+  * Set when a write failed. The records of that write are not in the journal, or only partly, so next flush writes all
+  * entries instead.
+  */
+ private boolean compactOnFlush;
+ /**
+  * UUID:s of the dead entries, in the order they died.
+  */
+ private final Set<UUID> deadLetters = newLinkedHashSet();
+ private final DeliveryEngine deliveryEngine;
+ private final DeliveryLog deliveryLog;
+ /**
+  * Entries that are not dead, the next to retry first. An entry is replaced, not changed, when it is retried, so a
+  * queued entry that is no longer the one in {@link #entries} is skipped when it is due.
+  */
+ private final PriorityQueue<OutboxEntry> due = new PriorityQueue<>(new Comparator<OutboxEntry>() {
+  @Override
+  public int compare(OutboxEntry o1, OutboxEntry o2) {
+   return Long.compare(o1.getNextAttemptAt(), o2.getNextAttemptAt());
+  }
+ });
+ /**
+  * In the order they were added.
+  */
+ private final Map<UUID, OutboxEntry> entries = newLinkedHashMap();
+ private final File file;
+ private final Set<UUID> inFlight = newHashSet();
+ private int journalRecords;
+ private List<String> pendingRecords = newArrayList();
+ private final Random random = new Random();
+ private final ScheduledExecutorService scheduler;
+ private final SettingsService settingsService;
+
+ public OutboxService(ApplicationPropertiesService applicationPropertiesService, SettingsService settingsService,
+   DeliveryEngine deliveryEngine, DeliveryLog deliveryLog) {
+  this(new File(new File(applicationPropertiesService.getHomeDir(), "prnfb"), "outbox.jsonl"), settingsService,
+    deliveryEngine, deliveryLog, newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()//
+      .setNameFormat("prnfb-outbox-%d")//
+      .setDaemon(true)//
+      .build()));
+ }
+
+ @VisibleForTesting
+ OutboxService(File file, SettingsService settingsService, DeliveryEngine deliveryEngine, DeliveryLog deliveryLog,
+   ScheduledExecutorService scheduler) {
+  this.file = file;
+  this.settingsService = settingsService;
+  this.deliveryEngine = deliveryEngine;
+  this.deliveryLog = deliveryLog;
+  this.scheduler = scheduler;
+  load();
+  this.scheduler.scheduleWithFixedDelay(new Runnable() {
+   @Override
+   public void run() {
+    try {
+     flush();
+    } catch (Exception e) {
+     LOG.error("Unable to write outbox to " + OutboxService.this.file, e);
+    }
+   }
+  }, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, MILLISECONDS);
+  this.scheduler.scheduleWithFixedDelay(new Runnable() {
+   @Override
+   public void run() {
+    try {
+     retryDue(System.currentTimeMillis());
+    } catch (Exception e) {
+     LOG.error("Unable to retry outbox entries", e);
+    }
+   }
+  }, RETRY_INTERVAL_MILLIS, RETRY_INTERVAL_MILLIS, MILLISECONDS);
+ }
+
+ /**
+  * Saves a notification that could not be delivered, to be retried later. Only the headers of the notification that
+  * have variables are stored, as rendered, the others are taken from the notification when retried.
+  */
+ public void add(PrnfbNotification notification, PrnfbPullRequestAction action, long pullRequestId,
+   UrlInvoker urlInvoker, Exception e) {
+  long now = System.currentTimeMillis();
+  Set<String> withVariables = newHashSet();
+  for (PrnfbHeader header : notification.getHeaders()) {
+   if (hasVariables(header)) {
+    withVariables.add(header.getName());
+   }
+  }
+  List<PrnfbHeader> headers = newArrayList();
+  for (PrnfbHeader header : urlInvoker.getHeaders()) {
+   if (withVariables.contains(header.getName()) && !header.getName().equalsIgnoreCase(AUTHORIZATION)) {
+    headers.add(header);
+   }
+  }
+  OutboxEntry entry = new OutboxEntry(notification.getUuid(), action, pullRequestId, urlInvoker.getUrlParam(),
+    urlInvoker.getMethod(), urlInvoker.getPostContent(), headers, now)//
+    .withAttemptFailed(e.toString(), now + getBackoffMillis(1, this.random));
+  synchronized (this) {
+   put(entry);
+  }
+  LOG.warn("Unable to invoke " + urlInvoker.getUrlParam() + ", will retry at " + entry.getNextAttemptAt());
+ }
+
+ /**
+  * @return true if there was such an entry.
+  */
+ public synchronized boolean delete(UUID uuid) {
+  return remove(uuid);
+ }
+
+ @Override
+ public void destroy() {
+  this.scheduler.shutdownNow();
+  flush();
+ }
+
+ public synchronized List<OutboxEntry> getEntries() {
+  return newArrayList(this.entries.values());
+ }
+
+ public synchronized Optional<OutboxEntry> getEntry(UUID uuid) {
+  return fromNullable(this.entries.get(uuid));
+ }
+
+ /**
+  * Retries the entry as soon as possible, even if it is in the dead letter list.
+  *
+  * @return true if there was such an entry.
+  */
+ public boolean replay(UUID uuid) {
+  synchronized (this) {
+   OutboxEntry entry = this.entries.get(uuid);
+   if (entry == null) {
+    return false;
+   }
+   put(entry.withReplay(System.currentTimeMillis()));
+  }
+  this.scheduler.execute(new Runnable() {
+   @Override
+   public void run() {
+    retryDue(System.currentTimeMillis());
+   }
+  });
+  return true;
+ }
+
+ private Invoker createInvoker() {
+  if (mockedInvoker != null) {
+   return mockedInvoker;
+  }
+  return new Invoker() {
+   @Override
+   public void invoke(UrlInvoker urlInvoker) {
+    urlInvoker.invoke();
+   }
+  };
+ }
+
+ private synchronized void delivered(OutboxEntry entry) {
+  this.inFlight.remove(entry.getUuid());
+  remove(entry.getUuid());
+ }
+
+ /**
+  * Must be called with the lock held.
+  */
+ private void evictIfFull() {
+  Iterator<UUID> oldestDead = this.deadLetters.iterator();
+  while (this.deadLetters.size() > MAX_DEAD_LETTERS
+    || this.entries.size() > MAX_ENTRIES && oldestDead.hasNext()) {
+   UUID evicted = oldestDead.next();
+   oldestDead.remove();
+   LOG.warn("Evicting dead outbox entry " + this.entries.get(evicted).getUrl() + ", the outbox is full");
+   this.entries.remove(evicted);
+   this.pendingRecords.add(gson.toJson(new OutboxRecord(null, evicted)));
+  }
+  Iterator<OutboxEntry> oldest = this.entries.values().iterator();
+  while (this.entries.size() > MAX_ENTRIES) {
+   OutboxEntry evicted = oldest.next();
+   oldest.remove();
+   LOG.error("Giving up on " + evicted.getUrl() + ", the outbox is full");
+   this.pendingRecords.add(gson.toJson(new OutboxRecord(null, evicted.getUuid())));
+  }
+ }
+
+ private synchronized void failed(OutboxEntry entry, String error) {
+  this.inFlight.remove(entry.getUuid());
+  OutboxEntry current = this.entries.get(entry.getUuid());
+  if (current == null) {
+   // Deleted while in flight
+   return;
+  }
+  if (current.getAttempts() + 1 >= MAX_ATTEMPTS) {
+   LOG.error("Giving up on " + current.getUrl() + " after " + MAX_ATTEMPTS + " attempts: " + error);
+   put(current.withDead(error));
+  } else {
+   long nextAttemptAt = System.currentTimeMillis() + getBackoffMillis(current.getAttempts() + 1, this.random);
+   put(current.withAttemptFailed(error, nextAttemptAt));
+  }
+ }
+
+ private void load() {
+  if (!this.file.exists()) {
+   this.file.getParentFile().mkdirs();
+   return;
+  }
+  try {
+   for (String line : Files.readAllLines(this.file.toPath(), UTF_8)) {
+    try {
+     OutboxRecord record = gson.fromJson(line, OutboxRecord.class);
+     if (record == null) {
+      continue;
+     }
+     if (record.put != null) {
+      this.entries.put(record.put.getUuid(), record.put);
+     } else if (record.removed != null) {
+      this.entries.remove(record.removed);
+     }
+    } catch (JsonParseException e) {
+     // A record that was only partly written when the node went down
+     LOG.warn("Ignoring unreadable outbox record in " + this.file, e);
+    }
+   }
+   for (OutboxEntry entry : this.entries.values()) {
+    if (entry.isDead()) {
+     this.deadLetters.add(entry.getUuid());
+    } else {
+     this.due.add(entry);
+    }
+   }
+   evictIfFull();
+   writeCompacted(toRecords(this.entries.values()));
+   // Evictions are included in the compacted journal
+   this.pendingRecords.clear();
+  } catch (IOException e) {
+   LOG.error("Unable to read outbox from " + this.file, e);
+  }
+  LOG.info("Loaded " + this.entries.size() + " outbox entries from " + this.file);
+ }
+
+ /**
+  * Must be called with the lock held.
+  */
+ private void put(OutboxEntry entry) {
+  this.entries.put(entry.getUuid(), entry);
+  this.pendingRecords.add(gson.toJson(new OutboxRecord(entry, null)));
+  this.deadLetters.remove(entry.getUuid());
+  if (entry.isDead()) {
+   this.deadLetters.add(entry.getUuid());
+  } else {
+   this.due.add(entry);
+  }
+  evictIfFull();
+ }
+
+ /**
+  * Must be called with the lock held.
+  *
+  * @return true if there was such an entry.
+  */
+ private boolean remove(UUID uuid) {
+  if (this.entries.remove(uuid) == null) {
+   return false;
+  }
+  this.deadLetters.remove(uuid);
+  this.pendingRecords.add(gson.toJson(new OutboxRecord(null, uuid)));
+  return true;
+ }
+
+ private void retry(final OutboxEntry entry) {
+  Optional<PrnfbNotification> notification = this.settingsService.findNotification(entry.getNotificationUuid());
+  if (!notification.isPresent()) {
+   synchronized (this) {
+    this.inFlight.remove(entry.getUuid());
+    OutboxEntry current = this.entries.get(entry.getUuid());
+    if (current != null) {
+     put(current.withDead("Notification " + entry.getNotificationUuid() + " no longer exists"));
+    }
+   }
+   return;
+  }
+  PrnfbSettingsData settings = this.settingsService.getPrnfbSettingsData();
+  UrlInvoker urlInvoker = urlInvoker()//
+    .withUrlParam(entry.getUrl())//
+    .withMethod(entry.getMethod())//
+    .withPostContent(entry.getPostContent())//
+    .withDeliveryLimits(deliveryLimits(notification.get(), settings))//
+    .withRequestTimeouts(requestTimeouts(notification.get(), settings))//
+    .appendBasicAuth(notification.get());
+  Set<String> fromNotification = newHashSet();
+  for (PrnfbHeader header : notification.get().getHeaders()) {
+   if (!hasVariables(header)) {
+    urlInvoker//
+      .withHeader(header.getName(), header.getValue());
+    fromNotification.add(header.getName());
+   }
+  }
+  for (PrnfbHeader header : entry.getHeaders()) {
+   // Entries stored before only headers with variables were stored
+   if (!fromNotification.contains(header.getName())) {
+    urlInvoker//
+      .withHeader(header.getName(), header.getValue());
+   }
+  }
+  final long deliverStart = nanoTime();
+  this.deliveryEngine.deliver(urlInvoker//
+    .withProxyServer(notification.get().getProxyServer()) //
+    .withProxyPort(notification.get().getProxyPort())//
+    .withProxyUser(notification.get().getProxyUser())//
+    .withProxyPassword(notification.get().getProxyPassword())//
+    .withClientKeyStore(clientKeyStore(settings))//
+    .shouldAcceptAnyCertificate(settings.isShouldAcceptAnyCertificate()), createInvoker(), new DeliveryCallback() {
+   @Override
+   public void completed(UrlInvoker urlInvoker) {
+    OutboxService.this.deliveryLog.delivered(entry.getNotificationUuid(), entry.getAction(),
+      entry.getPullRequestId(), urlInvoker, NANOSECONDS.toMillis(nanoTime() - deliverStart));
+    delivered(entry);
+   }
+
+   @Override
+   public void failed(UrlInvoker urlInvoker, Exception e) {
+    OutboxService.this.deliveryLog.failed(entry.getNotificationUuid(), entry.getAction(), entry.getPullRequestId(),
+      urlInvoker, e, NANOSECONDS.toMillis(nanoTime() - deliverStart));
+    OutboxService.this.failed(entry, e.toString());
+   }
+  });
+ }
+
+ private List<String> toRecords(Iterable<OutboxEntry> entries) {
+  List<String> records = newArrayList();
+  for (OutboxEntry entry : entries) {
+   records.add(gson.toJson(new OutboxRecord(entry, null)));
+  }
+  return records;
+ }
+
+ private void write(File file, List<String> records, boolean append) throws IOException {
+  try (FileOutputStream out = new FileOutputStream(file, append)) {
+   Writer writer = new OutputStreamWriter(out, UTF_8);
+   for (String record : records) {
+    writer.write(record);
+    writer.write('\n');
+   }
+   writer.flush();
+   out.getFD().sync();
+  }
+ }
+
+ /**
+  * Replaces the journal, atomically, with the given records.
+  */
+ private void writeCompacted(List<String> records) throws IOException {
+  File compacted = new File(this.file.getPath() + ".tmp");
+  write(compacted, records, false);
+  Files.move(compacted.toPath(), this.file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+  this.journalRecords = records.size();
+ }
+
+ /**
+  * Writes the records added since last time, or all entries if the journal has grown too large or the last write
+  * failed.
+  */
+ @VisibleForTesting
+ void flush() {
+  synchronized (this.file) {
+   List<String> records;
+   boolean compact;
+   synchronized (this) {
+    if (this.pendingRecords.isEmpty() && !this.compactOnFlush) {
+     return;
+    }
+    records = this.pendingRecords;
+    this.pendingRecords = newArrayList();
+    compact = this.compactOnFlush //
+      || this.journalRecords + records.size() > COMPACT_MIN_RECORDS
+      && this.journalRecords + records.size() > COMPACT_RECORDS_PER_ENTRY * this.entries.size();
+    if (compact) {
+     records = toRecords(this.entries.values());
+    }
+   }
+   try {
+    if (compact) {
+     writeCompacted(records);
+    } else {
+     write(this.file, records, true);
+     this.journalRecords += records.size();
+    }
+   } catch (IOException e) {
+    LOG.error("Unable to write outbox to " + this.file + ", will write all entries next time", e);
+    synchronized (this) {
+     this.compactOnFlush = true;
+    }
+    return;
+   }
+   if (compact) {
+    synchronized (this) {
+     this.compactOnFlush = false;
+    }
+   }
+  }
+ }
+
+ /**
+  * Hands entries that are due, and not already being retried, to the delivery engine. Only looks at the due entries.
+  */
+ @VisibleForTesting
+ void retryDue(long now) {
+  List<OutboxEntry> due = newArrayList();
+  synchronized (this) {
+   while (!this.due.isEmpty() && this.due.peek().getNextAttemptAt() <= now) {
+    OutboxEntry entry = this.due.poll();
+    // Not replaced, removed or being retried. Will be queued again if it fails.
+    if (this.entries.get(entry.getUuid()) == entry && !this.inFlight.contains(entry.getUuid())) {
+     this.inFlight.add(entry.getUuid());
+     due.add(entry);
+    }
+   }
+  }
+  for (OutboxEntry entry : due) {
+   retry(entry);
+  }
+ }
+}
@@ -1,11 +1,9 @@
 package se.bjurr.prnfb.service;
 
-import static com.google.common.base.Charsets.UTF_8;
-import static com.google.common.base.Throwables.propagate;
-import static java.net.URLEncoder.encode;
-import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
+import static java.lang.System.nanoTime;
+import static se.bjurr.prnfb.service.PrnfbTemplate.prnfbTemplate;
 
-import java.io.UnsupportedEncodingException;
+import java.util.EnumMap;
 import java.util.Map;
 
 import se.bjurr.prnfb.http.ClientKeyStore;
@@ -17,7 +15,7 @@ import com.atlassian.bitbucket.repository.RepositoryService;
 import com.atlassian.bitbucket.server.ApplicationPropertiesService;
 import com.atlassian.bitbucket.user.ApplicationUser;
 import com.atlassian.bitbucket.user.SecurityService;
-import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 
 public class PrnfbRenderer {
@@ -27,7 +25,20 @@ public class PrnfbRenderer {
  private final ApplicationPropertiesService propertiesService;
  private final PullRequest pullRequest;
  private final PrnfbPullRequestAction pullRequestAction;
+ /**
+  * Time spent by all renderings.
+  */
+ private long renderNanos;
  private final RepositoryService repositoryService;
+ /**
+  * Indexed by the ordinal of the variable, so that keeping track does not allocate.
+  */
+ private final boolean[] resolved = new boolean[PrnfbVariable.values().length];
+ /**
+  * Time spent resolving each variable, by all renderings, indexed by the ordinal of the variable. Includes waiting for
+  * a renderer of another notification that was resolving the same variable.
+  */
+ private final long[] resolveNanos = new long[PrnfbVariable.values().length];
  private final SecurityService securityService;
  /**
   * Contains special variables that are only available for specific events like
@@ -35,10 +46,22 @@ public class PrnfbRenderer {
   * {@link PrnfbVariable#PULL_REQUEST_COMMENT_TEXT}.
   */
  private final Map<PrnfbVariable, Supplier<String>> variables;
+ /**
+  * Shared with the renderers of all other notifications of the same event.
+  */
+ private final PrnfbVariableCache variableCache;
 
  PrnfbRenderer(PullRequest pullRequest, PrnfbPullRequestAction pullRequestAction, ApplicationUser applicationUser,
    RepositoryService repositoryService, ApplicationPropertiesService propertiesService,
    PrnfbNotification prnfbNotification, Map<PrnfbVariable, Supplier<String>> variables, SecurityService securityService) {
+  this(pullRequest, pullRequestAction, applicationUser, repositoryService, propertiesService, prnfbNotification,
+    variables, securityService, new PrnfbVariableCache());
+ }
+
+ PrnfbRenderer(PullRequest pullRequest, PrnfbPullRequestAction pullRequestAction, ApplicationUser applicationUser,
+   RepositoryService repositoryService, ApplicationPropertiesService propertiesService,
+   PrnfbNotification prnfbNotification, Map<PrnfbVariable, Supplier<String>> variables,
+   SecurityService securityService, PrnfbVariableCache variableCache) {
   this.pullRequest = pullRequest;
   this.pullRequestAction = pullRequestAction;
   this.applicationUser = applicationUser;
@@ -47,57 +70,58 @@ public class PrnfbRenderer {
   this.propertiesService = propertiesService;
   this.variables = variables;
   this.securityService = securityService;
+  this.variableCache = variableCache;
  }
 
- public String render(String string, Boolean forUrl, ClientKeyStore clientKeyStore, Boolean shouldAcceptAnyCertificate) {
-  string = renderVariable(string, false, clientKeyStore, shouldAcceptAnyCertificate, EVERYTHING_URL);
-
-  for (final PrnfbVariable variable : PrnfbVariable.values()) {
-   string = renderVariable(string, forUrl, clientKeyStore, shouldAcceptAnyCertificate, variable);
-  }
-  return string;
- }
-
- private boolean containsVariable(String string, final String regExpStr) {
-  return string.contains(regExpStr.replaceAll("\\\\", ""));
- }
-
- private String getRenderedString(String string, Boolean forUrl, ClientKeyStore clientKeyStore,
-   Boolean shouldAcceptAnyCertificate, final PrnfbVariable variable, final String regExpStr)
-   throws UnsupportedEncodingException {
-  String resolved = variable.resolve(this.pullRequest, this.pullRequestAction, this.applicationUser,
-    this.repositoryService, this.propertiesService, this.prnfbNotification, this.variables, clientKeyStore,
-    shouldAcceptAnyCertificate, this.securityService);
-  return getRenderedStringResolved(string, forUrl, regExpStr, resolved);
+ /**
+  * Nanoseconds spent by all renderings so far, including the filter string.
+  */
+ public long getRenderNanos() {
+  return this.renderNanos;
  }
 
- private String renderVariable(String string, Boolean forUrl, ClientKeyStore clientKeyStore,
-   Boolean shouldAcceptAnyCertificate, final PrnfbVariable variable) {
-  final String regExpStr = regexp(variable);
-  if (containsVariable(string, regExpStr)) {
-   try {
-    string = getRenderedString(string, forUrl, clientKeyStore, shouldAcceptAnyCertificate, variable, regExpStr);
-   } catch (UnsupportedEncodingException e) {
-    propagate(e);
+ /**
+  * Nanoseconds spent resolving each variable rendered so far. Created when called, so only call it when needed.
+  */
+ public Map<PrnfbVariable, Long> getResolveNanos() {
+  Map<PrnfbVariable, Long> resolveNanos = new EnumMap<>(PrnfbVariable.class);
+  for (PrnfbVariable variable : PrnfbVariable.values()) {
+   if (this.resolved[variable.ordinal()]) {
+    resolveNanos.put(variable, this.resolveNanos[variable.ordinal()]);
    }
   }
-  return string;
+  return resolveNanos;
  }
 
- @VisibleForTesting
- String getRenderedStringResolved(String string, Boolean forUrl, final String regExpStr, String resolved)
-   throws UnsupportedEncodingException {
-  String replaceWith = forUrl ? encode(resolved, UTF_8.name()) : resolved;
+ public String render(String string, Boolean forUrl, final ClientKeyStore clientKeyStore,
+   final Boolean shouldAcceptAnyCertificate) {
+  long start = nanoTime();
   try {
-   string = string.replaceAll(regExpStr, replaceWith);
-  } catch (IllegalArgumentException e) {
-   throw new RuntimeException("Tried to replace " + regExpStr + " with " + replaceWith, e);
+   return doRender(string, forUrl, clientKeyStore, shouldAcceptAnyCertificate);
+  } finally {
+   this.renderNanos += nanoTime() - start;
   }
-  return string;
  }
 
- @VisibleForTesting
- String regexp(PrnfbVariable variable) {
-  return "\\$\\{" + variable.name() + "\\}";
+ private String doRender(String string, Boolean forUrl, final ClientKeyStore clientKeyStore,
+   final Boolean shouldAcceptAnyCertificate) {
+  return prnfbTemplate(string).render(new Function<PrnfbVariable, String>() {
+   @Override
+   public String apply(final PrnfbVariable variable) {
+    long start = nanoTime();
+    String resolved = PrnfbRenderer.this.variableCache.get(variable, new Supplier<String>() {
+     @Override
+     public String get() {
+      return variable.resolve(PrnfbRenderer.this.pullRequest, PrnfbRenderer.this.pullRequestAction,
+        PrnfbRenderer.this.applicationUser, PrnfbRenderer.this.repositoryService,
+        PrnfbRenderer.this.propertiesService, PrnfbRenderer.this.prnfbNotification, PrnfbRenderer.this.variables,
+        clientKeyStore, shouldAcceptAnyCertificate, PrnfbRenderer.this.securityService);
+     }
+    });
+    PrnfbRenderer.this.resolveNanos[variable.ordinal()] += nanoTime() - start;
+    PrnfbRenderer.this.resolved[variable.ordinal()] = true;
+    return resolved;
+   }
+  }, forUrl);
  }
 }
@@ -29,7 +29,18 @@ public class PrnfbRendererFactory {
 
  public PrnfbRenderer create(PullRequest pullRequest, PrnfbPullRequestAction pullRequestAction,
    PrnfbNotification prnfbNotification, Map<PrnfbVariable, Supplier<String>> variables) {
+  return create(pullRequest, pullRequestAction, prnfbNotification, variables, new PrnfbVariableCache());
+ }
+
+ /**
+  * Renderers created with the same {@link PrnfbVariableCache} only resolve each variable that does not depend on the
+  * notification once. Use one cache per event, or pull request, and the same variables.
+  */
+ public PrnfbRenderer create(PullRequest pullRequest, PrnfbPullRequestAction pullRequestAction,
+   PrnfbNotification prnfbNotification, Map<PrnfbVariable, Supplier<String>> variables,
+   PrnfbVariableCache variableCache) {
   return new PrnfbRenderer(pullRequest, pullRequestAction, this.authenticationContext.getCurrentUser(),
-    this.repositoryService, this.propertiesService, prnfbNotification, variables, this.securityService);
+    this.repositoryService, this.propertiesService, prnfbNotification, variables, this.securityService,
+    variableCache);
  }
 }
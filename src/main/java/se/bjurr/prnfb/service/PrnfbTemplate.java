@@ -0,0 +1,163 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.net.URLEncoder.encode;
+import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
+import static se.bjurr.prnfb.service.PrnfbVariable.getEverythingUrlTemplate;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * A string with variables, like the URL, a header or the post content of a notification, parsed into literal text and
+ * variable slots. Parsed once per distinct string and then rendered in one pass.
+ */
+public class PrnfbTemplate {
+ private static final LoadingCache<String, PrnfbTemplate> compiled = CacheBuilder.newBuilder()//
+   .maximumSize(1000)//
+   .build(new CacheLoader<String, PrnfbTemplate>() {
+    @Override
+    public PrnfbTemplate load(String template) {
+     return compile(template);
+    }
+   });
+ private static final Map<String, PrnfbVariable> variablesByName = newHashMap();
+ private static final String VARIABLE_END = "}";
+ private static final String VARIABLE_START = "${";
+
+ static {
+  for (PrnfbVariable variable : PrnfbVariable.values()) {
+   variablesByName.put(variable.name(), variable);
+  }
+ }
+
+ /**
+  * The template, parsed or from cache.
+  */
+ public static PrnfbTemplate prnfbTemplate(String template) {
+  return compiled.getUnchecked(checkNotNull(template, "template"));
+ }
+
+ @VisibleForTesting
+ static PrnfbTemplate compile(String template) {
+  List<String> literals = newArrayList();
+  List<PrnfbVariable> slots = newArrayList();
+  StringBuilder literal = new StringBuilder();
+  parse(template, literals, slots, literal);
+  literals.add(literal.toString());
+  return new PrnfbTemplate(literals.toArray(new String[literals.size()]),
+    slots.toArray(new PrnfbVariable[slots.size()]));
+ }
+
+ /**
+  * {@link PrnfbVariable#EVERYTHING_URL} is expanded here, into the variables it contains, instead of when rendering.
+  * Anything that looks like a variable but is not one is kept as it is.
+  */
+ private static void parse(String template, List<String> literals, List<PrnfbVariable> slots, StringBuilder literal) {
+  int position = 0;
+  while (true) {
+   int start = template.indexOf(VARIABLE_START, position);
+   int end = start == -1 ? -1 : template.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+   if (end == -1) {
+    literal.append(template, position, template.length());
+    return;
+   }
+   PrnfbVariable variable = variablesByName.get(template.substring(start + VARIABLE_START.length(), end));
+   if (variable == null) {
+    literal.append(template, position, start + VARIABLE_START.length());
+    position = start + VARIABLE_START.length();
+    continue;
+   }
+   literal.append(template, position, start);
+   if (variable == EVERYTHING_URL) {
+    parse(getEverythingUrlTemplate(), literals, slots, literal);
+   } else {
+    literals.add(literal.toString());
+    literal.setLength(0);
+    slots.add(variable);
+   }
+   position = end + VARIABLE_END.length();
+  }
+ }
+
+ private final int literalsLength;
+ /**
+  * Always one more than {@link #slots}, the text before, between and after the variables.
+  */
+ private final String[] literals;
+ private final PrnfbVariable[] slots;
+
+ private PrnfbTemplate(String[] literals, PrnfbVariable[] slots) {
+  this.literals = literals;
+  this.slots = slots;
+  int length = 0;
+  for (String literal : literals) {
+   length += literal.length();
+  }
+  this.literalsLength = length;
+ }
+
+ public List<PrnfbVariable> getVariables() {
+  return newArrayList(this.slots);
+ }
+
+ /**
+  * Each variable is resolved at most once, even if it occurs several times. A variable resolved to null is rendered as
+  * an empty string.
+  */
+ public String render(Function<PrnfbVariable, String> resolver, boolean forUrl) {
+  if (this.slots.length == 0) {
+   return this.literals[0];
+  }
+  String[] resolved = new String[PrnfbVariable.values().length];
+  StringBuilder sb = new StringBuilder(this.literalsLength + 16 * this.slots.length);
+  for (int i = 0; i < this.slots.length; i++) {
+   sb.append(this.literals[i]);
+   int ordinal = this.slots[i].ordinal();
+   if (resolved[ordinal] == null) {
+    resolved[ordinal] = toRendered(resolver.apply(this.slots[i]), forUrl);
+   }
+   sb.append(resolved[ordinal]);
+  }
+  sb.append(this.literals[this.slots.length]);
+  return sb.toString();
+ }
+
+ /**
+  * The template, with {@link PrnfbVariable#EVERYTHING_URL} expanded.
+  */
+ @Override
+ public String toString() {
+  StringBuilder sb = new StringBuilder();
+  for (int i = 0; i < this.slots.length; i++) {
+   sb.append(this.literals[i]) //
+     .append(VARIABLE_START) //
+     .append(this.slots[i].name()) //
+     .append(VARIABLE_END);
+  }
+  return sb.append(this.literals[this.slots.length]).toString();
+ }
+
+ private String toRendered(String value, boolean forUrl) {
+  if (!forUrl) {
+   return nullToEmpty(value);
+  }
+  try {
+   return encode(nullToEmpty(value), UTF_8.name());
+  } catch (UnsupportedEncodingException e) {
+   throw propagate(e);
+  }
+ }
+}
@@ -6,9 +6,11 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Ordering.usingToString;
 import static com.google.common.collect.Sets.newTreeSet;
-import static java.util.regex.Pattern.compile;
+import static se.bjurr.prnfb.http.RequestTimeouts.requestTimeouts;
 import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.GET;
+import static se.bjurr.prnfb.service.CloneUrlCache.getCloneUrl;
+import static se.bjurr.prnfb.service.InjectionUrlCache.getInjectionUrlValue;
 import static se.bjurr.prnfb.service.RepoProtocol.http;
 import static se.bjurr.prnfb.service.RepoProtocol.ssh;
 
@@ -16,6 +18,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 
 import se.bjurr.prnfb.http.ClientKeyStore;
@@ -57,49 +60,49 @@ public enum PrnfbVariable {
     ApplicationPropertiesService propertiesService, PrnfbNotification prnfbNotification,
     Map<PrnfbVariable, Supplier<String>> variables, ClientKeyStore clientKeyStore, boolean shouldAcceptAnyCertificate,
     SecurityService securityService) {
-   List<String> parts = newArrayList();
-   for (PrnfbVariable v : PrnfbVariable.values()) {
-    if (v != EVERYTHING_URL) {
-     parts.add(v.name() + "=\\${" + v.name() + "}");
-    }
-   }
-   return on('&').join(parts);
+   return getEverythingUrlTemplate().replace("${", "\\${");
   }
  }), INJECTION_URL_VALUE(new PrnfbVariableResolver() {
   @Override
   public String resolve(PullRequest pullRequest, PrnfbPullRequestAction pullRequestAction,
     ApplicationUser applicationUser, RepositoryService repositoryService,
-    ApplicationPropertiesService propertiesService, PrnfbNotification prnfbNotification,
-    Map<PrnfbVariable, Supplier<String>> variables, ClientKeyStore clientKeyStore, boolean shouldAcceptAnyCertificate,
-    SecurityService securityService) {
+    ApplicationPropertiesService propertiesService, final PrnfbNotification prnfbNotification,
+    Map<PrnfbVariable, Supplier<String>> variables, final ClientKeyStore clientKeyStore,
+    final boolean shouldAcceptAnyCertificate, SecurityService securityService) {
    if (!prnfbNotification.getInjectionUrl().isPresent()) {
     return "";
    }
-   UrlInvoker urlInvoker = urlInvoker() //
-     .withUrlParam(prnfbNotification.getInjectionUrl().get()) //
-     .withMethod(GET)//
-     .withProxyServer(prnfbNotification.getProxyServer()) //
-     .withProxyPort(prnfbNotification.getProxyPort()) //
-     .withProxyUser(prnfbNotification.getProxyUser()) //
-     .withProxyPassword(prnfbNotification.getProxyPassword())//
-     .appendBasicAuth(prnfbNotification)//
-     .withClientKeyStore(clientKeyStore)//
-     .shouldAcceptAnyCertificate(shouldAcceptAnyCertificate);
-   createInvoker()//
-     .invoke(urlInvoker);
-   String rawResponse = urlInvoker.getResponseString().trim();
-   if (prnfbNotification.getInjectionUrlRegexp().isPresent()) {
-    Matcher m = compile(prnfbNotification.getInjectionUrlRegexp().get()).matcher(rawResponse);
-    if (!m.find()) {
-     return "";
-    }
-    if (m.groupCount() == 0) {
-     return m.group();
+   return getInjectionUrlValue(prnfbNotification, new Callable<String>() {
+    @Override
+    public String call() {
+     UrlInvoker urlInvoker = urlInvoker() //
+       .withUrlParam(prnfbNotification.getInjectionUrl().get()) //
+       .withMethod(GET)//
+       .withRequestTimeouts(requestTimeouts(prnfbNotification))//
+       .withProxyServer(prnfbNotification.getProxyServer()) //
+       .withProxyPort(prnfbNotification.getProxyPort()) //
+       .withProxyUser(prnfbNotification.getProxyUser()) //
+       .withProxyPassword(prnfbNotification.getProxyPassword())//
+       .appendBasicAuth(prnfbNotification)//
+       .withClientKeyStore(clientKeyStore)//
+       .shouldAcceptAnyCertificate(shouldAcceptAnyCertificate);
+     createInvoker()//
+       .invoke(urlInvoker);
+     String rawResponse = urlInvoker.getResponseString().trim();
+     if (prnfbNotification.getInjectionUrlPattern().isPresent()) {
+      Matcher m = prnfbNotification.getInjectionUrlPattern().get().matcher(rawResponse);
+      if (!m.find()) {
+       return "";
+      }
+      if (m.groupCount() == 0) {
+       return m.group();
+      }
+      return m.group(1);
+     } else {
+      return rawResponse;
+     }
     }
-    return m.group(1);
-   } else {
-    return rawResponse;
-   }
+   });
   }
  }), PULL_REQUEST_ACTION(new PrnfbVariableResolver() {
   @Override
@@ -500,29 +503,34 @@ public enum PrnfbVariable {
   PrnfbVariable.mockedInvoker = invoker;
  }
 
- private static String cloneUrlFromRepository(RepoProtocol protocol, Repository repository,
-   RepositoryService repositoryService, SecurityService securityService) {
-  return securityService//
-    .withPermission(Permission.ADMIN, "cloneUrls")//
-    .call(new Operation<String, RuntimeException>() {
-     @Override
-     public String perform() throws RuntimeException {
-      RepositoryCloneLinksRequest request = new RepositoryCloneLinksRequest.Builder()//
-        .protocol(protocol.name())//
-        .repository(repository)//
-        .build();
-      final Set<NamedLink> cloneLinks = repositoryService.getCloneLinks(request);
-      Set<String> allUrls = newTreeSet();
-      Iterator<NamedLink> itr = cloneLinks.iterator();
-      while (itr.hasNext()) {
-       allUrls.add(itr.next().getHref());
-      }
-      if (allUrls.isEmpty()) {
-       return "";
-      }
-      return allUrls.iterator().next();
-     }
-    });
+ private static String cloneUrlFromRepository(final RepoProtocol protocol, final Repository repository,
+   final RepositoryService repositoryService, final SecurityService securityService) {
+  return getCloneUrl(repository.getId(), protocol, new Callable<String>() {
+   @Override
+   public String call() {
+    return securityService//
+      .withPermission(Permission.ADMIN, "cloneUrls")//
+      .call(new Operation<String, RuntimeException>() {
+       @Override
+       public String perform() throws RuntimeException {
+        RepositoryCloneLinksRequest request = new RepositoryCloneLinksRequest.Builder()//
+          .protocol(protocol.name())//
+          .repository(repository)//
+          .build();
+        final Set<NamedLink> cloneLinks = repositoryService.getCloneLinks(request);
+        Set<String> allUrls = newTreeSet();
+        Iterator<NamedLink> itr = cloneLinks.iterator();
+        while (itr.hasNext()) {
+         allUrls.add(itr.next().getHref());
+        }
+        if (allUrls.isEmpty()) {
+         return "";
+        }
+        return allUrls.iterator().next();
+       }
+      });
+   }
+  });
  }
 
  private static Invoker createInvoker() {
@@ -537,6 +545,19 @@ public enum PrnfbVariable {
   };
  }
 
+ /**
+  * What {@link #EVERYTHING_URL} expands to, every other variable as a query parameter.
+  */
+ static String getEverythingUrlTemplate() {
+  List<String> parts = newArrayList();
+  for (PrnfbVariable v : PrnfbVariable.values()) {
+   if (v != EVERYTHING_URL) {
+    parts.add(v.name() + "=${" + v.name() + "}");
+   }
+  }
+  return on('&').join(parts);
+ }
+
  private static String getOrEmpty(Map<PrnfbVariable, Supplier<String>> variables, PrnfbVariable variable) {
   if (variables.get(variable) == null) {
    return "";
@@ -0,0 +1,53 @@
+package se.bjurr.prnfb.service;
+
+import static java.util.EnumSet.of;
+import static se.bjurr.prnfb.service.PrnfbVariable.BUTTON_TRIGGER_TITLE;
+import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
+import static se.bjurr.prnfb.service.PrnfbVariable.INJECTION_URL_VALUE;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_ACTION;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.base.Supplier;
+
+/**
+ * Variables resolved for one event, or one pull request, shared by the renderers of all notifications that are
+ * rendered for it. So that clone links, reviewers and such are only looked up once, however many notifications use
+ * them.
+ */
+public class PrnfbVariableCache {
+ /**
+  * Depends on the notification, or button, being rendered and not only on the pull request.
+  */
+ private static final Set<PrnfbVariable> notificationSpecific = of(BUTTON_TRIGGER_TITLE, EVERYTHING_URL,
+   INJECTION_URL_VALUE, PULL_REQUEST_ACTION);
+
+ private final AtomicReferenceArray<String> resolved = new AtomicReferenceArray<String>(PrnfbVariable.values().length);
+
+ public static boolean isCacheable(PrnfbVariable variable) {
+  return !notificationSpecific.contains(variable);
+ }
+
+ /**
+  * The cached value, or the value from the resolver if it is not cached yet. If two threads resolve the same variable
+  * at the same time, the value of the first one to finish is kept.
+  */
+ public String get(PrnfbVariable variable, Supplier<String> resolver) {
+  if (!isCacheable(variable)) {
+   return resolver.get();
+  }
+  String value = this.resolved.get(variable.ordinal());
+  if (value != null) {
+   return value;
+  }
+  String resolvedValue = resolver.get();
+  if (resolvedValue == null) {
+   return null;
+  }
+  if (this.resolved.compareAndSet(variable.ordinal(), null, resolvedValue)) {
+   return resolvedValue;
+  }
+  return this.resolved.get(variable.ordinal());
+ }
+}
@@ -0,0 +1,40 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The latest elements added, up to a fixed number. Adding overwrites the oldest element, and never locks.
+ */
+public class RingBuffer<T> {
+ private final AtomicReferenceArray<T> elements;
+ private final AtomicLong next = new AtomicLong();
+
+ public RingBuffer(int size) {
+  this.elements = new AtomicReferenceArray<>(size);
+ }
+
+ public void add(T element) {
+  int slot = (int) (this.next.getAndIncrement() % this.elements.length());
+  this.elements.set(slot, element);
+ }
+
+ /**
+  * Newest first. Elements added while reading may be missed.
+  */
+ public List<T> getElements() {
+  List<T> newestFirst = newArrayList();
+  long next = this.next.get();
+  int size = this.elements.length();
+  for (long i = next - 1; i >= 0 && i >= next - size; i--) {
+   T element = this.elements.get((int) (i % size));
+   if (element != null) {
+    newestFirst.add(element);
+   }
+  }
+  return newestFirst;
+ }
+}
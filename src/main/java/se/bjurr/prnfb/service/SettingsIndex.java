@@ -0,0 +1,48 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+
+/**
+ * What is stored in {@link SettingsService#INDEX_KEY}. The global settings, and the revision of every notification and
+ * button, in the order they were added. Notifications and buttons are stored in keys of their own, so that changing
+ * one of them does not rewrite all the others. Their revision is in the index so that any change also changes the
+ * index, which is what other nodes in the cluster watch.
+ */
+class SettingsIndex {
+ /**
+  * Key is the UUID of the button, value its revision.
+  */
+ private final LinkedHashMap<String, String> buttons;
+ /**
+  * Key is the UUID of the notification, value its revision.
+  */
+ private final LinkedHashMap<String, String> notifications;
+ private final PrnfbSettingsData prnfbSettingsData;
+
+ SettingsIndex(PrnfbSettingsData prnfbSettingsData, LinkedHashMap<String, String> notifications,
+   LinkedHashMap<String, String> buttons) {
+  this.prnfbSettingsData = prnfbSettingsData;
+  this.notifications = notifications;
+  this.buttons = buttons;
+ }
+
+ /**
+  * Gson bypasses the constructor, so the maps may be missing in what it parsed.
+  */
+ Map<String, String> getButtons() {
+  return firstNonNull(this.buttons, new LinkedHashMap<String, String>());
+ }
+
+ Map<String, String> getNotifications() {
+  return firstNonNull(this.notifications, new LinkedHashMap<String, String>());
+ }
+
+ PrnfbSettingsData getPrnfbSettingsData() {
+  return this.prnfbSettingsData;
+ }
+}
@@ -3,17 +3,24 @@ package se.bjurr.prnfb.service;
 import static com.atlassian.bitbucket.permission.Permission.ADMIN;
 import static com.google.common.base.Joiner.on;
 import static com.google.common.base.Predicates.not;
-import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
 import static se.bjurr.prnfb.settings.PrnfbSettingsBuilder.prnfbSettingsBuilder;
 import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,18 +47,35 @@ import com.atlassian.sal.api.pluginsettings.PluginSettingsFactory;
 import com.atlassian.sal.api.transaction.TransactionCallback;
 import com.atlassian.sal.api.transaction.TransactionTemplate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 
 public class SettingsService {
 
+ /**
+  * The global settings, and the revision of every notification and button. See {@link SettingsIndex}.
+  */
+ public static final String INDEX_KEY = "se.bjurr.prnfb.4.index";
+ /**
+  * All settings in one value, as they were stored before being split by {@link #INDEX_KEY}. Migrated once, and then
+  * left as it was, just like the legacy settings.
+  */
  public static final String STORAGE_KEY = "se.bjurr.prnfb.pull-request-notifier-for-bitbucket-3";
+ @VisibleForTesting
+ static final String BUTTON_KEY_PREFIX = "se.bjurr.prnfb.4.button.";
+ @VisibleForTesting
+ static final String NOTIFICATION_KEY_PREFIX = "se.bjurr.prnfb.4.notification.";
  private static Gson gson = new Gson();
  private final Logger logger = LoggerFactory.getLogger(SettingsService.class);
  private final PluginSettings pluginSettings;
  private final SecurityService securityService;
+ private final AtomicReference<SettingsSnapshot> snapshot = new AtomicReference<>();
+ private final AtomicLong snapshotVersion = new AtomicLong();
  private final TransactionTemplate transactionTemplate;
+ private final ReentrantLock writeLock = new ReentrantLock();
 
  public SettingsService(PluginSettingsFactory pluginSettingsFactory, TransactionTemplate transactionTemplate,
    SecurityService securityService) {
@@ -61,44 +85,50 @@ public class SettingsService {
  }
 
  public PrnfbButton addOrUpdateButton(PrnfbButton prnfbButton) {
-  return inSynchronizedTransaction(new TransactionCallback<PrnfbButton>() {
+  updateSettings(new Function<PrnfbSettings, PrnfbSettings>() {
    @Override
-   public PrnfbButton doInTransaction() {
-    return doAddOrUpdateButton(prnfbButton);
+   public PrnfbSettings apply(PrnfbSettings settings) {
+    return prnfbSettingsBuilder(settings)//
+      .setButtons(newArrayList(filter(settings.getButtons(), not(withUuid(prnfbButton.getUuid())))))//
+      .withButton(prnfbButton)//
+      .build();
    }
   });
+  return prnfbButton;
  }
 
  public PrnfbNotification addOrUpdateNotification(PrnfbNotification prnfbNotification) throws ValidationException {
-  return inSynchronizedTransaction(new TransactionCallback<PrnfbNotification>() {
+  updateSettings(new Function<PrnfbSettings, PrnfbSettings>() {
    @Override
-   public PrnfbNotification doInTransaction() {
-    try {
-     return doAddOrUpdateNotification(prnfbNotification);
-    } catch (ValidationException e) {
-     propagate(e);
-    }
-    return null;
+   public PrnfbSettings apply(PrnfbSettings settings) {
+    return prnfbSettingsBuilder(settings)//
+      .setNotifications(
+        newArrayList(filter(settings.getNotifications(), not(withUuid(prnfbNotification.getUuid())))))//
+      .withNotification(prnfbNotification)//
+      .build();
    }
   });
+  return prnfbNotification;
  }
 
  public void deleteButton(UUID uuid) {
-  inSynchronizedTransaction(new TransactionCallback<Void>() {
+  updateSettings(new Function<PrnfbSettings, PrnfbSettings>() {
    @Override
-   public Void doInTransaction() {
-    doDeleteButton(uuid);
-    return null;
+   public PrnfbSettings apply(PrnfbSettings settings) {
+    return prnfbSettingsBuilder(settings)//
+      .setButtons(newArrayList(filter(settings.getButtons(), not(withUuid(uuid)))))//
+      .build();
    }
   });
  }
 
  public void deleteNotification(UUID uuid) {
-  inSynchronizedTransaction(new TransactionCallback<Void>() {
+  updateSettings(new Function<PrnfbSettings, PrnfbSettings>() {
    @Override
-   public Void doInTransaction() {
-    doDeleteNotification(uuid);
-    return null;
+   public PrnfbSettings apply(PrnfbSettings settings) {
+    return prnfbSettingsBuilder(settings)//
+      .setNotifications(newArrayList(filter(settings.getNotifications(), not(withUuid(uuid)))))//
+      .build();
    }
   });
  }
@@ -144,6 +174,15 @@ public class SettingsService {
   return found;
  }
 
+ /**
+  * The notifications that may be triggered by any of the actions, on a pull request targeting the given repository.
+  * Looked up in an index, so the cost depends on the number of matching notifications, not the number configured.
+  */
+ public List<PrnfbNotification> getNotificationCandidates(Iterable<PrnfbPullRequestAction> actions,
+   String projectKey, String repositorySlug) {
+  return getSnapshot().getNotificationDispatchIndex().getCandidates(actions, projectKey, repositorySlug);
+ }
+
  public PrnfbNotification getNotification(UUID notificationUuid) {
   return find(getPrnfbSettings().getNotifications(), withUuid(notificationUuid));
  }
@@ -173,123 +212,247 @@ public class SettingsService {
   return found;
  }
 
+ /**
+  * Served from the in memory snapshot, without locking, as long as the stored settings are unchanged. They are only
+  * parsed again if they were changed, perhaps by another node in the cluster.
+  */
  @VisibleForTesting
  public PrnfbSettings getPrnfbSettings() {
-  return inSynchronizedTransaction(new TransactionCallback<PrnfbSettings>() {
-   @Override
-   public PrnfbSettings doInTransaction() {
-    return doGetPrnfbSettings();
-   }
-  });
+  return getSnapshot().getPrnfbSettings();
  }
 
  public PrnfbSettingsData getPrnfbSettingsData() {
   return getPrnfbSettings().getPrnfbSettingsData();
  }
 
+ /**
+  * Changes whenever the settings are changed, on any node in the cluster.
+  */
+ public String getSettingsVersion() {
+  return getSnapshot().getStoredSettingsHash();
+ }
+
  public void setPrnfbSettingsData(PrnfbSettingsData prnfbSettingsData) {
-  inSynchronizedTransaction(new TransactionCallback<Void>() {
+  updateSettings(new Function<PrnfbSettings, PrnfbSettings>() {
    @Override
-   public Void doInTransaction() {
-    PrnfbSettings oldSettings = doGetPrnfbSettings();
-    PrnfbSettings newPrnfbSettings = prnfbSettingsBuilder(oldSettings)//
+   public PrnfbSettings apply(PrnfbSettings settings) {
+    return prnfbSettingsBuilder(settings)//
       .setPrnfbSettingsData(prnfbSettingsData)//
       .build();
-    doSetPrnfbSettings(newPrnfbSettings);
-    return null;
    }
   });
  }
 
- private PrnfbButton doAddOrUpdateButton(PrnfbButton prnfbButton) {
-  if (findButton(prnfbButton.getUuid()).isPresent()) {
-   doDeleteButton(prnfbButton.getUuid());
+ private <T extends HasUuid> Map<String, T> byUuid(List<T> list) {
+  Map<String, T> byUuid = newHashMap();
+  for (T t : list) {
+   byUuid.put(t.getUuid().toString(), t);
   }
+  return byUuid;
+ }
 
-  PrnfbSettings originalSettings = doGetPrnfbSettings();
-  PrnfbSettings updated = prnfbSettingsBuilder(originalSettings)//
-    .withButton(prnfbButton)//
+ private PrnfbSettings defaultSettings() {
+  return prnfbSettingsBuilder()//
+    .setPrnfbSettingsData(//
+      prnfbSettingsDataBuilder()//
+        .setAdminRestriction(USER_LEVEL.ADMIN)//
+        .build())//
     .build();
+ }
 
-  doSetPrnfbSettings(updated);
-  return prnfbButton;
+ private SettingsSnapshot emptySnapshot() {
+  PrnfbSettings settings = defaultSettings();
+  return newSnapshot(null, settings, new SettingsIndex(settings.getPrnfbSettingsData(),
+    new LinkedHashMap<String, String>(), new LinkedHashMap<String, String>()));
  }
 
- private PrnfbNotification doAddOrUpdateNotification(PrnfbNotification prnfbNotification) throws ValidationException {
-  if (findNotification(prnfbNotification.getUuid()).isPresent()) {
-   doDeleteNotification(prnfbNotification.getUuid());
+ private SettingsSnapshot getSnapshot() {
+  SettingsSnapshot current = this.snapshot.get();
+  Object storedIndex = this.pluginSettings.get(INDEX_KEY);
+  if (current != null && current.isSnapshotOf(storedIndex)) {
+   return current;
   }
+  if (storedIndex == null && (this.pluginSettings.get(STORAGE_KEY) != null || hasLegacySettings())) {
+   return migrateSettings();
+  }
+  SettingsSnapshot loaded = loadSnapshot(storedIndex, current);
+  // If someone else published in between, their snapshot is at least as new as this one.
+  this.snapshot.compareAndSet(current, loaded);
+  return loaded;
+ }
 
-  PrnfbSettings originalSettings = doGetPrnfbSettings();
-  PrnfbSettings updated = prnfbSettingsBuilder(originalSettings)//
-    .withNotification(prnfbNotification)//
-    .build();
+ private boolean hasLegacySettings() {
+  return this.pluginSettings.get(se.bjurr.prnfb.settings.legacy.SettingsStorage.STORAGE_KEY) != null
+    || this.pluginSettings.get(se.bjurr.prnfb.settings.legacy.SettingsStorage.STORAGE_KEY_PRNFS) != null;
+ }
 
-  doSetPrnfbSettings(updated);
-  return prnfbNotification;
+ private <T> T inTransaction(TransactionCallback<T> transactionCallback) {
+  return this.securityService//
+    .withPermission(ADMIN, "Getting config")//
+    .call(new Operation<T, RuntimeException>() {
+     @Override
+     public T perform() throws RuntimeException {
+      return SettingsService.this.transactionTemplate.execute(transactionCallback);
+     }
+    });
  }
 
- private void doDeleteButton(UUID uuid) {
-  PrnfbSettings originalSettings = doGetPrnfbSettings();
-  List<PrnfbButton> keep = newArrayList(filter(originalSettings.getButtons(), not(withUuid(uuid))));
-  PrnfbSettings withoutDeleted = prnfbSettingsBuilder(originalSettings)//
-    .setButtons(keep)//
-    .build();
-  doSetPrnfbSettings(withoutDeleted);
+ /**
+  * Notifications and buttons with the same revision as in the previous snapshot are reused from it, only the changed
+  * ones are read and parsed.
+  */
+ private <T extends HasUuid> List<T> loadShards(String keyPrefix, Map<String, String> revisions,
+   Map<String, String> previousRevisions, List<T> previous, Class<T> type) {
+  Map<String, T> previousByUuid = byUuid(previous);
+  List<T> loaded = newArrayList();
+  for (Entry<String, String> revision : revisions.entrySet()) {
+   T unchanged = previousByUuid.get(revision.getKey());
+   if (unchanged != null && revision.getValue().equals(previousRevisions.get(revision.getKey()))) {
+    loaded.add(unchanged);
+    continue;
+   }
+   Object stored = this.pluginSettings.get(keyPrefix + revision.getKey());
+   if (stored == null) {
+    this.logger.warn("No settings found for " + keyPrefix + revision.getKey() + ", ignoring it.");
+    continue;
+   }
+   loaded.add(gson.fromJson(stored.toString(), type));
+  }
+  return loaded;
  }
 
- private void doDeleteNotification(UUID uuid) {
-  PrnfbSettings originalSettings = doGetPrnfbSettings();
-  List<PrnfbNotification> keep = newArrayList(filter(originalSettings.getNotifications(), not(withUuid(uuid))));
-  PrnfbSettings withoutDeleted = prnfbSettingsBuilder(originalSettings)//
-    .setNotifications(keep)//
+ private SettingsSnapshot loadSnapshot(Object storedIndex, SettingsSnapshot previous) {
+  if (storedIndex == null) {
+   this.logger.info("No settings found for " + INDEX_KEY + ", creating new default settings.");
+   return emptySnapshot();
+  }
+  if (previous == null) {
+   previous = emptySnapshot();
+  }
+  SettingsIndex index = gson.fromJson(storedIndex.toString(), SettingsIndex.class);
+  PrnfbSettings prnfbSettings = prnfbSettingsBuilder()//
+    .setPrnfbSettingsData(index.getPrnfbSettingsData())//
+    .setNotifications(loadShards(NOTIFICATION_KEY_PREFIX, index.getNotifications(),
+      previous.getIndex().getNotifications(), previous.getPrnfbSettings().getNotifications(),
+      PrnfbNotification.class))//
+    .setButtons(loadShards(BUTTON_KEY_PREFIX, index.getButtons(), previous.getIndex().getButtons(),
+      previous.getPrnfbSettings().getButtons(), PrnfbButton.class))//
     .build();
-  doSetPrnfbSettings(withoutDeleted);
- }
-
- private PrnfbSettings doGetPrnfbSettings() {
-  Object storedSettings = this.pluginSettings.get(STORAGE_KEY);
-  if (storedSettings == null) {
-   this.logger.info("No settings found for " + STORAGE_KEY + ", looking for legacy settings.");
-   if (this.pluginSettings.get(se.bjurr.prnfb.settings.legacy.SettingsStorage.STORAGE_KEY) != null
-     || this.pluginSettings.get(se.bjurr.prnfb.settings.legacy.SettingsStorage.STORAGE_KEY_PRNFS) != null) {
-    try {
-     this.logger.info("Using legacy settings.");
-     se.bjurr.prnfb.settings.legacy.PrnfbSettings legacySettings = SettingsStorage
-       .getPrnfbSettings(this.pluginSettings);
-     PrnfbSettings fromLegacy = settingsFromLegacy(legacySettings);
-     doSetPrnfbSettings(fromLegacy);
-     storedSettings = this.pluginSettings.get(STORAGE_KEY);
-    } catch (Exception e) {
-     this.logger.error("", e);
+  return newSnapshot(storedIndex, prnfbSettings, index);
+ }
+
+ /**
+  * Splits the settings in {@link #STORAGE_KEY}, or the legacy settings if there are none, into {@link #INDEX_KEY} and
+  * a key per notification and button.
+  */
+ private SettingsSnapshot migrateSettings() {
+  this.writeLock.lock();
+  try {
+   return inTransaction(new TransactionCallback<SettingsSnapshot>() {
+    @Override
+    public SettingsSnapshot doInTransaction() {
+     if (SettingsService.this.pluginSettings.get(INDEX_KEY) != null) {
+      return getSnapshot();
+     }
+     Object storedSettings = SettingsService.this.pluginSettings.get(STORAGE_KEY);
+     if (storedSettings != null) {
+      SettingsService.this.logger.info("No settings found for " + INDEX_KEY + ", splitting " + STORAGE_KEY + ".");
+      return storeSnapshot(emptySnapshot(), parseSettings(storedSettings));
+     }
+     try {
+      SettingsService.this.logger.info("No settings found for " + STORAGE_KEY + ", using legacy settings.");
+      se.bjurr.prnfb.settings.legacy.PrnfbSettings legacySettings = SettingsStorage
+        .getPrnfbSettings(SettingsService.this.pluginSettings);
+      return storeSnapshot(emptySnapshot(), settingsFromLegacy(legacySettings));
+     } catch (Exception e) {
+      // Stored, so that it is tried once and not on every read. The legacy settings are left as they were.
+      SettingsService.this.logger.error("Unable to migrate legacy settings, using default settings.", e);
+      return storeSnapshot(emptySnapshot(), defaultSettings());
+     }
     }
-   } else {
-    this.logger.info("Creating new default settings.");
-    return prnfbSettingsBuilder()//
-      .setPrnfbSettingsData(//
-        prnfbSettingsDataBuilder()//
-          .setAdminRestriction(USER_LEVEL.ADMIN)//
-          .build())//
-      .build();
+   });
+  } finally {
+   this.writeLock.unlock();
+  }
+ }
+
+ private SettingsSnapshot newSnapshot(Object storedIndex, PrnfbSettings prnfbSettings, SettingsIndex index) {
+  return new SettingsSnapshot(this.snapshotVersion.incrementAndGet(), storedIndex, prnfbSettings, index);
+ }
+
+ private PrnfbSettings parseSettings(Object storedSettings) {
+  PrnfbSettings parsed = gson.fromJson(storedSettings.toString(), PrnfbSettings.class);
+  // Gson bypasses the constructor, build it again to get immutable lists
+  return prnfbSettingsBuilder(parsed).build();
+ }
+
+ /**
+  * Only writes the notifications and buttons that were changed, and removes the deleted ones. Those that were not
+  * changed are the same instances as in the base snapshot, so no need to compare or serialize them.
+  */
+ private <T extends HasUuid> LinkedHashMap<String, String> storeShards(String keyPrefix, List<T> before,
+   Map<String, String> beforeRevisions, List<T> after) {
+  Map<String, T> removed = byUuid(before);
+  LinkedHashMap<String, String> revisions = new LinkedHashMap<>();
+  for (T shard : after) {
+   String uuid = shard.getUuid().toString();
+   String revision = beforeRevisions.get(uuid);
+   if (revision == null || shard != removed.get(uuid)) {
+    String data = gson.toJson(shard);
+    revision = Hashing.murmur3_128()//
+      .hashString(data, UTF_8)//
+      .toString();
+    this.pluginSettings.put(keyPrefix + uuid, data);
    }
+   revisions.put(uuid, revision);
+   removed.remove(uuid);
   }
-  return gson.fromJson(storedSettings.toString(), PrnfbSettings.class);
+  for (String uuid : removed.keySet()) {
+   this.pluginSettings.remove(keyPrefix + uuid);
+  }
+  return revisions;
  }
 
- private void doSetPrnfbSettings(PrnfbSettings PrnfbSettings) {
-  String data = gson.toJson(PrnfbSettings);
-  this.pluginSettings.put(STORAGE_KEY, data);
+ /**
+  * The index is written last, so that other nodes never see an index referring to revisions not yet stored.
+  */
+ private SettingsSnapshot storeSnapshot(SettingsSnapshot base, PrnfbSettings prnfbSettings) {
+  SettingsIndex index = new SettingsIndex(prnfbSettings.getPrnfbSettingsData(),
+    storeShards(NOTIFICATION_KEY_PREFIX, base.getPrnfbSettings().getNotifications(),
+      base.getIndex().getNotifications(), prnfbSettings.getNotifications()),
+    storeShards(BUTTON_KEY_PREFIX, base.getPrnfbSettings().getButtons(), base.getIndex().getButtons(),
+      prnfbSettings.getButtons()));
+  String data = gson.toJson(index);
+  this.pluginSettings.put(INDEX_KEY, data);
+  SettingsSnapshot stored = newSnapshot(data, prnfbSettings, index);
+  this.snapshot.set(stored);
+  return stored;
  }
 
- private synchronized <T> T inSynchronizedTransaction(TransactionCallback<T> transactionCallback) {
-  return this.securityService//
-    .withPermission(ADMIN, "Getting config")//
-    .call(new Operation<T, RuntimeException>() {
-     @Override
-     public T perform() throws RuntimeException {
-      return SettingsService.this.transactionTemplate.execute(transactionCallback);
+ /**
+  * Writes are serialized, only one writer at a time, but never block readers. The update is applied to the latest
+  * snapshot and only stored if that snapshot is still the current version, otherwise it is applied again to the
+  * settings that were published in between.
+  */
+ private PrnfbSettings updateSettings(Function<PrnfbSettings, PrnfbSettings> update) {
+  this.writeLock.lock();
+  try {
+   return inTransaction(new TransactionCallback<PrnfbSettings>() {
+    @Override
+    public PrnfbSettings doInTransaction() {
+     while (true) {
+      SettingsSnapshot base = getSnapshot();
+      PrnfbSettings updated = update.apply(base.getPrnfbSettings());
+      if (SettingsService.this.snapshot.get() == base
+        && base.isSnapshotOf(SettingsService.this.pluginSettings.get(INDEX_KEY))) {
+       return storeSnapshot(base, updated).getPrnfbSettings();
+      }
      }
-    });
+    }
+   });
+  } finally {
+   this.writeLock.unlock();
+  }
  }
 
  private PrnfbSettings settingsFromLegacy(se.bjurr.prnfb.settings.legacy.PrnfbSettings oldSettings) {
@@ -0,0 +1,97 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Suppliers.memoize;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import se.bjurr.prnfb.settings.PrnfbSettings;
+
+import com.google.common.base.Supplier;
+import com.google.common.hash.Hashing;
+
+/**
+ * Immutable, parsed view of the settings indexed by {@link SettingsService#INDEX_KEY}. Holds the raw index it was
+ * parsed from so that a change made by another cluster node can be detected without parsing it again.
+ */
+class SettingsSnapshot {
+ private final SettingsIndex index;
+ private final Supplier<NotificationDispatchIndex> notificationDispatchIndex;
+ private final PrnfbSettings prnfbSettings;
+ private final Object storedSettings;
+ private final Supplier<String> storedSettingsHash;
+ private final long version;
+
+ SettingsSnapshot(long version, Object storedSettings, PrnfbSettings prnfbSettings, SettingsIndex index) {
+  this.version = version;
+  this.storedSettings = storedSettings;
+  this.prnfbSettings = checkNotNull(prnfbSettings, "prnfbSettings");
+  this.index = checkNotNull(index, "index");
+  this.notificationDispatchIndex = memoize(new Supplier<NotificationDispatchIndex>() {
+   @Override
+   public NotificationDispatchIndex get() {
+    return new NotificationDispatchIndex(prnfbSettings.getNotifications());
+   }
+  });
+  this.storedSettingsHash = memoize(new Supplier<String>() {
+   @Override
+   public String get() {
+    return Hashing.sha256()//
+      .hashString(String.valueOf(storedSettings), UTF_8)//
+      .toString();
+   }
+  });
+ }
+
+ /**
+  * The revisions of the notifications and buttons in this snapshot.
+  */
+ SettingsIndex getIndex() {
+  return this.index;
+ }
+
+ /**
+  * Built on first use, and then kept for as long as the snapshot.
+  */
+ NotificationDispatchIndex getNotificationDispatchIndex() {
+  return this.notificationDispatchIndex.get();
+ }
+
+ PrnfbSettings getPrnfbSettings() {
+  return this.prnfbSettings;
+ }
+
+ Object getStoredSettings() {
+  return this.storedSettings;
+ }
+
+ /**
+  * Hash of the stored value. Unlike {@link #getVersion()} it is the same on all nodes in the cluster, and after a
+  * restart, as long as the settings are unchanged.
+  */
+ String getStoredSettingsHash() {
+  return this.storedSettingsHash.get();
+ }
+
+ long getVersion() {
+  return this.version;
+ }
+
+ /**
+  * True if this snapshot was parsed from the given stored value. Plugin settings usually hand back the same instance
+  * until it is changed, so this is mostly a reference comparison.
+  */
+ boolean isSnapshotOf(Object candidate) {
+  if (this.storedSettings == candidate) {
+   return true;
+  }
+  if (this.storedSettings == null || candidate == null) {
+   return false;
+  }
+  return this.storedSettings.equals(candidate);
+ }
+
+ @Override
+ public String toString() {
+  return "SettingsSnapshot [version=" + this.version + "]";
+ }
+}
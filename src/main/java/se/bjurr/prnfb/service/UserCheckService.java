@@ -49,6 +49,22 @@ public class UserCheckService {
   return allowedButtons;
  }
 
+ /**
+  * Identifies the current user, and which of the given buttons that user may use. Changes if the user is given, or
+  * loses, a permission that matters for the buttons.
+  */
+ public String getPermissionFingerprint(List<PrnfbButton> buttons) {
+  UserProfile user = this.userManager.getRemoteUser();
+  if (user == null) {
+   return "";
+  }
+  StringBuilder fingerprint = new StringBuilder(user.getUserKey().getStringValue()).append(':');
+  for (PrnfbButton button : buttons) {
+   fingerprint.append(isAllowedUseButton(button) ? '1' : '0');
+  }
+  return fingerprint.toString();
+ }
+
  public boolean isAdmin(UserKey userKey, String projectKey, String repositorySlug) {
   boolean isAdmin = this.userManager.isAdmin(userKey);
   if (isAdmin) {
@@ -0,0 +1,15 @@
+package se.bjurr.prnfb.settings;
+
+/**
+ * What to do with a pull request event when the dispatch queue is full.
+ */
+public enum DISPATCH_SATURATION_POLICY {
+ /**
+  * Handle the event on the thread that published it. Slows down whoever publishes events.
+  */
+ CALLER_RUNS,
+ /**
+  * Drop the oldest queued event, and queue the new one.
+  */
+ DROP_OLDEST
+}
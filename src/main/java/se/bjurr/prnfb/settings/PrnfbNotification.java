@@ -7,12 +7,14 @@ import static com.google.common.base.Strings.emptyToNull;
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.util.UUID.randomUUID;
 import static java.util.regex.Pattern.compile;
+import static se.bjurr.prnfb.http.DeliveryLimits.MAX_CONCURRENT;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.GET;
 import static se.bjurr.prnfb.settings.TRIGGER_IF_MERGE.ALWAYS;
 
 import java.net.URL;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD;
 import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
@@ -23,11 +25,23 @@ import com.google.common.base.Optional;
 public class PrnfbNotification implements HasUuid {
 
  private static final String DEFAULT_NAME = "Notification";
+ private final Integer connectTimeoutSeconds;
+ private final Integer debounceSeconds;
+ /**
+  * Compiled from {@link #filterRegexp}. Transient, and compiled when first used, when read from storage.
+  */
+ private transient volatile Pattern filterPattern;
  private final String filterRegexp;
  private final String filterString;
  private final List<PrnfbHeader> headers;
  private final String injectionUrl;
+ private final Integer injectionUrlCacheSeconds;
+ /**
+  * Compiled from {@link #injectionUrlRegexp}. Transient, and compiled when first used, when read from storage.
+  */
+ private transient volatile Pattern injectionUrlPattern;
  private final String injectionUrlRegexp;
+ private final Integer maxConcurrent;
  private final HTTP_METHOD method;
  private final String name;
  private final String password;
@@ -37,7 +51,13 @@ public class PrnfbNotification implements HasUuid {
  private final Integer proxyPort;
  private final String proxyServer;
  private final String proxyUser;
+ private final Integer rateLimitBurst;
+ private final Double rateLimitPerSecond;
+ private final Integer readTimeoutSeconds;
  private final String repositorySlug;
+ private final Integer requestTimeoutSeconds;
+ private final Integer slowInvocationMillis;
+ private final Integer slowRenderMillis;
  private final TRIGGER_IF_MERGE triggerIfCanMerge;
  private final List<PullRequestState> triggerIgnoreStateList;
  private final List<PrnfbPullRequestAction> triggers;
@@ -48,6 +68,9 @@ public class PrnfbNotification implements HasUuid {
  public PrnfbNotification(PrnfbNotificationBuilder builder) throws ValidationException {
   this.uuid = firstNonNull(builder.getUUID(), randomUUID());
   this.proxyUser = emptyToNull(nullToEmpty(builder.getProxyUser()).trim());
+  this.rateLimitBurst = builder.getRateLimitBurst();
+  this.rateLimitPerSecond = builder.getRateLimitPerSecond();
+  this.readTimeoutSeconds = builder.getReadTimeoutSeconds();
   this.proxyPassword = emptyToNull(nullToEmpty(builder.getProxyPassword()).trim());
   this.proxyServer = emptyToNull(nullToEmpty(builder.getProxyServer()).trim());
   this.proxyPort = builder.getProxyPort();
@@ -56,6 +79,9 @@ public class PrnfbNotification implements HasUuid {
   this.method = firstNonNull(builder.getMethod(), GET);
   this.triggerIfCanMerge = firstNonNull(builder.getTriggerIfCanMerge(), ALWAYS);
   this.repositorySlug = emptyToNull(builder.getRepositorySlug());
+  this.requestTimeoutSeconds = builder.getRequestTimeoutSeconds();
+  this.slowInvocationMillis = builder.getSlowInvocationMillis();
+  this.slowRenderMillis = builder.getSlowRenderMillis();
   this.projectKey = emptyToNull(builder.getProjectKey());
   try {
    new URL(builder.getUrl());
@@ -64,7 +90,7 @@ public class PrnfbNotification implements HasUuid {
   }
   if (!nullToEmpty(builder.getFilterRegexp()).trim().isEmpty()) {
    try {
-    compile(builder.getFilterRegexp());
+    this.filterPattern = compile(builder.getFilterRegexp());
    } catch (final Exception e) {
     throw new ValidationException("filter_regexp", "Filter regexp not valid! " + e.getMessage().replaceAll("\n", " "));
    }
@@ -79,11 +105,26 @@ public class PrnfbNotification implements HasUuid {
   if (this.triggers.isEmpty()) {
    throw new ValidationException("triggers", "At least one trigger must be selected.");
   }
+  this.connectTimeoutSeconds = builder.getConnectTimeoutSeconds();
+  this.debounceSeconds = builder.getDebounceSeconds();
   this.filterString = builder.getFilterString();
   this.filterRegexp = builder.getFilterRegexp();
   this.name = firstNonNull(emptyToNull(nullToEmpty(builder.getName()).trim()), DEFAULT_NAME);
   this.injectionUrl = emptyToNull(nullToEmpty(builder.getInjectionUrl()).trim());
+  this.injectionUrlCacheSeconds = builder.getInjectionUrlCacheSeconds();
   this.injectionUrlRegexp = emptyToNull(nullToEmpty(builder.getInjectionUrlRegexp()).trim());
+  this.maxConcurrent = builder.getMaxConcurrent();
+  if (this.maxConcurrent != null && this.maxConcurrent > MAX_CONCURRENT) {
+   throw new ValidationException("maxConcurrent", "Max concurrent can not be more than " + MAX_CONCURRENT + ".");
+  }
+  if (this.injectionUrlRegexp != null) {
+   try {
+    this.injectionUrlPattern = compile(this.injectionUrlRegexp);
+   } catch (final Exception e) {
+    throw new ValidationException("injection_url_regexp", "Injection URL regexp not valid! "
+      + e.getMessage().replaceAll("\n", " "));
+   }
+  }
   this.triggerIgnoreStateList = builder.getTriggerIgnoreStateList();
  }
 
@@ -99,6 +140,20 @@ public class PrnfbNotification implements HasUuid {
    return false;
   }
   PrnfbNotification other = (PrnfbNotification) obj;
+  if (this.connectTimeoutSeconds == null) {
+   if (other.connectTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.connectTimeoutSeconds.equals(other.connectTimeoutSeconds)) {
+   return false;
+  }
+  if (this.debounceSeconds == null) {
+   if (other.debounceSeconds != null) {
+    return false;
+   }
+  } else if (!this.debounceSeconds.equals(other.debounceSeconds)) {
+   return false;
+  }
   if (this.filterRegexp == null) {
    if (other.filterRegexp != null) {
     return false;
@@ -127,6 +182,13 @@ public class PrnfbNotification implements HasUuid {
   } else if (!this.injectionUrl.equals(other.injectionUrl)) {
    return false;
   }
+  if (this.injectionUrlCacheSeconds == null) {
+   if (other.injectionUrlCacheSeconds != null) {
+    return false;
+   }
+  } else if (!this.injectionUrlCacheSeconds.equals(other.injectionUrlCacheSeconds)) {
+   return false;
+  }
   if (this.injectionUrlRegexp == null) {
    if (other.injectionUrlRegexp != null) {
     return false;
@@ -134,6 +196,13 @@ public class PrnfbNotification implements HasUuid {
   } else if (!this.injectionUrlRegexp.equals(other.injectionUrlRegexp)) {
    return false;
   }
+  if (this.maxConcurrent == null) {
+   if (other.maxConcurrent != null) {
+    return false;
+   }
+  } else if (!this.maxConcurrent.equals(other.maxConcurrent)) {
+   return false;
+  }
   if (this.method != other.method) {
    return false;
   }
@@ -193,6 +262,27 @@ public class PrnfbNotification implements HasUuid {
   } else if (!this.proxyUser.equals(other.proxyUser)) {
    return false;
   }
+  if (this.rateLimitBurst == null) {
+   if (other.rateLimitBurst != null) {
+    return false;
+   }
+  } else if (!this.rateLimitBurst.equals(other.rateLimitBurst)) {
+   return false;
+  }
+  if (this.rateLimitPerSecond == null) {
+   if (other.rateLimitPerSecond != null) {
+    return false;
+   }
+  } else if (!this.rateLimitPerSecond.equals(other.rateLimitPerSecond)) {
+   return false;
+  }
+  if (this.readTimeoutSeconds == null) {
+   if (other.readTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.readTimeoutSeconds.equals(other.readTimeoutSeconds)) {
+   return false;
+  }
   if (this.repositorySlug == null) {
    if (other.repositorySlug != null) {
     return false;
@@ -200,6 +290,27 @@ public class PrnfbNotification implements HasUuid {
   } else if (!this.repositorySlug.equals(other.repositorySlug)) {
    return false;
   }
+  if (this.requestTimeoutSeconds == null) {
+   if (other.requestTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.requestTimeoutSeconds.equals(other.requestTimeoutSeconds)) {
+   return false;
+  }
+  if (this.slowInvocationMillis == null) {
+   if (other.slowInvocationMillis != null) {
+    return false;
+   }
+  } else if (!this.slowInvocationMillis.equals(other.slowInvocationMillis)) {
+   return false;
+  }
+  if (this.slowRenderMillis == null) {
+   if (other.slowRenderMillis != null) {
+    return false;
+   }
+  } else if (!this.slowRenderMillis.equals(other.slowRenderMillis)) {
+   return false;
+  }
   if (this.triggerIfCanMerge != other.triggerIfCanMerge) {
    return false;
   }
@@ -241,6 +352,28 @@ public class PrnfbNotification implements HasUuid {
   return true;
  }
 
+ /**
+  * Seconds to wait for a connection to the host, before giving up.
+  */
+ public Integer getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ /**
+  * Seconds to wait, after a rescoped or updated pull request, for more such events. Only the last one within that
+  * time is notified. Notified directly if null or not positive.
+  */
+ public Integer getDebounceSeconds() {
+  return this.debounceSeconds;
+ }
+
+ public Optional<Pattern> getFilterPattern() {
+  if (this.filterPattern == null && this.filterRegexp != null) {
+   this.filterPattern = compile(this.filterRegexp);
+  }
+  return fromNullable(this.filterPattern);
+ }
+
  public Optional<String> getFilterRegexp() {
   return fromNullable(this.filterRegexp);
  }
@@ -257,10 +390,32 @@ public class PrnfbNotification implements HasUuid {
   return fromNullable(this.injectionUrl);
  }
 
+ /**
+  * Seconds that the value from the injection URL is reused, it is fetched for every use if null or not positive.
+  */
+ public Integer getInjectionUrlCacheSeconds() {
+  return this.injectionUrlCacheSeconds;
+ }
+
+ public Optional<Pattern> getInjectionUrlPattern() {
+  if (this.injectionUrlPattern == null && this.injectionUrlRegexp != null) {
+   this.injectionUrlPattern = compile(this.injectionUrlRegexp);
+  }
+  return fromNullable(this.injectionUrlPattern);
+ }
+
  public Optional<String> getInjectionUrlRegexp() {
   return fromNullable(this.injectionUrlRegexp);
  }
 
+ /**
+  * Maximum number of invocations, to the host of the URL, in flight at the same time. A default is used if null or
+  * not positive.
+  */
+ public Integer getMaxConcurrent() {
+  return this.maxConcurrent;
+ }
+
  public HTTP_METHOD getMethod() {
   return this.method;
  }
@@ -297,10 +452,47 @@ public class PrnfbNotification implements HasUuid {
   return fromNullable(this.proxyUser);
  }
 
+ /**
+  * Number of invocations, to the host of the URL, that may be done at once before {@link #getRateLimitPerSecond()}
+  * applies. Defaults to 1.
+  */
+ public Integer getRateLimitBurst() {
+  return this.rateLimitBurst;
+ }
+
+ /**
+  * Maximum number of invocations per second, to the host of the URL. Not limited if null or not positive.
+  */
+ public Double getRateLimitPerSecond() {
+  return this.rateLimitPerSecond;
+ }
+
+ /**
+  * Seconds to wait for data from the host, before giving up.
+  */
+ public Integer getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
  public Optional<String> getRepositorySlug() {
   return fromNullable(this.repositorySlug);
  }
 
+ /**
+  * Seconds the whole invocation may take, before it is aborted.
+  */
+ public Integer getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
+ public Integer getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ public Integer getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
  public TRIGGER_IF_MERGE getTriggerIfCanMerge() {
   return this.triggerIfCanMerge;
  }
@@ -330,11 +522,15 @@ public class PrnfbNotification implements HasUuid {
  public int hashCode() {
   final int prime = 31;
   int result = 1;
+  result = prime * result + ((this.connectTimeoutSeconds == null) ? 0 : this.connectTimeoutSeconds.hashCode());
+  result = prime * result + ((this.debounceSeconds == null) ? 0 : this.debounceSeconds.hashCode());
   result = prime * result + ((this.filterRegexp == null) ? 0 : this.filterRegexp.hashCode());
   result = prime * result + ((this.filterString == null) ? 0 : this.filterString.hashCode());
   result = prime * result + ((this.headers == null) ? 0 : this.headers.hashCode());
   result = prime * result + ((this.injectionUrl == null) ? 0 : this.injectionUrl.hashCode());
+  result = prime * result + ((this.injectionUrlCacheSeconds == null) ? 0 : this.injectionUrlCacheSeconds.hashCode());
   result = prime * result + ((this.injectionUrlRegexp == null) ? 0 : this.injectionUrlRegexp.hashCode());
+  result = prime * result + ((this.maxConcurrent == null) ? 0 : this.maxConcurrent.hashCode());
   result = prime * result + ((this.method == null) ? 0 : this.method.hashCode());
   result = prime * result + ((this.name == null) ? 0 : this.name.hashCode());
   result = prime * result + ((this.password == null) ? 0 : this.password.hashCode());
@@ -344,7 +540,13 @@ public class PrnfbNotification implements HasUuid {
   result = prime * result + ((this.proxyPort == null) ? 0 : this.proxyPort.hashCode());
   result = prime * result + ((this.proxyServer == null) ? 0 : this.proxyServer.hashCode());
   result = prime * result + ((this.proxyUser == null) ? 0 : this.proxyUser.hashCode());
+  result = prime * result + ((this.rateLimitBurst == null) ? 0 : this.rateLimitBurst.hashCode());
+  result = prime * result + ((this.rateLimitPerSecond == null) ? 0 : this.rateLimitPerSecond.hashCode());
+  result = prime * result + ((this.readTimeoutSeconds == null) ? 0 : this.readTimeoutSeconds.hashCode());
   result = prime * result + ((this.repositorySlug == null) ? 0 : this.repositorySlug.hashCode());
+  result = prime * result + ((this.requestTimeoutSeconds == null) ? 0 : this.requestTimeoutSeconds.hashCode());
+  result = prime * result + ((this.slowInvocationMillis == null) ? 0 : this.slowInvocationMillis.hashCode());
+  result = prime * result + ((this.slowRenderMillis == null) ? 0 : this.slowRenderMillis.hashCode());
   result = prime * result + ((this.triggerIfCanMerge == null) ? 0 : this.triggerIfCanMerge.hashCode());
   result = prime * result + ((this.triggerIgnoreStateList == null) ? 0 : this.triggerIgnoreStateList.hashCode());
   result = prime * result + ((this.triggers == null) ? 0 : this.triggers.hashCode());
@@ -356,14 +558,20 @@ public class PrnfbNotification implements HasUuid {
 
  @Override
  public String toString() {
-  return "PrnfbNotification [filterRegexp=" + this.filterRegexp + ", filterString=" + this.filterString + ", headers="
-    + this.headers + ", injectionUrl=" + this.injectionUrl + ", injectionUrlRegexp=" + this.injectionUrlRegexp
-    + ", method=" + this.method + ", name=" + this.name + ", password=" + this.password + ", postContent="
-    + this.postContent + ", projectKey=" + this.projectKey + ", proxyPassword=" + this.proxyPassword + ", proxyPort="
-    + this.proxyPort + ", proxyServer=" + this.proxyServer + ", proxyUser=" + this.proxyUser + ", repositorySlug="
-    + this.repositorySlug + ", triggerIfCanMerge=" + this.triggerIfCanMerge + ", triggerIgnoreStateList="
-    + this.triggerIgnoreStateList + ", triggers=" + this.triggers + ", url=" + this.url + ", user=" + this.user
-    + ", uuid=" + this.uuid + "]";
+  return "PrnfbNotification [connectTimeoutSeconds=" + this.connectTimeoutSeconds + ", debounceSeconds="
+    + this.debounceSeconds + ", filterRegexp=" + this.filterRegexp + ", filterString=" + this.filterString
+    + ", headers=" + this.headers + ", injectionUrl=" + this.injectionUrl + ", injectionUrlCacheSeconds="
+    + this.injectionUrlCacheSeconds + ", injectionUrlRegexp=" + this.injectionUrlRegexp + ", maxConcurrent="
+    + this.maxConcurrent + ", method=" + this.method + ", name=" + this.name + ", password=" + this.password
+    + ", postContent=" + this.postContent + ", projectKey=" + this.projectKey + ", proxyPassword=" + this.proxyPassword
+    + ", proxyPort=" + this.proxyPort + ", proxyServer=" + this.proxyServer + ", proxyUser=" + this.proxyUser
+    + ", rateLimitBurst=" + this.rateLimitBurst + ", rateLimitPerSecond=" + this.rateLimitPerSecond
+    + ", readTimeoutSeconds=" + this.readTimeoutSeconds + ", repositorySlug=" + this.repositorySlug
+    + ", requestTimeoutSeconds=" + this.requestTimeoutSeconds
+    + ", slowInvocationMillis=" + this.slowInvocationMillis
+    + ", slowRenderMillis=" + this.slowRenderMillis + ", triggerIfCanMerge=" + this.triggerIfCanMerge
+    + ", triggerIgnoreStateList=" + this.triggerIgnoreStateList + ", triggers=" + this.triggers + ", url=" + this.url
+    + ", user=" + this.user + ", uuid=" + this.uuid + "]";
  }
 
 }
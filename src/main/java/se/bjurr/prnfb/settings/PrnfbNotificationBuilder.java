@@ -24,31 +24,45 @@ public class PrnfbNotificationBuilder {
 
   b.uuid = from.getUuid();
   b.password = from.getPassword().orNull();
-  b.triggers = from.getTriggers();
+  b.triggers = newArrayList(from.getTriggers());
   b.url = from.getUrl();
   b.user = from.getUser().orNull();
+  b.connectTimeoutSeconds = from.getConnectTimeoutSeconds();
+  b.debounceSeconds = from.getDebounceSeconds();
   b.filterRegexp = from.getFilterRegexp().orNull();
   b.filterString = from.getFilterString().orNull();
   b.method = from.getMethod();
   b.postContent = from.getPostContent().orNull();
-  b.headers = from.getHeaders();
-  b.triggerIgnoreStateList = from.getTriggerIgnoreStateList();
+  b.headers = newArrayList(from.getHeaders());
+  b.triggerIgnoreStateList = newArrayList(from.getTriggerIgnoreStateList());
   b.proxyUser = from.getProxyUser().orNull();
+  b.rateLimitBurst = from.getRateLimitBurst();
+  b.rateLimitPerSecond = from.getRateLimitPerSecond();
+  b.readTimeoutSeconds = from.getReadTimeoutSeconds();
   b.proxyPassword = from.getProxyPassword().orNull();
   b.proxyServer = from.getProxyServer().orNull();
   b.proxyPort = from.getProxyPort();
   b.name = from.getName();
   b.injectionUrl = from.getInjectionUrl().orNull();
+  b.injectionUrlCacheSeconds = from.getInjectionUrlCacheSeconds();
   b.injectionUrlRegexp = from.getInjectionUrlRegexp().orNull();
+  b.maxConcurrent = from.getMaxConcurrent();
   b.triggerIfCanMerge = from.getTriggerIfCanMerge();
+  b.requestTimeoutSeconds = from.getRequestTimeoutSeconds();
+  b.slowInvocationMillis = from.getSlowInvocationMillis();
+  b.slowRenderMillis = from.getSlowRenderMillis();
   return b;
  }
 
+ private Integer connectTimeoutSeconds;
+ private Integer debounceSeconds;
  private String filterRegexp;
  private String filterString;
  private List<PrnfbHeader> headers = newArrayList();
  private String injectionUrl;
+ private Integer injectionUrlCacheSeconds;
  private String injectionUrlRegexp;
+ private Integer maxConcurrent;
  private HTTP_METHOD method;
  private String name;
  private String password;
@@ -58,7 +72,13 @@ public class PrnfbNotificationBuilder {
  private Integer proxyPort;
  private String proxyServer;
  private String proxyUser;
+ private Integer rateLimitBurst;
+ private Double rateLimitPerSecond;
+ private Integer readTimeoutSeconds;
  private String repositorySlug;
+ private Integer requestTimeoutSeconds;
+ private Integer slowInvocationMillis;
+ private Integer slowRenderMillis;
  private TRIGGER_IF_MERGE triggerIfCanMerge;
  private List<PullRequestState> triggerIgnoreStateList = newArrayList();
  private List<PrnfbPullRequestAction> triggers = newArrayList();
@@ -74,6 +94,14 @@ public class PrnfbNotificationBuilder {
   return new PrnfbNotification(this);
  }
 
+ public Integer getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ public Integer getDebounceSeconds() {
+  return this.debounceSeconds;
+ }
+
  public String getFilterRegexp() {
   return this.filterRegexp;
  }
@@ -90,10 +118,18 @@ public class PrnfbNotificationBuilder {
   return this.injectionUrl;
  }
 
+ public Integer getInjectionUrlCacheSeconds() {
+  return this.injectionUrlCacheSeconds;
+ }
+
  public String getInjectionUrlRegexp() {
   return this.injectionUrlRegexp;
  }
 
+ public Integer getMaxConcurrent() {
+  return this.maxConcurrent;
+ }
+
  public HTTP_METHOD getMethod() {
   return this.method;
  }
@@ -130,10 +166,34 @@ public class PrnfbNotificationBuilder {
   return this.proxyUser;
  }
 
+ public Integer getRateLimitBurst() {
+  return this.rateLimitBurst;
+ }
+
+ public Double getRateLimitPerSecond() {
+  return this.rateLimitPerSecond;
+ }
+
+ public Integer getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
  public String getRepositorySlug() {
   return this.repositorySlug;
  }
 
+ public Integer getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
+ public Integer getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ public Integer getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
  public TRIGGER_IF_MERGE getTriggerIfCanMerge() {
   return this.triggerIfCanMerge;
  }
@@ -177,6 +237,16 @@ public class PrnfbNotificationBuilder {
   return this;
  }
 
+ public PrnfbNotificationBuilder withConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+  this.connectTimeoutSeconds = connectTimeoutSeconds;
+  return this;
+ }
+
+ public PrnfbNotificationBuilder withDebounceSeconds(Integer debounceSeconds) {
+  this.debounceSeconds = debounceSeconds;
+  return this;
+ }
+
  public PrnfbNotificationBuilder withFilterRegexp(String filterRegexp) {
   this.filterRegexp = emptyToNull(filterRegexp);
   return this;
@@ -197,11 +267,21 @@ public class PrnfbNotificationBuilder {
   return this;
  }
 
+ public PrnfbNotificationBuilder withInjectionUrlCacheSeconds(Integer injectionUrlCacheSeconds) {
+  this.injectionUrlCacheSeconds = injectionUrlCacheSeconds;
+  return this;
+ }
+
  public PrnfbNotificationBuilder withInjectionUrlRegexp(String injectionUrlRegexp) {
   this.injectionUrlRegexp = emptyToNull(injectionUrlRegexp);
   return this;
  }
 
+ public PrnfbNotificationBuilder withMaxConcurrent(Integer maxConcurrent) {
+  this.maxConcurrent = maxConcurrent;
+  return this;
+ }
+
  public PrnfbNotificationBuilder withMethod(HTTP_METHOD method) {
   this.method = firstNonNull(method, GET);
   return this;
@@ -247,11 +327,41 @@ public class PrnfbNotificationBuilder {
   return this;
  }
 
+ public PrnfbNotificationBuilder withRateLimitBurst(Integer rateLimitBurst) {
+  this.rateLimitBurst = rateLimitBurst;
+  return this;
+ }
+
+ public PrnfbNotificationBuilder withRateLimitPerSecond(Double rateLimitPerSecond) {
+  this.rateLimitPerSecond = rateLimitPerSecond;
+  return this;
+ }
+
+ public PrnfbNotificationBuilder withReadTimeoutSeconds(Integer readTimeoutSeconds) {
+  this.readTimeoutSeconds = readTimeoutSeconds;
+  return this;
+ }
+
  public PrnfbNotificationBuilder withRepositorySlug(String repositorySlug) {
   this.repositorySlug = repositorySlug;
   return this;
  }
 
+ public PrnfbNotificationBuilder withRequestTimeoutSeconds(Integer requestTimeoutSeconds) {
+  this.requestTimeoutSeconds = requestTimeoutSeconds;
+  return this;
+ }
+
+ public PrnfbNotificationBuilder withSlowInvocationMillis(Integer slowInvocationMillis) {
+  this.slowInvocationMillis = slowInvocationMillis;
+  return this;
+ }
+
+ public PrnfbNotificationBuilder withSlowRenderMillis(Integer slowRenderMillis) {
+  this.slowRenderMillis = slowRenderMillis;
+  return this;
+ }
+
  public PrnfbNotificationBuilder withTrigger(PrnfbPullRequestAction trigger) {
   this.triggers.add(trigger);
   return this;
@@ -1,18 +1,18 @@
 package se.bjurr.prnfb.settings;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.ImmutableList.copyOf;
 
 import java.util.List;
 
 public class PrnfbSettings {
  private final List<PrnfbButton> buttons;
- private List<PrnfbNotification> notifications = newArrayList();
+ private final List<PrnfbNotification> notifications;
  private final PrnfbSettingsData prnfbSettingsData;
 
  public PrnfbSettings(PrnfbSettingsBuilder builder) {
-  this.notifications = checkNotNull(builder.getNotifications());
-  this.buttons = checkNotNull(builder.getButtons());
+  this.notifications = copyOf(checkNotNull(builder.getNotifications()));
+  this.buttons = copyOf(checkNotNull(builder.getButtons()));
   this.prnfbSettingsData = checkNotNull(builder.getPrnfbSettingsData(), "prnfbSettingsData");
  }
 
@@ -74,4 +74,10 @@ public class PrnfbSettings {
   return result;
  }
 
+ @Override
+ public String toString() {
+  return "PrnfbSettings [buttons=" + this.buttons + ", notifications=" + this.notifications + ", prnfbSettingsData="
+    + this.prnfbSettingsData + "]";
+ }
+
 }
@@ -28,8 +28,8 @@ public class PrnfbSettingsBuilder {
  }
 
  private PrnfbSettingsBuilder(PrnfbSettings settings) {
-  this.notifications = firstNonNull(settings.getNotifications(), new ArrayList<PrnfbNotification>());
-  this.buttons = firstNonNull(settings.getButtons(), new ArrayList<PrnfbButton>());
+  this.notifications = newArrayList(firstNonNull(settings.getNotifications(), new ArrayList<PrnfbNotification>()));
+  this.buttons = newArrayList(firstNonNull(settings.getButtons(), new ArrayList<PrnfbButton>()));
   this.prnfbSettingsData = settings.getPrnfbSettingsData();
  }
 
@@ -7,9 +7,19 @@ import com.google.common.base.Optional;
 
 public class PrnfbSettingsData {
  private final USER_LEVEL adminRestriction;
+ private final Integer circuitBreakerFailureThreshold;
+ private final Integer circuitBreakerOpenSeconds;
+ private final Integer connectTimeoutSeconds;
+ private final Integer dispatchQueueSize;
+ private final DISPATCH_SATURATION_POLICY dispatchSaturationPolicy;
+ private final Integer dispatchThreads;
  private final String keyStore;
  private final String keyStorePassword;
  private final String keyStoreType;
+ private final Integer readTimeoutSeconds;
+ private final Integer requestTimeoutSeconds;
+ private final Integer slowInvocationMillis;
+ private final Integer slowRenderMillis;
  private final boolean shouldAcceptAnyCertificate;
 
  public PrnfbSettingsData() {
@@ -18,6 +28,16 @@ public class PrnfbSettingsData {
   this.keyStorePassword = null;
   this.shouldAcceptAnyCertificate = false;
   this.adminRestriction = null;
+  this.dispatchThreads = null;
+  this.dispatchQueueSize = null;
+  this.dispatchSaturationPolicy = null;
+  this.circuitBreakerFailureThreshold = null;
+  this.circuitBreakerOpenSeconds = null;
+  this.connectTimeoutSeconds = null;
+  this.readTimeoutSeconds = null;
+  this.requestTimeoutSeconds = null;
+  this.slowInvocationMillis = null;
+  this.slowRenderMillis = null;
  }
 
  public PrnfbSettingsData(PrnfbSettingsDataBuilder builder) {
@@ -26,6 +46,16 @@ public class PrnfbSettingsData {
   this.keyStorePassword = emptyToNull(builder.getKeyStorePassword());
   this.shouldAcceptAnyCertificate = builder.shouldAcceptAnyCertificate();
   this.adminRestriction = builder.getAdminRestriction();
+  this.dispatchThreads = builder.getDispatchThreads();
+  this.dispatchQueueSize = builder.getDispatchQueueSize();
+  this.dispatchSaturationPolicy = builder.getDispatchSaturationPolicy();
+  this.circuitBreakerFailureThreshold = builder.getCircuitBreakerFailureThreshold();
+  this.circuitBreakerOpenSeconds = builder.getCircuitBreakerOpenSeconds();
+  this.connectTimeoutSeconds = builder.getConnectTimeoutSeconds();
+  this.readTimeoutSeconds = builder.getReadTimeoutSeconds();
+  this.requestTimeoutSeconds = builder.getRequestTimeoutSeconds();
+  this.slowInvocationMillis = builder.getSlowInvocationMillis();
+  this.slowRenderMillis = builder.getSlowRenderMillis();
  }
 
  @Override
@@ -43,6 +73,44 @@ public class PrnfbSettingsData {
   if (this.adminRestriction != other.adminRestriction) {
    return false;
   }
+  if (this.circuitBreakerFailureThreshold == null) {
+   if (other.circuitBreakerFailureThreshold != null) {
+    return false;
+   }
+  } else if (!this.circuitBreakerFailureThreshold.equals(other.circuitBreakerFailureThreshold)) {
+   return false;
+  }
+  if (this.circuitBreakerOpenSeconds == null) {
+   if (other.circuitBreakerOpenSeconds != null) {
+    return false;
+   }
+  } else if (!this.circuitBreakerOpenSeconds.equals(other.circuitBreakerOpenSeconds)) {
+   return false;
+  }
+  if (this.connectTimeoutSeconds == null) {
+   if (other.connectTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.connectTimeoutSeconds.equals(other.connectTimeoutSeconds)) {
+   return false;
+  }
+  if (this.dispatchQueueSize == null) {
+   if (other.dispatchQueueSize != null) {
+    return false;
+   }
+  } else if (!this.dispatchQueueSize.equals(other.dispatchQueueSize)) {
+   return false;
+  }
+  if (this.dispatchSaturationPolicy != other.dispatchSaturationPolicy) {
+   return false;
+  }
+  if (this.dispatchThreads == null) {
+   if (other.dispatchThreads != null) {
+    return false;
+   }
+  } else if (!this.dispatchThreads.equals(other.dispatchThreads)) {
+   return false;
+  }
   if (this.keyStore == null) {
    if (other.keyStore != null) {
     return false;
@@ -64,6 +132,34 @@ public class PrnfbSettingsData {
   } else if (!this.keyStoreType.equals(other.keyStoreType)) {
    return false;
   }
+  if (this.readTimeoutSeconds == null) {
+   if (other.readTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.readTimeoutSeconds.equals(other.readTimeoutSeconds)) {
+   return false;
+  }
+  if (this.requestTimeoutSeconds == null) {
+   if (other.requestTimeoutSeconds != null) {
+    return false;
+   }
+  } else if (!this.requestTimeoutSeconds.equals(other.requestTimeoutSeconds)) {
+   return false;
+  }
+  if (this.slowInvocationMillis == null) {
+   if (other.slowInvocationMillis != null) {
+    return false;
+   }
+  } else if (!this.slowInvocationMillis.equals(other.slowInvocationMillis)) {
+   return false;
+  }
+  if (this.slowRenderMillis == null) {
+   if (other.slowRenderMillis != null) {
+    return false;
+   }
+  } else if (!this.slowRenderMillis.equals(other.slowRenderMillis)) {
+   return false;
+  }
   if (this.shouldAcceptAnyCertificate != other.shouldAcceptAnyCertificate) {
    return false;
   }
@@ -74,6 +170,30 @@ public class PrnfbSettingsData {
   return this.adminRestriction;
  }
 
+ public Optional<Integer> getCircuitBreakerFailureThreshold() {
+  return fromNullable(this.circuitBreakerFailureThreshold);
+ }
+
+ public Optional<Integer> getCircuitBreakerOpenSeconds() {
+  return fromNullable(this.circuitBreakerOpenSeconds);
+ }
+
+ public Optional<Integer> getConnectTimeoutSeconds() {
+  return fromNullable(this.connectTimeoutSeconds);
+ }
+
+ public Optional<Integer> getDispatchQueueSize() {
+  return fromNullable(this.dispatchQueueSize);
+ }
+
+ public DISPATCH_SATURATION_POLICY getDispatchSaturationPolicy() {
+  return this.dispatchSaturationPolicy;
+ }
+
+ public Optional<Integer> getDispatchThreads() {
+  return fromNullable(this.dispatchThreads);
+ }
+
  public Optional<String> getKeyStore() {
   return fromNullable(this.keyStore);
  }
@@ -86,18 +206,45 @@ public class PrnfbSettingsData {
   return this.keyStoreType;
  }
 
+ public Optional<Integer> getReadTimeoutSeconds() {
+  return fromNullable(this.readTimeoutSeconds);
+ }
+
+ public Optional<Integer> getRequestTimeoutSeconds() {
+  return fromNullable(this.requestTimeoutSeconds);
+ }
+
  @Override
  public int hashCode() {
   final int prime = 31;
   int result = 1;
   result = prime * result + ((this.adminRestriction == null) ? 0 : this.adminRestriction.hashCode());
+  result = prime * result
+    + ((this.circuitBreakerFailureThreshold == null) ? 0 : this.circuitBreakerFailureThreshold.hashCode());
+  result = prime * result + ((this.circuitBreakerOpenSeconds == null) ? 0 : this.circuitBreakerOpenSeconds.hashCode());
+  result = prime * result + ((this.connectTimeoutSeconds == null) ? 0 : this.connectTimeoutSeconds.hashCode());
+  result = prime * result + ((this.dispatchQueueSize == null) ? 0 : this.dispatchQueueSize.hashCode());
+  result = prime * result + ((this.dispatchSaturationPolicy == null) ? 0 : this.dispatchSaturationPolicy.hashCode());
+  result = prime * result + ((this.dispatchThreads == null) ? 0 : this.dispatchThreads.hashCode());
   result = prime * result + ((this.keyStore == null) ? 0 : this.keyStore.hashCode());
   result = prime * result + ((this.keyStorePassword == null) ? 0 : this.keyStorePassword.hashCode());
   result = prime * result + ((this.keyStoreType == null) ? 0 : this.keyStoreType.hashCode());
+  result = prime * result + ((this.readTimeoutSeconds == null) ? 0 : this.readTimeoutSeconds.hashCode());
+  result = prime * result + ((this.requestTimeoutSeconds == null) ? 0 : this.requestTimeoutSeconds.hashCode());
+  result = prime * result + ((this.slowInvocationMillis == null) ? 0 : this.slowInvocationMillis.hashCode());
+  result = prime * result + ((this.slowRenderMillis == null) ? 0 : this.slowRenderMillis.hashCode());
   result = prime * result + (this.shouldAcceptAnyCertificate ? 1231 : 1237);
   return result;
  }
 
+ public Optional<Integer> getSlowInvocationMillis() {
+  return fromNullable(this.slowInvocationMillis);
+ }
+
+ public Optional<Integer> getSlowRenderMillis() {
+  return fromNullable(this.slowRenderMillis);
+ }
+
  public boolean isShouldAcceptAnyCertificate() {
   return this.shouldAcceptAnyCertificate;
  }
@@ -106,7 +253,12 @@ public class PrnfbSettingsData {
  public String toString() {
   return "PrnfbSettingsData [keyStore=" + this.keyStore + ", keyStoreType=" + this.keyStoreType + ", keyStorePassword="
     + this.keyStorePassword + ", shouldAcceptAnyCertificate=" + this.shouldAcceptAnyCertificate + ", adminRestriction="
-    + this.adminRestriction + "]";
+    + this.adminRestriction + ", dispatchThreads=" + this.dispatchThreads + ", dispatchQueueSize="
+    + this.dispatchQueueSize + ", dispatchSaturationPolicy=" + this.dispatchSaturationPolicy
+    + ", circuitBreakerFailureThreshold=" + this.circuitBreakerFailureThreshold + ", circuitBreakerOpenSeconds="
+    + this.circuitBreakerOpenSeconds + ", connectTimeoutSeconds=" + this.connectTimeoutSeconds + ", readTimeoutSeconds="
+    + this.readTimeoutSeconds + ", requestTimeoutSeconds=" + this.requestTimeoutSeconds + ", slowInvocationMillis="
+    + this.slowInvocationMillis + ", slowRenderMillis=" + this.slowRenderMillis + "]";
  }
 
 }
\ No newline at end of file
@@ -10,9 +10,19 @@ public class PrnfbSettingsDataBuilder {
  }
 
  private USER_LEVEL adminRestriction;
+ private Integer circuitBreakerFailureThreshold;
+ private Integer circuitBreakerOpenSeconds;
+ private Integer connectTimeoutSeconds;
+ private Integer dispatchQueueSize;
+ private DISPATCH_SATURATION_POLICY dispatchSaturationPolicy;
+ private Integer dispatchThreads;
  private String keyStore;
  private String keyStorePassword;
  private String keyStoreType;
+ private Integer readTimeoutSeconds;
+ private Integer requestTimeoutSeconds;
+ private Integer slowInvocationMillis;
+ private Integer slowRenderMillis;
  private boolean shouldAcceptAnyCertificate;
 
  private PrnfbSettingsDataBuilder() {
@@ -23,6 +33,17 @@ public class PrnfbSettingsDataBuilder {
   this.keyStore = settings.getKeyStore().orNull();
   this.keyStoreType = settings.getKeyStoreType();
   this.keyStorePassword = settings.getKeyStorePassword().orNull();
+  this.adminRestriction = settings.getAdminRestriction();
+  this.dispatchThreads = settings.getDispatchThreads().orNull();
+  this.dispatchQueueSize = settings.getDispatchQueueSize().orNull();
+  this.dispatchSaturationPolicy = settings.getDispatchSaturationPolicy();
+  this.circuitBreakerFailureThreshold = settings.getCircuitBreakerFailureThreshold().orNull();
+  this.circuitBreakerOpenSeconds = settings.getCircuitBreakerOpenSeconds().orNull();
+  this.connectTimeoutSeconds = settings.getConnectTimeoutSeconds().orNull();
+  this.readTimeoutSeconds = settings.getReadTimeoutSeconds().orNull();
+  this.requestTimeoutSeconds = settings.getRequestTimeoutSeconds().orNull();
+  this.slowInvocationMillis = settings.getSlowInvocationMillis().orNull();
+  this.slowRenderMillis = settings.getSlowRenderMillis().orNull();
  }
 
  public PrnfbSettingsData build() {
@@ -33,6 +54,30 @@ public class PrnfbSettingsDataBuilder {
   return this.adminRestriction;
  }
 
+ public Integer getCircuitBreakerFailureThreshold() {
+  return this.circuitBreakerFailureThreshold;
+ }
+
+ public Integer getCircuitBreakerOpenSeconds() {
+  return this.circuitBreakerOpenSeconds;
+ }
+
+ public Integer getConnectTimeoutSeconds() {
+  return this.connectTimeoutSeconds;
+ }
+
+ public Integer getDispatchQueueSize() {
+  return this.dispatchQueueSize;
+ }
+
+ public DISPATCH_SATURATION_POLICY getDispatchSaturationPolicy() {
+  return this.dispatchSaturationPolicy;
+ }
+
+ public Integer getDispatchThreads() {
+  return this.dispatchThreads;
+ }
+
  public String getKeyStore() {
   return this.keyStore;
  }
@@ -45,11 +90,57 @@ public class PrnfbSettingsDataBuilder {
   return this.keyStoreType;
  }
 
+ public Integer getReadTimeoutSeconds() {
+  return this.readTimeoutSeconds;
+ }
+
+ public Integer getRequestTimeoutSeconds() {
+  return this.requestTimeoutSeconds;
+ }
+
+ public Integer getSlowInvocationMillis() {
+  return this.slowInvocationMillis;
+ }
+
+ public Integer getSlowRenderMillis() {
+  return this.slowRenderMillis;
+ }
+
  public PrnfbSettingsDataBuilder setAdminRestriction(USER_LEVEL adminRestriction) {
   this.adminRestriction = adminRestriction;
   return this;
  }
 
+ public PrnfbSettingsDataBuilder setCircuitBreakerFailureThreshold(Integer circuitBreakerFailureThreshold) {
+  this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setCircuitBreakerOpenSeconds(Integer circuitBreakerOpenSeconds) {
+  this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+  this.connectTimeoutSeconds = connectTimeoutSeconds;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setDispatchQueueSize(Integer dispatchQueueSize) {
+  this.dispatchQueueSize = dispatchQueueSize;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setDispatchSaturationPolicy(DISPATCH_SATURATION_POLICY dispatchSaturationPolicy) {
+  this.dispatchSaturationPolicy = dispatchSaturationPolicy;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setDispatchThreads(Integer dispatchThreads) {
+  this.dispatchThreads = dispatchThreads;
+  return this;
+ }
+
  public PrnfbSettingsDataBuilder setKeyStore(String keyStore) {
   this.keyStore = keyStore;
   return this;
@@ -65,6 +156,26 @@ public class PrnfbSettingsDataBuilder {
   return this;
  }
 
+ public PrnfbSettingsDataBuilder setReadTimeoutSeconds(Integer readTimeoutSeconds) {
+  this.readTimeoutSeconds = readTimeoutSeconds;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setRequestTimeoutSeconds(Integer requestTimeoutSeconds) {
+  this.requestTimeoutSeconds = requestTimeoutSeconds;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setSlowInvocationMillis(Integer slowInvocationMillis) {
+  this.slowInvocationMillis = slowInvocationMillis;
+  return this;
+ }
+
+ public PrnfbSettingsDataBuilder setSlowRenderMillis(Integer slowRenderMillis) {
+  this.slowRenderMillis = slowRenderMillis;
+  return this;
+ }
+
  public PrnfbSettingsDataBuilder setShouldAcceptAnyCertificate(boolean shouldAcceptAnyCertificate) {
   this.shouldAcceptAnyCertificate = shouldAcceptAnyCertificate;
   return this;
@@ -0,0 +1,31 @@
+package se.bjurr.prnfb.transformer;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+
+import se.bjurr.prnfb.presentation.dto.DeliveryLogEntryDTO;
+import se.bjurr.prnfb.service.DeliveryLogEntry;
+
+public class DeliveryLogTransformer {
+
+ public static DeliveryLogEntryDTO toDeliveryLogEntryDto(DeliveryLogEntry from) {
+  DeliveryLogEntryDTO to = new DeliveryLogEntryDTO();
+  to.setAction(from.getAction());
+  to.setLatencyMillis(from.getLatencyMillis());
+  to.setPullRequestId(from.getPullRequestId());
+  to.setResponse(from.getResponse());
+  to.setStatus(from.getStatus().orNull());
+  to.setTimestamp(from.getTimestamp());
+  return to;
+ }
+
+ public static List<DeliveryLogEntryDTO> toDeliveryLogEntryDtoList(Iterable<DeliveryLogEntry> entries) {
+  List<DeliveryLogEntryDTO> to = newArrayList();
+  for (DeliveryLogEntry from : entries) {
+   to.add(toDeliveryLogEntryDto(from));
+  }
+  return to;
+ }
+
+}
@@ -0,0 +1,33 @@
+package se.bjurr.prnfb.transformer;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+
+import se.bjurr.prnfb.http.HostState;
+import se.bjurr.prnfb.presentation.dto.HostStateDTO;
+
+public class HostStateTransformer {
+
+ public static HostStateDTO toHostStateDto(HostState from) {
+  HostStateDTO to = new HostStateDTO();
+  to.setCircuitState(from.getCircuitState());
+  to.setConsecutiveFailures(from.getConsecutiveFailures());
+  to.setHost(from.getHost());
+  to.setInFlight(from.getInFlight());
+  to.setMaxConcurrent(from.getDeliveryLimits().getMaxConcurrent());
+  to.setRateLimitBurst(from.getDeliveryLimits().getBurst());
+  to.setRateLimitPerSecond(from.getDeliveryLimits().getPermitsPerSecond());
+  to.setTokens(from.getTokens());
+  to.setWaiting(from.getWaiting());
+  return to;
+ }
+
+ public static List<HostStateDTO> toHostStateDtoList(Iterable<HostState> hostStates) {
+  List<HostStateDTO> to = newArrayList();
+  for (HostState from : hostStates) {
+   to.add(toHostStateDto(from));
+  }
+  return to;
+ }
+}
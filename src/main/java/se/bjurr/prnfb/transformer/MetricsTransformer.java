@@ -0,0 +1,72 @@
+package se.bjurr.prnfb.transformer;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import se.bjurr.prnfb.metrics.LatencyStats;
+import se.bjurr.prnfb.metrics.PrnfbMetricsMXBean;
+import se.bjurr.prnfb.metrics.SlowSample;
+import se.bjurr.prnfb.presentation.dto.LatencyDTO;
+import se.bjurr.prnfb.presentation.dto.MetricsDTO;
+import se.bjurr.prnfb.presentation.dto.SlowSampleDTO;
+
+public class MetricsTransformer {
+
+ public static LatencyDTO toLatencyDto(LatencyStats from) {
+  LatencyDTO to = new LatencyDTO();
+  to.setCount(from.getCount());
+  to.setMax(from.getMax());
+  to.setMean(from.getMean());
+  to.setP50(from.getP50());
+  to.setP95(from.getP95());
+  to.setP99(from.getP99());
+  return to;
+ }
+
+ public static MetricsDTO toMetricsDto(PrnfbMetricsMXBean from) {
+  MetricsDTO to = new MetricsDTO();
+  to.setDeliveriesInFlight(from.getDeliveriesInFlight());
+  to.setDeliveryQueueDepth(from.getDeliveryQueueDepth());
+  to.setDispatchQueueDepth(from.getDispatchQueueDepth());
+  to.setEventsReceived(from.getEventsReceived());
+  to.setHttpFailures(from.getHttpFailures());
+  to.setHttpLatency(toLatencyDtos(from.getHttpLatency()));
+  to.setHttpResponses(from.getHttpResponses());
+  to.setNotificationsMatched(from.getNotificationsMatched());
+  to.setNotificationsRejected(from.getNotificationsRejected());
+  to.setRenderTime(toLatencyDto(from.getRenderTime()));
+  return to;
+ }
+
+ public static SlowSampleDTO toSlowSampleDto(SlowSample from) {
+  SlowSampleDTO to = new SlowSampleDTO();
+  to.setBreakdown(from.getBreakdown());
+  to.setMillis(from.getMillis());
+  to.setNotificationName(from.getNotificationName());
+  to.setNotificationUuid(from.getNotificationUuid());
+  to.setPhase(from.getPhase());
+  to.setThresholdMillis(from.getThresholdMillis());
+  to.setTimestamp(from.getTimestamp());
+  return to;
+ }
+
+ public static List<SlowSampleDTO> toSlowSampleDtoList(Iterable<SlowSample> samples) {
+  List<SlowSampleDTO> to = newArrayList();
+  for (SlowSample from : samples) {
+   to.add(toSlowSampleDto(from));
+  }
+  return to;
+ }
+
+ private static Map<String, LatencyDTO> toLatencyDtos(Map<String, LatencyStats> from) {
+  Map<String, LatencyDTO> to = new TreeMap<>();
+  for (Entry<String, LatencyStats> entry : from.entrySet()) {
+   to.put(entry.getKey(), toLatencyDto(entry.getValue()));
+  }
+  return to;
+ }
+}
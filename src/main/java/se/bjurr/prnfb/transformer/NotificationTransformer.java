@@ -21,10 +21,17 @@ public class NotificationTransformer {
   NotificationDTO to = new NotificationDTO();
   to.setProjectKey(from.getProjectKey().orNull());
   to.setRepositorySlug(from.getRepositorySlug().orNull());
+  to.setRequestTimeoutSeconds(from.getRequestTimeoutSeconds());
+  to.setSlowInvocationMillis(from.getSlowInvocationMillis());
+  to.setSlowRenderMillis(from.getSlowRenderMillis());
+  to.setConnectTimeoutSeconds(from.getConnectTimeoutSeconds());
+  to.setDebounceSeconds(from.getDebounceSeconds());
   to.setFilterRegexp(from.getFilterRegexp().orNull());
   to.setFilterString(from.getFilterString().orNull());
   to.setInjectionUrl(from.getInjectionUrl().orNull());
+  to.setInjectionUrlCacheSeconds(from.getInjectionUrlCacheSeconds());
   to.setInjectionUrlRegexp(from.getInjectionUrlRegexp().orNull());
+  to.setMaxConcurrent(from.getMaxConcurrent());
   to.setMethod(from.getMethod());
   to.setName(from.getName());
   to.setHeaders(toHeaders(from.getHeaders()));
@@ -34,6 +41,9 @@ public class NotificationTransformer {
   to.setProxyPort(from.getProxyPort());
   to.setProxyServer(from.getProxyServer().orNull());
   to.setProxyUser(from.getProxyUser().orNull());
+  to.setRateLimitBurst(from.getRateLimitBurst());
+  to.setRateLimitPerSecond(from.getRateLimitPerSecond());
+  to.setReadTimeoutSeconds(from.getReadTimeoutSeconds());
   to.setTriggerIfCanMerge(from.getTriggerIfCanMerge());
   to.setTriggerIgnoreStateList(toPullRequestStateStrings(from.getTriggerIgnoreStateList()));
   to.setTriggers(toStrings(from.getTriggers()));
@@ -55,11 +65,15 @@ public class NotificationTransformer {
 
  public static PrnfbNotification toPrnfbNotification(NotificationDTO from) throws ValidationException {
   return prnfbNotificationBuilder()//
+    .withConnectTimeoutSeconds(from.getConnectTimeoutSeconds())//
+    .withDebounceSeconds(from.getDebounceSeconds())//
     .withFilterRegexp(from.getFilterRegexp())//
     .withFilterString(from.getFilterString())//
     .setHeaders(toHeaders(from))//
     .withInjectionUrl(from.getInjectionUrl())//
+    .withInjectionUrlCacheSeconds(from.getInjectionUrlCacheSeconds())//
     .withInjectionUrlRegexp(from.getInjectionUrlRegexp())//
+    .withMaxConcurrent(from.getMaxConcurrent())//
     .withMethod(from.getMethod())//
     .withName(from.getName())//
     .withPassword(from.getPassword())//
@@ -68,6 +82,9 @@ public class NotificationTransformer {
     .withProxyPort(from.getProxyPort())//
     .withProxyServer(from.getProxyServer())//
     .withProxyUser(from.getProxyUser())//
+    .withRateLimitBurst(from.getRateLimitBurst())//
+    .withRateLimitPerSecond(from.getRateLimitPerSecond())//
+    .withReadTimeoutSeconds(from.getReadTimeoutSeconds())//
     .setTriggers(toPrnfbPullRequestActions(from.getTriggers()))//
     .withTriggerIfCanMerge(from.getTriggerIfCanMerge())//
     .setTriggerIgnoreState(toPullRequestStates(from.getTriggerIgnoreStateList()))//
@@ -75,6 +92,9 @@ public class NotificationTransformer {
     .withUser(from.getUser())//
     .withUuid(from.getUuid())//
     .withRepositorySlug(from.getRepositorySlug())//
+    .withRequestTimeoutSeconds(from.getRequestTimeoutSeconds())//
+    .withSlowInvocationMillis(from.getSlowInvocationMillis())//
+    .withSlowRenderMillis(from.getSlowRenderMillis())//
     .withProjectKey(from.getProjectKey())//
     .build();
  }
@@ -0,0 +1,49 @@
+package se.bjurr.prnfb.transformer;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+
+import se.bjurr.prnfb.presentation.dto.HeaderDTO;
+import se.bjurr.prnfb.presentation.dto.OutboxEntryDTO;
+import se.bjurr.prnfb.service.OutboxEntry;
+import se.bjurr.prnfb.settings.PrnfbHeader;
+
+public class OutboxTransformer {
+
+ public static OutboxEntryDTO toOutboxEntryDto(OutboxEntry from) {
+  OutboxEntryDTO to = new OutboxEntryDTO();
+  to.setAttempts(from.getAttempts());
+  to.setCreatedAt(from.getCreatedAt());
+  to.setDead(from.isDead());
+  to.setHeaders(toHeaders(from.getHeaders()));
+  to.setLastError(from.getLastError().orNull());
+  to.setMethod(from.getMethod());
+  to.setNextAttemptAt(from.getNextAttemptAt());
+  to.setNotificationUuid(from.getNotificationUuid());
+  to.setPostContent(from.getPostContent().orNull());
+  to.setUrl(from.getUrl());
+  to.setUuid(from.getUuid());
+  return to;
+ }
+
+ public static List<OutboxEntryDTO> toOutboxEntryDtoList(Iterable<OutboxEntry> entries) {
+  List<OutboxEntryDTO> to = newArrayList();
+  for (OutboxEntry from : entries) {
+   to.add(toOutboxEntryDto(from));
+  }
+  return to;
+ }
+
+ private static List<HeaderDTO> toHeaders(List<PrnfbHeader> headers) {
+  List<HeaderDTO> to = newArrayList();
+  for (PrnfbHeader h : headers) {
+   HeaderDTO t = new HeaderDTO();
+   t.setName(h.getName());
+   t.setValue(h.getValue());
+   to.add(t);
+  }
+  return to;
+ }
+
+}
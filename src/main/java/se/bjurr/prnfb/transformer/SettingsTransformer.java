@@ -9,9 +9,19 @@ public class SettingsTransformer {
  public static SettingsDataDTO toDto(PrnfbSettingsData settingsData) {
   SettingsDataDTO dto = new SettingsDataDTO();
   dto.setAdminRestriction(settingsData.getAdminRestriction());
+  dto.setCircuitBreakerFailureThreshold(settingsData.getCircuitBreakerFailureThreshold().orNull());
+  dto.setCircuitBreakerOpenSeconds(settingsData.getCircuitBreakerOpenSeconds().orNull());
+  dto.setConnectTimeoutSeconds(settingsData.getConnectTimeoutSeconds().orNull());
+  dto.setDispatchQueueSize(settingsData.getDispatchQueueSize().orNull());
+  dto.setDispatchSaturationPolicy(settingsData.getDispatchSaturationPolicy());
+  dto.setDispatchThreads(settingsData.getDispatchThreads().orNull());
   dto.setKeyStore(settingsData.getKeyStore().orNull());
   dto.setKeyStorePassword(settingsData.getKeyStorePassword().orNull());
   dto.setKeyStoreType(settingsData.getKeyStoreType());
+  dto.setReadTimeoutSeconds(settingsData.getReadTimeoutSeconds().orNull());
+  dto.setRequestTimeoutSeconds(settingsData.getRequestTimeoutSeconds().orNull());
+  dto.setSlowInvocationMillis(settingsData.getSlowInvocationMillis().orNull());
+  dto.setSlowRenderMillis(settingsData.getSlowRenderMillis().orNull());
   dto.setShouldAcceptAnyCertificate(settingsData.isShouldAcceptAnyCertificate());
   return dto;
  }
@@ -19,9 +29,19 @@ public class SettingsTransformer {
  public static PrnfbSettingsData toPrnfbSettingsData(SettingsDataDTO settingsDataDto) {
   return prnfbSettingsDataBuilder()//
     .setAdminRestriction(settingsDataDto.getAdminRestriction())//
+    .setCircuitBreakerFailureThreshold(settingsDataDto.getCircuitBreakerFailureThreshold())//
+    .setCircuitBreakerOpenSeconds(settingsDataDto.getCircuitBreakerOpenSeconds())//
+    .setConnectTimeoutSeconds(settingsDataDto.getConnectTimeoutSeconds())//
+    .setDispatchQueueSize(settingsDataDto.getDispatchQueueSize())//
+    .setDispatchSaturationPolicy(settingsDataDto.getDispatchSaturationPolicy())//
+    .setDispatchThreads(settingsDataDto.getDispatchThreads())//
     .setKeyStore(settingsDataDto.getKeyStore())//
     .setKeyStorePassword(settingsDataDto.getKeyStorePassword())//
     .setKeyStoreType(settingsDataDto.getKeyStoreType())//
+    .setReadTimeoutSeconds(settingsDataDto.getReadTimeoutSeconds())//
+    .setRequestTimeoutSeconds(settingsDataDto.getRequestTimeoutSeconds())//
+    .setSlowInvocationMillis(settingsDataDto.getSlowInvocationMillis())//
+    .setSlowRenderMillis(settingsDataDto.getSlowRenderMillis())//
     .setShouldAcceptAnyCertificate(settingsDataDto.isShouldAcceptAnyCertificate())//
     .build();
  }
@@ -12,6 +12,8 @@ define('plugin/prnfb/admin', [
  var buttonsAdminUrlPostUrl = AJS.contextPath() + "/rest/prnfb-admin/1.0/settings/buttons"; 
  var buttonsAdminUrl = buttonsAdminUrlPostUrl;
 
+ var deliveriesUrl = AJS.contextPath() + "/rest/prnfb-admin/1.0/deliveries"; 
+
  if ($('#prnfbRepositorySlug').length != 0) {
   var projectKey = $('#prnfbProjectKey').val();
   var repositorySlug = $('#prnfbRepositorySlug').val();
@@ -29,10 +31,31 @@ define('plugin/prnfb/admin', [
    $('.prnfb button').attr('aria-disabled', 'false');
   });
 
+ function showDeliveries(notificationUuid) {
+  $('#prnfbdeliveries tbody').empty();
+  if (!notificationUuid) {
+   return;
+  }
+  $.getJSON(deliveriesUrl + '/' + notificationUuid, function(data) {
+   for (var i = 0; i < data.length; i++) {
+    $('#prnfbdeliveries tbody').append($('<tr>')
+     .append($('<td>').text(new Date(data[i].timestamp).toLocaleString()))
+     .append($('<td>').text(data[i].action))
+     .append($('<td>').text(data[i].pullRequestId))
+     .append($('<td>').text(data[i].status || ''))
+     .append($('<td>').text(data[i].latencyMillis))
+     .append($('<td>').append($('<code>').text(data[i].response || ''))));
+   }
+  });
+ }
+
  $(document).ready(function() {
   utils.setupForm('#prnfbsettingsadmin', settingsAdminUrl, settingsAdminUrlPostUrl);
   utils.setupForms('#prnfbbuttonadmin', buttonsAdminUrl ,buttonsAdminUrlPostUrl);
   utils.setupForms('#prnfbnotificationadmin', notificationsAdminUrl, notificationsAdminUrlPostUrl);
+  $('#prnfbnotificationadmin [name=uuid]').change(function() {
+   showDeliveries($(this).val());
+  });
  });
 });
 
@@ -25,10 +25,46 @@ define('plugin/prnfb/pr-triggerbutton', [
 
  $("body").append($buttonDropdownArea);
 
+ /**
+  * The buttons are kept in session storage, with their ETag, and only sent again if they have changed.
+  */
+ function getButtons(callback) {
+  var url = buttonsAdminUrl + '/repository/' + pageState.getRepository().id + '/pullrequest/' + pageState.getPullRequest().id;
+  var cacheKey = 'prnfb-buttons-' + url;
+  var cached = null;
+  try {
+   cached = JSON.parse(window.sessionStorage.getItem(cacheKey));
+  } catch (e) {
+   cached = null;
+  }
+  $.ajax({
+   url: url,
+   dataType: 'json',
+   headers: cached ? { 'If-None-Match': cached.etag } : {},
+   success: function(settings, textStatus, jqXHR) {
+    if (jqXHR.status === 304 && cached) {
+     callback(cached.settings);
+     return;
+    }
+    var etag = jqXHR.getResponseHeader('ETag');
+    try {
+     if (etag) {
+      window.sessionStorage.setItem(cacheKey, JSON.stringify({ etag: etag, settings: settings }));
+     } else {
+      window.sessionStorage.removeItem(cacheKey);
+     }
+    } catch (e) {
+     //Storage may be full or disabled, the buttons are then fetched every time
+    }
+    callback(settings);
+   }
+  });
+ }
+
  function loadSettingsAndShowButtons() {
   var hasButtons = false;
   $buttonDropdownItems.empty();
-  $.get(buttonsAdminUrl + '/repository/' + pageState.getRepository().id + '/pullrequest/' + pageState.getPullRequest().id, function(settings) {
+  getButtons(function(settings) {
    settings.forEach(function(item) {
     hasButtons = true;
 
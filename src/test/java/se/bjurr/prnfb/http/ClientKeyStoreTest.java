@@ -1,12 +1,19 @@
 package se.bjurr.prnfb.http;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.http.ClientKeyStore.clientKeyStore;
 import static se.bjurr.prnfb.settings.PrnfbSettingsBuilder.prnfbSettingsBuilder;
 import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.security.KeyStore;
+
 import org.junit.Test;
 
 import se.bjurr.prnfb.settings.PrnfbSettings;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
 
 public class ClientKeyStoreTest {
 
@@ -45,6 +52,37 @@ public class ClientKeyStoreTest {
     .isTrue();
  }
 
+ @Test
+ public void testThatKeyStoreIsLoadedAgainOnlyWhenFileOrSettingsChange() throws Exception {
+  File file = File.createTempFile("keystore", ".jks");
+  file.deleteOnExit();
+  KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+  keyStore.load(null, null);
+  try (OutputStream out = new FileOutputStream(file)) {
+   keyStore.store(out, "secret".toCharArray());
+  }
+  PrnfbSettingsData settings = prnfbSettingsDataBuilder()//
+    .setKeyStore(file.getAbsolutePath())//
+    .setKeyStorePassword("secret")//
+    .build();
+
+  ClientKeyStore first = clientKeyStore(settings);
+
+  assertThat(first.getKeyStore().isPresent())//
+    .isTrue();
+  assertThat(clientKeyStore(settings))//
+    .isSameAs(first);
+  assertThat(clientKeyStore(prnfbSettingsDataBuilder()//
+    .setKeyStore(file.getAbsolutePath())//
+    .build()))//
+    .isNotSameAs(first);
+
+  file.setLastModified(file.lastModified() + 10000);
+
+  assertThat(clientKeyStore(settings))//
+    .isNotSameAs(first);
+ }
+
  @Test
  public void testThatNoKeyStoreIsCreatedIfNoSettings() {
   PrnfbSettings settings = prnfbSettingsBuilder()//
@@ -0,0 +1,348 @@
+package se.bjurr.prnfb.http;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static se.bjurr.prnfb.http.CircuitState.CLOSED;
+import static se.bjurr.prnfb.http.CircuitState.HALF_OPEN;
+import static se.bjurr.prnfb.http.CircuitState.OPEN;
+import static se.bjurr.prnfb.http.DeliveryEngine.MAX_WAITING_PER_HOST;
+import static se.bjurr.prnfb.http.DeliveryEngine.UNUSED_HOST_NANOS;
+import static se.bjurr.prnfb.http.DeliveryEngine.deliveryEngine;
+import static se.bjurr.prnfb.http.DeliveryEngine.getHost;
+import static se.bjurr.prnfb.http.DeliveryLimits.DEFAULT_MAX_CONCURRENT;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class DeliveryEngineTest {
+ /**
+  * Runs nothing until told to.
+  */
+ private static class ManualExecutorService extends AbstractExecutorService {
+  private boolean shutdown;
+  private final List<Runnable> submitted = newArrayList();
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) {
+   return true;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+   if (this.shutdown) {
+    throw new RejectedExecutionException("Shut down");
+   }
+   this.submitted.add(command);
+  }
+
+  @Override
+  public boolean isShutdown() {
+   return this.shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+   return false;
+  }
+
+  public void runNext() {
+   this.submitted.remove(0).run();
+  }
+
+  @Override
+  public void shutdown() {
+   this.shutdown = true;
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+   return this.submitted;
+  }
+ }
+
+ private final List<String> completed = newArrayList();
+ private final List<String> failed = newArrayList();
+ private final DeliveryCallback callback = new DeliveryCallback() {
+  @Override
+  public void completed(UrlInvoker urlInvoker) {
+   DeliveryEngineTest.this.completed.add(urlInvoker.getUrlParam());
+  }
+
+  @Override
+  public void failed(UrlInvoker urlInvoker, Exception e) {
+   DeliveryEngineTest.this.failed.add(urlInvoker.getUrlParam());
+  }
+ };
+ private ManualExecutorService executorService;
+ private final Invoker invoker = new Invoker() {
+  @Override
+  public void invoke(UrlInvoker urlInvoker) {
+   if (urlInvoker.getUrlParam().contains("fail")) {
+    throw new RuntimeException("fail");
+   }
+  }
+ };
+ private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+ private DeliveryEngine sut;
+ private long tickerNanos;
+
+ @Before
+ public void before() {
+  this.executorService = new ManualExecutorService();
+  this.sut = deliveryEngine(this.executorService, this.scheduler, new Ticker() {
+   @Override
+   public long read() {
+    return DeliveryEngineTest.this.tickerNanos;
+   }
+  });
+ }
+
+ @Test
+ public void testThatCircuitBreakerOpensAfterFailuresInARow() {
+  DeliveryLimits deliveryLimits = new DeliveryLimits(10, 0, 1, 2, 30);
+  for (int i = 0; i < 2; i++) {
+   this.sut.deliver(urlInvoker()//
+     .withUrlParam("http://down.com/fail" + i)//
+     .withDeliveryLimits(deliveryLimits), this.invoker, this.callback);
+  }
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://down.com/waiting")//
+    .withDeliveryLimits(new DeliveryLimits(1, 0, 1, 2, 30)), this.invoker, this.callback);
+  this.executorService.runNext();
+  this.executorService.runNext();
+
+  assertThat(this.sut.getHostStates().get(0).getCircuitState())//
+    .isEqualTo(OPEN);
+  assertThat(this.failed)//
+    .containsExactly("http://down.com/fail0", "http://down.com/fail1", "http://down.com/waiting");
+
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://down.com/fast")//
+    .withDeliveryLimits(deliveryLimits), this.invoker, this.callback);
+
+  assertThat(this.failed)//
+    .endsWith("http://down.com/fast");
+  assertThat(this.executorService.submitted)//
+    .isEmpty();
+
+  this.tickerNanos = SECONDS.toNanos(30);
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://down.com/trial")//
+    .withDeliveryLimits(deliveryLimits), this.invoker, this.callback);
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://down.com/after")//
+    .withDeliveryLimits(deliveryLimits), this.invoker, this.callback);
+
+  assertThat(this.sut.getHostStates().get(0).getCircuitState())//
+    .isEqualTo(HALF_OPEN);
+  assertThat(this.executorService.submitted)//
+    .hasSize(1);
+  assertThat(this.sut.getWaiting("down.com:-1"))//
+    .isEqualTo(1);
+
+  this.executorService.runNext();
+
+  assertThat(this.sut.getHostStates().get(0).getCircuitState())//
+    .isEqualTo(CLOSED);
+  assertThat(this.completed)//
+    .containsExactly("http://down.com/trial");
+  assertThat(this.executorService.submitted)//
+    .hasSize(1);
+ }
+
+ @Test
+ public void testThatCallbackThatThrowsIsNotCountedAsFailureOfHost() {
+  DeliveryLimits deliveryLimits = new DeliveryLimits(10, 0, 1, 2, 30);
+  DeliveryCallback throwing = new DeliveryCallback() {
+   @Override
+   public void completed(UrlInvoker urlInvoker) {
+    throw new RuntimeException("bug in callback");
+   }
+
+   @Override
+   public void failed(UrlInvoker urlInvoker, Exception e) {
+    throw new RuntimeException("bug in callback");
+   }
+  };
+  for (int i = 0; i < 3; i++) {
+   this.sut.deliver(urlInvoker()//
+     .withUrlParam("http://up.com/" + i)//
+     .withDeliveryLimits(deliveryLimits), this.invoker, throwing);
+   this.executorService.runNext();
+  }
+
+  assertThat(this.sut.getHostStates())//
+    .isEmpty();
+  assertThat(this.sut.getInFlight("up.com:-1"))//
+    .isEqualTo(0);
+ }
+
+ @Test
+ public void testThatFailureIsReportedToCallback() {
+  this.sut.deliver(urlInvoker().withUrlParam("http://slow.com/fail"), this.invoker, this.callback);
+  this.executorService.runNext();
+
+  assertThat(this.failed)//
+    .containsExactly("http://slow.com/fail");
+  assertThat(this.completed)//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatHostIncludesPort() {
+  assertThat(getHost(urlInvoker().withUrlParam("https://jenkins.com:8443/job")))//
+    .isEqualTo("jenkins.com:8443");
+ }
+
+ @Test
+ public void testThatHostWithOpenCircuitBreakerIsForgottenWhenUnused() {
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://down.com/fail")//
+    .withDeliveryLimits(new DeliveryLimits(10, 0, 1, 1, 30)), this.invoker, this.callback);
+  this.executorService.runNext();
+
+  this.sut.removeUnusedHosts();
+
+  assertThat(this.sut.getHostStates())//
+    .extracting("circuitState")//
+    .containsExactly(OPEN);
+
+  this.tickerNanos = UNUSED_HOST_NANOS;
+  this.sut.removeUnusedHosts();
+
+  assertThat(this.sut.getHostStates())//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatInvocationsAreRejectedWhenTooManyAreWaiting() {
+  for (int i = 0; i < DEFAULT_MAX_CONCURRENT + MAX_WAITING_PER_HOST + 1; i++) {
+   this.sut.deliver(urlInvoker().withUrlParam("http://slow.com/" + i), this.invoker, this.callback);
+  }
+
+  assertThat(this.failed)//
+    .containsExactly("http://slow.com/" + (DEFAULT_MAX_CONCURRENT + MAX_WAITING_PER_HOST));
+ }
+
+ @Test
+ public void testThatInvocationsToSameHostAreLimited() {
+  for (int i = 0; i < DEFAULT_MAX_CONCURRENT + 2; i++) {
+   this.sut.deliver(urlInvoker().withUrlParam("http://slow.com/" + i), this.invoker, this.callback);
+  }
+  this.sut.deliver(urlInvoker().withUrlParam("http://fast.com/"), this.invoker, this.callback);
+
+  assertThat(this.executorService.submitted)//
+    .hasSize(DEFAULT_MAX_CONCURRENT + 1);
+  assertThat(this.sut.getInFlight("slow.com:-1"))//
+    .isEqualTo(DEFAULT_MAX_CONCURRENT);
+  assertThat(this.sut.getWaiting("slow.com:-1"))//
+    .isEqualTo(2);
+
+  this.executorService.runNext();
+
+  assertThat(this.completed)//
+    .containsExactly("http://slow.com/0");
+  assertThat(this.sut.getWaiting("slow.com:-1"))//
+    .isEqualTo(1);
+  assertThat(this.executorService.submitted)//
+    .hasSize(DEFAULT_MAX_CONCURRENT + 1);
+
+  while (!this.executorService.submitted.isEmpty()) {
+   this.executorService.runNext();
+  }
+
+  assertThat(this.completed)//
+    .hasSize(DEFAULT_MAX_CONCURRENT + 3);
+  assertThat(this.sut.getInFlight("slow.com:-1"))//
+    .isEqualTo(0);
+ }
+
+ @Test
+ public void testThatRejectedInvocationIsNotCountedAsFailureOfHost() {
+  this.executorService.shutdown();
+
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://up.com/")//
+    .withDeliveryLimits(new DeliveryLimits(10, 0, 1, 1, 30)), this.invoker, this.callback);
+
+  assertThat(this.failed)//
+    .containsExactly("http://up.com/");
+  assertThat(this.sut.getHostStates())//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatStrictestLimitsOfHostAreUsed() {
+  DeliveryLimits strict = new DeliveryLimits(1, 0, 1, 5, 30);
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://jenkins.com/strict0")//
+    .withDeliveryLimits(strict), this.invoker, this.callback);
+  this.sut.deliver(urlInvoker()//
+    .withUrlParam("http://jenkins.com/strict1")//
+    .withDeliveryLimits(strict), this.invoker, this.callback);
+  for (int i = 0; i < 2; i++) {
+   this.sut.deliver(urlInvoker().withUrlParam("http://jenkins.com/default" + i), this.invoker, this.callback);
+  }
+
+  assertThat(this.sut.getInFlight("jenkins.com:-1"))//
+    .isEqualTo(1);
+  assertThat(this.sut.getWaiting("jenkins.com:-1"))//
+    .isEqualTo(3);
+
+  this.executorService.runNext();
+  this.executorService.runNext();
+
+  assertThat(this.completed)//
+    .containsExactly("http://jenkins.com/strict0", "http://jenkins.com/strict1");
+  assertThat(this.sut.getInFlight("jenkins.com:-1"))//
+    .isEqualTo(2);
+  assertThat(this.sut.getHostStates().get(0).getDeliveryLimits())//
+    .isEqualTo(DeliveryLimits.DEFAULT);
+ }
+
+ @Test
+ public void testThatRateLimitedInvocationsWaitForTokens() {
+  DeliveryLimits deliveryLimits = new DeliveryLimits(10, 2, 2, 5, 30);
+  for (int i = 0; i < 4; i++) {
+   this.sut.deliver(urlInvoker()//
+     .withUrlParam("http://limited.com/" + i)//
+     .withDeliveryLimits(deliveryLimits), this.invoker, this.callback);
+  }
+
+  assertThat(this.executorService.submitted)//
+    .hasSize(2);
+  assertThat(this.sut.getWaiting("limited.com:-1"))//
+    .isEqualTo(2);
+  verify(this.scheduler)//
+    .schedule(any(Runnable.class), eq(MILLISECONDS.toNanos(500)), eq(NANOSECONDS));
+
+  this.tickerNanos = MILLISECONDS.toNanos(500);
+  this.sut.wakeUp("limited.com:-1");
+
+  assertThat(this.executorService.submitted)//
+    .hasSize(3);
+  assertThat(this.sut.getWaiting("limited.com:-1"))//
+    .isEqualTo(1);
+  verify(this.scheduler, times(2))//
+    .schedule(any(Runnable.class), eq(MILLISECONDS.toNanos(500)), eq(NANOSECONDS));
+  assertThat(this.sut.getHostStates().get(0).getWaiting())//
+    .isEqualTo(1);
+ }
+}
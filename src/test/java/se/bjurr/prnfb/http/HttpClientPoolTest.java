@@ -0,0 +1,59 @@
+package se.bjurr.prnfb.http;
+
+import static com.google.common.base.Optional.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.http.HttpClientPool.getHttpClient;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class HttpClientPoolTest {
+
+ @After
+ public void after() {
+  HttpClientPool.closeAll();
+ }
+
+ @Test
+ public void testThatClientIsNotSharedWithOtherCertificateSettings() {
+  UrlInvoker first = urlInvoker()//
+    .withUrlParam("https://jenkins.example.com/job/a")//
+    .shouldAcceptAnyCertificate(true);
+  UrlInvoker second = urlInvoker()//
+    .withUrlParam("https://jenkins.example.com/job/a")//
+    .shouldAcceptAnyCertificate(false);
+
+  assertThat(getHttpClient(first))//
+    .isNotSameAs(getHttpClient(second));
+ }
+
+ @Test
+ public void testThatClientIsNotSharedWithOtherProxySettings() {
+  UrlInvoker direct = urlInvoker()//
+    .withUrlParam("http://jenkins.example.com/job/a");
+  UrlInvoker proxied = urlInvoker()//
+    .withUrlParam("http://jenkins.example.com/job/a")//
+    .withProxyServer(of("proxy.example.com"))//
+    .withProxyPort(3128);
+
+  assertThat(getHttpClient(direct))//
+    .isNotSameAs(getHttpClient(proxied));
+ }
+
+ @Test
+ public void testThatClientIsSharedBetweenInvokersWithSameSettings() {
+  UrlInvoker first = urlInvoker()//
+    .withUrlParam("http://jenkins.example.com/job/a")//
+    .withClientKeyStore(new ClientKeyStore(prnfbSettingsDataBuilder().build()))//
+    .shouldAcceptAnyCertificate(true);
+  UrlInvoker second = urlInvoker()//
+    .withUrlParam("https://slack.example.com/hook")//
+    .withClientKeyStore(new ClientKeyStore(prnfbSettingsDataBuilder().build()))//
+    .shouldAcceptAnyCertificate(true);
+
+  assertThat(getHttpClient(first))//
+    .isSameAs(getHttpClient(second));
+ }
+}
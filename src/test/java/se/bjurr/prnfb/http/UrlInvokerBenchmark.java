@@ -0,0 +1,112 @@
+package se.bjurr.prnfb.http;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Optional.of;
+import static com.google.common.io.ByteStreams.toByteArray;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.POST;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.POST_CONTENT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Invocations with {@link UrlInvoker} of an HTTP server in the same process, so that the time is spent in the client
+ * and its connection pool rather than on the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UrlInvokerBenchmark {
+ private static final byte[] RESPONSE = "{\"result\":\"ok\"}".getBytes(UTF_8);
+
+ private ExecutorService serverExecutor;
+ private HttpServer server;
+ private String url;
+
+ @Benchmark
+ @Threads(1)
+ public String get() {
+  return invoke(urlInvoker()//
+    .withUrlParam(this.url + "?FROM=2cd4ea0d&PR=4711"));
+ }
+
+ @Benchmark
+ @Threads(1)
+ public String post() {
+  return invoke(urlInvoker()//
+    .withUrlParam(this.url)//
+    .withMethod(POST)//
+    .withHeader("Content-Type", "application/json")//
+    .withPostContent(of(POST_CONTENT)));
+ }
+
+ @Benchmark
+ @Threads(8)
+ public String postConcurrently() {
+  return post();
+ }
+
+ @Setup
+ public void setup() throws IOException {
+  this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+  this.server.createContext("/", new HttpHandler() {
+   @Override
+   public void handle(HttpExchange exchange) throws IOException {
+    try (InputStream requestBody = exchange.getRequestBody()) {
+     toByteArray(requestBody);
+    }
+    exchange.sendResponseHeaders(200, RESPONSE.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+     responseBody.write(RESPONSE);
+    }
+   }
+  });
+  this.serverExecutor = newFixedThreadPool(8);
+  this.server.setExecutor(this.serverExecutor);
+  this.server.start();
+  this.url = "http://" + this.server.getAddress().getHostString() + ":" + this.server.getAddress().getPort()
+    + "/job/build";
+ }
+
+ @TearDown
+ public void tearDown() {
+  this.server.stop(0);
+  this.serverExecutor.shutdownNow();
+  UrlInvoker.shutdownDeadlines();
+ }
+
+ private String invoke(UrlInvoker urlInvoker) {
+  urlInvoker.invoke();
+  if (urlInvoker.getException().isPresent()) {
+   throw new IllegalStateException(urlInvoker.getException().get());
+  }
+  return urlInvoker.getResponseString();
+ }
+}
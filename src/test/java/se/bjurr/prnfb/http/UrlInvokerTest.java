@@ -1,17 +1,29 @@
 package se.bjurr.prnfb.http;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Optional.of;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static se.bjurr.prnfb.http.RequestTimeouts.DEFAULT_REQUEST_TIMEOUT_SECONDS;
+import static se.bjurr.prnfb.http.RequestTimeouts.requestTimeouts;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.DELETE;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.GET;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.POST;
 import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.PUT;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
 import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -21,6 +33,9 @@ import org.junit.Test;
 import se.bjurr.prnfb.settings.PrnfbNotification;
 
 import com.google.common.base.Optional;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 public class UrlInvokerTest {
 
@@ -31,7 +46,7 @@ public class UrlInvokerTest {
  public void before() {
   this.urlInvoker = new UrlInvoker() {
    @Override
-   String doInvoke(HttpRequestBase httpRequest, HttpClientBuilder builder) {
+   String doInvoke(HttpRequestBase httpRequest) {
     UrlInvokerTest.this.httpRequestBase = httpRequest;
     return "";
    }
@@ -39,6 +54,42 @@ public class UrlInvokerTest {
   .withUrlParam("http://url.com/");
  }
 
+ @Test
+ public void testThatAbortWhileReadingBodyIsAFailureWithoutStatus() throws Exception {
+  final CountDownLatch bodyRead = new CountDownLatch(1);
+  HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+  server.createContext("/", new HttpHandler() {
+   @Override
+   public void handle(HttpExchange exchange) throws IOException {
+    // Chunked, the body never ends
+    exchange.sendResponseHeaders(200, 0);
+    OutputStream responseBody = exchange.getResponseBody();
+    responseBody.write("partial".getBytes(UTF_8));
+    responseBody.flush();
+    try {
+     bodyRead.await();
+    } catch (InterruptedException e) {
+     Thread.currentThread().interrupt();
+    }
+   }
+  });
+  server.start();
+  UrlInvoker urlInvoker = urlInvoker()//
+    .withUrlParam("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/")//
+    .withRequestTimeouts(new RequestTimeouts(1, 30, 1));
+  try {
+   urlInvoker.invoke();
+  } finally {
+   bodyRead.countDown();
+   server.stop(0);
+  }
+
+  assertThat(urlInvoker.getResponseStatus().isPresent())//
+    .isFalse();
+  assertThat(urlInvoker.getException().get())//
+    .isInstanceOf(TimeoutException.class);
+ }
+
  @Test
  public void testThatHeadersAreAdded() {
   this.urlInvoker//
@@ -192,6 +243,30 @@ public class UrlInvokerTest {
   // verify(mockedBuilder).setSSLSocketFactory(Matchers.any());
  }
 
+ @Test
+ public void testThatTimeoutsAreTakenFromNotificationThenSettings() throws Exception {
+  PrnfbNotification notification = prnfbNotificationBuilder()//
+    .withUrl("http://url.com/")//
+    .withTrigger(APPROVED)//
+    .withConnectTimeoutSeconds(2)//
+    .build();
+  RequestTimeouts requestTimeouts = requestTimeouts(notification, prnfbSettingsDataBuilder()//
+    .setConnectTimeoutSeconds(5)//
+    .setReadTimeoutSeconds(7)//
+    .build());
+
+  RequestConfig requestConfig = this.urlInvoker//
+    .withRequestTimeouts(requestTimeouts)//
+    .newRequestConfig();
+
+  assertThat(requestConfig.getConnectTimeout())//
+    .isEqualTo(2000);
+  assertThat(requestConfig.getSocketTimeout())//
+    .isEqualTo(7000);
+  assertThat(requestTimeouts.getRequestTimeoutSeconds())//
+    .isEqualTo(DEFAULT_REQUEST_TIMEOUT_SECONDS);
+ }
+
  @Test
  public void testThatURLCanBeInvokedWithMinimalConfig() throws Exception {
   this.urlInvoker//
@@ -0,0 +1,119 @@
+package se.bjurr.prnfb.listener;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY.CALLER_RUNS;
+import static se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY.DROP_OLDEST;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.service.SettingsService;
+import se.bjurr.prnfb.settings.DISPATCH_SATURATION_POLICY;
+
+public class DispatchExecutorTest {
+ private final CountDownLatch blocked = new CountDownLatch(1);
+ private final List<String> handled = Collections.synchronizedList(newArrayList());
+ private final CountDownLatch release = new CountDownLatch(1);
+ private final SettingsService settingsService = mock(SettingsService.class);
+ private DispatchExecutor sut;
+
+ @After
+ public void after() {
+  this.release.countDown();
+  this.sut.destroy();
+ }
+
+ @Before
+ public void before() {
+  this.sut = new DispatchExecutor(this.settingsService);
+ }
+
+ @Test
+ public void testThatCallerRunsWhenQueueIsFull() throws Exception {
+  withSettings(CALLER_RUNS);
+  blockTheOnlyThread();
+
+  this.sut.execute(handle("queued"));
+  this.sut.execute(handle("caller"));
+
+  assertThat(this.handled)//
+    .containsExactly("caller");
+  assertThat(this.sut.getCallerRuns())//
+    .isEqualTo(1);
+  assertThat(this.sut.getQueueDepth())//
+    .isEqualTo(1);
+ }
+
+ @Test
+ public void testThatOldestIsDroppedWhenQueueIsFull() throws Exception {
+  withSettings(DROP_OLDEST);
+  blockTheOnlyThread();
+
+  this.sut.execute(handle("oldest"));
+  this.sut.execute(handle("newest"));
+  this.release.countDown();
+  this.sut.shutdown();
+  this.sut.awaitTermination(5, SECONDS);
+
+  assertThat(this.handled)//
+    .containsExactly("newest");
+  assertThat(this.sut.getDropped())//
+    .isEqualTo(1);
+ }
+
+ @Test
+ public void testThatThreadsAreTakenFromSettings() {
+  when(this.settingsService.getPrnfbSettingsData())//
+    .thenReturn(prnfbSettingsDataBuilder()//
+      .setDispatchThreads(7)//
+      .build());
+
+  this.sut.execute(handle("a"));
+
+  assertThat(this.sut.getThreads())//
+    .isEqualTo(7);
+ }
+
+ private void blockTheOnlyThread() throws InterruptedException {
+  this.sut.execute(new Runnable() {
+   @Override
+   public void run() {
+    DispatchExecutorTest.this.blocked.countDown();
+    try {
+     DispatchExecutorTest.this.release.await();
+    } catch (InterruptedException e) {
+     Thread.currentThread().interrupt();
+    }
+   }
+  });
+  this.blocked.await(5, SECONDS);
+ }
+
+ private Runnable handle(final String name) {
+  return new Runnable() {
+   @Override
+   public void run() {
+    DispatchExecutorTest.this.handled.add(name);
+   }
+  };
+ }
+
+ private void withSettings(DISPATCH_SATURATION_POLICY policy) {
+  when(this.settingsService.getPrnfbSettingsData())//
+    .thenReturn(prnfbSettingsDataBuilder()//
+      .setDispatchThreads(1)//
+      .setDispatchQueueSize(1)//
+      .setDispatchSaturationPolicy(policy)//
+      .build());
+ }
+}
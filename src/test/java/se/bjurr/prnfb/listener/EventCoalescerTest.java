@@ -0,0 +1,114 @@
+package se.bjurr.prnfb.listener;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.COMMENTED;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_FROM;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.repository.Repository;
+
+public class EventCoalescerTest {
+ private PrnfbNotification notification;
+ private final List<String> notified = newArrayList();
+ private PullRequest pullRequest;
+ private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+ private EventCoalescer sut;
+
+ @Before
+ public void before() throws Exception {
+  this.sut = new EventCoalescer(new FakeExecutorService(), this.scheduler);
+  this.notification = prnfbNotificationBuilder()//
+    .withUrl("http://hej.com")//
+    .withTrigger(RESCOPED_FROM)//
+    .withDebounceSeconds(10)//
+    .build();
+  Repository repository = mock(Repository.class);
+  when(repository.getId())//
+    .thenReturn(1);
+  PullRequestRef toRef = mock(PullRequestRef.class);
+  when(toRef.getRepository())//
+    .thenReturn(repository);
+  this.pullRequest = mock(PullRequest.class);
+  when(this.pullRequest.getToRef())//
+    .thenReturn(toRef);
+  when(this.pullRequest.getId())//
+    .thenReturn(2L);
+ }
+
+ @Test
+ public void testThatEventsAreNotifiedWhenWindowCanNotBeScheduled() {
+  when(this.scheduler.schedule(any(Runnable.class), eq(10L), eq(SECONDS)))//
+    .thenThrow(new RejectedExecutionException());
+
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("first"));
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("second"));
+
+  assertThat(this.notified)//
+    .containsExactly("first", "second");
+  assertThat(this.sut.getCoalesced())//
+    .isEqualTo(0);
+ }
+
+ @Test
+ public void testThatOnlyActionsInBurstsAreCoalesced() throws Exception {
+  assertThat(this.sut.isCoalesced(this.notification, RESCOPED_FROM))//
+    .isTrue();
+  assertThat(this.sut.isCoalesced(this.notification, COMMENTED))//
+    .isFalse();
+  assertThat(this.sut.isCoalesced(prnfbNotificationBuilder(this.notification)//
+    .withDebounceSeconds(null)//
+    .build(), RESCOPED_FROM))//
+    .isFalse();
+ }
+
+ @Test
+ public void testThatOnlyLatestEventInWindowIsNotified() {
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("first"));
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("second"));
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("third"));
+
+  ArgumentCaptor<Runnable> endOfWindow = ArgumentCaptor.forClass(Runnable.class);
+  verify(this.scheduler)//
+    .schedule(endOfWindow.capture(), eq(10L), eq(SECONDS));
+  endOfWindow.getValue().run();
+
+  assertThat(this.notified)//
+    .containsExactly("third");
+  assertThat(this.sut.getCoalesced())//
+    .isEqualTo(2);
+
+  this.sut.coalesce(this.notification, this.pullRequest, RESCOPED_FROM, notify("fourth"));
+
+  verify(this.scheduler, times(2))//
+    .schedule(any(Runnable.class), eq(10L), eq(SECONDS));
+ }
+
+ private Runnable notify(final String name) {
+  return new Runnable() {
+   @Override
+   public void run() {
+    EventCoalescerTest.this.notified.add(name);
+   }
+  };
+ }
+}
@@ -0,0 +1,114 @@
+package se.bjurr.prnfb.listener;
+
+import static com.atlassian.bitbucket.pull.PullRequestAction.OPENED;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.http.DeliveryEngine.deliveryEngine;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestEventListener.setInvoker;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.authenticationContext;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.populatedNotifications;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.propertiesService;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.pullRequest;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.settingsService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.bjurr.prnfb.http.DeliveryEngine;
+import se.bjurr.prnfb.http.Invoker;
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.metrics.SlowSamples;
+import se.bjurr.prnfb.service.DeliveryLog;
+import se.bjurr.prnfb.service.OutboxService;
+import se.bjurr.prnfb.service.PrnfbRendererFactory;
+import se.bjurr.prnfb.service.SettingsService;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.test.BenchmarkFixtures.ConcurrentPluginSettings;
+
+import com.atlassian.bitbucket.event.pull.PullRequestEvent;
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestService;
+
+/**
+ * Handling of one pull request event that triggers all notifications. Everything from finding the notifications to
+ * handing the rendered invocations to the {@link DeliveryEngine}, but not the invocations themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrnfbPullRequestEventListenerBenchmark {
+ @Param({ "10", "100", "1000" })
+ public int notifications;
+
+ private DeliveryEngine deliveryEngine;
+ private EventCoalescer eventCoalescer;
+ private final ExecutorService executorService = new FakeExecutorService();
+ private final AtomicLong invoked = new AtomicLong();
+ private final PullRequest pullRequest = pullRequest();
+ private PullRequestEvent pullRequestEvent;
+ private PrnfbPullRequestEventListener sut;
+
+ @Benchmark
+ public long handleEvent() {
+  this.sut.handleEventAsync(this.pullRequestEvent);
+  return this.invoked.get();
+ }
+
+ /**
+  * The event is a mock, and mocks remember their invocations. A new one every iteration keeps that bounded.
+  */
+ @Setup(Level.Iteration)
+ public void newEvent() {
+  this.pullRequestEvent = mock(PullRequestEvent.class);
+  when(this.pullRequestEvent.getPullRequest())//
+    .thenReturn(this.pullRequest);
+  when(this.pullRequestEvent.getAction())//
+    .thenReturn(OPENED);
+ }
+
+ @Setup
+ public void setup() throws Exception {
+  SettingsService settingsService = settingsService(new ConcurrentPluginSettings());
+  for (PrnfbNotification notification : populatedNotifications(this.notifications, PrnfbPullRequestAction.OPENED)) {
+   settingsService.addOrUpdateNotification(notification);
+  }
+  PrnfbRendererFactory prnfbRendererFactory = new PrnfbRendererFactory(null, propertiesService(),
+    authenticationContext(), null);
+  this.deliveryEngine = deliveryEngine(this.executorService);
+  this.eventCoalescer = new EventCoalescer(this.executorService);
+  this.sut = new PrnfbPullRequestEventListener(prnfbRendererFactory, mock(PullRequestService.class),
+    this.executorService, settingsService, this.deliveryEngine, mock(OutboxService.class), this.eventCoalescer,
+    new DeliveryLog(), new SlowSamples());
+  setInvoker(new Invoker() {
+   @Override
+   public void invoke(UrlInvoker urlInvoker) {
+    PrnfbPullRequestEventListenerBenchmark.this.invoked.incrementAndGet();
+   }
+  });
+ }
+
+ @TearDown
+ public void tearDown() {
+  setInvoker(null);
+  this.eventCoalescer.destroy();
+  this.deliveryEngine.destroy();
+ }
+}
@@ -6,12 +6,22 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static se.bjurr.prnfb.http.DeliveryEngine.deliveryEngine;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_FROM;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestEventListener.setInvoker;
+import static se.bjurr.prnfb.listener.TriggerCheck.FILTER;
+import static se.bjurr.prnfb.listener.TriggerCheck.IGNORED_STATE;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_COMMENT_TEXT;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_MERGE_COMMIT;
 import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
@@ -24,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -33,6 +44,11 @@ import org.mockito.stubbing.Answer;
 import se.bjurr.prnfb.http.ClientKeyStore;
 import se.bjurr.prnfb.http.Invoker;
 import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.metrics.PrnfbMetrics;
+import se.bjurr.prnfb.metrics.SlowSamples;
+import se.bjurr.prnfb.service.DeliveryLog;
+import se.bjurr.prnfb.service.DeliveryLogEntry;
+import se.bjurr.prnfb.service.OutboxService;
 import se.bjurr.prnfb.service.PrnfbRenderer;
 import se.bjurr.prnfb.service.PrnfbRendererFactory;
 import se.bjurr.prnfb.service.PrnfbVariable;
@@ -57,12 +73,17 @@ import com.google.common.base.Supplier;
 public class PrnfbPullRequestEventListenerTest {
 
  private final ClientKeyStore clientKeyStore = null;
+ private final DeliveryLog deliveryLog = new DeliveryLog();
+ @Mock
+ private EventCoalescer eventCoalescer;
  private final ExecutorService executorService = new FakeExecutorService();
  @Mock
  private PullRequestRef fromRef;
  private final List<UrlInvoker> invokedUrls = newArrayList();
  private PrnfbNotification notification1;
  private PrnfbNotification notification2;
+ @Mock
+ private OutboxService outboxService;
  private PrnfbSettingsData pluginSettingsData;
  @Mock
  private PrnfbRendererFactory prnfbRendererFactory;
@@ -81,11 +102,17 @@ public class PrnfbPullRequestEventListenerTest {
  @Mock
  private PullRequestRef toRef;
 
+ @After
+ public void after() {
+  TriggerRejections.clear();
+ }
+
  @Before
  public void before() throws ValidationException {
   initMocks(this);
   this.sut = new PrnfbPullRequestEventListener(this.prnfbRendererFactory, this.pullRequestService,
-    this.executorService, this.settingsService);
+    this.executorService, this.settingsService, deliveryEngine(this.executorService),
+    this.outboxService, this.eventCoalescer, this.deliveryLog, new SlowSamples());
   setInvoker(new Invoker() {
    @Override
    public void invoke(UrlInvoker urlInvoker) {
@@ -129,8 +156,17 @@ public class PrnfbPullRequestEventListenerTest {
   List<PrnfbNotification> notifications = newArrayList(this.notification1, this.notification2);
   when(this.settingsService.getNotifications())//
     .thenReturn(notifications);
+  when(this.settingsService.getNotificationCandidates(any(), any(), any()))//
+    .thenReturn(notifications);
 
-  when(this.prnfbRendererFactory.create(any(), any(), any(), any()))//
+  Repository toRepository = mock(Repository.class);
+  when(this.toRef.getRepository())//
+    .thenReturn(toRepository);
+  Project toProject = mock(Project.class);
+  when(toRepository.getProject())//
+    .thenReturn(toProject);
+
+  when(this.prnfbRendererFactory.create(any(), any(), any(), any(), any()))//
     .thenReturn(this.renderer);
   when(this.renderer.render(any(), any(), any(), any()))//
     .thenAnswer(new Answer<String>() {
@@ -141,6 +177,39 @@ public class PrnfbPullRequestEventListenerTest {
     });
  }
 
+ @Test
+ public void testThatCoalescedNotificationIsCheckedWithLatestPullRequest() throws ValidationException {
+  PrnfbNotification notification = prnfbNotificationBuilder(this.notification1)//
+    .setTriggerIgnoreState(newArrayList(DECLINED))//
+    .build();
+  when(this.settingsService.getNotificationCandidates(any(), any(), any()))//
+    .thenReturn(newArrayList(notification));
+  when(this.eventCoalescer.isCoalesced(any(), any()))//
+    .thenReturn(true);
+  doAnswer(new Answer<Void>() {
+   @Override
+   public Void answer(InvocationOnMock invocation) throws Throwable {
+    // The window ends
+    ((Runnable) invocation.getArguments()[3]).run();
+    return null;
+   }
+  }).when(this.eventCoalescer).coalesce(any(), any(), any(), any());
+  PullRequest latest = mock(PullRequest.class);
+  when(latest.getToRef())//
+    .thenReturn(this.toRef);
+  when(latest.getState())//
+    .thenReturn(DECLINED);
+  when(this.pullRequestService.getById(anyInt(), anyLong()))//
+    .thenReturn(latest);
+
+  this.sut.handleEventAsync(this.pullRequestOpenedEvent);
+
+  assertThat(this.invokedUrls)//
+    .isEmpty();
+  assertThat(TriggerRejections.getRejections(IGNORED_STATE))//
+    .isEqualTo(1);
+ }
+
  @Test
  public void testThatCommentOnClosedPRIsIgnored() {
   when(this.pullRequest.isClosed())//
@@ -155,6 +224,27 @@ public class PrnfbPullRequestEventListenerTest {
     .isEmpty();
  }
 
+ @Test
+ public void testThatFilterIsNotRenderedIfStateIsIgnored() throws ValidationException {
+  PrnfbNotification notification = prnfbNotificationBuilder()//
+    .withTrigger(RESCOPED_FROM)//
+    .withUrl("http://hej.com")//
+    .withFilterRegexp("^abc$")//
+    .withFilterString("${INJECTION_URL_VALUE}")//
+    .setTriggerIgnoreState(newArrayList(DECLINED))//
+    .build();
+  when(this.pullRequest.getState())//
+    .thenReturn(DECLINED);
+
+  TriggerCheck actual = this.sut.getRejectingCheck(notification, RESCOPED_FROM, this.renderer, this.pullRequest,
+    this.clientKeyStore, this.shouldAcceptAnyCertificate).orNull();
+
+  assertThat(actual)//
+    .isEqualTo(IGNORED_STATE);
+  verify(this.renderer, never())//
+    .render(anyString(), anyBoolean(), any(ClientKeyStore.class), anyBoolean());
+ }
+
  @Test
  public void testThatHeaderCanContainVariables() {
  }
@@ -349,6 +439,22 @@ public class PrnfbPullRequestEventListenerTest {
     .isTrue();
  }
 
+ @Test
+ public void testThatOnlyNotificationsTriggeredByEventsAreCountedAsMatched() {
+  long matchedBefore = PrnfbMetrics.getNotificationsMatched();
+
+  this.sut.isNotificationTriggeredByAction(this.notification1, PrnfbPullRequestAction.OPENED, this.renderer,
+    this.pullRequest, this.clientKeyStore, this.shouldAcceptAnyCertificate);
+
+  assertThat(PrnfbMetrics.getNotificationsMatched())//
+    .isEqualTo(matchedBefore);
+
+  this.sut.handleEventAsync(this.pullRequestOpenedEvent);
+
+  assertThat(PrnfbMetrics.getNotificationsMatched())//
+    .isEqualTo(matchedBefore + 2);
+ }
+
  @Test
  public void testThatPullRequestCommentIsAddedToVariables() {
   PullRequestCommentAddedEvent pullRequestEvent = mock(PullRequestCommentAddedEvent.class);
@@ -391,6 +497,51 @@ public class PrnfbPullRequestEventListenerTest {
   assertInvokedUrls("http://not1.com/", "http://not2.com/");
  }
 
+ @Test
+ public void testThatPullRequestOpenedIsLogged() {
+  when(this.pullRequest.getId())//
+    .thenReturn(42L);
+
+  this.sut.handleEventAsync(this.pullRequestOpenedEvent);
+
+  // notification2 is copied from notification1, UUID included
+  List<DeliveryLogEntry> entries = this.deliveryLog.getEntries(this.notification1.getUuid());
+  assertThat(entries)//
+    .hasSize(2);
+  for (DeliveryLogEntry entry : entries) {
+   assertThat(entry.getAction())//
+     .isEqualTo(PrnfbPullRequestAction.OPENED);
+   assertThat(entry.getPullRequestId())//
+     .isEqualTo(42L);
+  }
+ }
+
+ @Test
+ public void testThatRejectionsAreOnlyCountedForEvents() throws ValidationException {
+  PrnfbNotification notification = prnfbNotificationBuilder(this.notification1)//
+    .setTriggerIgnoreState(newArrayList(DECLINED))//
+    .build();
+  when(this.settingsService.getNotificationCandidates(any(), any(), any()))//
+    .thenReturn(newArrayList(notification));
+  when(this.pullRequest.getState())//
+    .thenReturn(DECLINED);
+
+  this.sut.isNotificationTriggeredByAction(notification, PrnfbPullRequestAction.OPENED, this.renderer,
+    this.pullRequest, this.clientKeyStore, this.shouldAcceptAnyCertificate);
+
+  assertThat(TriggerRejections.getRejections(IGNORED_STATE))//
+    .isEqualTo(0);
+
+  this.sut.handleEventAsync(this.pullRequestOpenedEvent);
+
+  assertThat(TriggerRejections.getRejections(IGNORED_STATE))//
+    .isEqualTo(1);
+  assertThat(TriggerRejections.getRejections(FILTER))//
+    .isEqualTo(0);
+  assertThat(this.invokedUrls)//
+    .isEmpty();
+ }
+
  private void assertInvokedUrls(String... expectedUrls) {
   Iterable<String> urls = transform(this.invokedUrls, new Function<UrlInvoker, String>() {
    @Override
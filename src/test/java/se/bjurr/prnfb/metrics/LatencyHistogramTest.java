@@ -0,0 +1,63 @@
+package se.bjurr.prnfb.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+ private final LatencyHistogram sut = new LatencyHistogram();
+
+ @Test
+ public void testThatEmptyHistogramIsZero() {
+  LatencyStats actual = this.sut.toLatencyStats();
+
+  assertThat(actual.getCount())//
+    .isEqualTo(0);
+  assertThat(actual.getMean())//
+    .isEqualTo(0);
+  assertThat(actual.getP99())//
+    .isEqualTo(0);
+ }
+
+ @Test
+ public void testThatPercentilesAreUpperBoundOfBucket() {
+  for (int i = 0; i < 98; i++) {
+   this.sut.record(MICROSECONDS.toNanos(600));
+  }
+  this.sut.record(MILLISECONDS.toNanos(3));
+  this.sut.record(MILLISECONDS.toNanos(40));
+
+  LatencyStats actual = this.sut.toLatencyStats();
+
+  assertThat(actual.getCount())//
+    .isEqualTo(100);
+  assertThat(actual.getP50())//
+    .isEqualTo(1.024);
+  assertThat(actual.getP95())//
+    .isEqualTo(1.024);
+  assertThat(actual.getP99())//
+    .isEqualTo(4.096);
+  assertThat(actual.getMax())//
+    .isEqualTo(40);
+  assertThat(actual.getMean())//
+    .isEqualTo((98 * 0.6 + 3 + 40) / 100, offset(0.000001));
+ }
+
+ @Test
+ public void testThatResetHistogramIsZero() {
+  this.sut.record(MILLISECONDS.toNanos(3));
+
+  this.sut.reset();
+
+  LatencyStats actual = this.sut.toLatencyStats();
+  assertThat(actual.getCount())//
+    .isEqualTo(0);
+  assertThat(actual.getMax())//
+    .isEqualTo(0);
+  assertThat(actual.getP99())//
+    .isEqualTo(0);
+ }
+}
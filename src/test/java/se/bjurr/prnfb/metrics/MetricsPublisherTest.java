@@ -0,0 +1,100 @@
+package se.bjurr.prnfb.metrics;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static javax.management.MBeanServerFactory.newMBeanServer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.metrics.MetricsPublisher.OBJECT_NAME;
+import static se.bjurr.prnfb.metrics.PrnfbMetrics.MAX_HOSTS;
+import static se.bjurr.prnfb.metrics.PrnfbMetrics.OTHER_HOSTS;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.http.DeliveryEngine;
+import se.bjurr.prnfb.http.DeliveryLimits;
+import se.bjurr.prnfb.http.HostState;
+import se.bjurr.prnfb.listener.DispatchExecutor;
+
+public class MetricsPublisherTest {
+ private final DeliveryEngine deliveryEngine = mock(DeliveryEngine.class);
+ private final DispatchExecutor dispatchExecutor = mock(DispatchExecutor.class);
+ private final MBeanServer mBeanServer = newMBeanServer();
+ private MetricsPublisher sut;
+
+ @After
+ public void after() {
+  PrnfbMetrics.clear();
+ }
+
+ @Before
+ public void before() throws Exception {
+  PrnfbMetrics.clear();
+  this.sut = new MetricsPublisher(this.dispatchExecutor, this.deliveryEngine, this.mBeanServer);
+  this.sut.afterPropertiesSet();
+ }
+
+ @Test
+ public void testThatHostsOverTheLimitAreCountedAsOther() {
+  for (int i = 0; i < MAX_HOSTS; i++) {
+   PrnfbMetrics.httpResponded("host" + i + ":80", 200, MILLISECONDS.toNanos(5));
+  }
+  PrnfbMetrics.httpResponded("late1:80", 200, MILLISECONDS.toNanos(5));
+  PrnfbMetrics.httpFailed("late2:80", MILLISECONDS.toNanos(5));
+  PrnfbMetrics.httpFailed("host0:80", MILLISECONDS.toNanos(5));
+
+  assertThat(this.sut.getHttpLatency())//
+    .hasSize(MAX_HOSTS + 1);
+  assertThat(this.sut.getHttpLatency().get(OTHER_HOSTS).getCount())//
+    .isEqualTo(2L);
+  assertThat(this.sut.getHttpResponses().get(OTHER_HOSTS))//
+    .containsEntry("200", 1L);
+  assertThat(this.sut.getHttpFailures())//
+    .containsEntry(OTHER_HOSTS, 1L)//
+    .containsEntry("host0:80", 1L);
+ }
+
+ @Test
+ public void testThatMetricsArePublishedInJmx() throws Exception {
+  when(this.dispatchExecutor.getQueueDepth())//
+    .thenReturn(3);
+  when(this.deliveryEngine.getHostStates())//
+    .thenReturn(newArrayList(//
+      new HostState("a:80", 1, 2, DeliveryLimits.DEFAULT, 0, null, 0), //
+      new HostState("b:80", 1, 5, DeliveryLimits.DEFAULT, 0, null, 0)));
+  PrnfbMetrics.httpResponded("a:80", 200, MILLISECONDS.toNanos(5));
+  PrnfbMetrics.httpResponded("a:80", 500, MILLISECONDS.toNanos(5));
+  PrnfbMetrics.httpFailed("b:80", MILLISECONDS.toNanos(5));
+  PrnfbMetrics.rendered(MILLISECONDS.toNanos(1));
+
+  ObjectName objectName = new ObjectName(OBJECT_NAME);
+  assertThat(this.mBeanServer.getAttribute(objectName, "DispatchQueueDepth"))//
+    .isEqualTo(3);
+  assertThat(this.mBeanServer.getAttribute(objectName, "DeliveryQueueDepth"))//
+    .isEqualTo(7);
+  assertThat(((TabularData) this.mBeanServer.getAttribute(objectName, "HttpResponses")).size())//
+    .isEqualTo(1);
+  assertThat(((TabularData) this.mBeanServer.getAttribute(objectName, "HttpLatency")).size())//
+    .isEqualTo(2);
+  assertThat(((CompositeData) this.mBeanServer.getAttribute(objectName, "RenderTime")).get("count"))//
+    .isEqualTo(1L);
+  assertThat(this.sut.getHttpResponses().get("a:80"))//
+    .containsEntry("200", 1L)//
+    .containsEntry("500", 1L);
+  assertThat(this.sut.getHttpFailures())//
+    .containsEntry("b:80", 1L);
+
+  this.sut.destroy();
+
+  assertThat(this.mBeanServer.isRegistered(objectName))//
+    .isFalse();
+ }
+}
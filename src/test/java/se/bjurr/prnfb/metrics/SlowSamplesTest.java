@@ -0,0 +1,125 @@
+package se.bjurr.prnfb.metrics;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.OPENED;
+import static se.bjurr.prnfb.metrics.SlowSample.PHASE.INVOCATION;
+import static se.bjurr.prnfb.metrics.SlowSample.PHASE.RENDER;
+import static se.bjurr.prnfb.metrics.SlowSamples.SAMPLES_PER_NOTIFICATION;
+import static se.bjurr.prnfb.metrics.SlowThresholds.DEFAULT_SLOW_INVOCATION_MILLIS;
+import static se.bjurr.prnfb.metrics.SlowThresholds.slowThresholds;
+import static se.bjurr.prnfb.service.PrnfbVariable.INJECTION_URL_VALUE;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_ID;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.service.PrnfbVariable;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.ValidationException;
+
+public class SlowSamplesTest {
+ private PrnfbNotification notification;
+ private SlowSamples sut;
+ private final SlowThresholds thresholds = new SlowThresholds(100, 10);
+
+ @Before
+ public void before() throws ValidationException {
+  this.notification = prnfbNotificationBuilder()//
+    .withName("slow")//
+    .withUrl("http://jenkins.com/")//
+    .withTrigger(OPENED)//
+    .build();
+  this.sut = new SlowSamples();
+ }
+
+ @Test
+ public void testThatFastNotificationsAreNotSampled() {
+  this.sut.rendered(this.notification, this.thresholds, MILLISECONDS.toNanos(9),
+    new EnumMap<PrnfbVariable, Long>(PrnfbVariable.class));
+  this.sut.invoked(this.notification, this.thresholds, urlInvoker(10, 80, 9));
+
+  assertThat(this.sut.getSamples())//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatInvocationIsBrokenDownIntoPhases() {
+  this.sut.invoked(this.notification, this.thresholds, urlInvoker(10, 80, 10));
+
+  SlowSample sample = this.sut.getSamples().get(0);
+  assertThat(sample.getPhase())//
+    .isEqualTo(INVOCATION);
+  assertThat(sample.getMillis())//
+    .isEqualTo(100d);
+  assertThat(sample.getThresholdMillis())//
+    .isEqualTo(100);
+  assertThat(sample.getBreakdown())//
+    .containsExactly(entry("connect", 10d), entry("responseWait", 80d), entry("transfer", 10d));
+ }
+
+ @Test
+ public void testThatOnlyLatestSamplesOfANotificationAreKept() {
+  for (int i = 0; i < SAMPLES_PER_NOTIFICATION + 1; i++) {
+   this.sut.invoked(this.notification, this.thresholds, urlInvoker(0, 100 + i, 0));
+  }
+
+  List<SlowSample> samples = this.sut.getSamples();
+  assertThat(samples)//
+    .hasSize(SAMPLES_PER_NOTIFICATION);
+  assertThat(samples.get(0).getNotificationName())//
+    .isEqualTo("slow");
+ }
+
+ @Test
+ public void testThatRenderIsBrokenDownIntoVariablesSlowestFirst() {
+  Map<PrnfbVariable, Long> resolveNanos = new EnumMap<>(PrnfbVariable.class);
+  resolveNanos.put(PULL_REQUEST_ID, MILLISECONDS.toNanos(1));
+  resolveNanos.put(INJECTION_URL_VALUE, MILLISECONDS.toNanos(20));
+
+  this.sut.rendered(this.notification, this.thresholds, MILLISECONDS.toNanos(21), resolveNanos);
+
+  SlowSample sample = this.sut.getSamples().get(0);
+  assertThat(sample.getPhase())//
+    .isEqualTo(RENDER);
+  assertThat(sample.getBreakdown())//
+    .containsExactly(entry(INJECTION_URL_VALUE.name(), 20d), entry(PULL_REQUEST_ID.name(), 1d));
+ }
+
+ @Test
+ public void testThatThresholdsFallBackToSettingsAndDefaults() throws ValidationException {
+  PrnfbNotification withRender = prnfbNotificationBuilder(this.notification)//
+    .withSlowRenderMillis(50)//
+    .build();
+
+  SlowThresholds actual = slowThresholds(withRender, prnfbSettingsDataBuilder()//
+    .setSlowRenderMillis(500)//
+    .build());
+
+  assertThat(actual.getSlowRenderMillis())//
+    .isEqualTo(50);
+  assertThat(actual.getSlowInvocationMillis())//
+    .isEqualTo(DEFAULT_SLOW_INVOCATION_MILLIS);
+ }
+
+ private UrlInvoker urlInvoker(long connectMillis, long responseWaitMillis, long transferMillis) {
+  UrlInvoker urlInvoker = mock(UrlInvoker.class);
+  when(urlInvoker.getConnectNanos())//
+    .thenReturn(MILLISECONDS.toNanos(connectMillis));
+  when(urlInvoker.getResponseWaitNanos())//
+    .thenReturn(MILLISECONDS.toNanos(responseWaitMillis));
+  when(urlInvoker.getTransferNanos())//
+    .thenReturn(MILLISECONDS.toNanos(transferMillis));
+  return urlInvoker;
+ }
+}
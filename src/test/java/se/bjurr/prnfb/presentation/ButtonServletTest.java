@@ -2,8 +2,12 @@ package se.bjurr.prnfb.presentation;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static javax.ws.rs.core.Response.notModified;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -14,6 +18,8 @@ import static se.bjurr.prnfb.transformer.ButtonTransformer.toPrnfbButton;
 import java.util.List;
 import java.util.UUID;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.junit.Before;
@@ -36,6 +42,8 @@ public class ButtonServletTest {
  @Mock
  private ButtonsService buttonsService;
  @Mock
+ private Request request;
+ @Mock
  private SettingsService settingsService;
  private ButtonServlet sut;
  @Mock
@@ -99,9 +107,11 @@ public class ButtonServletTest {
   Long pullRequestId = 3L;
   when(this.buttonsService.getButtons(repositoryId, pullRequestId))//
     .thenReturn(newArrayList(this.button1, this.button2));
+  when(this.buttonsService.getButtonsETag(repositoryId, pullRequestId))//
+    .thenReturn("abc");
   allowAll();
 
-  Response actual = this.sut.get(repositoryId, pullRequestId);
+  Response actual = this.sut.get(repositoryId, pullRequestId, this.request);
 
   @SuppressWarnings("unchecked")
   Iterable<ButtonDTO> actualList = (Iterable<ButtonDTO>) actual.getEntity();
@@ -167,6 +177,23 @@ public class ButtonServletTest {
     .addOrUpdateButton(prnfbButton);
  }
 
+ @Test
+ public void testThatButtonsAreNotEvaluatedForAPrWhenNotModified() throws Exception {
+  Integer repositoryId = 2;
+  Long pullRequestId = 3L;
+  when(this.buttonsService.getButtonsETag(repositoryId, pullRequestId))//
+    .thenReturn("abc");
+  when(this.request.evaluatePreconditions(any(EntityTag.class)))//
+    .thenReturn(notModified());
+
+  Response actual = this.sut.get(repositoryId, pullRequestId, this.request);
+
+  assertThat(actual.getStatus())//
+    .isEqualTo(NOT_MODIFIED.getStatusCode());
+  verify(this.buttonsService, never())//
+    .getButtons(repositoryId, pullRequestId);
+ }
+
  private void allowAll() {
   when(this.userCheckService.filterAllowed(anyListOf(PrnfbButton.class)))//
     .thenAnswer(new Answer<List<PrnfbButton>>() {
@@ -8,6 +8,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static se.bjurr.prnfb.http.DeliveryLimits.MAX_CONCURRENT;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.MERGED;
 import static se.bjurr.prnfb.test.Podam.populatedInstanceOf;
 import static se.bjurr.prnfb.transformer.NotificationTransformer.toPrnfbNotification;
@@ -21,6 +22,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import se.bjurr.prnfb.presentation.dto.NotificationDTO;
+import se.bjurr.prnfb.service.DeliveryLog;
 import se.bjurr.prnfb.service.SettingsService;
 import se.bjurr.prnfb.service.UserCheckService;
 import se.bjurr.prnfb.settings.PrnfbNotification;
@@ -28,6 +30,8 @@ import se.bjurr.prnfb.settings.PrnfbNotification;
 import com.google.common.collect.Lists;
 
 public class NotificationServletTest {
+ @Mock
+ private DeliveryLog deliveryLog;
  private PrnfbNotification notification1;
  private PrnfbNotification notification2;
  private NotificationDTO notificationDto1;
@@ -45,15 +49,17 @@ public class NotificationServletTest {
     .thenReturn(true);
   when(this.userCheckService.isAdminAllowed(anyString(), anyString()))//
     .thenReturn(true);
-  this.sut = new NotificationServlet(this.settingsService, this.userCheckService);
+  this.sut = new NotificationServlet(this.settingsService, this.userCheckService, this.deliveryLog);
   this.notificationDto1 = populatedInstanceOf(NotificationDTO.class);
   this.notificationDto1.setUrl("http://hej.com/");
   this.notificationDto1.setTriggerIgnoreStateList(newArrayList(DECLINED.name()));
   this.notificationDto1.setTriggers(newArrayList(MERGED.name()));
+  this.notificationDto1.setMaxConcurrent(MAX_CONCURRENT);
   this.notificationDto2 = populatedInstanceOf(NotificationDTO.class);
   this.notificationDto2.setUrl("http://hej.com/");
   this.notificationDto2.setTriggerIgnoreStateList(Lists.newArrayList(DECLINED.name()));
   this.notificationDto2.setTriggers(newArrayList(MERGED.name()));
+  this.notificationDto2.setMaxConcurrent(MAX_CONCURRENT);
   this.notification1 = toPrnfbNotification(this.notificationDto1);
   this.notification2 = toPrnfbNotification(this.notificationDto2);
  }
@@ -64,6 +70,7 @@ public class NotificationServletTest {
   incomingDto.setUrl("http://hej.com/");
   incomingDto.setTriggerIgnoreStateList(newArrayList(DECLINED.name()));
   incomingDto.setTriggers(newArrayList(MERGED.name()));
+  incomingDto.setMaxConcurrent(MAX_CONCURRENT);
   PrnfbNotification expectedSavedSettings = toPrnfbNotification(incomingDto);
   when(this.settingsService.addOrUpdateNotification(expectedSavedSettings))//
     .thenReturn(expectedSavedSettings);
@@ -83,6 +90,8 @@ public class NotificationServletTest {
 
   verify(this.settingsService)//
     .deleteNotification(this.notification1.getUuid());
+  verify(this.deliveryLog)//
+    .remove(this.notification1.getUuid());
  }
 
  @SuppressWarnings("unchecked")
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static se.bjurr.prnfb.http.DeliveryLimits.MAX_CONCURRENT;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.BUTTON_TRIGGER;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.MERGED;
 import static se.bjurr.prnfb.test.Podam.populatedInstanceOf;
@@ -97,7 +98,7 @@ public class ButtonsServiceTest {
     this.settingsService, this.userCheckService);
   when(
     this.prnfbRendererFactory.create(any(PullRequest.class), any(PrnfbPullRequestAction.class),
-      any(PrnfbNotification.class), anyMap()))//
+      any(PrnfbNotification.class), anyMap(), any(PrnfbVariableCache.class)))//
     .thenReturn(this.renderer);
 
   this.buttonDto1 = populatedInstanceOf(ButtonDTO.class);
@@ -122,12 +123,14 @@ public class ButtonsServiceTest {
   this.notificationDto1.setUrl("http://hej.com");
   this.notificationDto1.setTriggerIgnoreStateList(Lists.newArrayList(DECLINED.name()));
   this.notificationDto1.setTriggers(newArrayList(MERGED.name()));
+  this.notificationDto1.setMaxConcurrent(MAX_CONCURRENT);
   this.notification1 = toPrnfbNotification(this.notificationDto1);
 
   this.notificationDto2 = populatedInstanceOf(NotificationDTO.class);
   this.notificationDto2.setUrl("http://hej.com");
   this.notificationDto2.setTriggerIgnoreStateList(Lists.newArrayList(DECLINED.name()));
   this.notificationDto2.setTriggers(newArrayList(MERGED.name()));
+  this.notificationDto2.setMaxConcurrent(MAX_CONCURRENT);
   this.notification2 = toPrnfbNotification(this.notificationDto2);
 
   this.notifications = newArrayList(this.notification1, this.notification2);
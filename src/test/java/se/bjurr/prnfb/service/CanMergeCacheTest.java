@@ -0,0 +1,82 @@
+package se.bjurr.prnfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestMergeability;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.pull.PullRequestService;
+import com.atlassian.bitbucket.repository.Repository;
+
+public class CanMergeCacheTest {
+ @Mock
+ private PullRequestRef fromRef;
+ @Mock
+ private PullRequestMergeability mergeability;
+ @Mock
+ private PullRequest pullRequest;
+ @Mock
+ private PullRequestService pullRequestService;
+ private CanMergeCache sut;
+ @Mock
+ private PullRequestRef toRef;
+
+ @Before
+ public void before() {
+  initMocks(this);
+  Repository repository = mock(Repository.class);
+  when(repository.getId())//
+    .thenReturn(1);
+  when(this.pullRequest.getId())//
+    .thenReturn(2L);
+  when(this.pullRequest.getFromRef())//
+    .thenReturn(this.fromRef);
+  when(this.pullRequest.getToRef())//
+    .thenReturn(this.toRef);
+  when(this.toRef.getRepository())//
+    .thenReturn(repository);
+  when(this.fromRef.getLatestCommit())//
+    .thenReturn("from1");
+  when(this.toRef.getLatestCommit())//
+    .thenReturn("to1");
+  when(this.pullRequestService.canMerge(1, 2L))//
+    .thenReturn(this.mergeability);
+  when(this.mergeability.isConflicted())//
+    .thenReturn(true);
+  this.sut = new CanMergeCache(this.pullRequestService);
+ }
+
+ @Test
+ public void testThatMergeIsCheckedAgainWhenRefIsUpdated() {
+  this.sut.isConflicted(this.pullRequest);
+  when(this.fromRef.getLatestCommit())//
+    .thenReturn("from2");
+  when(this.mergeability.isConflicted())//
+    .thenReturn(false);
+
+  assertThat(this.sut.isConflicted(this.pullRequest))//
+    .isFalse();
+  verify(this.pullRequestService, times(2))//
+    .canMerge(1, 2L);
+ }
+
+ @Test
+ public void testThatMergeIsCheckedOnceForSameRefs() {
+  assertThat(this.sut.isConflicted(this.pullRequest))//
+    .isTrue();
+  assertThat(this.sut.isConflicted(this.pullRequest))//
+    .isTrue();
+
+  verify(this.pullRequestService, times(1))//
+    .canMerge(1, 2L);
+ }
+}
@@ -0,0 +1,47 @@
+package se.bjurr.prnfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.service.CloneUrlCache.getCloneUrl;
+import static se.bjurr.prnfb.service.RepoProtocol.http;
+import static se.bjurr.prnfb.service.RepoProtocol.ssh;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CloneUrlCacheTest {
+ private final AtomicInteger lookups = new AtomicInteger();
+ private final Callable<String> loader = new Callable<String>() {
+  @Override
+  public String call() {
+   return "http://bitbucket/scm/p/r" + CloneUrlCacheTest.this.lookups.incrementAndGet() + ".git";
+  }
+ };
+
+ @After
+ public void after() {
+  CloneUrlCache.clear();
+ }
+
+ @Test
+ public void testThatCloneUrlIsLookedUpAgainWhenRepositoryIsModified() {
+  getCloneUrl(1, http, this.loader);
+  CloneUrlCache.invalidate(1);
+
+  assertThat(getCloneUrl(1, http, this.loader))//
+    .isEqualTo("http://bitbucket/scm/p/r2.git");
+ }
+
+ @Test
+ public void testThatCloneUrlIsLookedUpOncePerRepositoryAndProtocol() {
+  getCloneUrl(1, http, this.loader);
+  getCloneUrl(1, http, this.loader);
+  getCloneUrl(1, ssh, this.loader);
+  getCloneUrl(2, http, this.loader);
+
+  assertThat(this.lookups.get())//
+    .isEqualTo(3);
+ }
+}
@@ -0,0 +1,106 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Optional.absent;
+import static com.google.common.base.Optional.of;
+import static com.google.common.base.Strings.repeat;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.OPENED;
+import static se.bjurr.prnfb.service.DeliveryLog.ENTRIES_PER_NOTIFICATION;
+import static se.bjurr.prnfb.service.DeliveryLog.MAX_RESPONSE_LENGTH;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.http.UrlInvoker;
+
+public class DeliveryLogTest {
+ private final UUID notificationUuid = randomUUID();
+ private DeliveryLog sut;
+ private UrlInvoker urlInvoker;
+
+ @Before
+ public void before() {
+  this.sut = new DeliveryLog();
+  this.urlInvoker = mock(UrlInvoker.class);
+  when(this.urlInvoker.getResponseStatus())//
+    .thenReturn(of(200));
+  when(this.urlInvoker.getResponseString())//
+    .thenReturn("OK");
+ }
+
+ @Test
+ public void testThatDeliveriesAreKeptPerNotification() {
+  this.sut.delivered(this.notificationUuid, OPENED, 1L, this.urlInvoker, 10L);
+
+  assertThat(this.sut.getEntries(randomUUID()))//
+    .isEmpty();
+  List<DeliveryLogEntry> entries = this.sut.getEntries(this.notificationUuid);
+  assertThat(entries)//
+    .hasSize(1);
+  assertThat(entries.get(0).getAction())//
+    .isEqualTo(OPENED);
+  assertThat(entries.get(0).getLatencyMillis())//
+    .isEqualTo(10L);
+  assertThat(entries.get(0).getResponse())//
+    .isEqualTo("OK");
+  assertThat(entries.get(0).getStatus().get())//
+    .isEqualTo(200);
+ }
+
+ @Test
+ public void testThatFailureIsLoggedWithError() {
+  when(this.urlInvoker.getResponseStatus())//
+    .thenReturn(absent());
+
+  this.sut.failed(this.notificationUuid, OPENED, 1L, this.urlInvoker, new IOException("Connection refused"), 10L);
+
+  DeliveryLogEntry entry = this.sut.getEntries(this.notificationUuid).get(0);
+  assertThat(entry.getStatus().isPresent())//
+    .isFalse();
+  assertThat(entry.getResponse())//
+    .isEqualTo("java.io.IOException: Connection refused");
+ }
+
+ @Test
+ public void testThatOldestDeliveriesAreOverwritten() {
+  for (long pullRequestId = 1; pullRequestId <= ENTRIES_PER_NOTIFICATION + 5; pullRequestId++) {
+   this.sut.delivered(this.notificationUuid, OPENED, pullRequestId, this.urlInvoker, 10L);
+  }
+
+  List<DeliveryLogEntry> entries = this.sut.getEntries(this.notificationUuid);
+  assertThat(entries)//
+    .hasSize(ENTRIES_PER_NOTIFICATION);
+  assertThat(entries.get(0).getPullRequestId())//
+    .isEqualTo(ENTRIES_PER_NOTIFICATION + 5);
+  assertThat(entries.get(ENTRIES_PER_NOTIFICATION - 1).getPullRequestId())//
+    .isEqualTo(6L);
+ }
+
+ @Test
+ public void testThatRemovedNotificationHasNoDeliveries() {
+  this.sut.delivered(this.notificationUuid, OPENED, 1L, this.urlInvoker, 10L);
+
+  this.sut.remove(this.notificationUuid);
+
+  assertThat(this.sut.getEntries(this.notificationUuid))//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatResponseIsTruncated() {
+  when(this.urlInvoker.getResponseString())//
+    .thenReturn(repeat("a", MAX_RESPONSE_LENGTH + 1));
+
+  this.sut.delivered(this.notificationUuid, OPENED, 1L, this.urlInvoker, 10L);
+
+  assertThat(this.sut.getEntries(this.notificationUuid).get(0).getResponse())//
+    .isEqualTo(repeat("a", MAX_RESPONSE_LENGTH) + "...");
+ }
+}
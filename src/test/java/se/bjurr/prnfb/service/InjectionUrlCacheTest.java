@@ -0,0 +1,80 @@
+package se.bjurr.prnfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.service.InjectionUrlCache.getInjectionUrlValue;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbNotificationBuilder;
+import se.bjurr.prnfb.settings.ValidationException;
+
+public class InjectionUrlCacheTest {
+ private final AtomicInteger fetches = new AtomicInteger();
+ private final Callable<String> fetcher = new Callable<String>() {
+  @Override
+  public String call() {
+   return "value" + InjectionUrlCacheTest.this.fetches.incrementAndGet();
+  }
+ };
+
+ @After
+ public void after() {
+  InjectionUrlCache.clear();
+ }
+
+ @Test
+ public void testThatValueIsFetchedEveryTimeWhenNotCached() throws ValidationException {
+  PrnfbNotification notification = notification()//
+    .build();
+
+  assertThat(getInjectionUrlValue(notification, this.fetcher))//
+    .isEqualTo("value1");
+  assertThat(getInjectionUrlValue(notification, this.fetcher))//
+    .isEqualTo("value2");
+ }
+
+ @Test
+ public void testThatValueIsFetchedForEachNotification() throws ValidationException {
+  PrnfbNotification notification1 = notification()//
+    .withInjectionUrlCacheSeconds(60)//
+    .build();
+  PrnfbNotification notification2 = notification()//
+    .withInjectionUrlCacheSeconds(60)//
+    .build();
+
+  assertThat(getInjectionUrlValue(notification1, this.fetcher))//
+    .isEqualTo("value1");
+  assertThat(getInjectionUrlValue(notification2, this.fetcher))//
+    .isEqualTo("value2");
+ }
+
+ @Test
+ public void testThatValueIsReusedWhenCached() throws ValidationException {
+  PrnfbNotification notification = notification()//
+    .withInjectionUrlCacheSeconds(60)//
+    .build();
+
+  assertThat(getInjectionUrlValue(notification, this.fetcher))//
+    .isEqualTo("value1");
+  assertThat(getInjectionUrlValue(notification, this.fetcher))//
+    .isEqualTo("value1");
+  assertThat(InjectionUrlCache.getMisses())//
+    .isEqualTo(1);
+  assertThat(InjectionUrlCache.getHits())//
+    .isEqualTo(1);
+ }
+
+ private PrnfbNotificationBuilder notification() {
+  return prnfbNotificationBuilder()//
+    .withUrl("http://jenkins.com/")//
+    .withInjectionUrl("http://jenkins.com/crumb")//
+    .withTrigger(PrnfbPullRequestAction.OPENED);
+ }
+}
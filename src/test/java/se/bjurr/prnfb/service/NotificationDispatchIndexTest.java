@@ -0,0 +1,82 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.MERGED;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_FROM;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.RESCOPED_TO;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.ValidationException;
+
+public class NotificationDispatchIndexTest {
+ private PrnfbNotification globalApproved;
+ private PrnfbNotification globalRescoped;
+ private PrnfbNotification projectMerged;
+ private PrnfbNotification repoApprovedAndMerged;
+ private PrnfbNotification slugOnlyMerged;
+ private NotificationDispatchIndex sut;
+
+ @Before
+ public void before() throws ValidationException {
+  this.repoApprovedAndMerged = prnfbNotificationBuilder()//
+    .withUrl("http://repo.com/")//
+    .withProjectKey("PK")//
+    .withRepositorySlug("repo")//
+    .withTrigger(APPROVED)//
+    .withTrigger(MERGED)//
+    .build();
+  this.globalApproved = prnfbNotificationBuilder()//
+    .withUrl("http://global.com/")//
+    .withTrigger(APPROVED)//
+    .build();
+  this.projectMerged = prnfbNotificationBuilder()//
+    .withUrl("http://project.com/")//
+    .withProjectKey("PK")//
+    .withTrigger(MERGED)//
+    .build();
+  this.slugOnlyMerged = prnfbNotificationBuilder()//
+    .withUrl("http://slug.com/")//
+    .withRepositorySlug("repo")//
+    .withTrigger(MERGED)//
+    .build();
+  this.globalRescoped = prnfbNotificationBuilder()//
+    .withUrl("http://rescoped.com/")//
+    .withTrigger(RESCOPED_FROM)//
+    .withTrigger(RESCOPED_TO)//
+    .build();
+  this.sut = new NotificationDispatchIndex(newArrayList(this.repoApprovedAndMerged, this.globalApproved,
+    this.projectMerged, this.slugOnlyMerged, this.globalRescoped));
+ }
+
+ @Test
+ public void testThatGlobalAndMatchingScopesAreFoundInConfiguredOrder() {
+  assertThat(this.sut.getCandidates(newArrayList(MERGED), "PK", "repo"))//
+    .containsExactly(this.repoApprovedAndMerged, this.projectMerged, this.slugOnlyMerged);
+  assertThat(this.sut.getCandidates(newArrayList(APPROVED), "PK", "repo"))//
+    .containsExactly(this.repoApprovedAndMerged, this.globalApproved);
+ }
+
+ @Test
+ public void testThatNotificationIsOnlyFoundOnceWhenSeveralActionsMatch() {
+  assertThat(this.sut.getCandidates(newArrayList(RESCOPED_FROM, RESCOPED_TO), "PK", "repo"))//
+    .containsExactly(this.globalRescoped);
+  assertThat(this.sut.getCandidates(newArrayList(APPROVED, MERGED), "PK", "repo"))//
+    .containsExactly(this.repoApprovedAndMerged, this.globalApproved, this.projectMerged, this.slugOnlyMerged);
+ }
+
+ @Test
+ public void testThatOtherScopesAreNotFound() {
+  assertThat(this.sut.getCandidates(newArrayList(MERGED), "OTHER", "other"))//
+    .isEmpty();
+  assertThat(this.sut.getCandidates(newArrayList(MERGED), "OTHER", "repo"))//
+    .containsExactly(this.slugOnlyMerged);
+  assertThat(this.sut.getCandidates(newArrayList(APPROVED), "OTHER", "other"))//
+    .containsExactly(this.globalApproved);
+ }
+}
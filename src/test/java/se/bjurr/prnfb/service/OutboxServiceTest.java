@@ -0,0 +1,290 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Optional.absent;
+import static com.google.common.base.Optional.of;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.http.DeliveryEngine.deliveryEngine;
+import static se.bjurr.prnfb.http.UrlInvoker.HTTP_METHOD.POST;
+import static se.bjurr.prnfb.http.UrlInvoker.urlInvoker;
+import static se.bjurr.prnfb.service.OutboxService.MAX_ATTEMPTS;
+import static se.bjurr.prnfb.service.OutboxService.MAX_DEAD_LETTERS;
+import static se.bjurr.prnfb.service.OutboxService.MAX_ENTRIES;
+import static se.bjurr.prnfb.service.OutboxService.getBackoffMillis;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.bjurr.prnfb.http.Invoker;
+import se.bjurr.prnfb.http.UrlInvoker;
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.settings.PrnfbHeader;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.ValidationException;
+
+public class OutboxServiceTest {
+ private final DeliveryLog deliveryLog = new DeliveryLog();
+ private File file;
+ private boolean fail;
+ private UrlInvoker invoked;
+ private PrnfbNotification notification;
+ private SettingsService settingsService;
+ private OutboxService sut;
+
+ @After
+ public void after() {
+  OutboxService.setInvoker(null);
+  this.file.delete();
+ }
+
+ @Before
+ public void before() throws IOException, ValidationException {
+  this.file = File.createTempFile("outbox", ".jsonl");
+  this.file.delete();
+  this.notification = prnfbNotificationBuilder()//
+    .withUrl("http://jenkins.com/")//
+    .withTrigger(PrnfbPullRequestAction.OPENED)//
+    .withHeader("X-Auth-Token", "token1")//
+    .withHeader("X-Custom", "${PULL_REQUEST_ID}")//
+    .build();
+  this.settingsService = mock(SettingsService.class);
+  when(this.settingsService.findNotification(this.notification.getUuid()))//
+    .thenReturn(of(this.notification));
+  when(this.settingsService.getPrnfbSettingsData())//
+    .thenReturn(prnfbSettingsDataBuilder().build());
+  OutboxService.setInvoker(new Invoker() {
+   @Override
+   public void invoke(UrlInvoker urlInvoker) {
+    OutboxServiceTest.this.invoked = urlInvoker;
+    if (OutboxServiceTest.this.fail) {
+     throw new RuntimeException("Connection refused");
+    }
+   }
+  });
+  this.sut = newOutboxService();
+ }
+
+ @Test
+ public void testThatAuthorizationHeaderIsNotStored() {
+  add();
+
+  assertThat(this.sut.getEntries().get(0).getHeaders())//
+    .extracting("name")//
+    .containsExactly("X-Custom");
+ }
+
+ @Test
+ public void testThatBackoffDoublesWithEachAttempt() {
+  Random random = new Random(1);
+  for (int i = 0; i < 100; i++) {
+   assertThat(getBackoffMillis(1, random))//
+     .isBetween(15000L, 30000L);
+   assertThat(getBackoffMillis(3, random))//
+     .isBetween(60000L, 120000L);
+   assertThat(getBackoffMillis(MAX_ATTEMPTS, random))//
+     .isBetween(1800000L, 3600000L);
+  }
+ }
+
+ @Test
+ public void testThatDeadEntryCanBeReplayed() {
+  this.fail = true;
+  add();
+  for (int i = 0; i < MAX_ATTEMPTS; i++) {
+   this.sut.retryDue(Long.MAX_VALUE);
+  }
+  OutboxEntry dead = this.sut.getEntries().get(0);
+  assertThat(dead.isDead())//
+    .isTrue();
+  assertThat(dead.getAttempts())//
+    .isEqualTo(MAX_ATTEMPTS);
+  assertThat(dead.getLastError().get())//
+    .contains("Connection refused");
+
+  this.fail = false;
+  assertThat(this.sut.replay(dead.getUuid()))//
+    .isTrue();
+  this.sut.retryDue(System.currentTimeMillis());
+
+  assertThat(this.sut.getEntries())//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatEntriesAreKeptAfterRestart() {
+  add();
+  add();
+  this.sut.delete(this.sut.getEntries().get(0).getUuid());
+  this.sut.flush();
+
+  OutboxService restarted = newOutboxService();
+
+  assertThat(restarted.getEntries())//
+    .hasSize(1);
+  OutboxEntry entry = restarted.getEntries().get(0);
+  assertThat(entry.getUuid())//
+    .isEqualTo(this.sut.getEntries().get(0).getUuid());
+  assertThat(entry.getUrl())//
+    .isEqualTo("http://jenkins.com/job");
+  assertThat(entry.getMethod())//
+    .isEqualTo(POST);
+  assertThat(entry.getPostContent().get())//
+    .isEqualTo("content");
+  assertThat(entry.getAttempts())//
+    .isEqualTo(1);
+ }
+
+ @Test
+ public void testThatEntryIsDeadWhenNotificationIsDeleted() {
+  when(this.settingsService.findNotification(any(UUID.class)))//
+    .thenReturn(absent());
+  add();
+
+  this.sut.retryDue(Long.MAX_VALUE);
+
+  assertThat(this.sut.getEntries().get(0).isDead())//
+    .isTrue();
+ }
+
+ @Test
+ public void testThatEntryIsNotRetriedBeforeItIsDue() {
+  add();
+
+  this.sut.retryDue(System.currentTimeMillis());
+
+  assertThat(this.sut.getEntries())//
+    .hasSize(1);
+ }
+
+ @Test
+ public void testThatEntryIsRemovedWhenDelivered() {
+  add();
+
+  this.sut.retryDue(Long.MAX_VALUE);
+  this.sut.flush();
+
+  assertThat(this.sut.getEntries())//
+    .isEmpty();
+  assertThat(newOutboxService().getEntries())//
+    .isEmpty();
+ }
+
+ @Test
+ public void testThatHeadersWithoutVariablesAreTakenFromNotificationWhenRetried() throws ValidationException {
+  add();
+  PrnfbNotification changed = prnfbNotificationBuilder(this.notification)//
+    .setHeaders(newArrayList(new PrnfbHeader("X-Auth-Token", "token2"), new PrnfbHeader("X-Custom",
+      "${PULL_REQUEST_ID}")))//
+    .build();
+  when(this.settingsService.findNotification(this.notification.getUuid()))//
+    .thenReturn(of(changed));
+
+  this.sut.retryDue(Long.MAX_VALUE);
+
+  assertThat(this.invoked.getHeaders())//
+    .contains(new PrnfbHeader("X-Auth-Token", "token2"), new PrnfbHeader("X-Custom", "1"))//
+    .doesNotContain(new PrnfbHeader("X-Auth-Token", "token1"));
+ }
+
+ @Test
+ public void testThatOldestDeadLettersAreEvicted() {
+  this.fail = true;
+  for (int i = 0; i <= MAX_DEAD_LETTERS; i++) {
+   add();
+  }
+  UUID oldest = this.sut.getEntries().get(0).getUuid();
+  for (int i = 0; i < MAX_ATTEMPTS; i++) {
+   this.sut.retryDue(Long.MAX_VALUE);
+  }
+
+  assertThat(this.sut.getEntries())//
+    .hasSize(MAX_DEAD_LETTERS);
+  assertThat(this.sut.getEntry(oldest).isPresent())//
+    .isFalse();
+ }
+
+ @Test
+ public void testThatOldestEntriesAreEvictedWhenFull() {
+  for (int i = 0; i <= MAX_ENTRIES; i++) {
+   add();
+  }
+  this.sut.flush();
+
+  assertThat(this.sut.getEntries())//
+    .hasSize(MAX_ENTRIES);
+  assertThat(newOutboxService().getEntries())//
+    .hasSize(MAX_ENTRIES);
+ }
+
+ @Test
+ public void testThatRecordsAreKeptWhenWriteFails() throws IOException {
+  add();
+  this.sut.flush();
+  // Writing to a directory, that can not be replaced, fails
+  this.file.delete();
+  this.file.mkdir();
+  File blocking = new File(this.file, "blocking");
+  blocking.createNewFile();
+  add();
+  this.sut.flush();
+  blocking.delete();
+  this.file.delete();
+
+  this.sut.flush();
+
+  assertThat(newOutboxService().getEntries())//
+    .hasSize(2);
+ }
+
+ @Test
+ public void testThatRetriesAreLogged() {
+  this.fail = true;
+  add();
+  this.sut.retryDue(Long.MAX_VALUE);
+  this.fail = false;
+  this.sut.retryDue(Long.MAX_VALUE);
+
+  List<DeliveryLogEntry> entries = this.deliveryLog.getEntries(this.notification.getUuid());
+  assertThat(entries)//
+    .hasSize(2);
+  assertThat(entries.get(0).getResponse())//
+    .isNull();
+  assertThat(entries.get(1).getResponse())//
+    .contains("Connection refused");
+  for (DeliveryLogEntry entry : entries) {
+   assertThat(entry.getAction())//
+     .isEqualTo(PrnfbPullRequestAction.OPENED);
+   assertThat(entry.getPullRequestId())//
+     .isEqualTo(42L);
+  }
+ }
+
+ private void add() {
+  this.sut.add(this.notification, PrnfbPullRequestAction.OPENED, 42L, urlInvoker()//
+    .withUrlParam("http://jenkins.com/job")//
+    .withMethod(POST)//
+    .withPostContent(of("content"))//
+    .withHeader("Authorization", "Basic secret")//
+    .withHeader("X-Auth-Token", "token1")//
+    .withHeader("X-Custom", "1"), new RuntimeException("Connection refused"));
+ }
+
+ private OutboxService newOutboxService() {
+  return new OutboxService(this.file, this.settingsService, deliveryEngine(newDirectExecutorService()),
+    this.deliveryLog, mock(ScheduledExecutorService.class));
+ }
+}
@@ -0,0 +1,109 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.net.URLEncoder.encode;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static se.bjurr.prnfb.service.PrnfbTemplate.compile;
+import static se.bjurr.prnfb.service.PrnfbTemplate.prnfbTemplate;
+import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Function;
+
+/**
+ * Rendering of a large JSON post content with {@link PrnfbTemplate}, compared with how {@link PrnfbRenderer} used to
+ * render, one regular expression replace per variable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrnfbRendererBenchmark {
+ @Param({ "10", "100", "1000" })
+ public int fields;
+
+ private String postContent;
+ private Function<PrnfbVariable, String> resolver;
+ private Map<PrnfbVariable, String> values;
+
+ @Benchmark
+ public String compileAndRender() {
+  return compile(this.postContent).render(this.resolver, false);
+ }
+
+ @Benchmark
+ public String regexpReplaceAll() throws UnsupportedEncodingException {
+  String string = this.postContent;
+  string = legacyRenderVariable(string, false, EVERYTHING_URL);
+  for (PrnfbVariable variable : PrnfbVariable.values()) {
+   string = legacyRenderVariable(string, false, variable);
+  }
+  return string;
+ }
+
+ @Benchmark
+ public String render() {
+  return prnfbTemplate(this.postContent).render(this.resolver, false);
+ }
+
+ @Setup
+ public void setup() {
+  this.values = newHashMap();
+  for (PrnfbVariable variable : PrnfbVariable.values()) {
+   this.values.put(variable, "value of " + variable.name().toLowerCase());
+  }
+  this.values.put(EVERYTHING_URL, PrnfbVariable.getEverythingUrlTemplate().replace("${", "\\${"));
+  this.resolver = new Function<PrnfbVariable, String>() {
+   @Override
+   public String apply(PrnfbVariable variable) {
+    return PrnfbRendererBenchmark.this.values.get(variable);
+   }
+  };
+
+  PrnfbVariable[] variables = PrnfbVariable.values();
+  StringBuilder sb = new StringBuilder("{\n");
+  for (int i = 0; i < this.fields; i++) {
+   PrnfbVariable variable = variables[i % variables.length];
+   if (variable == EVERYTHING_URL) {
+    variable = PrnfbVariable.PULL_REQUEST_ID;
+   }
+   sb.append(" \"field").append(i).append("\": {\n") //
+     .append("  \"description\": \"Some text that is not a variable, repeated to make the body larger.\",\n") //
+     .append("  \"value\": \"${").append(variable.name()).append("}\"\n") //
+     .append(" },\n");
+  }
+  sb.append(" \"last\": \"${PULL_REQUEST_URL}\"\n}");
+  this.postContent = sb.toString();
+ }
+
+ /**
+  * Same as {@link PrnfbRenderer} did before templates were compiled.
+  */
+ private String legacyRenderVariable(String string, boolean forUrl, PrnfbVariable variable)
+   throws UnsupportedEncodingException {
+  String regExpStr = "\\$\\{" + variable.name() + "\\}";
+  if (!string.contains(regExpStr.replaceAll("\\\\", ""))) {
+   return string;
+  }
+  String resolved = this.values.get(variable);
+  String replaceWith = forUrl ? encode(resolved, UTF_8.name()) : resolved;
+  return string.replaceAll(regExpStr, replaceWith);
+ }
+}
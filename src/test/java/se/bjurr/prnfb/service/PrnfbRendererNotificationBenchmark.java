@@ -0,0 +1,73 @@
+package se.bjurr.prnfb.service;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.URL;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.populatedNotification;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.propertiesService;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.pullRequest;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.user;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.bjurr.prnfb.http.ClientKeyStore;
+import se.bjurr.prnfb.settings.PrnfbHeader;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.server.ApplicationPropertiesService;
+import com.atlassian.bitbucket.user.ApplicationUser;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Rendering of the URL, post content and headers of a notification with {@link PrnfbRenderer}, as when a pull request
+ * event is notified. Variables are resolved from the pull request, once per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrnfbRendererNotificationBenchmark {
+ private final ClientKeyStore clientKeyStore = null;
+ private PrnfbNotification notification;
+ private ApplicationPropertiesService propertiesService;
+ private PullRequest pullRequest;
+ private ApplicationUser user;
+ private final Map<PrnfbVariable, Supplier<String>> variables = ImmutableMap.of();
+
+ @Benchmark
+ public int render() {
+  PrnfbRenderer renderer = new PrnfbRenderer(this.pullRequest, APPROVED, this.user, null, this.propertiesService,
+    this.notification, this.variables, null, new PrnfbVariableCache());
+  int length = renderer.render(this.notification.getUrl(), TRUE, this.clientKeyStore, FALSE).length();
+  length += renderer.render(this.notification.getPostContent().get(), FALSE, this.clientKeyStore, FALSE).length();
+  for (PrnfbHeader header : this.notification.getHeaders()) {
+   length += renderer.render(header.getValue(), FALSE, this.clientKeyStore, FALSE).length();
+  }
+  return length;
+ }
+
+ @Setup
+ public void setup() throws Exception {
+  this.notification = populatedNotification(URL, APPROVED);
+  this.propertiesService = propertiesService();
+  this.pullRequest = pullRequest();
+  this.user = user(1, "admin");
+ }
+}
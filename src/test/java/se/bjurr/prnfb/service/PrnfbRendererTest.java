@@ -5,15 +5,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.MERGED;
+import static se.bjurr.prnfb.service.PrnfbTemplate.prnfbTemplate;
 import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
 import static se.bjurr.prnfb.service.PrnfbVariable.INJECTION_URL_VALUE;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_ACTION;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_COMMENT_TEXT;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_FROM_HASH;
 import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_MERGE_COMMIT;
 import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -80,11 +83,8 @@ public class PrnfbRendererTest {
  }
 
  @Test
- public void testThatEverythingCanBeRendered() throws UnsupportedEncodingException {
-  String actual = this.sut.getRenderedStringResolved("asd ${" + EVERYTHING_URL.name() + "} asd", this.forUrl, this.sut
-    .regexp(EVERYTHING_URL), EVERYTHING_URL.resolve(this.pullRequest, this.pullRequestAction, this.applicationUser,
-    this.repositoryService, this.propertiesService, this.prnfbNotification, this.variables, this.clientKeyStore,
-    this.shouldAcceptAnyCertificate, this.securityService));
+ public void testThatEverythingCanBeRendered() {
+  String actual = prnfbTemplate("asd ${" + EVERYTHING_URL.name() + "} asd").toString();
 
   assertThat(actual)//
     .isEqualTo(
@@ -124,6 +124,53 @@ public class PrnfbRendererTest {
     .isEqualTo("my  string");
  }
 
+ @Test
+ public void testThatNotificationSpecificVariablesAreNotShared() {
+  PrnfbVariableCache variableCache = new PrnfbVariableCache();
+  PrnfbRenderer approved = new PrnfbRenderer(this.pullRequest, APPROVED, this.applicationUser,
+    this.repositoryService, this.propertiesService, this.prnfbNotification, this.variables, this.securityService,
+    variableCache);
+  PrnfbRenderer merged = new PrnfbRenderer(this.pullRequest, MERGED, this.applicationUser, this.repositoryService,
+    this.propertiesService, this.prnfbNotification, this.variables, this.securityService, variableCache);
+
+  assertThat(approved.render("${" + PULL_REQUEST_ACTION + "}", this.forUrl, this.clientKeyStore,
+    this.shouldAcceptAnyCertificate))//
+    .isEqualTo("APPROVED");
+  assertThat(merged.render("${" + PULL_REQUEST_ACTION + "}", this.forUrl, this.clientKeyStore,
+    this.shouldAcceptAnyCertificate))//
+    .isEqualTo("MERGED");
+ }
+
+ @Test
+ public void testThatRenderTimeIncludesEveryRendering() {
+  this.variables.put(PULL_REQUEST_MERGE_COMMIT, Suppliers.ofInstance("mergeHash"));
+
+  this.sut.render("${" + PULL_REQUEST_MERGE_COMMIT + "}", this.forUrl, this.clientKeyStore,
+    this.shouldAcceptAnyCertificate);
+  this.sut.render("${" + PULL_REQUEST_FROM_HASH + "}", this.forUrl, this.clientKeyStore,
+    this.shouldAcceptAnyCertificate);
+
+  long resolveNanos = 0;
+  for (Long nanos : this.sut.getResolveNanos().values()) {
+   resolveNanos += nanos;
+  }
+  assertThat(this.sut.getResolveNanos())//
+    .containsOnlyKeys(PULL_REQUEST_MERGE_COMMIT, PULL_REQUEST_FROM_HASH);
+  assertThat(this.sut.getRenderNanos())//
+    .isGreaterThanOrEqualTo(resolveNanos);
+ }
+
+ @Test
+ public void testThatResolveTimeIsRecordedPerVariable() {
+  this.variables.put(PULL_REQUEST_MERGE_COMMIT, Suppliers.ofInstance("mergeHash"));
+
+  this.sut.render("${" + PULL_REQUEST_MERGE_COMMIT + "} ${" + PULL_REQUEST_MERGE_COMMIT + "}", this.forUrl,
+    this.clientKeyStore, this.shouldAcceptAnyCertificate);
+
+  assertThat(this.sut.getResolveNanos())//
+    .containsOnlyKeys(PULL_REQUEST_MERGE_COMMIT);
+ }
+
  @Test
  public void testThatStringCanBeRendered() {
   String actual = this.sut.render("my ${" + PULL_REQUEST_FROM_HASH + "} string", this.forUrl, this.clientKeyStore,
@@ -140,4 +187,27 @@ public class PrnfbRendererTest {
   assertThat(actual)//
     .isEqualTo("my the+comment string");
  }
+
+ @Test
+ public void testThatVariablesAreResolvedOnceForRenderersSharingCache() {
+  final AtomicInteger resolved = new AtomicInteger();
+  this.variables.put(PULL_REQUEST_COMMENT_TEXT, new Supplier<String>() {
+   @Override
+   public String get() {
+    return "the comment " + resolved.incrementAndGet();
+   }
+  });
+  PrnfbVariableCache variableCache = new PrnfbVariableCache();
+  for (int i = 0; i < 3; i++) {
+   PrnfbRenderer renderer = new PrnfbRenderer(this.pullRequest, this.pullRequestAction, this.applicationUser,
+     this.repositoryService, this.propertiesService, this.prnfbNotification, this.variables, this.securityService,
+     variableCache);
+   String actual = renderer.render("my ${" + PULL_REQUEST_COMMENT_TEXT + "} string", this.forUrl,
+     this.clientKeyStore, this.shouldAcceptAnyCertificate);
+   assertThat(actual)//
+     .isEqualTo("my the comment 1 string");
+  }
+  assertThat(resolved.get())//
+    .isEqualTo(1);
+ }
 }
@@ -0,0 +1,90 @@
+package se.bjurr.prnfb.service;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.service.PrnfbTemplate.compile;
+import static se.bjurr.prnfb.service.PrnfbTemplate.prnfbTemplate;
+import static se.bjurr.prnfb.service.PrnfbVariable.EVERYTHING_URL;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_COMMENT_TEXT;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_FROM_HASH;
+import static se.bjurr.prnfb.service.PrnfbVariable.PULL_REQUEST_ID;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+
+public class PrnfbTemplateTest {
+ private Map<PrnfbVariable, Integer> resolveCount;
+ private Function<PrnfbVariable, String> resolver;
+ private Map<PrnfbVariable, String> values;
+
+ @Before
+ public void before() {
+  this.values = newHashMap();
+  this.resolveCount = newHashMap();
+  this.resolver = new Function<PrnfbVariable, String>() {
+   @Override
+   public String apply(PrnfbVariable variable) {
+    Integer count = PrnfbTemplateTest.this.resolveCount.get(variable);
+    PrnfbTemplateTest.this.resolveCount.put(variable, count == null ? 1 : count + 1);
+    return PrnfbTemplateTest.this.values.get(variable);
+   }
+  };
+ }
+
+ @Test
+ public void testThatEverythingUrlIsExpandedWhenCompiled() {
+  assertThat(compile("${" + EVERYTHING_URL + "}").getVariables())//
+    .hasSize(PrnfbVariable.values().length - 1)//
+    .doesNotContain(EVERYTHING_URL);
+ }
+
+ @Test
+ public void testThatNullIsRenderedAsEmpty() {
+  assertThat(compile("a${" + PULL_REQUEST_COMMENT_TEXT + "}b").render(this.resolver, false))//
+    .isEqualTo("ab");
+ }
+
+ @Test
+ public void testThatTemplatesAreCached() {
+  assertThat(prnfbTemplate("my ${" + PULL_REQUEST_ID + "} string"))//
+    .isSameAs(prnfbTemplate("my ${" + PULL_REQUEST_ID + "} string"));
+ }
+
+ @Test
+ public void testThatUnknownVariablesAreKept() {
+  this.values.put(PULL_REQUEST_ID, "1");
+  assertThat(compile("${NOT_A_VARIABLE} ${${" + PULL_REQUEST_ID + "}} ${" + PULL_REQUEST_ID).render(this.resolver,
+    false))//
+    .isEqualTo("${NOT_A_VARIABLE} ${1} ${" + PULL_REQUEST_ID);
+ }
+
+ @Test
+ public void testThatValuesAreEncodedForUrl() {
+  this.values.put(PULL_REQUEST_COMMENT_TEXT, "a comment & $1 \\");
+  assertThat(compile("http://host/?c=${" + PULL_REQUEST_COMMENT_TEXT + "}").render(this.resolver, true))//
+    .isEqualTo("http://host/?c=a+comment+%26+%241+%5C");
+ }
+
+ @Test
+ public void testThatValuesAreNotRenderedAgain() {
+  this.values.put(PULL_REQUEST_COMMENT_TEXT, "${" + PULL_REQUEST_FROM_HASH + "} $1");
+  assertThat(compile("${" + PULL_REQUEST_COMMENT_TEXT + "}").render(this.resolver, false))//
+    .isEqualTo("${" + PULL_REQUEST_FROM_HASH + "} $1");
+ }
+
+ @Test
+ public void testThatVariablesAreResolvedOnce() {
+  this.values.put(PULL_REQUEST_FROM_HASH, "abc");
+  String actual = compile("${" + PULL_REQUEST_FROM_HASH + "}/${" + PULL_REQUEST_FROM_HASH + "}").render(
+    this.resolver, false);
+
+  assertThat(actual)//
+    .isEqualTo("abc/abc");
+  assertThat(this.resolveCount.get(PULL_REQUEST_FROM_HASH))//
+    .isEqualTo(1);
+ }
+}
@@ -0,0 +1,91 @@
+package se.bjurr.prnfb.service;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.settingsService;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.PrnfbSettingsData;
+import se.bjurr.prnfb.test.BenchmarkFixtures.ConcurrentPluginSettings;
+
+/**
+ * Read throughput of {@link SettingsService} with one thread, with all cores and while another thread is writing.
+ * Reads should scale with the number of threads since they never wait for a lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SettingsServiceBenchmark {
+ private static final int NOTIFICATIONS = 100;
+
+ private PrnfbSettingsData settingsData1;
+ private PrnfbSettingsData settingsData2;
+ private boolean settingsToggle;
+ private SettingsService sut;
+
+ @Benchmark
+ @Group("readWhileWriting")
+ @GroupThreads(3)
+ public List<PrnfbNotification> readWhileWriting() {
+  return this.sut.getNotifications();
+ }
+
+ @Benchmark
+ @Threads(Threads.MAX)
+ public List<PrnfbNotification> readWithAllCores() {
+  return this.sut.getNotifications();
+ }
+
+ @Benchmark
+ @Threads(1)
+ public List<PrnfbNotification> readWithOneThread() {
+  return this.sut.getNotifications();
+ }
+
+ @Setup
+ public void setup() throws Exception {
+  this.sut = settingsService(new ConcurrentPluginSettings());
+
+  for (int i = 0; i < NOTIFICATIONS; i++) {
+   this.sut.addOrUpdateNotification(prnfbNotificationBuilder()//
+     .withUrl("http://jenkins.example.com/job/job" + i + "/buildWithParameters?FROM=${PULL_REQUEST_FROM_HASH}")//
+     .withTrigger(APPROVED)//
+     .build());
+  }
+  this.settingsData1 = prnfbSettingsDataBuilder()//
+    .setShouldAcceptAnyCertificate(true)//
+    .build();
+  this.settingsData2 = prnfbSettingsDataBuilder()//
+    .setShouldAcceptAnyCertificate(false)//
+    .build();
+ }
+
+ @Benchmark
+ @Group("readWhileWriting")
+ @GroupThreads(1)
+ public void writeWhileReading() {
+  this.settingsToggle = !this.settingsToggle;
+  this.sut.setPrnfbSettingsData(this.settingsToggle ? this.settingsData1 : this.settingsData2);
+ }
+}
@@ -0,0 +1,84 @@
+package se.bjurr.prnfb.service;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.service.SettingsService.INDEX_KEY;
+import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
+import static se.bjurr.prnfb.settings.PrnfbSettingsDataBuilder.prnfbSettingsDataBuilder;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.populatedNotifications;
+import static se.bjurr.prnfb.test.BenchmarkFixtures.settingsService;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.test.BenchmarkFixtures.ConcurrentPluginSettings;
+
+/**
+ * Gson round trips of the settings in {@link SettingsService}. Parsing settings stored by another node in the cluster,
+ * where only the index has changed, and storing an updated notification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SettingsServiceRoundTripBenchmark {
+ @Param({ "10", "100", "1000" })
+ public int notifications;
+
+ private final ConcurrentPluginSettings pluginSettings = new ConcurrentPluginSettings();
+ private Object storedSettings1;
+ private Object storedSettings2;
+ private boolean storedToggle;
+ private SettingsService sut;
+ private PrnfbNotification updated1;
+ private PrnfbNotification updated2;
+ private boolean updatedToggle;
+
+ /**
+  * The stored value alternates between two versions, so that every read finds settings it has not parsed.
+  */
+ @Benchmark
+ public List<PrnfbNotification> parse() {
+  this.storedToggle = !this.storedToggle;
+  this.pluginSettings.put(INDEX_KEY, this.storedToggle ? this.storedSettings1 : this.storedSettings2);
+  return this.sut.getNotifications();
+ }
+
+ @Setup
+ public void setup() throws Exception {
+  this.sut = settingsService(this.pluginSettings);
+  for (PrnfbNotification notification : populatedNotifications(this.notifications, APPROVED)) {
+   this.sut.addOrUpdateNotification(notification);
+  }
+  this.updated1 = prnfbNotificationBuilder(this.sut.getNotifications().get(0)).build();
+  this.updated2 = prnfbNotificationBuilder(this.updated1).build();
+  this.storedSettings1 = this.pluginSettings.get(INDEX_KEY);
+  this.sut.setPrnfbSettingsData(prnfbSettingsDataBuilder(this.sut.getPrnfbSettingsData())//
+    .setShouldAcceptAnyCertificate(true)//
+    .build());
+  this.storedSettings2 = this.pluginSettings.get(INDEX_KEY);
+ }
+
+ /**
+  * Alternates between two instances, as the admin pages would send, so that the notification is written every time.
+  */
+ @Benchmark
+ public PrnfbNotification store() throws Exception {
+  this.updatedToggle = !this.updatedToggle;
+  return this.sut.addOrUpdateNotification(this.updatedToggle ? this.updated1 : this.updated2);
+ }
+}
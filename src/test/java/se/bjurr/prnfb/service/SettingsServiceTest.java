@@ -1,9 +1,14 @@
 package se.bjurr.prnfb.service;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static se.bjurr.prnfb.http.DeliveryLimits.MAX_CONCURRENT;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.APPROVED;
+import static se.bjurr.prnfb.service.SettingsService.BUTTON_KEY_PREFIX;
+import static se.bjurr.prnfb.service.SettingsService.INDEX_KEY;
+import static se.bjurr.prnfb.service.SettingsService.NOTIFICATION_KEY_PREFIX;
 import static se.bjurr.prnfb.service.SettingsService.STORAGE_KEY;
 import static se.bjurr.prnfb.settings.PrnfbNotificationBuilder.prnfbNotificationBuilder;
 import static se.bjurr.prnfb.settings.PrnfbSettingsBuilder.prnfbSettingsBuilder;
@@ -82,7 +87,7 @@ public class SettingsServiceTest {
     return action.doInTransaction();
    }
   };
-  this.sut = new SettingsService(this.pluginSettingsFactory, this.transactionTemplate, this.securityService);
+  this.sut = newSettingsService();
 
   this.notification1 = prnfbNotificationBuilder()//
     .withUrl("http://hej.com/")//
@@ -125,6 +130,19 @@ public class SettingsServiceTest {
     .isEqualTo(button2.toString());
  }
 
+ @Test
+ public void testThatButtonIsStoredInAKeyOfItsOwn() {
+  PrnfbButton button = new PrnfbButton(null, "title", EVERYONE, "p1", "r1");
+
+  this.sut.addOrUpdateButton(button);
+  assertThat(this.pluginSettings.getPluginSettingsMap())//
+    .containsKey(BUTTON_KEY_PREFIX + button.getUuid());
+
+  this.sut.deleteButton(button.getUuid());
+  assertThat(this.pluginSettings.getPluginSettingsMap())//
+    .doesNotContainKey(BUTTON_KEY_PREFIX + button.getUuid());
+ }
+
  @Test
  public void testThatButtonsCanBeRetrievedByProject() {
   PrnfbButton button1 = populatedInstanceOf(PrnfbButton.class);
@@ -147,6 +165,31 @@ public class SettingsServiceTest {
     .containsOnly(button1);
  }
 
+ @Test
+ public void testThatMigrationOfInvalidLegacySettingsIsOnlyTriedOnce() {
+  PluginSettingsMap withLegacySettings = new PluginSettingsMap() {
+   @Override
+   public Object get(String key) {
+    if (key.equals(se.bjurr.prnfb.settings.legacy.SettingsStorage.STORAGE_KEY)) {
+     // A trigger without URL
+     return newArrayList("[{\"name\":\"FORM_TYPE\",\"value\":\"TRIGGER_CONFIG_FORM\"}]");
+    }
+    return super.get(key);
+   }
+  };
+  when(this.pluginSettingsFactory.createGlobalSettings())//
+    .thenReturn(withLegacySettings);
+  SettingsService settingsService = newSettingsService();
+
+  assertThat(settingsService.getNotifications())//
+    .isEmpty();
+  assertThat(withLegacySettings.getPluginSettingsMap())//
+    .containsKey(INDEX_KEY);
+  PrnfbSettings first = settingsService.getPrnfbSettings();
+  assertThat(settingsService.getPrnfbSettings())//
+    .isSameAs(first);
+ }
+
  @Test
  public void testThatNotificationCanBeAddedUpdatedAndDeleted() throws ValidationException {
   assertThat(this.sut.getButtons())//
@@ -182,6 +225,30 @@ public class SettingsServiceTest {
     .isEqualTo(notification2.hashCode());
  }
 
+ @Test
+ public void testThatNotificationIsStoredInAKeyOfItsOwn() throws ValidationException {
+  this.sut.addOrUpdateNotification(this.notification1);
+  String notification1Key = NOTIFICATION_KEY_PREFIX + this.notification1.getUuid();
+  String stored = this.pluginSettings.getPluginSettingsMap().get(notification1Key);
+
+  PrnfbNotification notification2 = prnfbNotificationBuilder()//
+    .withUrl("http://hej.com/")//
+    .withTrigger(APPROVED)//
+    .build();
+  this.sut.addOrUpdateNotification(notification2);
+  assertThat(this.pluginSettings.getPluginSettingsMap().get(notification1Key))//
+    .isSameAs(stored);
+  assertThat(this.pluginSettings.getPluginSettingsMap().get(INDEX_KEY))//
+    .contains(this.notification1.getUuid().toString())//
+    .contains(notification2.getUuid().toString())//
+    .doesNotContain("hej.com");
+
+  this.sut.deleteNotification(this.notification1.getUuid());
+  assertThat(this.pluginSettings.getPluginSettingsMap())//
+    .doesNotContainKey(notification1Key)//
+    .containsKey(NOTIFICATION_KEY_PREFIX + notification2.getUuid());
+ }
+
  @Test
  public void testThatNotificationsCanBeRetrievedByProject() throws ValidationException {
   this.sut.addOrUpdateNotification(this.notification1);
@@ -244,10 +311,10 @@ public class SettingsServiceTest {
 
   this.sut.setPrnfbSettingsData(newSettings.getPrnfbSettingsData());
 
-  String expectedSettingsString = new Gson().toJson(newSettings);
+  assertThat(newSettingsService().getPrnfbSettings())//
+    .isEqualTo(newSettings);
   assertThat(this.pluginSettings.getPluginSettingsMap().get(STORAGE_KEY))//
-    .isEqualTo(expectedSettingsString);
-
+    .isEqualTo(oldSettingsString);
  }
 
  @Test
@@ -283,6 +350,92 @@ public class SettingsServiceTest {
     .isEqualTo(oldSettings.getPrnfbSettingsData().hashCode());
  }
 
+ @Test
+ public void testThatRegexpsAreCompiledWhenSettingsAreRead() throws ValidationException {
+  PrnfbNotification notification = prnfbNotificationBuilder(this.notification1)//
+    .withFilterString("${PULL_REQUEST_TO_BRANCH}")//
+    .withFilterRegexp("^master$")//
+    .withInjectionUrl("http://hej.com/version")//
+    .withInjectionUrlRegexp("version: (.*)")//
+    .build();
+  PrnfbSettings stored = prnfbSettingsBuilder()//
+    .withNotification(notification)//
+    .build();
+  this.pluginSettings.getPluginSettingsMap().put(STORAGE_KEY, new Gson().toJson(stored));
+
+  PrnfbNotification actual = this.sut.getNotifications().get(0);
+
+  assertThat(actual)//
+    .isEqualTo(notification);
+  assertThat(actual.getFilterPattern().get().pattern())//
+    .isEqualTo("^master$");
+  assertThat(actual.getInjectionUrlPattern().get().pattern())//
+    .isEqualTo("version: (.*)");
+ }
+
+ @Test(expected = ValidationException.class)
+ public void testThatInvalidInjectionUrlRegexpIsRejected() throws ValidationException {
+  prnfbNotificationBuilder(this.notification1)//
+    .withInjectionUrl("http://hej.com/version")//
+    .withInjectionUrlRegexp("version: (.*")//
+    .build();
+ }
+
+ @Test(expected = ValidationException.class)
+ public void testThatTooHighMaxConcurrentIsRejected() throws ValidationException {
+  prnfbNotificationBuilder(this.notification1)//
+    .withMaxConcurrent(MAX_CONCURRENT + 1)//
+    .build();
+ }
+
+ @Test
+ public void testThatSettingsAreNotParsedAgainWhenUnchanged() throws ValidationException {
+  this.sut.addOrUpdateNotification(this.notification1);
+
+  PrnfbSettings first = this.sut.getPrnfbSettings();
+  PrnfbSettings second = this.sut.getPrnfbSettings();
+
+  assertThat(second)//
+    .isSameAs(first);
+ }
+
+ @Test
+ public void testThatSettingsAreParsedAgainWhenChangedByOtherNode() throws ValidationException {
+  this.sut.addOrUpdateNotification(this.notification1);
+  PrnfbSettings before = this.sut.getPrnfbSettings();
+
+  PrnfbSettings changedElsewhere = prnfbSettingsBuilder()//
+    .setPrnfbSettingsData(before.getPrnfbSettingsData())//
+    .build();
+  newSettingsService().deleteNotification(this.notification1.getUuid());
+
+  assertThat(this.sut.getNotifications())//
+    .isEmpty();
+  assertThat(this.sut.getPrnfbSettings())//
+    .isEqualTo(changedElsewhere);
+ }
+
+ @Test
+ public void testThatSettingsAreSplitWhenStoredInOneKey() {
+  PrnfbButton button = new PrnfbButton(null, "title", EVERYONE, "p1", "r1");
+  PrnfbSettings stored = prnfbSettingsBuilder()//
+    .withNotification(this.notification1)//
+    .withButton(button)//
+    .build();
+  String storedString = new Gson().toJson(stored);
+  this.pluginSettings.getPluginSettingsMap().put(STORAGE_KEY, storedString);
+
+  assertThat(this.sut.getPrnfbSettings())//
+    .isEqualTo(stored);
+  assertThat(this.pluginSettings.getPluginSettingsMap())//
+    .containsKey(INDEX_KEY)//
+    .containsKey(NOTIFICATION_KEY_PREFIX + this.notification1.getUuid())//
+    .containsKey(BUTTON_KEY_PREFIX + button.getUuid())//
+    .containsEntry(STORAGE_KEY, storedString);
+  assertThat(newSettingsService().getPrnfbSettings())//
+    .isEqualTo(stored);
+ }
+
  @Test
  public void testThatSettingsCanBeReadWhenNoneAreSaved() {
   this.pluginSettings.getPluginSettingsMap().put(STORAGE_KEY, null);
@@ -292,4 +445,31 @@ public class SettingsServiceTest {
     .isNotNull();
  }
 
+ @Test
+ public void testThatUnchangedNotificationsAreNotParsedAgainWhenChangedByOtherNode() throws ValidationException {
+  PrnfbNotification notification2 = prnfbNotificationBuilder()//
+    .withUrl("http://hej.com/")//
+    .withTrigger(APPROVED)//
+    .build();
+  this.sut.addOrUpdateNotification(this.notification1);
+  this.sut.addOrUpdateNotification(notification2);
+  SettingsService otherNode = newSettingsService();
+  List<PrnfbNotification> before = otherNode.getNotifications();
+
+  PrnfbNotification updated = prnfbNotificationBuilder(notification2)//
+    .withUrl("http://hej2.com/")//
+    .build();
+  this.sut.addOrUpdateNotification(updated);
+
+  List<PrnfbNotification> after = otherNode.getNotifications();
+  assertThat(after)//
+    .containsExactly(this.notification1, updated);
+  assertThat(after.get(0))//
+    .isSameAs(before.get(0));
+ }
+
+ private SettingsService newSettingsService() {
+  return new SettingsService(this.pluginSettingsFactory, this.transactionTemplate, this.securityService);
+ }
+
 }
@@ -0,0 +1,259 @@
+package se.bjurr.prnfb.test;
+
+import static com.atlassian.bitbucket.permission.Permission.ADMIN;
+import static com.atlassian.bitbucket.pull.PullRequestState.OPEN;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.bjurr.prnfb.settings.TRIGGER_IF_MERGE.ALWAYS;
+import static se.bjurr.prnfb.test.Podam.populatedInstanceOf;
+import static se.bjurr.prnfb.transformer.NotificationTransformer.toPrnfbNotification;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.bjurr.prnfb.listener.PrnfbPullRequestAction;
+import se.bjurr.prnfb.presentation.dto.NotificationDTO;
+import se.bjurr.prnfb.service.SettingsService;
+import se.bjurr.prnfb.settings.PrnfbNotification;
+import se.bjurr.prnfb.settings.ValidationException;
+
+import com.atlassian.bitbucket.auth.AuthenticationContext;
+import com.atlassian.bitbucket.permission.Permission;
+import com.atlassian.bitbucket.project.Project;
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestParticipant;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.repository.Repository;
+import com.atlassian.bitbucket.server.ApplicationPropertiesService;
+import com.atlassian.bitbucket.user.ApplicationUser;
+import com.atlassian.bitbucket.user.EscalatedSecurityContext;
+import com.atlassian.bitbucket.user.SecurityService;
+import com.atlassian.bitbucket.util.Operation;
+import com.atlassian.sal.api.pluginsettings.PluginSettings;
+import com.atlassian.sal.api.pluginsettings.PluginSettingsFactory;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.atlassian.sal.api.transaction.TransactionTemplate;
+import com.google.common.base.Defaults;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Fixtures shared by the benchmarks. Objects used in the measured code are stubs rather than Mockito mocks, since a
+ * mock remembers every invocation and would grow, and slow down, during a benchmark.
+ */
+public class BenchmarkFixtures {
+ public static class ConcurrentPluginSettings implements PluginSettings {
+  private final Map<String, Object> settings = new ConcurrentHashMap<>();
+
+  @Override
+  public Object get(String key) {
+   return this.settings.get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+   return this.settings.put(key, value);
+  }
+
+  @Override
+  public Object remove(String key) {
+   return this.settings.remove(key);
+  }
+ }
+
+ private static class PassThroughSecurityContext implements EscalatedSecurityContext {
+  @Override
+  public void applyToRequest() {
+  }
+
+  @Override
+  public <T, E extends Throwable> T call(Operation<T, E> operation) throws E {
+   return operation.perform();
+  }
+
+  @Override
+  public EscalatedSecurityContext withPermission(Object resource, Permission permission) {
+   return this;
+  }
+
+  @Override
+  public EscalatedSecurityContext withPermission(Permission permission) {
+   return this;
+  }
+
+  @Override
+  public EscalatedSecurityContext withPermissions(Set<Permission> permissions) {
+   return this;
+  }
+ }
+
+ public static final String BASE_URL = "http://bitbucket.example.com";
+ /**
+  * Like the post content of a chat notification.
+  */
+ public static final String POST_CONTENT = "{\n" //
+   + " \"text\": \"${PULL_REQUEST_USER_DISPLAY_NAME} ${PULL_REQUEST_ACTION} pull request ${PULL_REQUEST_ID}\",\n" //
+   + " \"attachments\": [{\n" //
+   + "  \"title\": \"${PULL_REQUEST_TITLE}\",\n" //
+   + "  \"title_link\": \"${PULL_REQUEST_URL}\",\n" //
+   + "  \"author_name\": \"${PULL_REQUEST_AUTHOR_DISPLAY_NAME} (${PULL_REQUEST_AUTHOR_EMAIL})\",\n" //
+   + "  \"fields\": [\n" //
+   + "   { \"title\": \"From\", \"value\": \"${PULL_REQUEST_FROM_BRANCH} ${PULL_REQUEST_FROM_HASH}\" },\n" //
+   + "   { \"title\": \"To\", \"value\": \"${PULL_REQUEST_TO_BRANCH} ${PULL_REQUEST_TO_HASH}\" },\n" //
+   + "   { \"title\": \"Repository\",\n" //
+   + "     \"value\": \"${PULL_REQUEST_TO_REPO_PROJECT_KEY}/${PULL_REQUEST_TO_REPO_SLUG}\" },\n" //
+   + "   { \"title\": \"Version\", \"value\": \"${PULL_REQUEST_VERSION}\" }\n" //
+   + "  ]\n" //
+   + " }]\n" //
+   + "}";
+ /**
+  * Like the URL of a build job triggered by a pull request.
+  */
+ public static final String URL = "http://jenkins.example.com/job/${PULL_REQUEST_TO_REPO_SLUG}/buildWithParameters" //
+   + "?FROM=${PULL_REQUEST_FROM_HASH}&FROM_BRANCH=${PULL_REQUEST_FROM_BRANCH}&TO=${PULL_REQUEST_TO_HASH}" //
+   + "&PR=${PULL_REQUEST_ID}&VERSION=${PULL_REQUEST_VERSION}&ACTION=${PULL_REQUEST_ACTION}";
+
+ public static AuthenticationContext authenticationContext() {
+  return stub(AuthenticationContext.class, ImmutableMap.<String, Object> of(//
+    "getCurrentUser", user(1, "admin")));
+ }
+
+ /**
+  * A notification populated by Podam, with values that pass validation and with the given url and trigger. It has
+  * no filter, injection URL or limits, so it is triggered by any pull request.
+  */
+ public static PrnfbNotification populatedNotification(String url, PrnfbPullRequestAction trigger)
+   throws ValidationException {
+  NotificationDTO dto = populatedInstanceOf(NotificationDTO.class);
+  dto.setUuid(null);
+  dto.setUrl(url);
+  dto.setTriggers(newArrayList(trigger.name()));
+  dto.setTriggerIgnoreStateList(Collections.<String> emptyList());
+  dto.setTriggerIfCanMerge(ALWAYS);
+  dto.setFilterRegexp(null);
+  dto.setFilterString(null);
+  dto.setInjectionUrl(null);
+  dto.setInjectionUrlRegexp(null);
+  dto.setProjectKey(null);
+  dto.setRepositorySlug(null);
+  dto.setPostContent(POST_CONTENT);
+  dto.setProxyServer(null);
+  dto.setDebounceSeconds(null);
+  dto.setMaxConcurrent(null);
+  dto.setRateLimitBurst(null);
+  dto.setRateLimitPerSecond(null);
+  return toPrnfbNotification(dto);
+ }
+
+ public static List<PrnfbNotification> populatedNotifications(int count, PrnfbPullRequestAction trigger)
+   throws ValidationException {
+  List<PrnfbNotification> notifications = newArrayList();
+  for (int i = 0; i < count; i++) {
+   notifications.add(populatedNotification(URL + "&N=" + i, trigger));
+  }
+  return notifications;
+ }
+
+ public static ApplicationPropertiesService propertiesService() {
+  return stub(ApplicationPropertiesService.class, ImmutableMap.<String, Object> of(//
+    "getBaseUrl", URI.create(BASE_URL)));
+ }
+
+ /**
+  * An open pull request, with the values used by {@link #POST_CONTENT} and {@link #URL}.
+  */
+ public static PullRequest pullRequest() {
+  Project project = stub(Project.class, ImmutableMap.<String, Object> of(//
+    "getId", 1, //
+    "getKey", "PROJ"));
+  Repository repository = stub(Repository.class, ImmutableMap.<String, Object> of(//
+    "getId", 2, //
+    "getName", "Repository", //
+    "getSlug", "repository", //
+    "getProject", project));
+  PullRequestRef fromRef = stub(PullRequestRef.class, ImmutableMap.<String, Object> of(//
+    "getId", "refs/heads/feature/benchmark", //
+    "getDisplayId", "feature/benchmark", //
+    "getLatestCommit", "2cd4ea0d4b1a4b3c5a1b5f7b7e1c5d4e3f2a1b0c", //
+    "getRepository", repository));
+  PullRequestRef toRef = stub(PullRequestRef.class, ImmutableMap.<String, Object> of(//
+    "getId", "refs/heads/master", //
+    "getDisplayId", "master", //
+    "getLatestCommit", "9f8e7d6c5b4a39281706f5e4d3c2b1a098765432", //
+    "getRepository", repository));
+  PullRequestParticipant author = stub(PullRequestParticipant.class, ImmutableMap.<String, Object> of(//
+    "getUser", user(3, "author")));
+  return stub(PullRequest.class, ImmutableMap.<String, Object> builder()//
+    .put("getId", 4711L)//
+    .put("getVersion", 3)//
+    .put("getTitle", "Make the notifications faster")//
+    .put("getState", OPEN)//
+    .put("isOpen", true)//
+    .put("getFromRef", fromRef)//
+    .put("getToRef", toRef)//
+    .put("getAuthor", author)//
+    .put("getParticipants", Collections.emptySet())//
+    .put("getReviewers", Collections.emptySet())//
+    .build());
+ }
+
+ /**
+  * A {@link SettingsService} storing in memory, with transactions and permissions that just run the operation.
+  */
+ public static SettingsService settingsService(PluginSettings pluginSettings) {
+  PluginSettingsFactory pluginSettingsFactory = mock(PluginSettingsFactory.class);
+  when(pluginSettingsFactory.createGlobalSettings())//
+    .thenReturn(pluginSettings);
+  SecurityService securityService = mock(SecurityService.class);
+  when(securityService.withPermission(ADMIN, "Getting config"))//
+    .thenReturn(new PassThroughSecurityContext());
+  TransactionTemplate transactionTemplate = new TransactionTemplate() {
+   @Override
+   public <T> T execute(TransactionCallback<T> action) {
+    return action.doInTransaction();
+   }
+  };
+  return new SettingsService(pluginSettingsFactory, transactionTemplate, securityService);
+ }
+
+ /**
+  * Implements the interface by returning the given values, by method name. Other methods return null, or the default
+  * of their primitive type.
+  */
+ public static <T> T stub(Class<T> type, final Map<String, ?> returnValues) {
+  return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+   @Override
+   public Object invoke(Object proxy, Method method, Object[] args) {
+    if (method.getName().equals("equals")) {
+     return proxy == args[0];
+    }
+    if (method.getName().equals("hashCode")) {
+     return System.identityHashCode(proxy);
+    }
+    if (method.getName().equals("toString")) {
+     return type.getSimpleName() + returnValues;
+    }
+    if (returnValues.containsKey(method.getName())) {
+     return returnValues.get(method.getName());
+    }
+    return Defaults.defaultValue(method.getReturnType());
+   }
+  }));
+ }
+
+ public static ApplicationUser user(int id, String name) {
+  return stub(ApplicationUser.class, ImmutableMap.<String, Object> of(//
+    "getId", id, //
+    "getName", name, //
+    "getSlug", name, //
+    "getDisplayName", "The " + name, //
+    "getEmailAddress", name + "@example.com"));
+ }
+}
@@ -3,6 +3,7 @@ package se.bjurr.prnfb.transformer;
 import static com.atlassian.bitbucket.pull.PullRequestState.DECLINED;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.prnfb.http.DeliveryLimits.MAX_CONCURRENT;
 import static se.bjurr.prnfb.listener.PrnfbPullRequestAction.MERGED;
 import static se.bjurr.prnfb.test.Podam.populatedInstanceOf;
 import static se.bjurr.prnfb.transformer.NotificationTransformer.toNotificationDto;
@@ -22,6 +23,7 @@ public class NotificationTransformerTest {
   originalDto.setUrl("http://hej.com/");
   originalDto.setTriggerIgnoreStateList(Lists.newArrayList(DECLINED.name()));
   originalDto.setTriggers(newArrayList(MERGED.name()));
+  originalDto.setMaxConcurrent(MAX_CONCURRENT);
   NotificationDTO retransformedDto = toNotificationDto(toPrnfbNotification(originalDto));
 
   assertThat(retransformedDto)//